@@ -0,0 +1,77 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the headline numbers of a run with an earlier results file. A metric regresses when it
+ * is worse than the baseline by more than the tolerance, as a fraction of the baseline value.
+ */
+final class BaselineComparison {
+
+    private final List<Map<String, Object>> metrics = new ArrayList<>();
+    private final double tolerance;
+    private int regressions;
+
+    private BaselineComparison(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    static BaselineComparison compare(JsonNode baseline, JsonNode current, double tolerance) {
+        BaselineComparison comparison = new BaselineComparison(tolerance);
+        comparison.check(baseline, current, "/http/throughputPerSecond", true);
+        comparison.check(baseline, current, "/flow/throughputPerSecond", true);
+        for (double percentile : Latencies.PERCENTILES) {
+            comparison.check(baseline, current, "/http/latency/" + Latencies.key(percentile), false);
+        }
+        for (Iterator<String> stages = current.path("stages").fieldNames(); stages.hasNext(); ) {
+            String stage = stages.next();
+            comparison.check(baseline, current, "/stages/" + stage + "/p50Ms", false);
+            comparison.check(baseline, current, "/stages/" + stage + "/p99Ms", false);
+        }
+        for (Iterator<String> services = current.path("services").fieldNames(); services.hasNext(); ) {
+            String service = services.next();
+            comparison.check(baseline, current, "/services/" + service + "/allocatedBytesPerOrder", false);
+            comparison.check(baseline, current, "/services/" + service + "/gcPauseMs", false);
+        }
+        return comparison;
+    }
+
+    private void check(JsonNode baseline, JsonNode current, String pointer, boolean higherIsBetter) {
+        JsonNode before = baseline.at(pointer);
+        JsonNode after = current.at(pointer);
+        // Only compare what both runs measured
+        if (!before.isNumber() || !after.isNumber() || before.doubleValue() == 0) {
+            return;
+        }
+        double change = (after.doubleValue() - before.doubleValue()) / before.doubleValue();
+        boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+        if (regressed) {
+            regressions++;
+        }
+        Map<String, Object> metric = new LinkedHashMap<>();
+        metric.put("metric", pointer);
+        metric.put("baseline", before.doubleValue());
+        metric.put("current", after.doubleValue());
+        metric.put("changePercent", Latencies.round(change * 100));
+        metric.put("regressed", regressed);
+        metrics.add(metric);
+    }
+
+    int getRegressions() {
+        return regressions;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tolerancePercent", Latencies.round(tolerance * 100));
+        map.put("regressions", regressions);
+        map.put("metrics", metrics);
+        return map;
+    }
+}
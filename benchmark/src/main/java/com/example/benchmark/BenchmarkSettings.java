@@ -0,0 +1,129 @@
+package com.example.benchmark;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark settings, read from {@code -Dbenchmark.*} system properties.
+ */
+final class BenchmarkSettings {
+
+    static final String PREFIX = "benchmark.";
+
+    private final int ratePerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration drainTimeout;
+    private final Duration startupTimeout;
+    private final Path ordersJar;
+    private final Path paymentsJar;
+    private final Path notificationsJar;
+    private final List<String> jvmArgs;
+    private final List<String> serviceArgs;
+    private final Path output;
+    private final Path baseline;
+    private final double tolerance;
+
+    private BenchmarkSettings() {
+        ratePerSecond = Integer.getInteger(PREFIX + "rate", 200);
+        warmup = Duration.ofSeconds(Long.getLong(PREFIX + "warmup-seconds", 20));
+        duration = Duration.ofSeconds(Long.getLong(PREFIX + "duration-seconds", 60));
+        drainTimeout = Duration.ofSeconds(Long.getLong(PREFIX + "drain-timeout-seconds", 60));
+        startupTimeout = Duration.ofSeconds(Long.getLong(PREFIX + "startup-timeout-seconds", 180));
+        ordersJar = Path.of(System.getProperty(PREFIX + "orders-jar",
+                "../orders-services/target/orders-services-0.0.1-SNAPSHOT.jar"));
+        paymentsJar = Path.of(System.getProperty(PREFIX + "payments-jar",
+                "../payment-services/target/payment-services-0.0.1-SNAPSHOT.jar"));
+        notificationsJar = Path.of(System.getProperty(PREFIX + "notifications-jar",
+                "../notifications-service/target/notifications-service-0.0.1-SNAPSHOT.jar"));
+        jvmArgs = split(System.getProperty(PREFIX + "jvm-args", "-Xms512m -Xmx512m -XX:+UseG1GC"));
+        serviceArgs = split(System.getProperty(PREFIX + "service-args", ""));
+        output = Path.of(System.getProperty(PREFIX + "output", "target/benchmark/results.json"));
+        String baselineFile = System.getProperty(PREFIX + "baseline", "");
+        baseline = baselineFile.isBlank() ? null : Path.of(baselineFile);
+        tolerance = Double.parseDouble(System.getProperty(PREFIX + "tolerance", "0.10"));
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException(PREFIX + "rate must be positive");
+        }
+    }
+
+    static BenchmarkSettings fromSystemProperties() {
+        return new BenchmarkSettings();
+    }
+
+    private static List<String> split(String value) {
+        return value.isBlank() ? List.of() : new ArrayList<>(Arrays.asList(value.trim().split("\\s+")));
+    }
+
+    /**
+     * The settings that shape the results, recorded next to them so runs are only compared like for like.
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("ratePerSecond", ratePerSecond);
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("jvmArgs", String.join(" ", jvmArgs));
+        settings.put("serviceArgs", String.join(" ", serviceArgs));
+        settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        settings.put("javaVersion", System.getProperty("java.version"));
+        return settings;
+    }
+
+    int getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    Duration getStartupTimeout() {
+        return startupTimeout;
+    }
+
+    Path getOrdersJar() {
+        return ordersJar;
+    }
+
+    Path getPaymentsJar() {
+        return paymentsJar;
+    }
+
+    Path getNotificationsJar() {
+        return notificationsJar;
+    }
+
+    List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+
+    List<String> getServiceArgs() {
+        return serviceArgs;
+    }
+
+    Path getOutput() {
+        return output;
+    }
+
+    Path getBaseline() {
+        return baseline;
+    }
+
+    double getTolerance() {
+        return tolerance;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Percentile summaries in the shape used throughout the results file: {@code p50Ms}, ... {@code p99.9Ms}.
+ */
+final class Latencies {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private Latencies() {
+    }
+
+    /**
+     * Summarises a histogram of microsecond values.
+     */
+    static Map<String, Object> ofMicros(Histogram histogram) {
+        Map<String, Object> summary = of(histogram.getTotalCount(),
+                percentile -> histogram.getValueAtPercentile(percentile) / 1000.0);
+        summary.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+        summary.put("meanMs", round(histogram.getMean() / 1000.0));
+        return summary;
+    }
+
+    /**
+     * Summarises {@code count} values through a function from percentile (0-100) to milliseconds.
+     */
+    static Map<String, Object> of(long count, DoubleUnaryOperator millisAtPercentile) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        for (double percentile : PERCENTILES) {
+            summary.put(key(percentile), count == 0 ? 0.0 : round(millisAtPercentile.applyAsDouble(percentile)));
+        }
+        return summary;
+    }
+
+    // 50 -> "p50Ms", 99.9 -> "p99.9Ms"
+    static String key(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile)) + "Ms";
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
+import java.util.function.LongFunction;
+
+/**
+ * Sends requests at a fixed arrival rate, whether or not earlier ones have been answered
+ * (an open model: users keep arriving when the system slows down, unlike a fixed pool of clients
+ * that each wait for their previous response).
+ * <p>
+ * Each request is scheduled for {@code start + i / rate}, and its latency is measured from that
+ * intended time rather than from when it was actually sent. A stall in the service, or in this
+ * generator, therefore shows up in the latency of every request that should have been sent
+ * during it, instead of being hidden by the requests that were never sent (coordinated omission).
+ */
+final class OpenModelLoad {
+
+    private final HttpClient client;
+    private final int ratePerSecond;
+    private final LongFunction<HttpRequest> requests;
+    private final IntPredicate success;
+
+    /**
+     * @param requests builds the request with the given sequence number
+     * @param success  whether a response status counts as a success
+     */
+    OpenModelLoad(HttpClient client, int ratePerSecond, LongFunction<HttpRequest> requests, IntPredicate success) {
+        this.client = client;
+        this.ratePerSecond = ratePerSecond;
+        this.requests = requests;
+        this.success = success;
+    }
+
+    /**
+     * Offers load for {@code duration}, then waits up to {@code drainTimeout} for outstanding responses;
+     * those still missing by then count as failed, with a latency up to the end of the wait, so the
+     * slowest requests are not left out of the percentiles.
+     */
+    Result run(Duration duration, Duration drainTimeout) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        int total = (int) Math.max(1, duration.toNanos() / intervalNanos);
+        Histogram latencies = new ConcurrentHistogram(3);
+        Histogram sendLag = new Histogram(3);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong lastCompletion = new AtomicLong();
+        CountDownLatch outstanding = new CountDownLatch(total);
+        // Set once per request, by its response or by the end of the drain, whichever comes first
+        AtomicIntegerArray settled = new AtomicIntegerArray(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            int sequence = i;
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            sendLag.recordValue((System.nanoTime() - intended) / 1000);
+            client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (!settled.compareAndSet(sequence, 0, 1)) {
+                            return;
+                        }
+                        long now = System.nanoTime();
+                        latencies.recordValue((now - intended) / 1000);
+                        if (error != null || !success.test(response.statusCode())) {
+                            failed.incrementAndGet();
+                        }
+                        lastCompletion.accumulateAndGet(now, Math::max);
+                        outstanding.countDown();
+                    });
+        }
+        long offeredNanos = total * intervalNanos;
+        outstanding.await(drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        long drainEnd = System.nanoTime();
+        int unanswered = 0;
+        for (int i = 0; i < total; i++) {
+            if (settled.compareAndSet(i, 0, 1)) {
+                latencies.recordValue((drainEnd - (start + i * intervalNanos)) / 1000);
+                unanswered++;
+            }
+        }
+        long elapsedNanos = Math.max(lastCompletion.get(), start + offeredNanos) - start;
+        return new Result(total, failed.get() + unanswered, unanswered, offeredNanos, elapsedNanos,
+                latencies.copy(), sendLag);
+    }
+
+    static final class Result {
+        private final int requests;
+        private final int failed;
+        private final int unanswered;
+        private final long offeredNanos;
+        private final long elapsedNanos;
+        private final Histogram latencies;
+        private final Histogram sendLag;
+
+        private Result(int requests, int failed, int unanswered, long offeredNanos, long elapsedNanos,
+                       Histogram latencies, Histogram sendLag) {
+            this.requests = requests;
+            this.failed = failed;
+            this.unanswered = unanswered;
+            this.offeredNanos = offeredNanos;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.sendLag = sendLag;
+        }
+
+        int getRequests() {
+            return requests;
+        }
+
+        int getSucceeded() {
+            return requests - failed;
+        }
+
+        int getFailed() {
+            return failed;
+        }
+
+        /**
+         * Latency from each request's intended send time to its response, in microseconds;
+         * for unanswered requests, to the end of the drain.
+         */
+        Histogram getLatencies() {
+            return latencies;
+        }
+
+        /**
+         * How late the generator itself sent each request, in microseconds; should stay near zero.
+         */
+        Histogram getSendLag() {
+            return sendLag;
+        }
+
+        double getOfferedPerSecond() {
+            return requests / (offeredNanos / 1e9);
+        }
+
+        /**
+         * Successful responses per second, from the first send to the last response.
+         */
+        double getThroughputPerSecond() {
+            return getSucceeded() / (elapsedNanos / 1e9);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", requests);
+            map.put("succeeded", getSucceeded());
+            map.put("failed", failed);
+            map.put("unanswered", unanswered);
+            map.put("offeredPerSecond", Latencies.round(getOfferedPerSecond()));
+            map.put("throughputPerSecond", Latencies.round(getThroughputPerSecond()));
+            map.put("latency", Latencies.ofMicros(latencies));
+            Map<String, Object> lag = new LinkedHashMap<>();
+            lag.put("p99Ms", Latencies.round(sendLag.getValueAtPercentile(99) / 1000.0));
+            lag.put("maxMs", Latencies.round(sendLag.getMaxValue() / 1000.0));
+            map.put("sendLag", lag);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end benchmark of the order flow: POST /api/orders on the orders service, order-events
+ * to the payments service, payment-events back to orders and, joined with the order by the
+ * payments service's streams topology, on to notifications as order-payment-events.
+ * <p>
+ * The three services run from their executable jars, each in its own JVM, against an embedded
+ * Kafka broker and an in-memory MongoDB stand-in (mongo-java-server) started here, so the numbers
+ * cover the services' own code, serialization and Kafka, but not a real database's I/O.
+ * Orders arrive at a fixed rate ({@link OpenModelLoad}) through a warm-up and then a measured
+ * period; after each, the benchmark waits for the notifications service to have seen every order.
+ * <p>
+ * The results file records:
+ * <ul>
+ *   <li>{@code http}: POST /api/orders throughput and latency from each request's intended send time</li>
+ *   <li>{@code flow}: orders per second through to the notifications service</li>
+ *   <li>{@code stages}: latency per stage from the services' event latency histograms
+ *       ({@code <service>:<topic>:hop|end-to-end}), which time events from creation
+ *       timestamps and so include queueing</li>
+ *   <li>{@code services}: bytes allocated (also per order), bytes promoted, GC pauses and CPU per service</li>
+ *   <li>{@code comparison}: the change against {@code -Dbenchmark.baseline}, when given</li>
+ * </ul>
+ * Only the measured period counts: every service is scraped before and after it, and the difference is reported.
+ * Exits with status 1 when a metric regressed beyond {@code -Dbenchmark.tolerance}.
+ * <pre>
+ * (cd ../orders-services &amp;&amp; mvn package -DskipTests) ... likewise payments and notifications
+ * mvn package &amp;&amp; java -Dbenchmark.rate=200 -Dbenchmark.duration-seconds=60 -jar target/benchmark.jar
+ * </pre>
+ */
+public final class OrderFlowBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(OrderFlowBenchmark.class);
+
+    private static final String ORDERS = "orders-service";
+    private static final String PAYMENTS = "payment-service";
+    private static final String NOTIFICATIONS = "notifications-service";
+    // Created up front with the services' default partitions; otherwise a consumer that starts before the
+    // producing service gets an auto-created single-partition topic, and keeps it until its next metadata refresh
+    private static final String[] TOPICS = {"order-events", "payment-events", "order-payment-events"};
+    private static final int PARTITIONS = 12;
+    private static final String[] STAGES = {"hop", "end-to-end"};
+    private static final Duration FLOW_POLL_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final BenchmarkSettings settings;
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, ServiceProcess> services = new LinkedHashMap<>();
+
+    private OrderFlowBenchmark(BenchmarkSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int regressions = new OrderFlowBenchmark(BenchmarkSettings.fromSystemProperties()).run();
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * Runs the benchmark and writes the results file; returns the number of regressions against the baseline.
+     */
+    private int run() throws Exception {
+        Path resultsDir = settings.getOutput().toAbsolutePath().getParent();
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPICS);
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        try {
+            kafka.afterPropertiesSet();
+            InetSocketAddress mongoAddress = mongo.bind();
+            String mongoUri = "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/";
+            log.info("Kafka at {}, MongoDB stand-in at {}", kafka.getBrokersAsString(), mongoUri);
+
+            // Consumers first, so nothing the orders service publishes waits for them to start
+            start(NOTIFICATIONS, settings.getNotificationsJar(), kafka, mongoUri + "notificationsdb", resultsDir);
+            // A fresh state directory, so the join's order store does not outlive the run
+            start(PAYMENTS, settings.getPaymentsJar(), kafka, mongoUri + "paymentsdb", resultsDir,
+                    "--spring.kafka.streams.state-dir=" + Files.createTempDirectory("payment-service-streams"));
+            // Nor explain, which the index check runs on startup
+            start(ORDERS, settings.getOrdersJar(), kafka, mongoUri + "ordersdb", resultsDir,
+                    "--orders.indexes.verify-query-plans=false", "--common.ids.single-instance=true");
+
+            OpenModelLoad load = new OpenModelLoad(client, settings.getRatePerSecond(), this::createOrder,
+                    status -> status == 201);
+
+            log.info("Warming up for {}s at {} orders/s", settings.getWarmup().toSeconds(), settings.getRatePerSecond());
+            OpenModelLoad.Result warmup = load.run(settings.getWarmup(), settings.getDrainTimeout());
+            awaitFlow(scrapeAll().get(NOTIFICATIONS), warmup.getSucceeded());
+
+            Map<String, PrometheusScrape> before = scrapeAll();
+            log.info("Measuring for {}s at {} orders/s", settings.getDuration().toSeconds(), settings.getRatePerSecond());
+            long start = System.nanoTime();
+            OpenModelLoad.Result measured = load.run(settings.getDuration(), settings.getDrainTimeout());
+            long loadEnd = System.nanoTime();
+            long completed = awaitFlow(before.get(NOTIFICATIONS), measured.getSucceeded());
+            long end = System.nanoTime();
+            Map<String, PrometheusScrape> after = scrapeAll();
+
+            Map<String, Object> results = results(measured, completed, end - start, end - loadEnd, before, after);
+            int regressions = compareWithBaseline(results);
+            write(results);
+            log.info("POST /api/orders: {}", results.get("http"));
+            log.info("Flow: {}", results.get("flow"));
+            log.info("Results written to {}", settings.getOutput().toAbsolutePath());
+            return regressions;
+        } finally {
+            stopServices();
+            kafka.destroy();
+            mongo.shutdownNow();
+        }
+    }
+
+    private void start(String name, Path jar, EmbeddedKafkaKraftBroker kafka, String mongoUri, Path logDir,
+                       String... extraArgs) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString());
+        args.add("--spring.data.mongodb.uri=" + mongoUri);
+        // The stand-in does not implement the hello command the Mongo health check runs
+        args.add("--management.health.mongo.enabled=false");
+        args.addAll(List.of(extraArgs));
+        args.addAll(settings.getServiceArgs());
+        log.info("Starting {} from {}", name, jar);
+        ServiceProcess service = ServiceProcess.start(name, jar, settings.getJvmArgs(), args, logDir, client);
+        services.put(name, service);
+        service.awaitHealthy(settings.getStartupTimeout());
+    }
+
+    private void stopServices() {
+        List<ServiceProcess> running = new ArrayList<>(services.values());
+        for (int i = running.size() - 1; i >= 0; i--) {
+            try {
+                running.get(i).close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private HttpRequest createOrder(long sequence) {
+        String body = "{\"productName\":\"Laptop\",\"quantity\":" + (1 + sequence % 3)
+                + ",\"price\":999.99,\"customerEmail\":\"customer-" + sequence % 1000 + "@example.com\"}";
+        return HttpRequest.newBuilder(services.get(ORDERS).uri("/api/orders"))
+                .timeout(HTTP_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private Map<String, PrometheusScrape> scrapeAll() throws InterruptedException {
+        Map<String, PrometheusScrape> scrapes = new LinkedHashMap<>();
+        for (ServiceProcess service : services.values()) {
+            scrapes.put(service.getName(), PrometheusScrape.parse(service.scrape()));
+        }
+        return scrapes;
+    }
+
+    /**
+     * Waits until the notifications service has received payment events for {@code orders} more
+     * orders than in {@code since}, or until it stops making progress for the drain timeout.
+     * Returns how many it received.
+     */
+    private long awaitFlow(PrometheusScrape since, long orders) throws InterruptedException {
+        String counter = meterPrefix(NOTIFICATIONS) + "_event_latency_end_to_end_seconds_count";
+        double baseline = since.sum(counter);
+        long received = 0;
+        long lastProgress = System.nanoTime();
+        while (received < orders && System.nanoTime() - lastProgress < settings.getDrainTimeout().toNanos()) {
+            Thread.sleep(FLOW_POLL_INTERVAL.toMillis());
+            long now = Math.round(PrometheusScrape.parse(services.get(NOTIFICATIONS).scrape()).sum(counter) - baseline);
+            if (now > received) {
+                received = now;
+                lastProgress = System.nanoTime();
+            }
+        }
+        if (received < orders) {
+            log.warn("Notifications service saw {} of {} orders before the flow stalled", received, orders);
+        }
+        return received;
+    }
+
+    private Map<String, Object> results(OpenModelLoad.Result http, long completed, long windowNanos, long drainNanos,
+                                        Map<String, PrometheusScrape> before, Map<String, PrometheusScrape> after) {
+        double windowSeconds = windowNanos / 1e9;
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("settings", settings.describe());
+        results.put("http", http.toMap());
+
+        Map<String, Object> flow = new LinkedHashMap<>();
+        flow.put("orders", http.getSucceeded());
+        flow.put("completed", completed);
+        flow.put("throughputPerSecond", Latencies.round(completed / windowSeconds));
+        flow.put("drainMs", Latencies.round(drainNanos / 1e6));
+        results.put("flow", flow);
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (String service : services.keySet()) {
+            for (String stage : STAGES) {
+                String buckets = meterPrefix(service) + "_event_latency_" + stage.replace('-', '_') + "_seconds_bucket";
+                Map<String, PrometheusScrape.Buckets> earlier = before.get(service).histograms(buckets, "topic");
+                after.get(service).histograms(buckets, "topic").forEach((topic, histogram) -> {
+                    PrometheusScrape.Buckets delta = histogram.minus(earlier.getOrDefault(topic, PrometheusScrape.Buckets.empty()));
+                    if (delta.count() > 0) {
+                        Map<String, Object> summary = Latencies.of(delta.count(), p -> delta.valueAtPercentile(p) * 1000);
+                        summary.put("throughputPerSecond", Latencies.round(delta.count() / windowSeconds));
+                        stages.put(service + ":" + topic + ":" + stage, summary);
+                    }
+                });
+            }
+        }
+        results.put("stages", stages);
+
+        Map<String, Object> resources = new LinkedHashMap<>();
+        for (String service : services.keySet()) {
+            resources.put(service, resources(before.get(service), after.get(service), http.getSucceeded(), windowSeconds));
+        }
+        results.put("services", resources);
+        return results;
+    }
+
+    private static Map<String, Object> resources(PrometheusScrape before, PrometheusScrape after, int orders, double windowSeconds) {
+        double allocated = delta(before, after, "jvm_gc_memory_allocated_bytes_total");
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("allocatedBytes", Math.round(allocated));
+        stats.put("allocatedBytesPerOrder", orders == 0 ? 0 : Math.round(allocated / orders));
+        stats.put("allocationRateMbPerSecond", Latencies.round(allocated / windowSeconds / (1024 * 1024)));
+        stats.put("promotedBytes", Math.round(delta(before, after, "jvm_gc_memory_promoted_bytes_total")));
+        stats.put("gcPauses", Math.round(delta(before, after, "jvm_gc_pause_seconds_count")));
+        stats.put("gcPauseMs", Latencies.round(delta(before, after, "jvm_gc_pause_seconds_sum") * 1000));
+        stats.put("gcConcurrentMs", Latencies.round(delta(before, after, "jvm_gc_concurrent_phase_time_seconds_sum") * 1000));
+        stats.put("cpuSeconds", Latencies.round(delta(before, after, "process_cpu_time_ns_total") / 1e9));
+        stats.put("heapUsedMb", Latencies.round(after.sum("jvm_memory_used_bytes", labels -> "heap".equals(labels.get("area"))) / (1024 * 1024)));
+        return stats;
+    }
+
+    private static double delta(PrometheusScrape before, PrometheusScrape after, String name) {
+        return after.sum(name) - before.sum(name);
+    }
+
+    // "orders-service" -> "orders_service", as Micrometer names it for Prometheus
+    private static String meterPrefix(String service) {
+        return service.replace('-', '_');
+    }
+
+    private int compareWithBaseline(Map<String, Object> results) throws IOException {
+        Path baselineFile = settings.getBaseline();
+        if (baselineFile == null) {
+            return 0;
+        }
+        JsonNode baseline = mapper.readTree(baselineFile.toFile());
+        JsonNode current = mapper.valueToTree(settings.describe());
+        for (Iterator<String> names = current.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!current.get(name).equals(baseline.path("settings").path(name))) {
+                log.warn("Baseline was run with {}={}, this run with {}", name, baseline.path("settings").path(name), current.get(name));
+            }
+        }
+        BaselineComparison comparison = BaselineComparison.compare(baseline, mapper.valueToTree(results), settings.getTolerance());
+        results.put("comparison", comparison.toMap());
+        if (comparison.getRegressions() > 0) {
+            log.warn("{} metric(s) regressed against {} by more than {}%", comparison.getRegressions(), baselineFile,
+                    Latencies.round(settings.getTolerance() * 100));
+        }
+        return comparison.getRegressions();
+    }
+
+    private void write(Map<String, Object> results) throws IOException {
+        Path output = settings.getOutput();
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        mapper.writeValue(output.toFile(), results);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * A parsed /actuator/prometheus scrape (text exposition format). Two scrapes of the same service,
+ * taken before and after a run, give the counters and histograms for just that run by difference.
+ */
+final class PrometheusScrape {
+
+    private final Map<String, List<Sample>> samplesByName;
+
+    private PrometheusScrape(Map<String, List<Sample>> samplesByName) {
+        this.samplesByName = samplesByName;
+    }
+
+    static PrometheusScrape parse(String text) {
+        Map<String, List<Sample>> samples = new HashMap<>();
+        for (String line : text.split("\n")) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Sample sample = Sample.parse(line);
+            samples.computeIfAbsent(sample.name, name -> new ArrayList<>()).add(sample);
+        }
+        return new PrometheusScrape(samples);
+    }
+
+    /**
+     * Sum of the samples named {@code name}, across all their label values.
+     */
+    double sum(String name) {
+        return sum(name, labels -> true);
+    }
+
+    double sum(String name, Predicate<Map<String, String>> labels) {
+        double sum = 0;
+        for (Sample sample : samplesByName.getOrDefault(name, List.of())) {
+            if (labels.test(sample.labels) && !Double.isNaN(sample.value)) {
+                sum += sample.value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * The histograms whose buckets are named {@code bucketName} (ending in _bucket), by the value of {@code label}.
+     * Series sharing a label value are added together.
+     */
+    Map<String, Buckets> histograms(String bucketName, String label) {
+        Map<String, TreeMap<Double, Double>> byLabel = new TreeMap<>();
+        for (Sample sample : samplesByName.getOrDefault(bucketName, List.of())) {
+            String le = sample.labels.get("le");
+            String key = sample.labels.get(label);
+            if (le == null || key == null) {
+                continue;
+            }
+            double bound = "+Inf".equals(le) ? Double.POSITIVE_INFINITY : Double.parseDouble(le);
+            byLabel.computeIfAbsent(key, k -> new TreeMap<>()).merge(bound, sample.value, Double::sum);
+        }
+        Map<String, Buckets> histograms = new TreeMap<>();
+        byLabel.forEach((key, buckets) -> histograms.put(key, new Buckets(buckets)));
+        return histograms;
+    }
+
+    /**
+     * Cumulative histogram buckets: upper bound to the number of observations at or below it.
+     */
+    static final class Buckets {
+        private static final Buckets EMPTY = new Buckets(new TreeMap<>());
+
+        private final TreeMap<Double, Double> cumulative;
+
+        Buckets(TreeMap<Double, Double> cumulative) {
+            this.cumulative = cumulative;
+        }
+
+        static Buckets empty() {
+            return EMPTY;
+        }
+
+        long count() {
+            return cumulative.isEmpty() ? 0 : Math.round(cumulative.lastEntry().getValue());
+        }
+
+        /**
+         * The observations made since {@code earlier}, a scrape of the same histogram.
+         */
+        Buckets minus(Buckets earlier) {
+            TreeMap<Double, Double> delta = new TreeMap<>();
+            cumulative.forEach((bound, count) -> delta.put(bound, count - earlier.cumulative.getOrDefault(bound, 0.0)));
+            return new Buckets(delta);
+        }
+
+        /**
+         * The value below which {@code percentile} (0-100) of the observations fall, interpolating
+         * linearly within the bucket it lands in; accurate to the bucket boundaries.
+         */
+        double valueAtPercentile(double percentile) {
+            long count = count();
+            if (count == 0) {
+                return 0;
+            }
+            double rank = Math.max(1, Math.ceil(percentile / 100 * count));
+            double lowerBound = 0;
+            double lowerCount = 0;
+            for (Map.Entry<Double, Double> bucket : cumulative.entrySet()) {
+                double upperBound = bucket.getKey();
+                double upperCount = bucket.getValue();
+                if (upperCount >= rank) {
+                    if (Double.isInfinite(upperBound)) {
+                        return lowerBound;
+                    }
+                    double fraction = upperCount == lowerCount ? 1 : (rank - lowerCount) / (upperCount - lowerCount);
+                    return lowerBound + (upperBound - lowerBound) * fraction;
+                }
+                lowerBound = upperBound;
+                lowerCount = upperCount;
+            }
+            return lowerBound;
+        }
+    }
+
+    private static final class Sample {
+        private final String name;
+        private final Map<String, String> labels;
+        private final double value;
+
+        private Sample(String name, Map<String, String> labels, double value) {
+            this.name = name;
+            this.labels = labels;
+            this.value = value;
+        }
+
+        // name{label="value",...} 1.0E-4 [timestamp]
+        static Sample parse(String line) {
+            int brace = line.indexOf('{');
+            int space = line.indexOf(' ');
+            if (brace < 0 || brace > space) {
+                String[] parts = line.split("\\s+");
+                return new Sample(parts[0], Collections.emptyMap(), parseValue(parts[1]));
+            }
+            Map<String, String> labels = new HashMap<>();
+            int i = brace + 1;
+            while (line.charAt(i) != '}') {
+                int equals = line.indexOf('=', i);
+                String key = line.substring(i, equals).strip();
+                StringBuilder value = new StringBuilder();
+                int j = equals + 2;
+                for (char c; (c = line.charAt(j)) != '"'; j++) {
+                    if (c == '\\') {
+                        c = line.charAt(++j);
+                        value.append(c == 'n' ? '\n' : c);
+                    } else {
+                        value.append(c);
+                    }
+                }
+                labels.put(key, value.toString());
+                i = j + 1;
+                if (line.charAt(i) == ',') {
+                    i++;
+                }
+            }
+            String[] rest = line.substring(i + 1).strip().split("\\s+");
+            return new Sample(line.substring(0, brace), labels, parseValue(rest[0]));
+        }
+
+        private static double parseValue(String value) {
+            return switch (value) {
+                case "+Inf" -> Double.POSITIVE_INFINITY;
+                case "-Inf" -> Double.NEGATIVE_INFINITY;
+                case "NaN" -> Double.NaN;
+                default -> Double.parseDouble(value);
+            };
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One service running from its executable jar in a JVM of its own, on a free port, with its
+ * console output in {@code <name>.log} next to the results file.
+ */
+final class ServiceProcess implements AutoCloseable {
+
+    private static final Duration HEALTH_POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String name;
+    private final int port;
+    private final Process process;
+    private final Path log;
+    private final HttpClient client;
+
+    private ServiceProcess(String name, int port, Process process, Path log, HttpClient client) {
+        this.name = name;
+        this.port = port;
+        this.process = process;
+        this.log = log;
+        this.client = client;
+    }
+
+    static ServiceProcess start(String name, Path jar, List<String> jvmArgs, List<String> args,
+                                Path logDir, HttpClient client) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(name + " jar not found at " + jar.toAbsolutePath()
+                    + "; build it with mvn package, or point " + BenchmarkSettings.PREFIX + "*-jar at it");
+        }
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.addAll(args);
+
+        Files.createDirectories(logDir);
+        Path log = logDir.resolve(name + ".log");
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        // Plain text logs are easier to read when a run goes wrong
+        builder.environment().put("LOG_STRUCTURED_FORMAT", "");
+        return new ServiceProcess(name, port, builder.start(), log, client);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Waits for /actuator/health to answer 200, failing early if the process exits.
+     */
+    void awaitHealthy(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(uri("/actuator/health")).timeout(HEALTH_POLL_INTERVAL.multipliedBy(4)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + " during startup, see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(HEALTH_POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException(name + " not healthy after " + timeout.toSeconds() + "s, see " + log);
+    }
+
+    /**
+     * Returns the Prometheus exposition of the service's meters.
+     */
+    String scrape() throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/actuator/prometheus")).GET().build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(name + " /actuator/prometheus answered " + response.statusCode());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scrape " + name, e);
+        }
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        // SIGTERM, so the services shut down gracefully and flush what they buffer
+        process.destroy();
+        if (!process.waitFor(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
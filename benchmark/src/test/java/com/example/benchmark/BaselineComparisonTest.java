@@ -0,0 +1,41 @@
+package com.example.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BaselineComparisonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void flagsOnlyChangesBeyondTheToleranceInTheWrongDirection() throws Exception {
+        JsonNode baseline = mapper.readTree("""
+                {"http": {"throughputPerSecond": 200, "latency": {"p50Ms": 10, "p99Ms": 40}},
+                 "stages": {"payment-service:order-events:hop": {"p50Ms": 5, "p99Ms": 20}},
+                 "services": {"orders-service": {"allocatedBytesPerOrder": 100000, "gcPauseMs": 50}}}
+                """);
+        JsonNode current = mapper.readTree("""
+                {"http": {"throughputPerSecond": 170, "latency": {"p50Ms": 10.5, "p99Ms": 30}},
+                 "stages": {"payment-service:order-events:hop": {"p50Ms": 5, "p99Ms": 30},
+                            "notifications-service:payment-events:hop": {"p50Ms": 5, "p99Ms": 20}},
+                 "services": {"orders-service": {"allocatedBytesPerOrder": 80000, "gcPauseMs": 0}}}
+                """);
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, 0.10);
+
+        // Throughput down 15% and stage p99 up 50%; p50 up 5% is within tolerance, the rest improved
+        assertEquals(2, comparison.getRegressions());
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> metrics = (List<Map<String, Object>>) comparison.toMap().get("metrics");
+        List<Object> regressed = metrics.stream().filter(m -> (Boolean) m.get("regressed")).map(m -> m.get("metric")).toList();
+        assertEquals(List.of("/http/throughputPerSecond", "/stages/payment-service:order-events:hop/p99Ms"), regressed);
+        // The new stage has no baseline to compare with
+        assertEquals(0, metrics.stream().filter(m -> m.get("metric").toString().contains("notifications")).count());
+    }
+}
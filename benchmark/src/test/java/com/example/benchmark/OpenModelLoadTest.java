@@ -0,0 +1,94 @@
+package com.example.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenModelLoadTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void keepsSendingWhileTheServerFallsBehindAndCountsTheWaitInLatency() throws Exception {
+        // One request at a time, 20ms each: capacity 50/s against an arrival rate of 100/s
+        startServer(20);
+        OpenModelLoad load = new OpenModelLoad(client(), 100, sequence -> request(), status -> status == 200);
+
+        OpenModelLoad.Result result = load.run(Duration.ofMillis(500), Duration.ofSeconds(10));
+
+        assertEquals(50, result.getRequests());
+        assertEquals(50, result.getSucceeded());
+        assertEquals(100.0, result.getOfferedPerSecond(), 0.01);
+        // A closed loop would have waited for each response and measured ~20ms; the last arrivals queue for ~0.5s
+        assertTrue(result.getLatencies().getMaxValue() > 400_000, "max " + result.getLatencies().getMaxValue() + "us");
+        assertTrue(result.getThroughputPerSecond() < 60, "throughput " + result.getThroughputPerSecond());
+    }
+
+    @Test
+    void countsErrorResponsesAsFailed() throws Exception {
+        startServer(0);
+        OpenModelLoad load = new OpenModelLoad(client(), 100, sequence -> request(), status -> status == 201);
+
+        OpenModelLoad.Result result = load.run(Duration.ofMillis(100), Duration.ofSeconds(10));
+
+        assertEquals(10, result.getFailed());
+        assertEquals(0, result.getSucceeded());
+    }
+
+    @Test
+    void recordsUnansweredRequestsUntilTheEndOfTheDrain() throws Exception {
+        // Each response takes longer than the whole run may wait for it
+        startServer(2_000);
+        OpenModelLoad load = new OpenModelLoad(client(), 100, sequence -> request(), status -> status == 200);
+
+        OpenModelLoad.Result result = load.run(Duration.ofMillis(50), Duration.ofMillis(300));
+
+        assertEquals(5, result.getRequests());
+        assertEquals(5, result.getFailed());
+        assertEquals(5, result.getLatencies().getTotalCount());
+        assertTrue(result.getLatencies().getMaxValue() >= 300_000, "max " + result.getLatencies().getMaxValue() + "us");
+    }
+
+    private void startServer(long serviceTimeMs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+        server.setExecutor(Executors.newSingleThreadExecutor());
+        server.createContext("/", exchange -> {
+            // Read the body, or the server closes the connection under the client
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(serviceTimeMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    private static HttpClient client() {
+        return HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    private HttpRequest request() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + "/api/orders"))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrometheusScrapeTest {
+
+    private static final String BEFORE = """
+            # HELP jvm_gc_memory_allocated_bytes_total Size of young generation memory allocations
+            # TYPE jvm_gc_memory_allocated_bytes_total counter
+            jvm_gc_memory_allocated_bytes_total{application="orders-service"} 1000.0
+            jvm_gc_pause_seconds_count{action="end of minor GC",cause="G1 Evacuation Pause",gc="G1 Young Generation"} 2
+            jvm_gc_pause_seconds_count{action="end of major GC",cause="System.gc()",gc="G1 Old Generation"} 1
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="0.01"} 10
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="0.02"} 10
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="+Inf"} 10
+            """;
+
+    private static final String AFTER = """
+            jvm_gc_memory_allocated_bytes_total{application="orders-service"} 5000.0
+            jvm_gc_pause_seconds_count{action="end of minor GC",cause="G1 Evacuation Pause",gc="G1 Young Generation"} 5
+            jvm_gc_pause_seconds_count{action="end of major GC",cause="System.gc()",gc="G1 Old Generation"} 1
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="0.01"} 60
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="0.02"} 110
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events",le="+Inf"} 110
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events.retry-1",le="0.01"} 0
+            payment_service_event_latency_hop_seconds_bucket{service="payment-service",topic="order-events.retry-1",le="+Inf"} 3
+            """;
+
+    @Test
+    void sumsSeriesAcrossLabels() {
+        PrometheusScrape before = PrometheusScrape.parse(BEFORE);
+        PrometheusScrape after = PrometheusScrape.parse(AFTER);
+
+        assertEquals(4000.0, after.sum("jvm_gc_memory_allocated_bytes_total") - before.sum("jvm_gc_memory_allocated_bytes_total"));
+        assertEquals(3.0, after.sum("jvm_gc_pause_seconds_count") - before.sum("jvm_gc_pause_seconds_count"));
+        assertEquals(1.0, after.sum("jvm_gc_pause_seconds_count", labels -> "G1 Old Generation".equals(labels.get("gc"))));
+        assertEquals(0.0, after.sum("missing"));
+    }
+
+    @Test
+    void percentilesComeFromTheBucketsFilledDuringTheRun() {
+        String name = "payment_service_event_latency_hop_seconds_bucket";
+        Map<String, PrometheusScrape.Buckets> before = PrometheusScrape.parse(BEFORE).histograms(name, "topic");
+        Map<String, PrometheusScrape.Buckets> after = PrometheusScrape.parse(AFTER).histograms(name, "topic");
+
+        PrometheusScrape.Buckets run = after.get("order-events").minus(before.get("order-events"));
+
+        // 50 new observations at or below 10ms, 50 between 10 and 20ms
+        assertEquals(100, run.count());
+        assertEquals(0.01, run.valueAtPercentile(50), 1e-9);
+        assertEquals(0.0198, run.valueAtPercentile(99), 1e-9);
+        // Beyond the last finite bucket, only its bound is known
+        assertEquals(0.01, after.get("order-events.retry-1").valueAtPercentile(99), 1e-9);
+        assertEquals(0, PrometheusScrape.Buckets.empty().valueAtPercentile(99));
+    }
+}
@@ -1,17 +1,49 @@
 package com.example.commonlibrary.config;
 
 import com.example.commonlibrary.exception.GlobalExceptionHandler;
+import com.example.commonlibrary.exception.ReactiveGlobalExceptionHandler;
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.logging.AsyncLogging;
+import com.example.commonlibrary.logging.LogSampler;
 import com.example.commonlibrary.metrics.controller.MetricsController;
+import com.example.commonlibrary.metrics.kafka.EventLatencyInterceptor;
 import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.MetricsSummary;
+import com.example.commonlibrary.money.MoneyConverters;
+import com.example.commonlibrary.money.MoneyModule;
+import com.example.commonlibrary.money.MoneyStorage;
+import com.example.commonlibrary.retry.DeadLetterReplayer;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.commonlibrary.retry.RetryTierContainerPostProcessor;
+import com.example.commonlibrary.retry.RetryTopics;
+import com.example.commonlibrary.threads.VirtualThreadPinningMonitor;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 
+import java.time.Duration;
+import java.util.Currency;
+
+/**
+ * Beans shared by every service.
+ * Virtual-thread mode is opt-in through {@code spring.threads.virtual.enabled=true} and needs a
+ * Java 21 runtime: Spring Boot then runs Tomcat requests, Kafka listener containers,
+ * {@code @Scheduled} and async tasks on virtual threads, and this configuration adds pinning diagnostics.
+ */
 @Configuration
 @ComponentScan(basePackages = "com.example.commonlibrary")
 
@@ -29,6 +61,7 @@ public class CommonAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public GlobalExceptionHandler globalExceptionHandler(MetricsService metricsService) {
         log.info("Initializing GlobalExceptionHandler");
         return new GlobalExceptionHandler(metricsService);
@@ -36,9 +69,156 @@ public class CommonAutoConfiguration {
 
     @Bean
     @ConditionalOnMissingBean
-    public MetricsController metricsController(MeterRegistry meterRegistry) {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveGlobalExceptionHandler reactiveGlobalExceptionHandler(MetricsService metricsService) {
+        log.info("Initializing ReactiveGlobalExceptionHandler");
+        return new ReactiveGlobalExceptionHandler(metricsService);
+    }
+
+    /**
+     * The summary behind {@code /api/metrics/summary}, rebuilt every {@code refresh-interval}; see {@link MetricsSummary}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MetricsSummary metricsSummary(MeterRegistry meterRegistry,
+                                         MetricsService metricsService,
+                                         @Value("${common.metrics.summary.refresh-interval:1s}") Duration refreshInterval) {
+        log.info("Initializing MetricsSummary, refreshed every {} ms", refreshInterval.toMillis());
+        return new MetricsSummary(meterRegistry, metricsService, refreshInterval);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MetricsController metricsController(MetricsSummary metricsSummary) {
         log.info("Initializing MetricsController");
-        return new MetricsController(meterRegistry);
+        return new MetricsController(metricsSummary);
+    }
+
+    /**
+     * Rate limit for log lines on hot or failure-prone paths; see {@link LogSampler}.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public LogSampler logSampler(MetricsService metricsService,
+                                 @Value("${common.logging.sample.limit:10}") int limit,
+                                 @Value("${common.logging.sample.interval:1s}") Duration interval) {
+        LogSampler logSampler = new LogSampler(limit, interval);
+        metricsService.registerGauge("logging.suppressed", "Log lines suppressed by sampling", logSampler::getSuppressed);
+        return logSampler;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "ch.qos.logback.classic.LoggerContext")
+    @ConditionalOnProperty(name = "common.logging.async.enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncLogging asyncLogging(MetricsService metricsService,
+                                     @Value("${common.logging.async.buffer-size:8192}") int bufferSize) {
+        return new AsyncLogging(metricsService, bufferSize);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.kafka.event-metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public EventLatencyInterceptor eventLatencyInterceptor(MetricsService metricsService) {
+        log.info("Initializing EventLatencyInterceptor");
+        return new EventLatencyInterceptor(metricsService);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public RetryTopics retryTopics(
+            @Value("${spring.kafka.consumer.group-id:${spring.application.name:default-service}}") String groupId,
+            @Value("${common.kafka.retry.attempts:3}") int attempts,
+            @Value("${common.kafka.retry.initial-delay:1s}") Duration initialDelay,
+            @Value("${common.kafka.retry.multiplier:4}") double multiplier,
+            @Value("${common.kafka.retry.max-delay:1m}") Duration maxDelay) {
+        log.info("Initializing RetryTopics for group {}: {} tiers from {}", groupId, attempts, initialDelay);
+        return new RetryTopics(groupId, attempts, initialDelay, multiplier, maxDelay);
     }
-}
 
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public FailedRecordRouter failedRecordRouter(KafkaTemplate<Object, Object> kafkaTemplate,
+                                                 RetryTopics retryTopics,
+                                                 RetryTierContainerPostProcessor tierContainers,
+                                                 MetricsService metricsService) {
+        return new FailedRecordRouter(kafkaTemplate, retryTopics, tierContainers, metricsService);
+    }
+
+    @Bean(RetryTierContainerPostProcessor.BEAN_NAME)
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public RetryTierContainerPostProcessor retryTierContainerPostProcessor() {
+        return new RetryTierContainerPostProcessor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public DeadLetterReplayer deadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                                                 KafkaTemplate<Object, Object> kafkaTemplate,
+                                                 RetryTopics retryTopics) {
+        return new DeadLetterReplayer(consumerFactory, kafkaTemplate, retryTopics);
+    }
+
+    /**
+     * Time-ordered ids for orders and events; see {@link IdGenerator}. Each running instance needs
+     * its own {@code common.ids.worker-id}, so a service that generates ids does not start without one,
+     * unless {@code common.ids.single-instance} says no second instance ever runs. Lazy, so services
+     * that never generate ids need neither.
+     */
+    @Bean
+    @Lazy
+    @ConditionalOnMissingBean
+    public IdGenerator idGenerator(@Value("${common.ids.worker-id:-1}") int workerId,
+                                   @Value("${common.ids.single-instance:false}") boolean singleInstance) {
+        if (workerId < 0) {
+            if (!singleInstance) {
+                throw new IllegalStateException("common.ids.worker-id is required: give every running instance "
+                        + "its own, 0-" + IdGenerator.MAX_WORKER_ID + ", or set common.ids.single-instance=true");
+            }
+            workerId = 0;
+        }
+        log.info("Initializing IdGenerator for worker {}", workerId);
+        return new IdGenerator(workerId);
+    }
+
+    /**
+     * Money as a JSON number; Spring Boot adds Module beans to its ObjectMapper.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MoneyModule moneyModule(@Value("${common.money.currency:USD}") Currency currency) {
+        return new MoneyModule(currency);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnProperty(name = "common.virtual-threads.pinning-detection.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MetricsService metricsService,
+            @Value("${common.virtual-threads.pinning-detection.threshold:20ms}") Duration threshold) {
+        log.info("Initializing VirtualThreadPinningMonitor");
+        return new VirtualThreadPinningMonitor(metricsService, threshold);
+    }
+
+    /**
+     * Money fields in Mongo; takes the place of Spring Boot's default, empty conversions.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.data.mongodb.core.convert.MongoCustomConversions")
+    static class MongoMoneyConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public MongoCustomConversions mongoCustomConversions(
+                @Value("${common.money.currency:USD}") Currency currency,
+                @Value("${common.money.storage:DECIMAL128}") MoneyStorage storage) {
+            log.info("Storing money as {} in {}", storage, currency);
+            return new MongoCustomConversions(MoneyConverters.converters(currency, storage));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.commonlibrary.events;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Timestamp headers carried by every event, as 8-byte big-endian epoch milliseconds.
+ * <ul>
+ *   <li>{@link #CREATED_AT}: when this event was created by the stage that published it.</li>
+ *   <li>{@link #ORIGIN_CREATED_AT}: when the first event of the flow was created (the order),
+ *       copied unchanged onto every event derived from it.</li>
+ * </ul>
+ * A consumer's per-hop latency is measured from the first, end-to-end latency from the second.
+ */
+public final class EventHeaders {
+
+    public static final String CREATED_AT = "x-event-created-at";
+    public static final String ORIGIN_CREATED_AT = "x-origin-created-at";
+
+    private EventHeaders() {
+    }
+
+    /**
+     * A record stamped with its creation time and the creation time of the flow it belongs to.
+     */
+    public static <K, V> ProducerRecord<K, V> producerRecord(String topic, K key, V value,
+                                                            long createdAtMillis, long originCreatedAtMillis) {
+        ProducerRecord<K, V> record = new ProducerRecord<>(topic, key, value);
+        record.headers().add(CREATED_AT, encode(createdAtMillis));
+        record.headers().add(ORIGIN_CREATED_AT, encode(originCreatedAtMillis));
+        return record;
+    }
+
+    /**
+     * When this record's event was created; falls back to the record's Kafka timestamp.
+     */
+    public static long createdAt(ConsumerRecord<?, ?> record) {
+        long createdAt = timestamp(record.headers(), CREATED_AT);
+        return createdAt >= 0 ? createdAt : record.timestamp();
+    }
+
+    /**
+     * When the flow this record belongs to started; falls back to {@link #createdAt}.
+     */
+    public static long originCreatedAt(ConsumerRecord<?, ?> record) {
+        long origin = timestamp(record.headers(), ORIGIN_CREATED_AT);
+        return origin >= 0 ? origin : createdAt(record);
+    }
+
+    /**
+     * The header's value, or -1 when it is missing or malformed.
+     */
+    public static long timestamp(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    static byte[] encode(long millis) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(millis).array();
+    }
+}
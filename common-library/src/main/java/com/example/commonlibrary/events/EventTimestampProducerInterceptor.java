@@ -0,0 +1,42 @@
+package com.example.commonlibrary.events;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+
+import java.util.Map;
+
+/**
+ * Stamps {@link EventHeaders} on records sent without them, using the send time, so every
+ * event carries a creation timestamp even when the producer did not set one.
+ * Enable with {@code spring.kafka.producer.properties.interceptor.classes}.
+ */
+public class EventTimestampProducerInterceptor implements ProducerInterceptor<Object, Object> {
+
+    @Override
+    public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+        Headers headers = record.headers();
+        long createdAt = EventHeaders.timestamp(headers, EventHeaders.CREATED_AT);
+        if (createdAt < 0) {
+            createdAt = System.currentTimeMillis();
+            headers.add(EventHeaders.CREATED_AT, EventHeaders.encode(createdAt));
+        }
+        if (headers.lastHeader(EventHeaders.ORIGIN_CREATED_AT) == null) {
+            headers.add(EventHeaders.ORIGIN_CREATED_AT, EventHeaders.encode(createdAt));
+        }
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.commonlibrary.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published by notifications-service after a message has been handed to a channel.
+ * Keyed by orderId; one event may cover several coalesced orders of the same recipient.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSentEvent {
+
+    private String eventId;
+    private String orderId;
+    private String recipient;
+    private String channel;
+    private String status;
+    private Instant occurredAt;
+}
@@ -0,0 +1,30 @@
+package com.example.commonlibrary.events;
+
+import com.example.commonlibrary.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published by orders-service when an order is accepted.
+ * Keyed by orderId; consumers de-duplicate on eventId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreatedEvent {
+
+    private String eventId;
+    private String orderId;
+    private String productName;
+    private Integer quantity;
+    private Money price;
+    private Money totalAmount;
+    private String customerEmail;
+    private String status;
+    private Instant occurredAt;
+}
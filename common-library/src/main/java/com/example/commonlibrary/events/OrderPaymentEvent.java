@@ -0,0 +1,55 @@
+package com.example.commonlibrary.events;
+
+import com.example.commonlibrary.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A {@link PaymentProcessedEvent} joined with the {@link OrderCreatedEvent} of its order, published
+ * by the payments-service streams topology so consumers need not look the order up.
+ * Keyed by orderId; eventId is the payment event's. The order fields are null when the order
+ * was not known to the topology (see {@link #hasOrder()}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentEvent {
+
+    private String eventId;
+    private String orderId;
+    private String customerEmail;
+    private String paymentStatus;
+    private Money amount;
+    private Instant occurredAt;
+
+    private String productName;
+    private Integer quantity;
+    private Money totalAmount;
+    private Instant orderedAt;
+
+    public static OrderPaymentEvent of(PaymentProcessedEvent payment, OrderCreatedEvent order) {
+        OrderPaymentEventBuilder builder = OrderPaymentEvent.builder()
+                .eventId(payment.getEventId())
+                .orderId(payment.getOrderId())
+                .customerEmail(payment.getCustomerEmail())
+                .paymentStatus(payment.getStatus())
+                .amount(payment.getAmount())
+                .occurredAt(payment.getOccurredAt());
+        if (order != null) {
+            builder.productName(order.getProductName())
+                    .quantity(order.getQuantity())
+                    .totalAmount(order.getTotalAmount())
+                    .orderedAt(order.getOccurredAt());
+        }
+        return builder.build();
+    }
+
+    public boolean hasOrder() {
+        return orderedAt != null;
+    }
+}
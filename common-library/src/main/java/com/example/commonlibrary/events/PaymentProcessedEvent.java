@@ -0,0 +1,27 @@
+package com.example.commonlibrary.events;
+
+import com.example.commonlibrary.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published by payments-service once an order's payment has been recorded.
+ * Keyed by orderId; status is COMPLETED or FAILED. Consumers de-duplicate on eventId.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentProcessedEvent {
+
+    private String eventId;
+    private String orderId;
+    private Money amount;
+    private String customerEmail;
+    private String status;
+    private Instant occurredAt;
+}
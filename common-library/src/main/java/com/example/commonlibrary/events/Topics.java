@@ -0,0 +1,16 @@
+package com.example.commonlibrary.events;
+
+/**
+ * Kafka topic names shared between the services.
+ */
+public final class Topics {
+
+    public static final String ORDER_EVENTS = "order-events";
+    public static final String PAYMENT_EVENTS = "payment-events";
+    public static final String NOTIFICATION_EVENTS = "notification-events";
+    // Payment events joined with their order (payments-service streams topology)
+    public static final String ORDER_PAYMENT_EVENTS = "order-payment-events";
+
+    private Topics() {
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.money.MoneyModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for the events in {@link EventSchemaRegistry#defaultRegistry()}.
+ * Decodes straight from the fetched record buffer, without copying the value into an array first.
+ * <p>
+ * When {@code spring.json.value.default.type} is configured, records that are not binary (JSON
+ * written before a producer switched over) are handed to a {@link JsonDeserializer}, so producers
+ * and consumers can be upgraded in any order. Amounts in such JSON are read with {@link MoneyModule}.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final EventSchemaRegistry registry;
+    private JsonDeserializer<Object> jsonFallback;
+
+    public BinaryEventDeserializer() {
+        this(EventSchemaRegistry.defaultRegistry());
+    }
+
+    public BinaryEventDeserializer(EventSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (configs.containsKey(JsonDeserializer.VALUE_DEFAULT_TYPE)) {
+            jsonFallback = new JsonDeserializer<>(JacksonUtils.enhancedObjectMapper().registerModule(new MoneyModule()));
+            jsonFallback.configure(configs, isKey);
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : deserialize(topic, null, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return data == null ? null : deserialize(topic, headers, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        Object event = registry.decode(data);
+        if (event != null) {
+            return event;
+        }
+        if (jsonFallback != null && data.remaining() > 0) {
+            byte[] json = new byte[data.remaining()];
+            data.get(data.position(), json);
+            return headers == null ? jsonFallback.deserialize(topic, json) : jsonFallback.deserialize(topic, headers, json);
+        }
+        throw new SerializationException("Record on " + topic + " is not a binary event");
+    }
+
+    @Override
+    public void close() {
+        if (jsonFallback != null) {
+            jsonFallback.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.commonlibrary.events.binary;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.UUID;
+
+/**
+ * Reads event fields in the {@link WireFormat} layout directly from the record buffer.
+ * Uses absolute reads only, so the buffer is neither copied nor repositioned; strings are
+ * decoded from the backing array into their final {@link String}, and values listed as known
+ * (statuses, channels, currencies) are returned as shared constants without allocating.
+ */
+public final class BinaryEventReader {
+
+    private static final String[] CURRENCY_CODES = {"EUR", "GBP", "USD"};
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+
+    BinaryEventReader(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = buffer.limit();
+    }
+
+    int position() {
+        return position;
+    }
+
+    /**
+     * Returns the next field's tag, or 0 at the end of the event.
+     */
+    public int readTag() {
+        return position < limit ? (int) readRawVarint() : 0;
+    }
+
+    public static int fieldNumber(int tag) {
+        return WireFormat.fieldNumber(tag);
+    }
+
+    public int readInt() {
+        return (int) readLong();
+    }
+
+    public long readLong() {
+        return WireFormat.unzigzag(readRawVarint());
+    }
+
+    public double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buffer.get(position + i) & 0xFFL) << (i * 8);
+        }
+        position += 8;
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Instant readInstant() {
+        long nanos = readLong();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    public String readString() {
+        int length = readLength();
+        return decodeUtf8(length);
+    }
+
+    /**
+     * Reads a string, returning the matching entry of {@code knownValues} instead of a new String when there is one.
+     */
+    public String readString(String[] knownValues) {
+        int length = readLength();
+        for (String known : knownValues) {
+            if (known.length() == length && matchesAscii(known)) {
+                position += length;
+                return known;
+            }
+        }
+        return decodeUtf8(length);
+    }
+
+    public Currency readCurrency() {
+        return Currency.getInstance(readString(CURRENCY_CODES));
+    }
+
+    public String readId() {
+        int length = readLength();
+        if (length < 1) {
+            throw new SerializationException("Empty id field");
+        }
+        byte kind = buffer.get(position);
+        if (kind == WireFormat.ID_UUID && length == 17) {
+            long mostSignificant = buffer.getLong(position + 1);
+            long leastSignificant = buffer.getLong(position + 9);
+            position += 17;
+            return new UUID(mostSignificant, leastSignificant).toString();
+        }
+        position++;
+        return decodeUtf8(length - 1);
+    }
+
+    /**
+     * Skips a field this reader does not know.
+     */
+    public void skip(int tag) {
+        switch (WireFormat.wireType(tag)) {
+            case WireFormat.VARINT -> readRawVarint();
+            case WireFormat.FIXED64 -> {
+                require(8);
+                position += 8;
+            }
+            case WireFormat.LENGTH_DELIMITED -> {
+                // Read the length first: it moves position past its own varint
+                int length = readLength();
+                position += length;
+            }
+            default -> throw new SerializationException("Unknown wire type in tag " + tag);
+        }
+    }
+
+    long readRawVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+
+    private int readLength() {
+        long length = readRawVarint();
+        if (length < 0 || length > limit - position) {
+            throw new SerializationException("Field length " + length + " exceeds the event");
+        }
+        return (int) length;
+    }
+
+    private String decodeUtf8(int length) {
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+        } else {
+            // Direct buffers have no array to decode from
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        position += length;
+        return value;
+    }
+
+    private boolean matchesAscii(String known) {
+        for (int i = 0; i < known.length(); i++) {
+            if (buffer.get(position + i) != (byte) known.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > limit) {
+            throw new SerializationException("Truncated binary event");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.commonlibrary.events.binary;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kafka Streams serde for one binary event type, on top of {@link BinaryEventSerializer} and
+ * {@link BinaryEventDeserializer}. A record holding another event type fails to deserialize.
+ */
+public final class BinaryEventSerde<T> implements Serde<T> {
+
+    private final Class<T> type;
+    private final BinaryEventSerializer serializer;
+    private final BinaryEventDeserializer deserializer;
+
+    private BinaryEventSerde(Class<T> type, EventSchemaRegistry registry) {
+        if (!registry.supports(type)) {
+            throw new IllegalArgumentException("No binary schema for " + type.getName());
+        }
+        this.type = type;
+        this.serializer = new BinaryEventSerializer(registry);
+        this.deserializer = new BinaryEventDeserializer(registry);
+    }
+
+    public static <T> BinaryEventSerde<T> of(Class<T> type) {
+        return new BinaryEventSerde<>(type, EventSchemaRegistry.defaultRegistry());
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return (topic, data) -> serializer.serialize(topic, data);
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return new Deserializer<>() {
+            @Override
+            public T deserialize(String topic, byte[] data) {
+                return cast(topic, deserializer.deserialize(topic, data));
+            }
+
+            @Override
+            public T deserialize(String topic, Headers headers, byte[] data) {
+                return cast(topic, deserializer.deserialize(topic, headers, data));
+            }
+
+            @Override
+            public T deserialize(String topic, Headers headers, ByteBuffer data) {
+                return cast(topic, deserializer.deserialize(topic, headers, data));
+            }
+        };
+    }
+
+    private T cast(String topic, Object event) {
+        if (event != null && !type.isInstance(event)) {
+            throw new SerializationException("Expected " + type.getSimpleName() + " on " + topic
+                    + " but got " + event.getClass().getSimpleName());
+        }
+        return type.cast(event);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.commonlibrary.events.binary;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka value serializer for the events in {@link EventSchemaRegistry#defaultRegistry()}.
+ * Typically a third of the size of the JSON encoding, and the only allocation is the result array.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    private final EventSchemaRegistry registry;
+
+    public BinaryEventSerializer() {
+        this(EventSchemaRegistry.defaultRegistry());
+    }
+
+    public BinaryEventSerializer(EventSchemaRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : registry.encode(data);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.money.Money;
+
+import java.time.Instant;
+import java.util.Currency;
+
+/**
+ * Writes event fields in the {@link WireFormat} layout.
+ * Runs twice per event: a measuring pass (no buffer) sizes the payload exactly, then a writing
+ * pass encodes into the final array, so serialization allocates nothing but the result.
+ * Strings are UTF-8 encoded straight into the buffer.
+ */
+public final class BinaryEventWriter {
+
+    private final byte[] buffer;
+    private int position;
+
+    private BinaryEventWriter(byte[] buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    static BinaryEventWriter measuring() {
+        return new BinaryEventWriter(null, 0);
+    }
+
+    static BinaryEventWriter into(byte[] buffer, int offset) {
+        return new BinaryEventWriter(buffer, offset);
+    }
+
+    int position() {
+        return position;
+    }
+
+    public void writeInt(int fieldNumber, Integer value) {
+        if (value != null) {
+            writeLong(fieldNumber, value.longValue());
+        }
+    }
+
+    public void writeLong(int fieldNumber, long value) {
+        rawVarint(WireFormat.tag(fieldNumber, WireFormat.VARINT));
+        rawVarint(WireFormat.zigzag(value));
+    }
+
+    public void writeDouble(int fieldNumber, Double value) {
+        if (value != null) {
+            rawVarint(WireFormat.tag(fieldNumber, WireFormat.FIXED64));
+            rawFixed64(Double.doubleToRawLongBits(value));
+        }
+    }
+
+    /**
+     * Writes an amount as its minor units; the currency goes in a field of its own, see {@link #writeCurrency}.
+     */
+    public void writeMoney(int fieldNumber, Money value) {
+        if (value != null) {
+            writeLong(fieldNumber, value.getMinorUnits());
+        }
+    }
+
+    /**
+     * Writes a currency code, omitted for {@link Money#DEFAULT_CURRENCY}.
+     */
+    public void writeCurrency(int fieldNumber, Currency value) {
+        if (value != null && !value.equals(Money.DEFAULT_CURRENCY)) {
+            writeString(fieldNumber, value.getCurrencyCode());
+        }
+    }
+
+    public void writeString(int fieldNumber, String value) {
+        if (value != null) {
+            rawVarint(WireFormat.tag(fieldNumber, WireFormat.LENGTH_DELIMITED));
+            int length = utf8Length(value);
+            rawVarint(length);
+            rawUtf8(value, length);
+        }
+    }
+
+    /**
+     * Writes an identifier; canonical lowercase UUID strings take 17 bytes instead of 36.
+     */
+    public void writeId(int fieldNumber, String value) {
+        if (value == null) {
+            return;
+        }
+        rawVarint(WireFormat.tag(fieldNumber, WireFormat.LENGTH_DELIMITED));
+        if (isCanonicalUuid(value)) {
+            rawVarint(17);
+            rawByte(WireFormat.ID_UUID);
+            rawLongBigEndian(hexBits(value, 0, 8) << 32 | hexBits(value, 9, 13) << 16 | hexBits(value, 14, 18));
+            rawLongBigEndian(hexBits(value, 19, 23) << 48 | hexBits(value, 24, 36));
+        } else {
+            int length = utf8Length(value);
+            rawVarint(length + 1);
+            rawByte(WireFormat.ID_STRING);
+            rawUtf8(value, length);
+        }
+    }
+
+    /**
+     * Writes an instant as zigzag nanoseconds since the epoch (years 1678 to 2262).
+     */
+    public void writeInstant(int fieldNumber, Instant value) {
+        if (value != null) {
+            writeLong(fieldNumber, Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000_000L), value.getNano()));
+        }
+    }
+
+    void rawVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            rawByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        rawByte((byte) value);
+    }
+
+    private void rawFixed64(long value) {
+        for (int i = 0; i < 8; i++) {
+            rawByte((byte) (value >>> (i * 8)));
+        }
+    }
+
+    private void rawLongBigEndian(long value) {
+        for (int i = 7; i >= 0; i--) {
+            rawByte((byte) (value >>> (i * 8)));
+        }
+    }
+
+    void rawByte(byte value) {
+        if (buffer != null) {
+            buffer[position] = value;
+        }
+        position++;
+    }
+
+    private void rawUtf8(String value, int length) {
+        if (buffer == null) {
+            position += length;
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >>> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >>> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >>> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >>> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?'; // unpaired surrogate, as String.getBytes(UTF_8) does
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >>> 12);
+                buffer[position++] = (byte) (0x80 | c >>> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isCanonicalUuid(String value) {
+        if (value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hexBits(String value, int from, int to) {
+        long bits = 0;
+        for (int i = from; i < to; i++) {
+            bits = bits << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.commonlibrary.events.binary;
+
+/**
+ * Binary schema of one event type. Field numbers are part of the wire format: never reuse
+ * or renumber one, only add new numbers.
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Id written at the start of every event of this type; unique within {@link EventSchemaRegistry}.
+     */
+    int schemaId();
+
+    Class<T> type();
+
+    void write(T event, BinaryEventWriter out);
+
+    T read(BinaryEventReader in);
+}
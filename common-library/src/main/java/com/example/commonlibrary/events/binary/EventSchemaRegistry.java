@@ -0,0 +1,84 @@
+package com.example.commonlibrary.events.binary;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local stand-in for a schema registry: the schemas are compiled into common-library, and every
+ * binary event carries its schema id, so producers and consumers need no registry lookup at runtime.
+ */
+public final class EventSchemaRegistry {
+
+    private static final EventSchemaRegistry DEFAULT = new EventSchemaRegistry(List.of(
+            new OrderCreatedEventCodec(),
+            new PaymentProcessedEventCodec(),
+            new NotificationSentEventCodec(),
+            new OrderPaymentEventCodec()));
+
+    private final Map<Integer, EventCodec<?>> byId = new HashMap<>();
+    private final Map<Class<?>, EventCodec<?>> byType = new HashMap<>();
+
+    public EventSchemaRegistry(List<EventCodec<?>> codecs) {
+        for (EventCodec<?> codec : codecs) {
+            if (byId.put(codec.schemaId(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate schema id " + codec.schemaId());
+            }
+            byType.put(codec.type(), codec);
+        }
+    }
+
+    /**
+     * The order, payment, notification and joined order-payment event schemas.
+     */
+    public static EventSchemaRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    public boolean supports(Class<?> type) {
+        return byType.containsKey(type);
+    }
+
+    /**
+     * Encodes {@code event} with its schema id into an array of exactly the encoded size.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> byte[] encode(T event) {
+        EventCodec<T> codec = (EventCodec<T>) byType.get(event.getClass());
+        if (codec == null) {
+            throw new SerializationException("No binary schema for " + event.getClass().getName());
+        }
+        BinaryEventWriter measuring = BinaryEventWriter.measuring();
+        writeEvent(codec, event, measuring);
+
+        byte[] bytes = new byte[measuring.position()];
+        writeEvent(codec, event, BinaryEventWriter.into(bytes, 0));
+        return bytes;
+    }
+
+    /**
+     * Decodes the event starting at the buffer's position, or returns null when it is not a binary event.
+     */
+    public Object decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() == 0 || buffer.get(start) != WireFormat.MAGIC) {
+            return null;
+        }
+        BinaryEventReader reader = new BinaryEventReader(buffer, start + 1);
+        long schemaId = reader.readRawVarint();
+        EventCodec<?> codec = byId.get((int) schemaId);
+        if (codec == null) {
+            throw new SerializationException("Unknown event schema id " + schemaId);
+        }
+        return codec.read(reader);
+    }
+
+    private static <T> void writeEvent(EventCodec<T> codec, T event, BinaryEventWriter out) {
+        out.rawByte(WireFormat.MAGIC);
+        out.rawVarint(codec.schemaId());
+        codec.write(event, out);
+    }
+}
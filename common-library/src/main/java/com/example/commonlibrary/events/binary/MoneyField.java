@@ -0,0 +1,29 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.money.Money;
+
+import java.util.Currency;
+
+/**
+ * An amount being decoded: its exact minor units, or the double older producers wrote
+ * instead. The currency is a separate field that may come later, so the {@link Money} is
+ * only built once the whole event has been read.
+ */
+final class MoneyField {
+
+    Double legacy;
+    private long minorUnits;
+    private boolean exact;
+
+    void exact(long minorUnits) {
+        this.minorUnits = minorUnits;
+        this.exact = true;
+    }
+
+    Money toMoney(Currency currency) {
+        if (exact) {
+            return Money.of(minorUnits, currency);
+        }
+        return legacy != null ? Money.ofApproximate(legacy, currency) : null;
+    }
+}
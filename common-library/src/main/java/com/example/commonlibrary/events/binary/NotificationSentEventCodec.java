@@ -0,0 +1,59 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.events.NotificationSentEvent;
+
+/**
+ * Schema 3, {@link NotificationSentEvent}:
+ * <pre>
+ * 1 eventId     id
+ * 2 orderId     id
+ * 3 recipient   string
+ * 4 channel     string
+ * 5 status      string
+ * 6 occurredAt  instant
+ * </pre>
+ */
+final class NotificationSentEventCodec implements EventCodec<NotificationSentEvent> {
+
+    static final int SCHEMA_ID = 3;
+
+    private static final String[] CHANNELS = {"EMAIL", "SMS"};
+    private static final String[] STATUSES = {"SENT", "FAILED"};
+
+    @Override
+    public int schemaId() {
+        return SCHEMA_ID;
+    }
+
+    @Override
+    public Class<NotificationSentEvent> type() {
+        return NotificationSentEvent.class;
+    }
+
+    @Override
+    public void write(NotificationSentEvent event, BinaryEventWriter out) {
+        out.writeId(1, event.getEventId());
+        out.writeId(2, event.getOrderId());
+        out.writeString(3, event.getRecipient());
+        out.writeString(4, event.getChannel());
+        out.writeString(5, event.getStatus());
+        out.writeInstant(6, event.getOccurredAt());
+    }
+
+    @Override
+    public NotificationSentEvent read(BinaryEventReader in) {
+        NotificationSentEvent event = new NotificationSentEvent();
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (BinaryEventReader.fieldNumber(tag)) {
+                case 1 -> event.setEventId(in.readId());
+                case 2 -> event.setOrderId(in.readId());
+                case 3 -> event.setRecipient(in.readString());
+                case 4 -> event.setChannel(in.readString(CHANNELS));
+                case 5 -> event.setStatus(in.readString(STATUSES));
+                case 6 -> event.setOccurredAt(in.readInstant());
+                default -> in.skip(tag);
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.money.Money;
+
+import java.util.Currency;
+
+/**
+ * Schema 1, {@link OrderCreatedEvent}:
+ * <pre>
+ * 1  eventId        id
+ * 2  orderId        id
+ * 3  productName    string
+ * 4  quantity       sint
+ * 5  reserved       double   (was price)
+ * 6  reserved       double   (was totalAmount)
+ * 7  customerEmail  string
+ * 8  status         string
+ * 9  occurredAt     instant
+ * 10 price          sint     minor units
+ * 11 totalAmount    sint     minor units
+ * 12 currency       string   omitted for USD
+ * </pre>
+ * Fields 5 and 6 held rounded amounts before fields 10 to 12 existed. They are no longer
+ * written and must not be reused; they are still read, when the exact fields are absent,
+ * for records produced before the change.
+ */
+final class OrderCreatedEventCodec implements EventCodec<OrderCreatedEvent> {
+
+    static final int SCHEMA_ID = 1;
+
+    private static final String[] STATUSES = {"PENDING", "PAID", "COMPLETED", "FAILED", "CANCELLED"};
+
+    @Override
+    public int schemaId() {
+        return SCHEMA_ID;
+    }
+
+    @Override
+    public Class<OrderCreatedEvent> type() {
+        return OrderCreatedEvent.class;
+    }
+
+    @Override
+    public void write(OrderCreatedEvent event, BinaryEventWriter out) {
+        Money price = event.getPrice();
+        Money totalAmount = event.getTotalAmount();
+        out.writeId(1, event.getEventId());
+        out.writeId(2, event.getOrderId());
+        out.writeString(3, event.getProductName());
+        out.writeInt(4, event.getQuantity());
+        out.writeString(7, event.getCustomerEmail());
+        out.writeString(8, event.getStatus());
+        out.writeInstant(9, event.getOccurredAt());
+        out.writeMoney(10, price);
+        out.writeMoney(11, totalAmount);
+        out.writeCurrency(12, totalAmount != null ? totalAmount.getCurrency() : price != null ? price.getCurrency() : null);
+    }
+
+    @Override
+    public OrderCreatedEvent read(BinaryEventReader in) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        MoneyField price = new MoneyField();
+        MoneyField totalAmount = new MoneyField();
+        Currency currency = Money.DEFAULT_CURRENCY;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (BinaryEventReader.fieldNumber(tag)) {
+                case 1 -> event.setEventId(in.readId());
+                case 2 -> event.setOrderId(in.readId());
+                case 3 -> event.setProductName(in.readString());
+                case 4 -> event.setQuantity(in.readInt());
+                case 5 -> price.legacy = in.readDouble();
+                case 6 -> totalAmount.legacy = in.readDouble();
+                case 7 -> event.setCustomerEmail(in.readString());
+                case 8 -> event.setStatus(in.readString(STATUSES));
+                case 9 -> event.setOccurredAt(in.readInstant());
+                case 10 -> price.exact(in.readLong());
+                case 11 -> totalAmount.exact(in.readLong());
+                case 12 -> currency = in.readCurrency();
+                default -> in.skip(tag);
+            }
+        }
+        event.setPrice(price.toMoney(currency));
+        event.setTotalAmount(totalAmount.toMoney(currency));
+        return event;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.money.Money;
+
+import java.util.Currency;
+
+/**
+ * Schema 4, {@link OrderPaymentEvent}:
+ * <pre>
+ * 1  eventId        id
+ * 2  orderId        id
+ * 3  customerEmail  string
+ * 4  paymentStatus  string
+ * 5  amount         sint     minor units
+ * 6  occurredAt     instant
+ * 7  productName    string
+ * 8  quantity       sint
+ * 9  totalAmount    sint     minor units
+ * 10 orderedAt      instant
+ * 11 currency       string   of amount, omitted for USD
+ * 12 totalCurrency  string   of totalAmount, omitted for USD
+ * </pre>
+ * Fields 7 to 10 are absent when the order was not known to the join.
+ */
+final class OrderPaymentEventCodec implements EventCodec<OrderPaymentEvent> {
+
+    static final int SCHEMA_ID = 4;
+
+    private static final String[] STATUSES = {"COMPLETED", "FAILED"};
+
+    @Override
+    public int schemaId() {
+        return SCHEMA_ID;
+    }
+
+    @Override
+    public Class<OrderPaymentEvent> type() {
+        return OrderPaymentEvent.class;
+    }
+
+    @Override
+    public void write(OrderPaymentEvent event, BinaryEventWriter out) {
+        Money amount = event.getAmount();
+        Money totalAmount = event.getTotalAmount();
+        out.writeId(1, event.getEventId());
+        out.writeId(2, event.getOrderId());
+        out.writeString(3, event.getCustomerEmail());
+        out.writeString(4, event.getPaymentStatus());
+        out.writeMoney(5, amount);
+        out.writeInstant(6, event.getOccurredAt());
+        out.writeString(7, event.getProductName());
+        out.writeInt(8, event.getQuantity());
+        out.writeMoney(9, totalAmount);
+        out.writeInstant(10, event.getOrderedAt());
+        out.writeCurrency(11, amount != null ? amount.getCurrency() : null);
+        out.writeCurrency(12, totalAmount != null ? totalAmount.getCurrency() : null);
+    }
+
+    @Override
+    public OrderPaymentEvent read(BinaryEventReader in) {
+        OrderPaymentEvent event = new OrderPaymentEvent();
+        MoneyField amount = new MoneyField();
+        MoneyField totalAmount = new MoneyField();
+        Currency currency = Money.DEFAULT_CURRENCY;
+        Currency totalCurrency = Money.DEFAULT_CURRENCY;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (BinaryEventReader.fieldNumber(tag)) {
+                case 1 -> event.setEventId(in.readId());
+                case 2 -> event.setOrderId(in.readId());
+                case 3 -> event.setCustomerEmail(in.readString());
+                case 4 -> event.setPaymentStatus(in.readString(STATUSES));
+                case 5 -> amount.exact(in.readLong());
+                case 6 -> event.setOccurredAt(in.readInstant());
+                case 7 -> event.setProductName(in.readString());
+                case 8 -> event.setQuantity(in.readInt());
+                case 9 -> totalAmount.exact(in.readLong());
+                case 10 -> event.setOrderedAt(in.readInstant());
+                case 11 -> currency = in.readCurrency();
+                case 12 -> totalCurrency = in.readCurrency();
+                default -> in.skip(tag);
+            }
+        }
+        event.setAmount(amount.toMoney(currency));
+        event.setTotalAmount(totalAmount.toMoney(totalCurrency));
+        return event;
+    }
+}
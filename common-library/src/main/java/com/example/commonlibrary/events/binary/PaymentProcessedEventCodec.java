@@ -0,0 +1,73 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.money.Money;
+
+import java.util.Currency;
+
+/**
+ * Schema 2, {@link PaymentProcessedEvent}:
+ * <pre>
+ * 1 eventId        id
+ * 2 orderId        id
+ * 3 reserved       double   (was amount)
+ * 4 customerEmail  string
+ * 5 status         string
+ * 6 occurredAt     instant
+ * 7 amount         sint     minor units
+ * 8 currency       string   omitted for USD
+ * </pre>
+ * Field 3 held the rounded amount before fields 7 and 8 existed. It is no longer written and
+ * must not be reused; it is still read, when field 7 is absent, for records produced before
+ * the change.
+ */
+final class PaymentProcessedEventCodec implements EventCodec<PaymentProcessedEvent> {
+
+    static final int SCHEMA_ID = 2;
+
+    private static final String[] STATUSES = {"COMPLETED", "FAILED"};
+
+    @Override
+    public int schemaId() {
+        return SCHEMA_ID;
+    }
+
+    @Override
+    public Class<PaymentProcessedEvent> type() {
+        return PaymentProcessedEvent.class;
+    }
+
+    @Override
+    public void write(PaymentProcessedEvent event, BinaryEventWriter out) {
+        Money amount = event.getAmount();
+        out.writeId(1, event.getEventId());
+        out.writeId(2, event.getOrderId());
+        out.writeString(4, event.getCustomerEmail());
+        out.writeString(5, event.getStatus());
+        out.writeInstant(6, event.getOccurredAt());
+        out.writeMoney(7, amount);
+        out.writeCurrency(8, amount != null ? amount.getCurrency() : null);
+    }
+
+    @Override
+    public PaymentProcessedEvent read(BinaryEventReader in) {
+        PaymentProcessedEvent event = new PaymentProcessedEvent();
+        MoneyField amount = new MoneyField();
+        Currency currency = Money.DEFAULT_CURRENCY;
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            switch (BinaryEventReader.fieldNumber(tag)) {
+                case 1 -> event.setEventId(in.readId());
+                case 2 -> event.setOrderId(in.readId());
+                case 3 -> amount.legacy = in.readDouble();
+                case 4 -> event.setCustomerEmail(in.readString());
+                case 5 -> event.setStatus(in.readString(STATUSES));
+                case 6 -> event.setOccurredAt(in.readInstant());
+                case 7 -> amount.exact(in.readLong());
+                case 8 -> currency = in.readCurrency();
+                default -> in.skip(tag);
+            }
+        }
+        event.setAmount(amount.toMoney(currency));
+        return event;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.commonlibrary.events.binary;
+
+/**
+ * Layout of a binary event: a {@link #MAGIC} byte, the schema id as a varint, then the fields.
+ * Each present field is a varint tag ({@code fieldNumber << 3 | wireType}) followed by its value,
+ * as in Protocol Buffers: null fields are omitted and readers skip field numbers they do not know,
+ * so fields can be added without breaking older consumers.
+ */
+final class WireFormat {
+
+    /** First byte of every binary event; JSON payloads start with '{' or whitespace instead. */
+    static final byte MAGIC = 0x00;
+
+    /** Variable-length integer; signed values are zigzag encoded. */
+    static final int VARINT = 0;
+    /** Eight little-endian bytes (doubles). */
+    static final int FIXED64 = 1;
+    /** Varint length followed by that many bytes (strings, ids). */
+    static final int LENGTH_DELIMITED = 2;
+
+    /** Id payload kinds, the first byte of a length-delimited id. */
+    static final byte ID_UUID = 0;
+    static final byte ID_STRING = 1;
+
+    private WireFormat() {
+    }
+
+    static int tag(int fieldNumber, int wireType) {
+        return fieldNumber << 3 | wireType;
+    }
+
+    static int fieldNumber(int tag) {
+        return tag >>> 3;
+    }
+
+    static int wireType(int tag) {
+        return tag & 0x7;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
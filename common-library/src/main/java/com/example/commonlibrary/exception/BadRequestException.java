@@ -1,6 +1,6 @@
 package com.example.commonlibrary.exception;
 
-public class BadRequestException extends RuntimeException {
+public class BadRequestException extends ExpectedException {
 
     public BadRequestException(String message) {
         super(message);
@@ -0,0 +1,12 @@
+package com.example.commonlibrary.exception;
+
+/**
+ * The request is valid but conflicts with the resource's current state,
+ * e.g. a stale version or a transition the resource no longer allows.
+ */
+public class ConflictException extends ExpectedException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.commonlibrary.exception;
+
+/**
+ * Base for errors that are an ordinary outcome of a request rather than a fault: a missing
+ * resource, invalid input, a state conflict. They are thrown on every miss, so they do not
+ * capture a stack trace (filling one in costs more than the rest of a 404) and the handlers
+ * count them apart from failures; see {@link com.example.commonlibrary.metrics.service.MetricsService#incrementExpectedErrors()}.
+ */
+public abstract class ExpectedException extends RuntimeException {
+
+    protected ExpectedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,23 +1,33 @@
 package com.example.commonlibrary.exception;
 
-import com.example.commonlibrary.config.CommonAutoConfiguration;
 import com.example.commonlibrary.metrics.service.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Error mapping for servlet (Spring MVC) deployments.
+ * {@link ReactiveGlobalExceptionHandler} applies the same mapping on WebFlux.
+ */
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
-    private static final Logger log = LoggerFactory.getLogger(CommonAutoConfiguration.class);
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final String NOT_FOUND = "Not Found";
+    private static final String BAD_REQUEST = "Bad Request";
+    private static final String CONFLICT = "Conflict";
 
     private final MetricsService metricsService;
 
@@ -28,28 +38,19 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
             ResourceNotFoundException ex, WebRequest request) {
-
-        log.error("Resource not found: {}", ex.getMessage());
-        metricsService.incrementFailedApiCalls();
-
-
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.value(),"Not Found"
-                , ex.getMessage(), request.getDescription(false).replace("uri=", ""));
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return expected(HttpStatus.NOT_FOUND, NOT_FOUND, ex, request);
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<ErrorResponse> handleBadRequestException(
             BadRequestException ex, WebRequest request) {
+        return expected(HttpStatus.BAD_REQUEST, BAD_REQUEST, ex, request);
+    }
 
-        log.error("Bad request: {}", ex.getMessage());
-        metricsService.incrementFailedApiCalls();
-
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(),"Bad Request"
-                , ex.getMessage(), request.getDescription(false).replace("uri=", ""));
-
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        return expected(HttpStatus.CONFLICT, CONFLICT, ex, request);
     }
 
     @ExceptionHandler(ServiceException.class)
@@ -60,7 +61,7 @@ public class GlobalExceptionHandler {
         metricsService.incrementFailedApiCalls();
 
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),"Internal Server Error"
-        , ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+        , ex.getMessage(), path(request));
 
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -78,7 +79,7 @@ public class GlobalExceptionHandler {
         }
 
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(),"Bad Request"
-                , ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+                , ex.getMessage(), path(request));
 
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
@@ -92,8 +93,26 @@ public class GlobalExceptionHandler {
 
 
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),"Unexpected error occur"
-                , ex.getMessage(), request.getDescription(false).replace("uri=", ""));
+                , ex.getMessage(), path(request));
 
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * Expected outcomes (see {@link ExpectedException}) are counted apart from failures and
+     * logged at DEBUG; they carry no stack trace to print.
+     */
+    private ResponseEntity<ErrorResponse> expected(HttpStatus status, String error, ExpectedException ex, WebRequest request) {
+        metricsService.incrementExpectedErrors();
+        String message = ex.getMessage();
+        log.debug("{}: {}", error, message);
+        return new ResponseEntity<>(new ErrorResponse(status.value(), error, message, path(request)), status);
+    }
+
+    private static String path(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.commonlibrary.exception;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Error mapping for reactive (WebFlux) deployments.
+ * Mirrors {@link GlobalExceptionHandler} so both stacks return the same {@link ErrorResponse}
+ * bodies and count failures on the same metrics.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveGlobalExceptionHandler.class);
+
+    private static final String NOT_FOUND = "Not Found";
+    private static final String BAD_REQUEST = "Bad Request";
+    private static final String CONFLICT = "Conflict";
+
+    private final MetricsService metricsService;
+
+    public ReactiveGlobalExceptionHandler(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
+            ResourceNotFoundException ex, ServerHttpRequest request) {
+        return expected(HttpStatus.NOT_FOUND, NOT_FOUND, ex, request);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(
+            BadRequestException ex, ServerHttpRequest request) {
+        return expected(HttpStatus.BAD_REQUEST, BAD_REQUEST, ex, request);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(
+            ConflictException ex, ServerHttpRequest request) {
+        return expected(HttpStatus.CONFLICT, CONFLICT, ex, request);
+    }
+
+    @ExceptionHandler(ServiceException.class)
+    public ResponseEntity<ErrorResponse> handleServiceException(
+            ServiceException ex, ServerHttpRequest request) {
+
+        log.error("Service exception: {}", ex.getMessage(), ex);
+        metricsService.incrementFailedApiCalls();
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error"
+                , ex.getMessage(), request.getPath().value());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(
+            WebExchangeBindException ex, ServerHttpRequest request) {
+
+        log.error("Validation failed: {}", ex.getMessage());
+        metricsService.incrementFailedApiCalls();
+
+        List<String> errors = new ArrayList<>();
+        for (FieldError error : ex.getBindingResult().getFieldErrors()) {
+            errors.add(error.getField() + ": " + error.getDefaultMessage());
+        }
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Bad Request"
+                , ex.getMessage(), request.getPath().value());
+        errorResponse.setDetails(errors);
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleInputException(
+            ServerWebInputException ex, ServerHttpRequest request) {
+
+        // Unreadable body or unconvertible path/query value, e.g. a malformed order id
+        log.error("Invalid request input: {}", ex.getReason());
+        metricsService.incrementFailedApiCalls();
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST.value(), "Bad Request"
+                , ex.getReason(), request.getPath().value());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGlobalException(
+            Exception ex, ServerHttpRequest request) {
+
+        log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
+        metricsService.incrementFailedApiCalls();
+
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Unexpected error occur"
+                , ex.getMessage(), request.getPath().value());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Same as {@link GlobalExceptionHandler}: counted apart from failures, logged at DEBUG.
+     */
+    private ResponseEntity<ErrorResponse> expected(HttpStatus status, String error, ExpectedException ex, ServerHttpRequest request) {
+        metricsService.incrementExpectedErrors();
+        String message = ex.getMessage();
+        log.debug("{}: {}", error, message);
+        return new ResponseEntity<>(new ErrorResponse(status.value(), error, message, request.getPath().value()), status);
+    }
+}
@@ -1,12 +1,33 @@
 package com.example.commonlibrary.exception;
 
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends ExpectedException {
+
+    private final String resourceName;
+    private final String fieldName;
+    private final Object fieldValue;
 
     public ResourceNotFoundException(String message) {
         super(message);
+        this.resourceName = null;
+        this.fieldName = null;
+        this.fieldValue = null;
     }
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s: '%s'", resourceName, fieldName, fieldValue));
+        super(null);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+
+    /**
+     * Built when asked for, so a miss nobody reports costs no formatting.
+     */
+    @Override
+    public String getMessage() {
+        if (resourceName == null) {
+            return super.getMessage();
+        }
+        return resourceName + " not found with " + fieldName + ": '" + fieldValue + "'";
     }
 }
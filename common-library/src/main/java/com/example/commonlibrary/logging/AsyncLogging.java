@@ -0,0 +1,114 @@
+package com.example.commonlibrary.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Puts the root logger's appenders (Spring Boot's console appender, and the file appender
+ * when logging.file.name is set) behind {@link RingBufferAppender}s when the application starts,
+ * and swaps the originals back, with the buffers written out, when it stops. Starts before and
+ * stops after every other lifecycle bean, so their startup and shutdown lines are kept.
+ * <p>
+ * Buffered and dropped events are exported as gauges.
+ */
+public class AsyncLogging implements SmartLifecycle {
+    private static final org.slf4j.Logger log = LoggerFactory.getLogger(AsyncLogging.class);
+
+    private final int bufferSize;
+    private volatile List<RingBufferAppender> appenders = List.of();
+    private volatile boolean running;
+
+    public AsyncLogging(MetricsService metricsService, int bufferSize) {
+        this.bufferSize = bufferSize;
+        metricsService.registerGauge("logging.async.buffered", "Log events waiting for the writer thread", this::getBuffered);
+        metricsService.registerGauge("logging.async.dropped", "Log events below WARN dropped on a full buffer", this::getDropped);
+    }
+
+    @Override
+    public void start() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            log.info("Logging backend is not Logback, leaving appenders synchronous");
+            running = true;
+            return;
+        }
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> originals = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+            Appender<ILoggingEvent> appender = it.next();
+            // Already wrapped by another application context in this JVM
+            if (!(appender instanceof RingBufferAppender)) {
+                originals.add(appender);
+            }
+        }
+        List<RingBufferAppender> wrapped = new ArrayList<>(originals.size());
+        for (Appender<ILoggingEvent> original : originals) {
+            RingBufferAppender ring = new RingBufferAppender(original, bufferSize);
+            ring.setContext(context);
+            ring.setName("ASYNC_" + original.getName());
+            ring.start();
+            // Attach before detaching, so no line goes missing in between
+            root.addAppender(ring);
+            root.detachAppender(original);
+            wrapped.add(ring);
+        }
+        appenders = wrapped;
+        running = true;
+        if (!wrapped.isEmpty()) {
+            log.info("Logging asynchronously through {} ring buffer(s) of {} events", wrapped.size(), wrapped.get(0).getCapacity());
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<RingBufferAppender> wrapped = appenders;
+        appenders = List.of();
+        running = false;
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        for (RingBufferAppender ring : wrapped) {
+            // Not attached any more if the logging system was reset meanwhile; its appenders are gone too
+            if (root.isAttached(ring)) {
+                root.addAppender(ring.getDelegate());
+                root.detachAppender(ring);
+            }
+            ring.stop();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    public long getBuffered() {
+        long buffered = 0;
+        for (RingBufferAppender ring : appenders) {
+            buffered += ring.getBuffered();
+        }
+        return buffered;
+    }
+
+    public long getDropped() {
+        long dropped = 0;
+        for (RingBufferAppender ring : appenders) {
+            dropped += ring.getDropped();
+        }
+        return dropped;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.commonlibrary.logging;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate-limits log lines per call site, so a burst (a hot request path, a failing dependency,
+ * a batch of bad records) logs a steady trickle instead of one line per event.
+ * Each {@link Site} lets up to {@code limit} lines through per interval and counts the rest;
+ * the next line that gets through can report how many were suppressed.
+ * <p>
+ * Like {@link com.example.commonlibrary.metrics.service.OperationMeters}, callers on a hot path
+ * should resolve their site once and keep it.
+ */
+public class LogSampler {
+
+    private final int limit;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Site> sites = new ConcurrentHashMap<>();
+
+    public LogSampler(int limit, Duration interval) {
+        this(limit, interval, System::nanoTime);
+    }
+
+    LogSampler(int limit, Duration interval, LongSupplier nanoClock) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the site for {@code name}, creating it on first use.
+     */
+    public Site site(String name) {
+        Site site = sites.get(name);
+        if (site != null) {
+            return site;
+        }
+        return sites.computeIfAbsent(name, key -> new Site());
+    }
+
+    /**
+     * Lines suppressed so far across all sites.
+     */
+    public long getSuppressed() {
+        long total = 0;
+        for (Site site : sites.values()) {
+            total += site.totalSuppressed.get();
+        }
+        return total;
+    }
+
+    public final class Site {
+        private final AtomicLong windowStart = new AtomicLong(nanoClock.getAsLong() - intervalNanos);
+        private final AtomicInteger permits = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+        private final AtomicLong totalSuppressed = new AtomicLong();
+
+        private Site() {
+        }
+
+        /**
+         * Returns true if the caller should log this line. Lock-free; a window boundary racing with
+         * other callers can let a line or two more than the limit through.
+         */
+        public boolean tryAcquire() {
+            long now = nanoClock.getAsLong();
+            long start = windowStart.get();
+            if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+                permits.set(0);
+            }
+            // Read first so a saturated site stops writing the shared counter
+            if (permits.get() < limit && permits.incrementAndGet() <= limit) {
+                return true;
+            }
+            suppressed.incrementAndGet();
+            totalSuppressed.incrementAndGet();
+            return false;
+        }
+
+        /**
+         * Returns the number of lines suppressed since the last call, for the line being logged to report.
+         */
+        public long takeSuppressed() {
+            return suppressed.get() == 0 ? 0 : suppressed.getAndSet(0);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.commonlibrary.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands log events to a single writer thread through a bounded, lock-free ring buffer, so the
+ * logging thread pays for formatting the message and one CAS instead of the console or file write
+ * and the lock around it.
+ * <p>
+ * Producers claim a slot by advancing the tail with a CAS; each slot carries a sequence number
+ * that tells whether it is free for the current lap or holds a published event, so no lock is
+ * taken on either side. When the buffer is full, events below WARN are dropped and counted,
+ * while WARN and ERROR wait for space. Stopping the appender writes out what is buffered.
+ * Caller data (file and line) is not captured.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long STOP_TIMEOUT_MS = 5_000;
+
+    private final Appender<ILoggingEvent> delegate;
+    private final ILoggingEvent[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the writer thread only; volatile so the depth gauge can read it
+    private volatile long head;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean writerParked;
+    private Thread writer;
+
+    public RingBufferAppender(Appender<ILoggingEvent> delegate, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.delegate = delegate;
+        this.events = new ILoggingEvent[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public Appender<ILoggingEvent> getDelegate() {
+        return delegate;
+    }
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    /**
+     * Events waiting to be written.
+     */
+    public long getBuffered() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Events below WARN dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        writer = new Thread(this::writeLoop, "log-writer-" + delegate.getName());
+        writer.setDaemon(true);
+        super.start();
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            addWarn("Gave up waiting for " + getBuffered() + " buffered events to be written");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Message, MDC and thread name must be captured on the logging thread
+        event.prepareForDeferredProcessing();
+        if (!offer(event)) {
+            if (!event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                dropped.incrementAndGet();
+                return;
+            }
+            do {
+                wakeWriter();
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            } while (!offer(event) && isStarted());
+        }
+        if (writerParked) {
+            wakeWriter();
+        }
+    }
+
+    private boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                // The slot still holds the event from the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        int slot = (int) position & mask;
+        events[slot] = event;
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    private ILoggingEvent poll() {
+        long position = head;
+        int slot = (int) position & mask;
+        if (sequences.get(slot) != position + 1) {
+            return null;
+        }
+        ILoggingEvent event = events[slot];
+        events[slot] = null;
+        sequences.lazySet(slot, position + events.length);
+        head = position + 1;
+        return event;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            // Read before polling: an empty poll ends the loop only if it came after the stop,
+            // so every event offered before the stop is still written
+            boolean stopping = !isStarted();
+            ILoggingEvent event = poll();
+            if (event != null) {
+                delegate.doAppend(event);
+                continue;
+            }
+            if (stopping) {
+                return;
+            }
+            writerParked = true;
+            // A producer that missed the flag is picked up when the park times out
+            if (sequences.get((int) head & mask) != head + 1) {
+                writerParked = false;
+                continue;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            writerParked = false;
+        }
+    }
+
+    private void wakeWriter() {
+        LockSupport.unpark(writer);
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.commonlibrary.metrics.controller;
 
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.MeterRegistry;
+import com.example.commonlibrary.metrics.service.MetricsSummary;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -14,36 +13,19 @@ import java.util.Map;
 
 public class MetricsController {
 
-    private final MeterRegistry meterRegistry;
+    private final MetricsSummary metricsSummary;
 
-    public MetricsController(MeterRegistry meterRegistry) {
-        this.meterRegistry = meterRegistry;
+    public MetricsController(MetricsSummary metricsSummary) {
+        this.metricsSummary = metricsSummary;
     }
 
+    /**
+     * Service totals, recent per-operation rates and percentiles, event latency and consumer lag,
+     * as last refreshed by {@link MetricsSummary}.
+     */
     @GetMapping("/summary")
     public Map<String, Object> getMetricsSummary() {
-        Map<String, Object> metrics = new HashMap<>();
-
-        // Total API calls
-        Counter totalCalls = meterRegistry.find("api.calls.total").counter();
-        metrics.put("totalApiCalls", totalCalls != null ? totalCalls.count() : 0);
-
-        // Successful calls
-        Counter successCalls = meterRegistry.find("api.calls.success").counter();
-        metrics.put("successfulApiCalls", successCalls != null ? successCalls.count() : 0);
-
-        // Failed calls
-        Counter failedCalls = meterRegistry.find("api.calls.failure").counter();
-        metrics.put("failedApiCalls", failedCalls != null ? failedCalls.count() : 0);
-
-        // Success rate
-        double successRate = 0;
-        if (totalCalls != null && totalCalls.count() > 0) {
-            successRate = (successCalls != null ? successCalls.count() : 0) / totalCalls.count() * 100;
-        }
-        metrics.put("successRate", String.format("%.2f%%", successRate));
-
-        return metrics;
+        return metricsSummary.snapshot();
     }
 
     @GetMapping("/health")
@@ -0,0 +1,96 @@
+package com.example.commonlibrary.metrics.kafka;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchInterceptor;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records, for every polled batch, how long each event took to arrive and how far each
+ * partition is behind. Applied by Spring Boot to every batch listener container.
+ * <ul>
+ *   <li>{@code <service>.event.latency.hop}: since the upstream stage created the event.</li>
+ *   <li>{@code <service>.event.latency.end-to-end}: since the order that started the flow was created.</li>
+ *   <li>{@code <service>.kafka.consumer.lag}: records between this consumer's position and the end of
+ *       each assigned partition, from the consumer's last fetch (no broker round trip).</li>
+ * </ul>
+ * The timers are tagged by topic, so comparing the services' hop latencies shows which stage falls behind.
+ */
+public class EventLatencyInterceptor implements BatchInterceptor<Object, Object> {
+
+    private final MetricsService metricsService;
+    private final Map<TopicPartition, PartitionLag> lag = new ConcurrentHashMap<>();
+
+    public EventLatencyInterceptor(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public ConsumerRecords<Object, Object> intercept(ConsumerRecords<Object, Object> records, Consumer<Object, Object> consumer) {
+        long now = System.currentTimeMillis();
+        for (TopicPartition partition : records.partitions()) {
+            String topic = partition.topic();
+            Timer hop = metricsService.eventLatencyTimer("hop", topic);
+            Timer endToEnd = metricsService.eventLatencyTimer("end-to-end", topic);
+            for (ConsumerRecord<Object, Object> record : records.records(partition)) {
+                hop.record(Math.max(0, now - EventHeaders.createdAt(record)), TimeUnit.MILLISECONDS);
+                endToEnd.record(Math.max(0, now - EventHeaders.originCreatedAt(record)), TimeUnit.MILLISECONDS);
+            }
+        }
+        updateLag(consumer);
+        return records;
+    }
+
+    private void updateLag(Consumer<Object, Object> consumer) {
+        Set<TopicPartition> assigned = consumer.assignment();
+        for (TopicPartition partition : assigned) {
+            OptionalLong current = consumer.currentLag(partition);
+            if (current.isPresent()) {
+                PartitionLag partitionLag = lagGauge(partition, consumer);
+                partitionLag.owner = consumer;
+                partitionLag.value.set(current.getAsLong());
+            }
+        }
+        // The interceptor is shared by every consumer thread; a partition this consumer no longer
+        // owns has moved (to another thread, which takes it over, or another instance)
+        for (Map.Entry<TopicPartition, PartitionLag> entry : lag.entrySet()) {
+            PartitionLag partitionLag = entry.getValue();
+            if (partitionLag.owner == consumer && !assigned.contains(entry.getKey())) {
+                partitionLag.owner = null;
+                partitionLag.value.set(0);
+            }
+        }
+    }
+
+    private PartitionLag lagGauge(TopicPartition partition, Consumer<Object, Object> consumer) {
+        PartitionLag existing = lag.get(partition);
+        if (existing != null) {
+            return existing;
+        }
+        return lag.computeIfAbsent(partition, p -> {
+            PartitionLag created = new PartitionLag();
+            metricsService.registerGauge("kafka.consumer.lag", "Records behind the end of the partition",
+                    Tags.of("topic", p.topic(), "partition", String.valueOf(p.partition()),
+                            "group", consumer.groupMetadata().groupId()),
+                    created.value::get);
+            return created;
+        });
+    }
+
+    private static final class PartitionLag {
+        private final AtomicLong value = new AtomicLong();
+        private volatile Consumer<?, ?> owner;
+    }
+}
@@ -1,20 +1,35 @@
 package com.example.commonlibrary.metrics.service;
 
 
-import com.example.commonlibrary.config.CommonAutoConfiguration;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
 
 @Service
 public class MetricsService {
-    private static final Logger log = LoggerFactory.getLogger(CommonAutoConfiguration.class);
+    private static final Logger log = LoggerFactory.getLogger(MetricsService.class);
+    // Client-side percentiles use a ring of time-windowed histograms, so memory stays bounded
+    private static final double[] LATENCY_PERCENTILES = {0.5, 0.95, 0.99, 0.999};
+    private static final Duration LATENCY_MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration LATENCY_MAX_EXPECTED = Duration.ofSeconds(30);
+    private static final Duration LATENCY_WINDOW = Duration.ofMinutes(1);
+    private static final int LATENCY_WINDOW_BUFFERS = 3;
+    // Events can legitimately wait much longer than a request: outbox, consumer lag, coalescing windows
+    private static final Duration EVENT_LATENCY_MAX_EXPECTED = Duration.ofMinutes(5);
+
     private final MeterRegistry meterRegistry;
     private final String serviceName;
 
@@ -22,6 +37,12 @@ public class MetricsService {
     private Counter totalApiCallsCounter;
     private Counter successfulApiCallsCounter;
     private Counter failedApiCallsCounter;
+    private Counter expectedErrorsCounter;
+
+    // Operation meters, registered on first use and reused afterwards
+    private final ConcurrentMap<String, OperationMeters> operationMeters = new ConcurrentHashMap<>();
+    // Event latency timers by "stage/topic"
+    private final ConcurrentMap<String, Timer> eventLatencyTimers = new ConcurrentHashMap<>();
 
 //    public MetricsService(MeterRegistry meterRegistry) {
 //        this.meterRegistry = meterRegistry;
@@ -51,6 +72,11 @@ public class MetricsService {
                 .description("Number of failed API calls")
                 .tag("service", serviceName)
                 .register(meterRegistry);
+
+        this.expectedErrorsCounter = Counter.builder("api.calls.expected-error")
+                .description("Number of API calls answered with an expected 4xx (not found, bad request, conflict)")
+                .tag("service", serviceName)
+                .register(meterRegistry);
     }
 
     // Generic methods
@@ -69,6 +95,14 @@ public class MetricsService {
         log.debug("Failed API calls incremented for {}", serviceName);
     }
 
+    /**
+     * Counts a call answered with an {@link com.example.commonlibrary.exception.ExpectedException};
+     * these are not failures, so a scrape of missing ids does not look like an outage.
+     */
+    public void incrementExpectedErrors() {
+        expectedErrorsCounter.increment();
+    }
+
     // Operation-specific methods
     public Counter createOperationCounter(String operation, String status) {
         return Counter.builder(serviceName + "." + operation + "." + status)
@@ -84,26 +118,115 @@ public class MetricsService {
                 .description("Time taken for " + operation + " operation")
                 .tag("service", serviceName)
                 .tag("operation", operation)
+                .publishPercentiles(LATENCY_PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(LATENCY_MIN_EXPECTED)
+                .maximumExpectedValue(LATENCY_MAX_EXPECTED)
+                .distributionStatisticExpiry(LATENCY_WINDOW)
+                .distributionStatisticBufferLength(LATENCY_WINDOW_BUFFERS)
                 .register(meterRegistry);
     }
 
+    /**
+     * Returns the latency timer for events consumed from {@code topic}, registering it on first use.
+     * {@code stage} is "hop" (since the event was created) or "end-to-end" (since its flow started);
+     * see {@link com.example.commonlibrary.events.EventHeaders}.
+     */
+    public Timer eventLatencyTimer(String stage, String topic) {
+        return eventLatencyTimers.computeIfAbsent(stage + "/" + topic, key -> Timer.builder(eventLatencyMeterName(stage))
+                .description("Event latency (" + stage + ") on arrival from " + topic)
+                .tag("service", serviceName)
+                .tag("topic", topic)
+                .publishPercentiles(LATENCY_PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(LATENCY_MIN_EXPECTED)
+                .maximumExpectedValue(EVENT_LATENCY_MAX_EXPECTED)
+                .distributionStatisticExpiry(LATENCY_WINDOW)
+                .distributionStatisticBufferLength(LATENCY_WINDOW_BUFFERS)
+                .register(meterRegistry));
+    }
+
+    public String eventLatencyMeterName(String stage) {
+        return serviceName + ".event.latency." + stage;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    /**
+     * Returns the meter handle for an operation, registering its meters on first use.
+     * Callers on a hot path should resolve the handle once and keep it.
+     */
+    public OperationMeters operation(String operation) {
+        OperationMeters meters = operationMeters.get(operation);
+        if (meters != null) {
+            return meters;
+        }
+        return operationMeters.computeIfAbsent(operation, this::newOperationMeters);
+    }
+
+    private OperationMeters newOperationMeters(String operation) {
+        return new OperationMeters(
+                operation,
+                createOperationCounter(operation, "success"),
+                createOperationCounter(operation, "failure"),
+                createOperationCounter(operation, "expected"),
+                createOperationTimer(operation),
+                new RollingWindow(meterRegistry.config().clock()),
+                successfulApiCallsCounter,
+                failedApiCallsCounter,
+                meterRegistry.config().clock());
+    }
+
+    /**
+     * The operations used so far, for summaries.
+     */
+    public Collection<OperationMeters> operations() {
+        return operationMeters.values();
+    }
+
+    public long getTotalApiCalls() {
+        return (long) totalApiCallsCounter.count();
+    }
+
+    public long getSuccessfulApiCalls() {
+        return (long) successfulApiCallsCounter.count();
+    }
+
+    public long getFailedApiCalls() {
+        return (long) failedApiCallsCounter.count();
+    }
+
+    public long getExpectedErrors() {
+        return (long) expectedErrorsCounter.count();
+    }
+
     public void recordOperationSuccess(String operation) {
-        Counter counter = createOperationCounter(operation, "success");
-        counter.increment();
-        incrementSuccessfulApiCalls();
-        log.info("✅ {} operation successful - metrics recorded", operation);
+        operation(operation).recordSuccess();
+        log.debug("{} operation successful - metrics recorded", operation);
     }
 
     public void recordOperationFailure(String operation) {
-        Counter counter = createOperationCounter(operation, "failure");
-        counter.increment();
-        incrementFailedApiCalls();
+        operation(operation).recordFailure();
         log.error("❌ {} operation failed - metrics recorded", operation);
     }
 
+    /**
+     * Starts a latency measurement for an operation; see {@link OperationSample}.
+     */
+    public OperationSample startOperation(String operation) {
+        return operation(operation).start();
+    }
+
+    /**
+     * Records the time elapsed since a {@code System.currentTimeMillis()} start time.
+     * Only millisecond resolution; prefer {@link #startOperation(String)}.
+     */
+    @Deprecated
     public void recordOperationDuration(String operation, long startTime) {
-        Timer timer = createOperationTimer(operation);
         long duration = System.currentTimeMillis() - startTime;
+        operation(operation).getDurationTimer().record(duration, TimeUnit.MILLISECONDS);
         log.debug("{} operation took {} ms", operation, duration);
     }
 
@@ -115,4 +238,16 @@ public class MetricsService {
 
         log.info("Registered gauge: {}", name);
     }
+
+    /**
+     * Registers one of several same-named gauges told apart by {@code tags}, e.g. one per partition.
+     */
+    public void registerGauge(String name, String description, Iterable<Tag> tags, java.util.function.Supplier<Number> valueSupplier) {
+        Gauge.builder(serviceName + "." + name, valueSupplier)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+
+        log.debug("Registered gauge: {} {}", name, tags);
+    }
 }
@@ -0,0 +1,169 @@
+package com.example.commonlibrary.metrics.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics summary served on {@code /api/metrics/summary}: service totals, per-operation
+ * call rates, failure rates and latency percentiles over the last 1, 5 and 15 minutes (from each
+ * operation's {@link RollingWindow}), event latency and consumer lag.
+ * <p>
+ * A background thread rebuilds it every {@code refresh-interval} and swaps it in whole, so a
+ * request only reads a reference, whatever the number of meters, and never sees half an update.
+ * The summary is at most one interval old.
+ */
+public class MetricsSummary implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(MetricsSummary.class);
+
+    private static final Map<String, Duration> WINDOWS = windows();
+
+    private final MeterRegistry meterRegistry;
+    private final MetricsService metricsService;
+    private final Duration refreshInterval;
+
+    private volatile Map<String, Object> snapshot;
+    private volatile ScheduledExecutorService refresher;
+
+    public MetricsSummary(MeterRegistry meterRegistry, MetricsService metricsService, Duration refreshInterval) {
+        this.meterRegistry = meterRegistry;
+        this.metricsService = metricsService;
+        this.refreshInterval = refreshInterval;
+        this.snapshot = build();
+    }
+
+    /**
+     * The latest summary; unmodifiable.
+     */
+    public Map<String, Object> snapshot() {
+        return snapshot;
+    }
+
+    public void refresh() {
+        try {
+            snapshot = build();
+        } catch (RuntimeException e) {
+            // Keep serving the previous summary; the next refresh tries again
+            log.warn("Refreshing the metrics summary failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = refreshInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::refresh, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        refresher = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = refresher;
+        refresher = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    private Map<String, Object> build() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("asOf", Instant.now().toString());
+
+        long totalCalls = metricsService.getTotalApiCalls();
+        long successCalls = metricsService.getSuccessfulApiCalls();
+        metrics.put("totalApiCalls", totalCalls);
+        metrics.put("successfulApiCalls", successCalls);
+        metrics.put("failedApiCalls", metricsService.getFailedApiCalls());
+        // Expected 4xx outcomes (not found, bad request, conflict), kept out of the failures
+        metrics.put("expectedErrors", metricsService.getExpectedErrors());
+        double successRate = totalCalls > 0 ? (double) successCalls / totalCalls * 100 : 0;
+        metrics.put("successRate", String.format("%.2f%%", successRate));
+
+        metrics.put("operations", operations());
+
+        // Event latency per source topic, and consumer lag per partition (EventLatencyInterceptor)
+        metrics.put("eventLatency", eventLatency());
+        Map<String, Long> lag = consumerLag();
+        metrics.put("consumerLag", lag);
+        metrics.put("consumerLagTotal", lag.values().stream().mapToLong(Long::longValue).sum());
+
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private Map<String, Map<String, RollingWindow.Stats>> operations() {
+        Map<String, Map<String, RollingWindow.Stats>> byOperation = new TreeMap<>();
+        for (OperationMeters meters : metricsService.operations()) {
+            Map<String, RollingWindow.Stats> byWindow = new LinkedHashMap<>();
+            WINDOWS.forEach((name, window) -> byWindow.put(name, meters.getWindow().stats(window)));
+            byOperation.put(meters.getOperation(), byWindow);
+        }
+        return byOperation;
+    }
+
+    private Map<String, Map<String, Object>> eventLatency() {
+        Map<String, Map<String, Object>> byTopic = new TreeMap<>();
+        addLatency(byTopic, "hop", "hop");
+        addLatency(byTopic, "end-to-end", "endToEnd");
+        return byTopic;
+    }
+
+    private void addLatency(Map<String, Map<String, Object>> byTopic, String stage, String key) {
+        for (Timer timer : meterRegistry.find(metricsService.eventLatencyMeterName(stage)).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", snapshot.count());
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                stats.put(String.format("p%sMs", percentileLabel(percentile.percentile())),
+                        Math.round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            stats.put("maxMs", Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+            byTopic.computeIfAbsent(timer.getId().getTag("topic"), topic -> new LinkedHashMap<>()).put(key, stats);
+        }
+    }
+
+    private Map<String, Long> consumerLag() {
+        Map<String, Long> lag = new TreeMap<>();
+        for (Gauge gauge : meterRegistry.find(metricsService.getServiceName() + ".kafka.consumer.lag").gauges()) {
+            lag.put(gauge.getId().getTag("topic") + "-" + gauge.getId().getTag("partition"), (long) gauge.value());
+        }
+        return lag;
+    }
+
+    // 0.5 -> "50", 0.999 -> "99.9"
+    private static String percentileLabel(double percentile) {
+        double value = percentile * 100;
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    private static Map<String, Duration> windows() {
+        Map<String, Duration> windows = new LinkedHashMap<>();
+        windows.put("1m", Duration.ofMinutes(1));
+        windows.put("5m", Duration.ofMinutes(5));
+        windows.put("15m", Duration.ofMinutes(15));
+        return Collections.unmodifiableMap(windows);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.commonlibrary.metrics.service;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-registered meters for a single operation.
+ * Resolved once through {@link MetricsService#operation(String)} and reused on every call,
+ * so recording never goes through a meter builder or a registry lookup. Every call is also
+ * recorded in the operation's {@link RollingWindow}, for the recent rates in the metrics summary.
+ */
+public final class OperationMeters {
+
+    private final String operation;
+
+    // Fixed slots, registered when the handle is created
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter expectedCounter;
+    private final Timer durationTimer;
+    private final RollingWindow window;
+
+    // Service-wide counters shared by every operation
+    private final Counter successfulApiCallsCounter;
+    private final Counter failedApiCallsCounter;
+
+    private final Clock clock;
+
+    OperationMeters(String operation,
+                    Counter successCounter,
+                    Counter failureCounter,
+                    Counter expectedCounter,
+                    Timer durationTimer,
+                    RollingWindow window,
+                    Counter successfulApiCallsCounter,
+                    Counter failedApiCallsCounter,
+                    Clock clock) {
+        this.operation = operation;
+        this.successCounter = successCounter;
+        this.failureCounter = failureCounter;
+        this.expectedCounter = expectedCounter;
+        this.durationTimer = durationTimer;
+        this.window = window;
+        this.successfulApiCallsCounter = successfulApiCallsCounter;
+        this.failedApiCallsCounter = failedApiCallsCounter;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts timing a call on the registry's monotonic nanosecond clock.
+     */
+    public OperationSample start() {
+        return new OperationSample(this, Timer.start(clock));
+    }
+
+    public void recordDuration(long durationNanos) {
+        durationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        window.recordDuration(durationNanos);
+    }
+
+    public void recordSuccess() {
+        successCounter.increment();
+        successfulApiCallsCounter.increment();
+        window.recordSuccess();
+    }
+
+    public void recordFailure() {
+        failureCounter.increment();
+        failedApiCallsCounter.increment();
+        window.recordFailure();
+    }
+
+    /**
+     * Counts a call that ended in an expected outcome such as a miss; not a success, not a failure.
+     */
+    public void recordExpected() {
+        expectedCounter.increment();
+        window.recordExpected();
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Counter getSuccessCounter() {
+        return successCounter;
+    }
+
+    public Counter getFailureCounter() {
+        return failureCounter;
+    }
+
+    public Counter getExpectedCounter() {
+        return expectedCounter;
+    }
+
+    public Timer getDurationTimer() {
+        return durationTimer;
+    }
+
+    public RollingWindow getWindow() {
+        return window;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.commonlibrary.metrics.service;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * A running latency measurement for one operation call, meant for try-with-resources:
+ * <pre>
+ * try (OperationSample sample = meters.start()) {
+ *     ...
+ *     sample.success();
+ * }
+ * </pre>
+ * Closing the sample records the elapsed nanoseconds in the operation timer and window, and counts
+ * the call as a success if {@link #success()} was called, as expected if {@link #expected()} was
+ * (a miss or a rejected request), otherwise as a failure.
+ */
+public final class OperationSample implements AutoCloseable {
+
+    private final OperationMeters meters;
+    private final Timer.Sample sample;
+    private boolean succeeded;
+    private boolean expected;
+    private boolean closed;
+
+    OperationSample(OperationMeters meters, Timer.Sample sample) {
+        this.meters = meters;
+        this.sample = sample;
+    }
+
+    public void success() {
+        this.succeeded = true;
+    }
+
+    public void expected() {
+        this.expected = true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        meters.getWindow().recordDuration(sample.stop(meters.getDurationTimer()));
+        if (succeeded) {
+            meters.recordSuccess();
+        } else if (expected) {
+            meters.recordExpected();
+        } else {
+            meters.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.commonlibrary.metrics.service;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recent calls of one operation: a ring of {@link #BUCKET} time buckets covering {@link #SPAN},
+ * each with outcome counters and a latency histogram, from which {@link #stats} reads the rates,
+ * error rate and percentiles over any window up to the span.
+ * <p>
+ * Recording is lock-free: the counters are {@link LongAdder}s, which stripe under contention,
+ * and the histogram bins are atomic longs. A bucket whose time has passed is replaced as a whole
+ * by the first call that needs its slot, so stale counts never have to be cleared in place; a call
+ * racing with the replacement may land in the old bucket and go uncounted.
+ * <p>
+ * Latencies are kept in microseconds, four bins per power of two up to about two minutes, so
+ * percentiles are within about 12% of the true value.
+ */
+public final class RollingWindow {
+
+    public static final Duration BUCKET = Duration.ofSeconds(10);
+    public static final Duration SPAN = Duration.ofMinutes(15);
+
+    private static final long BUCKET_MS = BUCKET.toMillis();
+    private static final int BUCKETS = (int) (SPAN.toMillis() / BUCKET_MS);
+
+    private static final int SUB_BITS = 2;
+    private static final int SUB_BINS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 26;
+    private static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BINS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BINS;
+
+    private final Clock clock;
+    private final long createdAt;
+    private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+    public RollingWindow(Clock clock) {
+        this.clock = clock;
+        this.createdAt = clock.wallTime();
+    }
+
+    public void recordSuccess() {
+        bucket().calls.increment();
+    }
+
+    public void recordFailure() {
+        Bucket bucket = bucket();
+        bucket.calls.increment();
+        bucket.failures.increment();
+    }
+
+    public void recordExpected() {
+        Bucket bucket = bucket();
+        bucket.calls.increment();
+        bucket.expected.increment();
+    }
+
+    public void recordDuration(long durationNanos) {
+        bucket().latencies.incrementAndGet(bin(durationNanos / 1_000));
+    }
+
+    private Bucket bucket() {
+        long epoch = clock.wallTime() / BUCKET_MS;
+        int slot = (int) (epoch % BUCKETS);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            // A bucket ahead of the clock means the clock stepped back; keep counting in it
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * Totals over the last {@code window} (rounded up to whole buckets, at most {@link #SPAN}),
+     * the current, partly elapsed bucket included.
+     */
+    public Stats stats(Duration window) {
+        long now = clock.wallTime();
+        long epoch = now / BUCKET_MS;
+        int count = (int) Math.min(BUCKETS, Math.max(1, (window.toMillis() + BUCKET_MS - 1) / BUCKET_MS));
+
+        long calls = 0;
+        long failures = 0;
+        long expected = 0;
+        long[] latencies = new long[BINS];
+        for (int i = 0; i < count; i++) {
+            Bucket bucket = buckets.get(Math.floorMod(epoch - i, BUCKETS));
+            if (bucket == null || bucket.epoch != epoch - i) {
+                continue;
+            }
+            calls += bucket.calls.sum();
+            failures += bucket.failures.sum();
+            expected += bucket.expected.sum();
+            for (int bin = 0; bin < BINS; bin++) {
+                latencies[bin] += bucket.latencies.get(bin);
+            }
+        }
+
+        // Rates are over the time the window actually covers: less while the current bucket fills,
+        // or while the window reaches back before this operation was first used
+        long start = Math.max((epoch - count + 1) * BUCKET_MS, createdAt);
+        double seconds = Math.max(1, now - start) / 1000.0;
+        return new Stats(calls, failures, expected, seconds,
+                percentileMs(latencies, 0.5), percentileMs(latencies, 0.95), percentileMs(latencies, 0.99));
+    }
+
+    static int bin(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_MICROS);
+        if (value < SUB_BINS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BINS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BINS + sub;
+    }
+
+    /**
+     * Middle of the bin's range, in microseconds.
+     */
+    static double binValue(int bin) {
+        if (bin < SUB_BINS) {
+            return bin;
+        }
+        int shift = bin / SUB_BINS - 1;
+        long low = (long) (SUB_BINS + bin % SUB_BINS) << shift;
+        return low + ((1L << shift) - 1) / 2.0;
+    }
+
+    private static double percentileMs(long[] latencies, double percentile) {
+        long total = 0;
+        for (long count : latencies) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int bin = 0; bin < latencies.length; bin++) {
+            seen += latencies[bin];
+            if (seen >= rank) {
+                return binValue(bin) / 1000.0;
+            }
+        }
+        return binValue(latencies.length - 1) / 1000.0;
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder expected = new LongAdder();
+        private final AtomicLongArray latencies = new AtomicLongArray(BINS);
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * Calls in a window: all of them, the failures and the expected outcomes (misses, rejected
+     * requests), with latency percentiles in milliseconds.
+     */
+    public static final class Stats {
+        private final long calls;
+        private final long failures;
+        private final long expected;
+        private final double seconds;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+
+        Stats(long calls, long failures, long expected, double seconds, double p50Ms, double p95Ms, double p99Ms) {
+            this.calls = calls;
+            this.failures = failures;
+            this.expected = expected;
+            this.seconds = seconds;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.p99Ms = p99Ms;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getExpected() {
+            return expected;
+        }
+
+        public double getCallsPerSecond() {
+            return calls / seconds;
+        }
+
+        public double getFailuresPerSecond() {
+            return failures / seconds;
+        }
+
+        /**
+         * Share of calls that failed, 0 to 1.
+         */
+        public double getFailureRate() {
+            return calls > 0 ? (double) failures / calls : 0;
+        }
+
+        public double getP50Ms() {
+            return p50Ms;
+        }
+
+        public double getP95Ms() {
+            return p95Ms;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+    }
+}
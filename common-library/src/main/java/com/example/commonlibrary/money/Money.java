@@ -0,0 +1,240 @@
+package com.example.commonlibrary.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An exact amount of money: a count of the currency's minor units (cents for USD) in a
+ * primitive {@code long}, plus the currency. Arithmetic is integer arithmetic, so sums of any
+ * number of amounts are exact, and it fails with {@link ArithmeticException} on overflow or on
+ * mixing currencies rather than silently losing precision.
+ * <p>
+ * Amounts are written as plain decimals in major units ({@code 999.99}) in JSON and, by
+ * default, as Decimal128 in Mongo; see {@link MoneyModule} and {@link MoneyConverters}.
+ * Neither form carries the currency, which comes from {@code common.money.currency}.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Currency of amounts written without one, i.e. every amount stored before this type existed. */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    // Longest plain decimal: sign, 19 digits, point, leading zero
+    static final int MAX_DECIMAL_LENGTH = 22;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money of(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * The amount {@code amount} in major units; fails if it has more decimals than the currency.
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.setScale(scale(currency), RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), currency);
+    }
+
+    /**
+     * Nearest amount to a binary floating-point value, for amounts stored as doubles.
+     */
+    public static Money ofApproximate(double amount, Currency currency) {
+        return new Money(BigDecimal.valueOf(amount).setScale(scale(currency), RoundingMode.HALF_EVEN)
+                .unscaledValue().longValueExact(), currency);
+    }
+
+    /**
+     * Parses a plain decimal in major units, such as {@code 999.99}, {@code -5} or {@code 10.50}.
+     */
+    public static Money parse(CharSequence text, Currency currency) {
+        return new Money(parseMinorUnits(text, 0, text.length(), scale(currency)), currency);
+    }
+
+    /**
+     * Minor units of the plain decimal in {@code text[offset, offset + length)} at {@code scale}.
+     * Trailing zeros beyond the scale are accepted; any other extra digit is not.
+     *
+     * @throws NumberFormatException if the text is not a plain decimal
+     * @throws ArithmeticException   if it has too many decimals or does not fit in a long
+     */
+    static long parseMinorUnits(CharSequence text, int offset, int length, int scale) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        // Accumulated negatively, so Long.MIN_VALUE minor units parse too
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a plain decimal amount: " + text.subSequence(offset, end));
+            }
+            digits++;
+            if (decimals >= 0 && ++decimals > scale) {
+                if (c != '0') {
+                    throw new ArithmeticException("Amount has more than " + scale + " decimals: " + text.subSequence(offset, end));
+                }
+                continue;
+            }
+            value = Math.subtractExact(Math.multiplyExact(value, 10), c - '0');
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a plain decimal amount: " + text.subSequence(offset, end));
+        }
+        for (int d = Math.max(decimals, 0); d < scale; d++) {
+            value = Math.multiplyExact(value, 10);
+        }
+        return negative ? value : Math.negateExact(value);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Number of decimals of the currency's major unit.
+     */
+    public int scale() {
+        return scale(currency);
+    }
+
+    static int scale(Currency currency) {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    /**
+     * Nearest double, for display or legacy fields only.
+     */
+    public double toDouble() {
+        int scale = scale();
+        return scale < POWERS_OF_TEN.length ? (double) minorUnits / POWERS_OF_TEN[scale] : toBigDecimal().doubleValue();
+    }
+
+    /**
+     * Writes the plain decimal form into {@code out} (at least {@link #MAX_DECIMAL_LENGTH} long)
+     * and returns its length.
+     */
+    int writeDecimal(char[] out) {
+        int scale = scale();
+        int position = out.length;
+        // Digits from the right; negative values are handled as negative to cover Long.MIN_VALUE
+        long remaining = minorUnits > 0 ? -minorUnits : minorUnits;
+        int written = 0;
+        do {
+            if (written == scale && scale > 0) {
+                out[--position] = '.';
+            }
+            out[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+            written++;
+        } while (remaining != 0 || written <= scale);
+        if (minorUnits < 0) {
+            out[--position] = '-';
+        }
+        int length = out.length - position;
+        System.arraycopy(out, position, out, 0, length);
+        return length;
+    }
+
+    /**
+     * The amount as a plain decimal in major units, e.g. {@code 999.99}.
+     */
+    public String toPlainString() {
+        char[] decimal = new char[MAX_DECIMAL_LENGTH];
+        return new String(decimal, 0, writeDecimal(decimal));
+    }
+
+    private Money sameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new ArithmeticException("Cannot combine " + currency + " and " + other.currency);
+        }
+        return other;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.commonlibrary.money;
+
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Spring Data Mongo converters for {@link Money} fields, registered by CommonAutoConfiguration.
+ * Money is written as Decimal128 or as int64 minor units ({@link MoneyStorage}). Reads accept
+ * both, plus the doubles amounts were stored as before, so existing documents keep loading.
+ * Decimal128 values are encoded from and decoded to the minor-unit long directly; only values
+ * that do not fit (or legacy doubles) go through BigDecimal.
+ */
+public final class MoneyConverters {
+
+    private static final long SIGN_BIT = 1L << 63;
+    private static final long SPECIAL_FORM = 0x6000000000000000L;
+    private static final long COEFFICIENT_HIGH_MASK = 0x1FFFFFFFFFFFFL;
+    private static final int EXPONENT_SHIFT = 49;
+    private static final int EXPONENT_MASK = 0x3FFF;
+    private static final int EXPONENT_BIAS = 6176;
+
+    private MoneyConverters() {
+    }
+
+    public static List<Converter<?, ?>> converters(Currency currency, MoneyStorage storage) {
+        Converter<Money, ?> writer = storage == MoneyStorage.MINOR_UNITS ? new MoneyToLong() : new MoneyToDecimal128();
+        return List.of(writer, new Decimal128ToMoney(currency), new LongToMoney(currency), new DoubleToMoney(currency));
+    }
+
+    static Decimal128 toDecimal128(Money money) {
+        long minorUnits = money.getMinorUnits();
+        long high = (long) (EXPONENT_BIAS - money.scale()) << EXPONENT_SHIFT;
+        if (minorUnits < 0) {
+            high |= SIGN_BIT;
+        }
+        // The coefficient is |minorUnits|, read as unsigned; covers Long.MIN_VALUE as well
+        return Decimal128.fromIEEE754BIDEncoding(high, minorUnits < 0 ? -minorUnits : minorUnits);
+    }
+
+    static Money fromDecimal128(Decimal128 value, Currency currency) {
+        long high = value.getHigh();
+        long low = value.getLow();
+        int scale = Money.scale(currency);
+        if ((high & SPECIAL_FORM) != SPECIAL_FORM && (high & COEFFICIENT_HIGH_MASK) == 0 && low >= 0) {
+            int exponent = (int) ((high >>> EXPONENT_SHIFT) & EXPONENT_MASK) - EXPONENT_BIAS;
+            long coefficient = (high & SIGN_BIT) != 0 ? -low : low;
+            if (exponent == -scale) {
+                return Money.of(coefficient, currency);
+            }
+        }
+        // Other exponents (e.g. 10.500 from $inc) or coefficients beyond a long; NaN and infinities throw here
+        return Money.of(value.bigDecimalValue().setScale(scale, RoundingMode.HALF_EVEN), currency);
+    }
+
+    @WritingConverter
+    static final class MoneyToDecimal128 implements Converter<Money, Decimal128> {
+        @Override
+        public Decimal128 convert(Money source) {
+            return toDecimal128(source);
+        }
+    }
+
+    @WritingConverter
+    static final class MoneyToLong implements Converter<Money, Long> {
+        @Override
+        public Long convert(Money source) {
+            return source.getMinorUnits();
+        }
+    }
+
+    @ReadingConverter
+    static final class Decimal128ToMoney implements Converter<Decimal128, Money> {
+        private final Currency currency;
+
+        Decimal128ToMoney(Currency currency) {
+            this.currency = currency;
+        }
+
+        @Override
+        public Money convert(Decimal128 source) {
+            return fromDecimal128(source, currency);
+        }
+    }
+
+    @ReadingConverter
+    static final class LongToMoney implements Converter<Long, Money> {
+        private final Currency currency;
+
+        LongToMoney(Currency currency) {
+            this.currency = currency;
+        }
+
+        @Override
+        public Money convert(Long source) {
+            return Money.of(source, currency);
+        }
+    }
+
+    @ReadingConverter
+    static final class DoubleToMoney implements Converter<Double, Money> {
+        private final Currency currency;
+
+        DoubleToMoney(Currency currency) {
+            this.currency = currency;
+        }
+
+        @Override
+        public Money convert(Double source) {
+            return Money.ofApproximate(source, currency);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.commonlibrary.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Currency;
+
+/**
+ * Jackson support for {@link Money} as a JSON number in major units, e.g. {@code "price": 999.99}.
+ * Numbers are parsed from and written to the parser's and generator's character buffers
+ * directly, without a BigDecimal or double in between, so no precision is lost either way.
+ * A numeric string is accepted too. Amounts read are in the module's currency.
+ */
+public class MoneyModule extends SimpleModule {
+
+    public MoneyModule() {
+        this(Money.DEFAULT_CURRENCY);
+    }
+
+    public MoneyModule(Currency currency) {
+        super("MoneyModule");
+        addSerializer(Money.class, new MoneySerializer());
+        addDeserializer(Money.class, new MoneyDeserializer(currency));
+    }
+
+    static final class MoneySerializer extends StdScalarSerializer<Money> {
+
+        MoneySerializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            char[] decimal = new char[Money.MAX_DECIMAL_LENGTH];
+            gen.writeNumber(decimal, 0, value.writeDecimal(decimal));
+        }
+    }
+
+    static final class MoneyDeserializer extends StdScalarDeserializer<Money> {
+        private final Currency currency;
+        private final int scale;
+
+        MoneyDeserializer(Currency currency) {
+            super(Money.class);
+            this.currency = currency;
+            this.scale = Money.scale(currency);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            CharSequence text = CharBuffer.wrap(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            try {
+                if (token == JsonToken.VALUE_NUMBER_FLOAT && hasExponent(text)) {
+                    return Money.of(p.getDecimalValue(), currency);
+                }
+                return Money.of(Money.parseMinorUnits(text, 0, text.length(), scale), currency);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw InvalidFormatException.from(p, e.getMessage(), text.toString(), Money.class);
+            }
+        }
+
+        private static boolean hasExponent(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == 'e' || text.charAt(i) == 'E') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
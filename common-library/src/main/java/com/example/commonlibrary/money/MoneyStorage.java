@@ -0,0 +1,13 @@
+package com.example.commonlibrary.money;
+
+/**
+ * How {@link MoneyConverters} writes {@link Money} fields to Mongo ({@code common.money.storage}).
+ * Both forms are always readable, so switching only affects documents written afterwards;
+ * aggregations that sum a field do need every document in the same form.
+ */
+public enum MoneyStorage {
+    /** Decimal128 in major units ({@code NumberDecimal("999.99")}): exact, and readable as an amount in the shell. */
+    DECIMAL128,
+    /** int64 count of minor units ({@code NumberLong(99999)}): smallest, and $sum stays integer. */
+    MINOR_UNITS
+}
@@ -0,0 +1,37 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/kafka/dead-letters")
+@ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadLetterController {
+
+    // Each call is synchronous; larger backlogs are drained by calling again
+    private static final int MAX_PER_CALL = 100_000;
+
+    private final DeadLetterReplayer deadLetterReplayer;
+
+    public DeadLetterController(DeadLetterReplayer deadLetterReplayer) {
+        this.deadLetterReplayer = deadLetterReplayer;
+    }
+
+    /**
+     * Replay dead-lettered records of a source topic, e.g. order-events
+     * POST /api/kafka/dead-letters/{topic}/replay?max=1000
+     */
+    @PostMapping("/{topic}/replay")
+    public DeadLetterReplayer.ReplayResult replay(@PathVariable String topic,
+                                                  @RequestParam(defaultValue = "1000") int max) {
+        if (max < 1 || max > MAX_PER_CALL) {
+            throw new BadRequestException("max must be between 1 and " + MAX_PER_CALL);
+        }
+        return deadLetterReplayer.replay(topic, max);
+    }
+}
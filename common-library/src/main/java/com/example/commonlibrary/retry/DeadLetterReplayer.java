@@ -0,0 +1,189 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends dead-lettered records back for processing, e.g. once the bug or outage that put them
+ * there is fixed. They go to this group's first retry tier, due at once, rather than to the source
+ * topic, which other groups consume too and would process a second time. Replayed records carry
+ * no attempt number, so they start over with a full set of retries.
+ * Progress is kept as the committed offset of a dedicated consumer group
+ * ({@code <group>-dlt-replay}), so each record is replayed once however often the endpoint is
+ * called, and only records that were in the topic when the call started are replayed.
+ */
+public class DeadLetterReplayer {
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayer.class);
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    // Consecutive empty polls before giving up on reaching the end offsets
+    private static final int MAX_EMPTY_POLLS = 10;
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaTemplate<Object, Object> kafkaTemplate;
+    private final RetryTopics retryTopics;
+    private final AtomicLong replayed = new AtomicLong();
+
+    public DeadLetterReplayer(ConsumerFactory<Object, Object> consumerFactory,
+                              KafkaTemplate<Object, Object> kafkaTemplate,
+                              RetryTopics retryTopics) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopics = retryTopics;
+    }
+
+    public long getReplayed() {
+        return replayed.get();
+    }
+
+    /**
+     * Replays up to {@code max} records from the dead-letter topic of {@code sourceTopic}.
+     */
+    public synchronized ReplayResult replay(String sourceTopic, int max) {
+        if (retryTopics.getAttempts() == 0) {
+            throw new IllegalStateException("No retry tier to replay into: common.kafka.retry.attempts is 0");
+        }
+        String deadLetterTopic = retryTopics.deadLetterTopic(sourceTopic);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.max(1, Math.min(max, 1000))));
+
+        try (Consumer<Object, Object> consumer = consumerFactory.createConsumer(
+                retryTopics.getGroupId() + "-dlt-replay", null, null, overrides)) {
+            List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopic);
+            if (infos == null || infos.isEmpty()) {
+                throw new ResourceNotFoundException("Dead-letter topic", "name", deadLetterTopic);
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+
+            String tierTopic = retryTopics.tierTopic(sourceTopic, 1);
+            Map<TopicPartition, OffsetAndMetadata> next = new HashMap<>();
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            int emptyPolls = 0;
+            while (sends.size() < max && behind(consumer, partitions, end) && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<Object, Object> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+                for (ConsumerRecord<Object, Object> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (sends.size() >= max || record.offset() >= end.get(partition)) {
+                        // Not replayed in this call: rewind so the next call starts here
+                        consumer.seek(partition, Math.min(record.offset(), consumer.position(partition)));
+                        continue;
+                    }
+                    sends.add(kafkaTemplate.send(toTier(record, tierTopic, sourceTopic, System.currentTimeMillis())));
+                    next.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+            if (!next.isEmpty()) {
+                consumer.commitSync(next);
+            }
+            replayed.addAndGet(sends.size());
+
+            long remaining = 0;
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata committed = next.get(partition);
+                long position = committed != null ? committed.offset() : consumer.position(partition);
+                remaining += Math.max(0, end.get(partition) - position);
+            }
+            log.info("Replayed {} records from {} to {}, {} left", sends.size(), deadLetterTopic, tierTopic, remaining);
+            return new ReplayResult(sourceTopic, deadLetterTopic, sends.size(), remaining);
+        }
+    }
+
+    private static boolean behind(Consumer<?, ?> consumer, List<TopicPartition> partitions, Map<TopicPartition, Long> end) {
+        for (TopicPartition partition : partitions) {
+            if (consumer.position(partition) < end.get(partition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The record to send for a dead-lettered one: due at {@code now}, without the failure and
+     * attempt headers, and still pointing at where it was first consumed from.
+     */
+    static ProducerRecord<Object, Object> toTier(ConsumerRecord<Object, Object> record, String tierTopic,
+                                                 String sourceTopic, long now) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!RetryHeaders.ALL.contains(header.key())) {
+                headers.add(header);
+            }
+        }
+        headers.add(RetryHeaders.ORIGINAL_TOPIC, RetryHeaders.encode(sourceTopic));
+        for (String key : new String[]{RetryHeaders.ORIGINAL_PARTITION, RetryHeaders.ORIGINAL_OFFSET}) {
+            Header original = record.headers().lastHeader(key);
+            if (original != null) {
+                headers.add(original);
+            }
+        }
+        headers.add(RetryHeaders.DUE_AT, RetryHeaders.encode(now));
+        return new ProducerRecord<>(tierTopic, record.partition(), record.key(), record.value(), headers);
+    }
+
+    /**
+     * Outcome of one replay call.
+     */
+    public static final class ReplayResult {
+        private final String topic;
+        private final String deadLetterTopic;
+        private final int replayed;
+        private final long remaining;
+
+        ReplayResult(String topic, String deadLetterTopic, int replayed, long remaining) {
+            this.topic = topic;
+            this.deadLetterTopic = deadLetterTopic;
+            this.replayed = replayed;
+            this.remaining = remaining;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public String getDeadLetterTopic() {
+            return deadLetterTopic;
+        }
+
+        public int getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * Dead-lettered records left after this call, as of when it started.
+         */
+        public long getRemaining() {
+            return remaining;
+        }
+    }
+}
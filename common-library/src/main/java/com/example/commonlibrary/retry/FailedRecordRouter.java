@@ -0,0 +1,192 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Moves records that failed processing off their partition, so the rest of the partition
+ * keeps flowing: a retryable failure goes to the next retry tier of {@link RetryTopics},
+ * a fatal one (see {@link FailureClassifier}) or one out of attempts to the dead-letter topic,
+ * with the cause in {@link RetryHeaders}. Key, value and the other headers are kept, so the
+ * record lands on the same partition number and still carries its event timestamps.
+ * <p>
+ * Listeners call {@link #route} for what failed and wait for the returned future before
+ * their offsets are committed; if the redirect itself fails, the exception reaches the
+ * container and the batch is redelivered, so nothing is lost.
+ */
+public class FailedRecordRouter {
+    private static final Logger log = LoggerFactory.getLogger(FailedRecordRouter.class);
+
+    // Keeps dead-letter headers well under the broker's message size limit
+    private static final int MAX_STACKTRACE_CHARS = 8192;
+
+    private final KafkaTemplate<Object, Object> kafkaTemplate;
+    private final RetryTopics retryTopics;
+    private final RetryTierContainerPostProcessor tierContainers;
+
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public FailedRecordRouter(KafkaTemplate<Object, Object> kafkaTemplate, RetryTopics retryTopics,
+                              RetryTierContainerPostProcessor tierContainers, MetricsService metricsService) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopics = retryTopics;
+        this.tierContainers = tierContainers;
+
+        metricsService.registerGauge("kafka.retry.scheduled", "Failed records sent to a retry tier", retried::get);
+        metricsService.registerGauge("kafka.retry.dead-lettered", "Failed records sent to a dead-letter topic", deadLettered::get);
+    }
+
+    /**
+     * Sends the record to its next retry tier or to the dead-letter topic.
+     */
+    public CompletableFuture<Void> route(ConsumerRecord<?, ?> record, Throwable failure) {
+        return send(destination(record, failure, System.currentTimeMillis()));
+    }
+
+    /**
+     * Routes every record of a group that failed together, e.g. one bulk write.
+     */
+    public CompletableFuture<Void> routeAll(Collection<? extends ConsumerRecord<?, ?>> records, Throwable failure) {
+        long now = System.currentTimeMillis();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[records.size()];
+        int i = 0;
+        for (ConsumerRecord<?, ?> record : records) {
+            sends[i++] = send(destination(record, failure, now));
+        }
+        return CompletableFuture.allOf(sends);
+    }
+
+    /**
+     * Builds the record to send for a failure at {@code now}: the next tier while the failure
+     * is retryable and attempts remain, the dead-letter topic otherwise.
+     */
+    ProducerRecord<Object, Object> destination(ConsumerRecord<?, ?> record, Throwable failure, long now) {
+        String originalTopic = RetryHeaders.originalTopic(record);
+        int attempt = RetryHeaders.attempt(record) + 1;
+        boolean retryable = FailureClassifier.isRetryable(failure);
+
+        Headers headers = copyHeaders(record.headers());
+        headers.add(RetryHeaders.ORIGINAL_TOPIC, RetryHeaders.encode(originalTopic));
+        if (record.headers().lastHeader(RetryHeaders.ORIGINAL_PARTITION) != null) {
+            headers.add(record.headers().lastHeader(RetryHeaders.ORIGINAL_PARTITION));
+            headers.add(record.headers().lastHeader(RetryHeaders.ORIGINAL_OFFSET));
+        } else {
+            headers.add(RetryHeaders.ORIGINAL_PARTITION, RetryHeaders.encode(record.partition()));
+            headers.add(RetryHeaders.ORIGINAL_OFFSET, RetryHeaders.encode(record.offset()));
+        }
+        headers.add(RetryHeaders.EXCEPTION_CLASS, RetryHeaders.encode(rootCause(failure).getClass().getName()));
+        headers.add(RetryHeaders.EXCEPTION_MESSAGE, RetryHeaders.encode(String.valueOf(rootCause(failure).getMessage())));
+
+        String topic;
+        if (retryable && attempt <= retryTopics.getAttempts()) {
+            topic = retryTopics.tierTopic(originalTopic, attempt);
+            headers.add(RetryHeaders.ATTEMPT, RetryHeaders.encode(attempt));
+            headers.add(RetryHeaders.DUE_AT, RetryHeaders.encode(now + retryTopics.delay(attempt).toMillis()));
+        } else {
+            topic = retryTopics.deadLetterTopic(originalTopic);
+            headers.add(RetryHeaders.ATTEMPT, RetryHeaders.encode(attempt - 1));
+            headers.add(RetryHeaders.FATAL, RetryHeaders.encode(String.valueOf(!retryable)));
+            headers.add(RetryHeaders.EXCEPTION_STACKTRACE, RetryHeaders.encode(stackTrace(failure)));
+        }
+        return new ProducerRecord<>(topic, record.partition(), record.key(), record.value(), headers);
+    }
+
+    private CompletableFuture<Void> send(ProducerRecord<Object, Object> destination) {
+        boolean deadLetter = destination.headers().lastHeader(RetryHeaders.FATAL) != null;
+        if (deadLetter) {
+            deadLettered.incrementAndGet();
+            log.warn("Dead-lettering record to {}: {}", destination.topic(),
+                    RetryHeaders.text(destination.headers(), RetryHeaders.EXCEPTION_MESSAGE));
+        } else {
+            retried.incrementAndGet();
+            log.debug("Retrying record via {}", destination.topic());
+        }
+        return kafkaTemplate.send(destination).thenAccept(result -> { });
+    }
+
+    /**
+     * Runs the due part of a tier batch through {@code processor}, which routes its own
+     * failures, and commits it. Due-ness is decided per partition: records in one partition of a
+     * tier wait the same delay, so once one is not due, neither are the records after it, while
+     * other partitions and tiers in the batch may well be. A partition with records held back is
+     * rewound to the first of them and paused until it is due; the rest of the container keeps
+     * consuming, and polling goes on, so the wait never runs into max.poll.interval.ms. Tier containers need
+     * {@link RetryTierContainerPostProcessor}.
+     */
+    public <R extends ConsumerRecord<?, ?>> void processDue(List<R> records,
+                                                            org.apache.kafka.clients.consumer.Consumer<?, ?> consumer,
+                                                            Consumer<List<R>> processor) {
+        long now = System.currentTimeMillis();
+        List<R> due = new ArrayList<>(records.size());
+        Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+        Map<TopicPartition, R> held = new LinkedHashMap<>();
+        for (R record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (held.containsKey(partition)) {
+                continue;
+            }
+            if (RetryHeaders.dueAt(record) > now) {
+                held.put(partition, record);
+            } else {
+                due.add(record);
+                processed.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            }
+        }
+        if (!due.isEmpty()) {
+            processor.accept(due);
+            consumer.commitSync(processed);
+        }
+        held.forEach((partition, first) -> {
+            consumer.seek(partition, first.offset());
+            tierContainers.pause(partition, Duration.ofMillis(Math.max(1, RetryHeaders.dueAt(first) - now)));
+        });
+    }
+
+    private static Headers copyHeaders(Headers source) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : source) {
+            if (!RetryHeaders.ALL.contains(header.key())) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static String stackTrace(Throwable failure) {
+        StringWriter out = new StringWriter();
+        failure.printStackTrace(new PrintWriter(out));
+        String trace = out.toString();
+        return trace.length() > MAX_STACKTRACE_CHARS ? trace.substring(0, MAX_STACKTRACE_CHARS) : trace;
+    }
+}
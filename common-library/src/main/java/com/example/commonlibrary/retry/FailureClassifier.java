@@ -0,0 +1,41 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.exception.ConflictException;
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.commonlibrary.exception.ServiceException;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Decides whether a failed record is worth retrying, using the same exception hierarchy
+ * the REST handlers map to status codes: what would be a 4xx (the event itself is wrong)
+ * goes straight to the dead-letter topic, what would be a 5xx is retried. The cause chain
+ * is walked, so a {@link BadRequestException} wrapped by a future is still fatal.
+ */
+public final class FailureClassifier {
+
+    private FailureClassifier() {
+    }
+
+    public static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ServiceException) {
+                return true;
+            }
+            if (isFatal(cause)) {
+                return false;
+            }
+        }
+        // Timeouts, lost connections and the like: most likely gone by the next tier
+        return true;
+    }
+
+    private static boolean isFatal(Throwable cause) {
+        return cause instanceof BadRequestException
+                || cause instanceof ResourceNotFoundException
+                || cause instanceof ConflictException
+                || cause instanceof SerializationException
+                || cause instanceof IllegalArgumentException
+                || cause instanceof ClassCastException;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.commonlibrary.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Headers {@link FailedRecordRouter} puts on records it moves to a retry tier or dead-letter topic.
+ * Numbers are 8-byte big-endian longs (like {@link com.example.commonlibrary.events.EventHeaders}),
+ * text is UTF-8.
+ */
+public final class RetryHeaders {
+
+    /** Retry number of a record in a tier topic, from 1; absent on the source topic. */
+    public static final String ATTEMPT = "x-retry-attempt";
+    /** Epoch millis before which a tier record must not be processed. */
+    public static final String DUE_AT = "x-retry-due-at";
+    public static final String ORIGINAL_TOPIC = "x-original-topic";
+    public static final String ORIGINAL_PARTITION = "x-original-partition";
+    public static final String ORIGINAL_OFFSET = "x-original-offset";
+    /** Class, message and stack trace of the last failure. */
+    public static final String EXCEPTION_CLASS = "x-exception-class";
+    public static final String EXCEPTION_MESSAGE = "x-exception-message";
+    public static final String EXCEPTION_STACKTRACE = "x-exception-stacktrace";
+    /** Whether the last failure was classified fatal ("true") or retries ran out ("false"). */
+    public static final String FATAL = "x-exception-fatal";
+
+    static final Set<String> ALL = Set.of(ATTEMPT, DUE_AT, ORIGINAL_TOPIC, ORIGINAL_PARTITION, ORIGINAL_OFFSET,
+            EXCEPTION_CLASS, EXCEPTION_MESSAGE, EXCEPTION_STACKTRACE, FATAL);
+
+    private RetryHeaders() {
+    }
+
+    /**
+     * Retries already made for the record: 0 on the source topic.
+     */
+    public static int attempt(ConsumerRecord<?, ?> record) {
+        long attempt = number(record.headers(), ATTEMPT);
+        return attempt > 0 ? (int) attempt : 0;
+    }
+
+    /**
+     * When the record may be processed; 0 (now) on the source topic.
+     */
+    public static long dueAt(ConsumerRecord<?, ?> record) {
+        return Math.max(0, number(record.headers(), DUE_AT));
+    }
+
+    /**
+     * The topic the record was first consumed from.
+     */
+    public static String originalTopic(ConsumerRecord<?, ?> record) {
+        String original = text(record.headers(), ORIGINAL_TOPIC);
+        return original != null ? original : record.topic();
+    }
+
+    public static long number(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    public static String text(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    static byte[] encode(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.commonlibrary.retry;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.config.ContainerPostProcessor;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Switches a retry-tier listener container to manual acks, so only what
+ * {@link FailedRecordRouter#processDue} processed gets committed, and remembers the container of
+ * each tier topic, so a partition whose next record is not due yet can be paused on its own.
+ * Referenced by bean name from {@code @KafkaListener(containerPostProcessor = ...)}.
+ */
+public class RetryTierContainerPostProcessor
+        implements ContainerPostProcessor<Object, Object, AbstractMessageListenerContainer<Object, Object>>,
+        DisposableBean {
+
+    public static final String BEAN_NAME = "retryTierContainerPostProcessor";
+
+    private final Map<String, MessageListenerContainer> containers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService resumer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "retry-tier-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void postProcess(AbstractMessageListenerContainer<Object, Object> container) {
+        container.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        String[] topics = container.getContainerProperties().getTopics();
+        if (topics != null) {
+            for (String topic : topics) {
+                containers.put(topic, container);
+            }
+        }
+    }
+
+    /**
+     * Pauses one tier partition for {@code wait}; the rest of its container keeps consuming.
+     * The container applies it before its next poll.
+     */
+    public void pause(TopicPartition partition, Duration wait) {
+        MessageListenerContainer container = containers.get(partition.topic());
+        if (container == null) {
+            throw new IllegalStateException("No retry tier container consumes " + partition.topic());
+        }
+        container.pausePartition(partition);
+        resumer.schedule(() -> container.resumePartition(partition), wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        resumer.shutdownNow();
+    }
+}
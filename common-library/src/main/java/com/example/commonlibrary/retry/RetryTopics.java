@@ -0,0 +1,95 @@
+package com.example.commonlibrary.retry;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Names and delays of the retry tiers behind a source topic, for this service's consumer group.
+ * <pre>
+ * order-events --fails--> order-events.payments-group.retry-1   (after initialDelay)
+ *                     --> order-events.payments-group.retry-2   (after initialDelay * multiplier)
+ *                     --> ...
+ *                     --> order-events.payments-group.dlt       (attempts used up, or a fatal error)
+ * </pre>
+ * The group is part of the name because several groups consume the same source topic
+ * (payment-events), and each must only see its own failures again. Every record in a tier
+ * waits the same delay, so a tier's partitions are ordered by due time.
+ */
+public class RetryTopics {
+
+    private final String groupId;
+    private final int attempts;
+    private final Duration initialDelay;
+    private final double multiplier;
+    private final Duration maxDelay;
+
+    public RetryTopics(String groupId, int attempts, Duration initialDelay, double multiplier, Duration maxDelay) {
+        if (attempts < 0) {
+            throw new IllegalArgumentException("attempts must not be negative");
+        }
+        this.groupId = groupId;
+        this.attempts = attempts;
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * Number of retry tiers; a record is processed at most {@code attempts + 1} times.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * The tier topic for retry {@code attempt}, counted from 1.
+     */
+    public String tierTopic(String sourceTopic, int attempt) {
+        return sourceTopic + "." + groupId + ".retry-" + attempt;
+    }
+
+    /**
+     * Every tier topic of {@code sourceTopic}, for a listener's {@code topics} attribute.
+     */
+    public String[] tierTopics(String sourceTopic) {
+        String[] topics = new String[attempts];
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            topics[attempt - 1] = tierTopic(sourceTopic, attempt);
+        }
+        return topics;
+    }
+
+    public String deadLetterTopic(String sourceTopic) {
+        return sourceTopic + "." + groupId + ".dlt";
+    }
+
+    /**
+     * How long a record waits in tier {@code attempt}: initialDelay * multiplier^(attempt-1), capped at maxDelay.
+     */
+    public Duration delay(int attempt) {
+        double millis = initialDelay.toMillis() * Math.pow(multiplier, attempt - 1);
+        return millis >= maxDelay.toMillis() ? maxDelay : Duration.ofMillis((long) millis);
+    }
+
+    /**
+     * The tier and dead-letter topics of {@code sourceTopic}, with its partition count so
+     * redirected records keep the same key-to-partition spread.
+     */
+    public KafkaAdmin.NewTopics newTopics(String sourceTopic, int partitions) {
+        List<NewTopic> topics = new ArrayList<>(attempts + 1);
+        for (String tier : tierTopics(sourceTopic)) {
+            topics.add(TopicBuilder.name(tier).partitions(partitions).replicas(1).build());
+        }
+        topics.add(TopicBuilder.name(deadLetterTopic(sourceTopic)).partitions(partitions).replicas(1).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.commonlibrary.threads;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread.
+ * Listens in-process for the JFR {@code jdk.VirtualThreadPinned} event, which the JDK emits
+ * when a virtual thread parks inside a synchronized block or native frame for longer than the
+ * threshold. Each distinct call site is logged once at WARN with its stack, later hits at DEBUG;
+ * totals are exported as gauges.
+ */
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedNanos = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> pinnedSites = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MetricsService metricsService, Duration threshold) {
+        this.threshold = threshold;
+        metricsService.registerGauge("virtual.threads.pinned", "Virtual thread pinning events over the threshold", pinnedEvents::get);
+        metricsService.registerGauge("virtual.threads.pinned.ms", "Time virtual threads spent pinned", () -> pinnedNanos.get() / 1_000_000);
+        metricsService.registerGauge("virtual.threads.pinned.sites", "Distinct call sites that pinned a carrier", pinnedSites::size);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual threads pinned for more than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        pinnedNanos.addAndGet(event.getDuration().toNanos());
+
+        String site = describe(event.getStackTrace());
+        long hits = pinnedSites.computeIfAbsent(site, key -> new AtomicLong()).incrementAndGet();
+        if (hits == 1) {
+            log.warn("Virtual thread pinned its carrier for {} ms on {}:{}",
+                    event.getDuration().toMillis(), event.getThread() != null ? event.getThread().getJavaName() : "?", site);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Virtual thread pinned for {} ms ({} times at this site)", event.getDuration().toMillis(), hits);
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " <no stack trace>";
+        }
+        StringBuilder site = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(frames.size(), REPORTED_FRAMES); i++) {
+            RecordedFrame frame = frames.get(i);
+            site.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        return site.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.commonlibrary.benchmark;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.binary.BinaryEventDeserializer;
+import com.example.commonlibrary.events.binary.BinaryEventSerializer;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.money.MoneyModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Kafka JSON serde the services used (spring-kafka JsonSerializer/JsonDeserializer,
+ * no type headers) with the binary event serde, on an {@link OrderCreatedEvent}.
+ * Bytes on the wire are printed at setup; run with the GC profiler for bytes allocated per op:
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *      com.example.commonlibrary.benchmark.EventSerializationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    private OrderCreatedEvent event;
+
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private byte[] jsonBytes;
+
+    private BinaryEventSerializer binarySerializer;
+    private BinaryEventDeserializer binaryDeserializer;
+    private ByteBuffer binaryRecord;
+
+    @Setup
+    public void setUp() {
+        event = OrderCreatedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(UUID.randomUUID().toString())
+                .productName("Laptop")
+                .quantity(1)
+                .price(Money.parse("999.99", Money.DEFAULT_CURRENCY))
+                .totalAmount(Money.parse("999.99", Money.DEFAULT_CURRENCY))
+                .customerEmail("customer@example.com")
+                .status("PENDING")
+                .occurredAt(Instant.now())
+                .build();
+
+        ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper().registerModule(new MoneyModule());
+        jsonSerializer = new JsonSerializer<>(objectMapper);
+        jsonSerializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        jsonDeserializer = new JsonDeserializer<>(objectMapper);
+        jsonDeserializer.configure(Map.of(
+                JsonDeserializer.VALUE_DEFAULT_TYPE, OrderCreatedEvent.class.getName(),
+                JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        jsonBytes = jsonSerializer.serialize(TOPIC, event);
+
+        binarySerializer = new BinaryEventSerializer();
+        binaryDeserializer = new BinaryEventDeserializer();
+        byte[] binaryBytes = binarySerializer.serialize(TOPIC, event);
+        binaryRecord = ByteBuffer.wrap(binaryBytes);
+
+        if (!event.equals(binaryDeserializer.deserialize(TOPIC, binaryBytes))) {
+            throw new IllegalStateException("Binary round trip changed the event");
+        }
+        System.out.printf("%nbytes on the wire: json=%d binary=%d%n", jsonBytes.length, binaryBytes.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, new RecordHeaders(), jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        // The ByteBuffer overload is what the consumer's fetcher calls
+        return binaryDeserializer.deserialize(TOPIC, null, binaryRecord);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.commonlibrary.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.FileAppender;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.logging.RingBufferAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost to the calling thread of one request-path log line at steady load, with several threads
+ * logging at once: written synchronously to a file (the previous setup), handed to a
+ * {@link RingBufferAppender} in front of the same file, and rate-limited by a {@link LogSampler}
+ * before that. The last two benchmarks compare a disabled DEBUG line with three primitive
+ * arguments, unguarded (boxing and a varargs array per call) and behind isDebugEnabled().
+ * <p>
+ * The ring buffer fills once producers outrun the file, after which INFO lines are dropped
+ * rather than slowing requests down; the dropped count is printed at teardown.
+ * Run with the GC profiler to see allocations per call (gc.alloc.rate.norm):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *      com.example.commonlibrary.benchmark.LoggingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String ORDER_ID = UUID.randomUUID().toString();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private LoggerContext context;
+    private File syncFile;
+    private File asyncFile;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private RingBufferAppender ring;
+    private LogSampler.Site site;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        syncFile = Files.createTempFile("logging-benchmark-sync", ".log").toFile();
+        asyncFile = Files.createTempFile("logging-benchmark-async", ".log").toFile();
+
+        syncLogger = logger("sync", Level.INFO);
+        syncLogger.addAppender(fileAppender(syncFile));
+
+        ring = new RingBufferAppender(fileAppender(asyncFile), 8192);
+        ring.setContext(context);
+        ring.start();
+        asyncLogger = logger("async", Level.INFO);
+        asyncLogger.addAppender(ring);
+
+        site = new LogSampler(10, Duration.ofSeconds(1)).site("create-order");
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("Ring buffer dropped " + ring.getDropped() + " INFO lines");
+        context.stop();
+        syncFile.delete();
+        asyncFile.delete();
+    }
+
+    @Benchmark
+    public void syncFileAppender() {
+        syncLogger.info("Order created successfully with ID: {}", ORDER_ID);
+    }
+
+    @Benchmark
+    public void ringBufferAppender() {
+        asyncLogger.info("Order created successfully with ID: {}", ORDER_ID);
+    }
+
+    @Benchmark
+    public void sampledRingBufferAppender() {
+        if (site.tryAcquire()) {
+            asyncLogger.info("Order created successfully with ID: {} ({} similar suppressed)", ORDER_ID, site.takeSuppressed());
+        }
+    }
+
+    @Benchmark
+    public void disabledDebugUnguarded() {
+        int n = sequence.incrementAndGet();
+        asyncLogger.debug("Processed batch of {} order events across {} partitions, {} new payments", n, n % 16, n * 2);
+    }
+
+    @Benchmark
+    public void disabledDebugGuarded() {
+        int n = sequence.incrementAndGet();
+        if (asyncLogger.isDebugEnabled()) {
+            asyncLogger.debug("Processed batch of {} order events across {} partitions, {} new payments", n, n % 16, n * 2);
+        }
+    }
+
+    private Logger logger(String name, Level level) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        return logger;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(File file) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setName(file.getName());
+        appender.setFile(file.getAbsolutePath());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoggingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
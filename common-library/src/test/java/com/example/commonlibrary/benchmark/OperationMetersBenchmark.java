@@ -0,0 +1,87 @@
+package com.example.commonlibrary.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares recording an operation success through a meter builder on every call
+ * (the previous MetricsService path) with the cached {@link OperationMeters} handle.
+ *
+ * Run with the GC profiler to see allocations per call (gc.alloc.rate.norm):
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *      com.example.commonlibrary.benchmark.OperationMetersBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationMetersBenchmark {
+
+    private static final String OPERATION = "create-order";
+
+    private MetricsService metricsService;
+    private OperationMeters handle;
+
+    @Setup
+    public void setUp() {
+        // Benchmark the meters, not the console appender
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(registry, "orders-service");
+        handle = metricsService.operation(OPERATION);
+    }
+
+    @Benchmark
+    public void builderPerCall() {
+        metricsService.createOperationCounter(OPERATION, "success").increment();
+        metricsService.createOperationTimer(OPERATION);
+        metricsService.incrementSuccessfulApiCalls();
+    }
+
+    @Benchmark
+    public void cachedLookupByName() {
+        OperationMeters meters = metricsService.operation(OPERATION);
+        meters.recordSuccess();
+        meters.getDurationTimer();
+    }
+
+    @Benchmark
+    public void resolvedHandle() {
+        handle.recordSuccess();
+        handle.getDurationTimer();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OperationMetersBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
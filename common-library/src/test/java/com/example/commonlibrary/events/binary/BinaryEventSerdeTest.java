@@ -0,0 +1,182 @@
+package com.example.commonlibrary.events.binary;
+
+import com.example.commonlibrary.events.NotificationSentEvent;
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.money.MoneyModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryEventSerdeTest {
+
+    private final BinaryEventSerializer serializer = new BinaryEventSerializer();
+    private final BinaryEventDeserializer deserializer = new BinaryEventDeserializer();
+
+    static OrderCreatedEvent orderCreated() {
+        return OrderCreatedEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(UUID.randomUUID().toString())
+                .productName("Laptop – 16\" 😀")
+                .quantity(3)
+                .price(Money.parse("999.99", Money.DEFAULT_CURRENCY))
+                .totalAmount(Money.parse("2999.97", Money.DEFAULT_CURRENCY))
+                .customerEmail("customer@example.com")
+                .status("PENDING")
+                .occurredAt(Instant.parse("2025-11-02T10:15:30.123456789Z"))
+                .build();
+    }
+
+    @Test
+    void roundTripsEveryEventType() {
+        OrderCreatedEvent order = orderCreated();
+        PaymentProcessedEvent payment = PaymentProcessedEvent.builder()
+                .eventId("not-a-uuid").orderId(order.getOrderId()).amount(Money.of(-1, Currency.getInstance("EUR"))).customerEmail(null)
+                .status("COMPLETED").occurredAt(Instant.EPOCH.minusNanos(1)).build();
+        NotificationSentEvent notification = NotificationSentEvent.builder()
+                .eventId(UUID.randomUUID().toString().toUpperCase()).orderId(order.getOrderId())
+                .recipient("customer@example.com").channel("EMAIL").status("SENT").occurredAt(Instant.now()).build();
+
+        OrderPaymentEvent joined = OrderPaymentEvent.of(payment, order);
+        OrderPaymentEvent unjoined = OrderPaymentEvent.of(payment, null);
+
+        for (Object event : new Object[]{order, payment, notification, joined, unjoined}) {
+            assertEquals(event, deserializer.deserialize("t", serializer.serialize("t", event)));
+        }
+    }
+
+    @Test
+    void streamsSerdeOnlyAcceptsItsOwnType() {
+        BinaryEventSerde<OrderCreatedEvent> serde = BinaryEventSerde.of(OrderCreatedEvent.class);
+        OrderCreatedEvent order = orderCreated();
+
+        assertEquals(order, serde.deserializer().deserialize("t", serde.serializer().serialize("t", order)));
+        byte[] payment = serializer.serialize("t", PaymentProcessedEvent.builder().eventId("e").status("FAILED").build());
+        assertThrows(SerializationException.class, () -> serde.deserializer().deserialize("t", payment));
+        assertThrows(IllegalArgumentException.class, () -> BinaryEventSerde.of(String.class));
+    }
+
+    @Test
+    void returnsKnownValuesAsConstantsAndReadsFromBufferOffset() {
+        byte[] bytes = serializer.serialize("t", orderCreated());
+        ByteBuffer record = ByteBuffer.allocate(bytes.length + 10);
+        record.position(5);
+        record.put(bytes);
+        record.position(5).limit(5 + bytes.length);
+
+        OrderCreatedEvent decoded = (OrderCreatedEvent) deserializer.deserialize("t", null, record);
+        assertSame("PENDING", decoded.getStatus());
+        assertEquals(orderCreated().getProductName(), decoded.getProductName());
+    }
+
+    @Test
+    void isSmallerThanJson() {
+        OrderCreatedEvent event = orderCreated();
+        try (JsonSerializer<Object> json = new JsonSerializer<>(JacksonUtils.enhancedObjectMapper().registerModule(new MoneyModule()))) {
+            json.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            int jsonSize = json.serialize("t", event).length;
+            int binarySize = serializer.serialize("t", event).length;
+            assertTrue(binarySize * 2 < jsonSize, "binary " + binarySize + " bytes vs json " + jsonSize);
+        }
+    }
+
+    @Test
+    void fallsBackToJsonWhenConfigured() {
+        OrderCreatedEvent event = orderCreated();
+        byte[] json;
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>(JacksonUtils.enhancedObjectMapper().registerModule(new MoneyModule()))) {
+            serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            json = serializer.serialize("t", event);
+        }
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("t", json));
+
+        BinaryEventDeserializer withFallback = new BinaryEventDeserializer();
+        withFallback.configure(Map.of(
+                JsonDeserializer.VALUE_DEFAULT_TYPE, OrderCreatedEvent.class.getName(),
+                JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        assertEquals(event, withFallback.deserialize("t", json));
+    }
+
+    @Test
+    void skipsFieldsItDoesNotKnow() {
+        byte[] bytes = serializer.serialize("t", orderCreated());
+        byte[] extended = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, extended, 0, bytes.length);
+        // Field 15, length-delimited, two bytes: as written by a newer schema version
+        extended[bytes.length] = (byte) WireFormat.tag(15, WireFormat.LENGTH_DELIMITED);
+        extended[bytes.length + 1] = 2;
+
+        assertEquals(orderCreated().getProductName(),
+                ((OrderCreatedEvent) deserializer.deserialize("t", extended)).getProductName());
+    }
+
+    @Test
+    void skipsAnUnknownFieldBeforeKnownOnes() {
+        byte[] bytes = serializer.serialize("t", orderCreated());
+        // Magic byte and schema id, then field 15 with a three-byte value, then the known fields
+        byte[] extended = new byte[bytes.length + 5];
+        extended[0] = bytes[0];
+        extended[1] = bytes[1];
+        extended[2] = (byte) WireFormat.tag(15, WireFormat.LENGTH_DELIMITED);
+        extended[3] = 3;
+        System.arraycopy(bytes, 2, extended, 7, bytes.length - 2);
+
+        assertEquals(orderCreated().getProductName(),
+                ((OrderCreatedEvent) deserializer.deserialize("t", extended)).getProductName());
+    }
+
+    @Test
+    void writesNoReservedFieldsButStillReadsThemFromOlderRecords() {
+        OrderCreatedEvent order = orderCreated();
+        List<Integer> fields = fieldNumbers(new OrderCreatedEventCodec(), order);
+        assertFalse(fields.contains(5) || fields.contains(6), fields.toString());
+        PaymentProcessedEvent payment = PaymentProcessedEvent.builder()
+                .eventId(order.getEventId()).orderId(order.getOrderId()).amount(order.getTotalAmount())
+                .status("COMPLETED").occurredAt(order.getOccurredAt()).build();
+        assertFalse(fieldNumbers(new PaymentProcessedEventCodec(), payment).contains(3));
+
+        // An order written before fields 10 to 12: amounts only as doubles
+        byte[] legacy = new byte[64];
+        BinaryEventWriter out = BinaryEventWriter.into(legacy, 0);
+        out.writeString(3, "Laptop");
+        out.writeDouble(5, 999.99);
+        out.writeDouble(6, 2999.97);
+        OrderCreatedEvent read = new OrderCreatedEventCodec()
+                .read(new BinaryEventReader(ByteBuffer.wrap(legacy, 0, out.position()), 0));
+        assertEquals(Money.parse("999.99", Money.DEFAULT_CURRENCY), read.getPrice());
+        assertEquals(Money.parse("2999.97", Money.DEFAULT_CURRENCY), read.getTotalAmount());
+    }
+
+    private static <T> List<Integer> fieldNumbers(EventCodec<T> codec, T event) {
+        BinaryEventWriter measuring = BinaryEventWriter.measuring();
+        codec.write(event, measuring);
+        byte[] bytes = new byte[measuring.position()];
+        codec.write(event, BinaryEventWriter.into(bytes, 0));
+
+        List<Integer> fields = new ArrayList<>();
+        BinaryEventReader in = new BinaryEventReader(ByteBuffer.wrap(bytes), 0);
+        for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+            fields.add(BinaryEventReader.fieldNumber(tag));
+            in.skip(tag);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.commonlibrary.exception;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExpectedExceptionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MetricsService metricsService = new MetricsService(registry, "test");
+
+    @Test
+    void expectedErrorsCarryNoStackTrace() {
+        assertEquals(0, new ResourceNotFoundException("Order", "id", 42).getStackTrace().length);
+        assertEquals(0, new BadRequestException("bad").getStackTrace().length);
+        assertEquals(0, new ConflictException("stale").getStackTrace().length);
+        assertNull(new BadRequestException("bad").getCause());
+    }
+
+    @Test
+    void notFoundMessageIsBuiltOnDemand() {
+        assertEquals("Order not found with id: '42'", new ResourceNotFoundException("Order", "id", 42).getMessage());
+        assertEquals("gone", new ResourceNotFoundException("gone").getMessage());
+    }
+
+    @Test
+    void expectedSamplesAreNeitherSuccessesNorFailures() {
+        OperationMeters meters = metricsService.operation("get-order");
+        try (OperationSample sample = meters.start()) {
+            sample.expected();
+        }
+
+        assertEquals(1, meters.getExpectedCounter().count());
+        assertEquals(0, meters.getFailureCounter().count());
+        assertEquals(0, meters.getSuccessCounter().count());
+        assertEquals(1, meters.getDurationTimer().count());
+    }
+
+    @Test
+    void handlerCountsMissesApartFromFailures() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(metricsService);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/42");
+
+        ResponseEntity<ErrorResponse> response = handler.handleResourceNotFoundException(
+                new ResourceNotFoundException("Order", "id", 42), new ServletWebRequest(request));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("/api/orders/42", response.getBody().getPath());
+        assertEquals(1, registry.get("api.calls.expected-error").counter().count());
+        assertEquals(0, registry.get("api.calls.failure").counter().count());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.commonlibrary.ids;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void idsCarryTheirTimeAndWorkerAndSortAsText() {
+        AtomicLong clock = new AtomicLong(NOW);
+        IdGenerator generator = new IdGenerator(37, clock::get);
+
+        long first = generator.nextLong();
+        long second = generator.nextLong();
+        clock.addAndGet(1);
+        long third = generator.nextLong();
+
+        assertEquals(Instant.ofEpochMilli(NOW), IdGenerator.timestampOf(first));
+        assertEquals(37, IdGenerator.workerOf(first));
+        assertEquals(first + 1, second);
+        assertEquals(Instant.ofEpochMilli(NOW + 1), IdGenerator.timestampOf(third));
+
+        String a = IdGenerator.format(first);
+        String b = IdGenerator.format(second);
+        String c = IdGenerator.format(third);
+        assertEquals(IdGenerator.LENGTH, a.length());
+        assertTrue(a.compareTo(b) < 0 && b.compareTo(c) < 0);
+        assertEquals(third, IdGenerator.parse(c));
+    }
+
+    @Test
+    void keepsIncreasingWhenTheSequenceRunsOutOrTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        IdGenerator generator = new IdGenerator(1, clock::get);
+
+        long previous = generator.nextLong();
+        for (int i = 0; i < 5000; i++) {
+            long next = generator.nextLong();
+            assertTrue(next > previous);
+            previous = next;
+        }
+        // 4096 ids per millisecond: the rest borrowed the next one
+        assertEquals(Instant.ofEpochMilli(NOW + 1), IdGenerator.timestampOf(previous));
+
+        clock.set(NOW - 1000);
+        assertTrue(generator.nextLong() > previous);
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws Exception {
+        IdGenerator generator = new IdGenerator(5);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            done.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : done) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void parsesOnlyTheCanonicalForm() {
+        long id = new IdGenerator(IdGenerator.MAX_WORKER_ID).nextLong();
+        String text = IdGenerator.format(id);
+
+        assertEquals(id, IdGenerator.parse(text));
+        assertFalse(IdGenerator.isValid(text.toLowerCase()));
+        assertFalse(IdGenerator.isValid("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+        assertFalse(IdGenerator.isValid("ZZZZZZZZZZZZZ"));
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_WORKER_ID + 1));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.commonlibrary.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSamplerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final LogSampler sampler = new LogSampler(3, Duration.ofSeconds(1), now::get);
+
+    @Test
+    void letsTheLimitThroughPerIntervalAndCountsTheRest() {
+        LogSampler.Site site = sampler.site("create-order");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(site.tryAcquire());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertFalse(site.tryAcquire());
+        }
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(site.tryAcquire());
+        assertEquals(5, site.takeSuppressed());
+        assertEquals(0, site.takeSuppressed());
+        assertEquals(5, sampler.getSuppressed());
+    }
+
+    @Test
+    void sitesAreLimitedIndependently() {
+        LogSampler.Site first = sampler.site("first");
+        LogSampler.Site second = sampler.site("second");
+        for (int i = 0; i < 3; i++) {
+            first.tryAcquire();
+        }
+
+        assertFalse(first.tryAcquire());
+        assertTrue(second.tryAcquire());
+        assertSame(first, sampler.site("first"));
+    }
+}
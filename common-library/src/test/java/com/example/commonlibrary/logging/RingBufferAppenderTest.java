@@ -0,0 +1,124 @@
+package com.example.commonlibrary.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferAppenderTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("test");
+
+    RingBufferAppenderTest() {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void writesEveryEventInOrderFromConcurrentProducersAndFlushesOnStop() throws InterruptedException {
+        RecordingAppender target = new RecordingAppender(null);
+        RingBufferAppender ring = attach(target, 64);
+
+        int threads = 4;
+        int perThread = 2_000;
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            String name = "producer-" + t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    logger.warn("{} {}", name, i);
+                }
+            }, name);
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        ring.stop();
+
+        assertEquals(threads * perThread, target.messages.size());
+        for (int t = 0; t < threads; t++) {
+            String prefix = "producer-" + t + " ";
+            List<String> own = target.messages.stream().filter(m -> m.startsWith(prefix)).toList();
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(prefix + i, own.get(i));
+            }
+        }
+        assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    void dropsInfoButKeepsWarnWhenTheBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender target = new RecordingAppender(release);
+        RingBufferAppender ring = attach(target, 4);
+
+        // The writer blocks on the first event; the next four fill the buffer
+        for (int i = 0; i < 5; i++) {
+            logger.info("fill {}", i);
+        }
+        assertTrue(target.blocked.await(5, TimeUnit.SECONDS));
+        logger.info("fill 5");
+        logger.info("dropped");
+        assertTrue(ring.getDropped() >= 1);
+
+        Thread warn = new Thread(() -> logger.warn("kept"));
+        warn.start();
+        release.countDown();
+        warn.join(5_000);
+        ring.stop();
+
+        assertTrue(target.messages.contains("kept"));
+        assertFalse(target.messages.contains("dropped"));
+        assertEquals(8, target.messages.size() + ring.getDropped());
+    }
+
+    private RingBufferAppender attach(RecordingAppender target, int capacity) {
+        target.setContext(context);
+        target.setName("RECORDING");
+        target.start();
+        RingBufferAppender ring = new RingBufferAppender(target, capacity);
+        ring.setContext(context);
+        ring.start();
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(ring);
+        return ring;
+    }
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+
+        private RecordingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            if (release != null && blocked.getCount() > 0) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.commonlibrary.metrics.kafka;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLatencyInterceptorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("order-events", 3);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EventLatencyInterceptor interceptor =
+            new EventLatencyInterceptor(new MetricsService(registry, "payment-service"));
+
+    @Test
+    void recordsHopAndEndToEndLatencyFromHeaders() {
+        long now = System.currentTimeMillis();
+        ConsumerRecord<Object, Object> record = record(0, now - 200, now - 1_000);
+
+        interceptor.intercept(new ConsumerRecords<>(Map.of(PARTITION, List.of(record))), consumer(1));
+
+        Timer hop = registry.get("payment-service.event.latency.hop").tag("topic", "order-events").timer();
+        Timer endToEnd = registry.get("payment-service.event.latency.end-to-end").tag("topic", "order-events").timer();
+        assertEquals(1, hop.count());
+        assertTrue(hop.max(TimeUnit.MILLISECONDS) >= 200 && hop.max(TimeUnit.MILLISECONDS) < 1_000);
+        assertTrue(endToEnd.max(TimeUnit.MILLISECONDS) >= 1_000);
+    }
+
+    @Test
+    void fallsBackToRecordTimestampWithoutHeaders() {
+        long now = System.currentTimeMillis();
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), 0,
+                now - 500, TimestampType.CREATE_TIME, 0, 0, "key", "value",
+                new RecordHeaders(), Optional.empty());
+
+        assertEquals(now - 500, EventHeaders.createdAt(record));
+        assertEquals(now - 500, EventHeaders.originCreatedAt(record));
+    }
+
+    @Test
+    void reportsLagPerAssignedPartition() {
+        MockConsumer<Object, Object> consumer = consumer(10);
+        consumer.poll(Duration.ZERO);
+
+        interceptor.intercept(ConsumerRecords.empty(), consumer);
+
+        Gauge lag = registry.get("payment-service.kafka.consumer.lag")
+                .tag("topic", "order-events").tag("partition", "3").gauge();
+        assertEquals(10, lag.value());
+
+        consumer.seek(PARTITION, 4);
+        interceptor.intercept(ConsumerRecords.empty(), consumer);
+        assertEquals(6, lag.value());
+
+        consumer.assign(List.of());
+        interceptor.intercept(ConsumerRecords.empty(), consumer);
+        assertEquals(0, lag.value());
+    }
+
+    private static MockConsumer<Object, Object> consumer(long endOffset) {
+        MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(PARTITION));
+        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+        consumer.updateEndOffsets(Map.of(PARTITION, endOffset));
+        return consumer;
+    }
+
+    private static ConsumerRecord<Object, Object> record(long offset, long createdAt, long originCreatedAt) {
+        ProducerRecord<Object, Object> sent = EventHeaders.producerRecord(
+                PARTITION.topic(), "key", "value", createdAt, originCreatedAt);
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, createdAt,
+                TimestampType.CREATE_TIME, 0, 0, "key", "value", sent.headers(), Optional.empty());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.commonlibrary.metrics.service;
+
+import io.micrometer.core.instrument.MockClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingWindowTest {
+
+    private final MockClock clock = new MockClock();
+    private final RollingWindow window = new RollingWindow(clock);
+
+    @Test
+    void countsCallsPerWindowAndForgetsThemOnceTheyAreOlder() {
+        // A failure now and then ten successes a minute for ten minutes
+        window.recordFailure();
+        for (int minute = 0; minute < 10; minute++) {
+            clock.add(Duration.ofMinutes(1));
+            for (int i = 0; i < 10; i++) {
+                window.recordSuccess();
+            }
+        }
+        window.recordExpected();
+
+        RollingWindow.Stats lastMinute = window.stats(Duration.ofMinutes(1));
+        assertEquals(11, lastMinute.getCalls());
+        assertEquals(0, lastMinute.getFailures());
+        assertEquals(1, lastMinute.getExpected());
+
+        RollingWindow.Stats lastFifteen = window.stats(Duration.ofMinutes(15));
+        assertEquals(102, lastFifteen.getCalls());
+        assertEquals(1, lastFifteen.getFailures());
+        assertEquals(1.0 / 102, lastFifteen.getFailureRate(), 1e-9);
+        // Ten minutes of history, not fifteen
+        assertEquals(102 / 600.0, lastFifteen.getCallsPerSecond(), 0.01);
+
+        // Fifteen minutes later, every slot has been reused or left behind
+        clock.add(Duration.ofMinutes(15));
+        window.recordSuccess();
+        assertEquals(1, window.stats(Duration.ofMinutes(15)).getCalls());
+    }
+
+    @Test
+    void reportsLatencyPercentilesWithinABin() {
+        for (int i = 1; i <= 1000; i++) {
+            window.recordDuration(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        RollingWindow.Stats stats = window.stats(Duration.ofMinutes(1));
+        assertWithin(500, stats.getP50Ms());
+        assertWithin(950, stats.getP95Ms());
+        assertWithin(990, stats.getP99Ms());
+    }
+
+    @Test
+    void binsCoverEveryLatencyInOrder() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int bin = RollingWindow.bin(micros);
+            assertTrue(bin == previous || bin == previous + 1, micros + " -> " + bin);
+            previous = bin;
+        }
+        assertEquals(RollingWindow.BINS - 1, RollingWindow.bin(Long.MAX_VALUE));
+        assertEquals(0, RollingWindow.bin(-5));
+    }
+
+    private static void assertWithin(double expectedMs, double actualMs) {
+        assertTrue(Math.abs(actualMs - expectedMs) <= expectedMs * 0.125, actualMs + " for " + expectedMs);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.commonlibrary.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    private static final Currency USD = Money.DEFAULT_CURRENCY;
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new MoneyModule());
+
+    @Test
+    void parsesAndFormatsPlainDecimalsExactly() {
+        assertEquals(99999, Money.parse("999.99", USD).getMinorUnits());
+        assertEquals(1050, Money.parse("10.5", USD).getMinorUnits());
+        assertEquals(1050, Money.parse("10.500", USD).getMinorUnits());
+        assertEquals(-5, Money.parse("-0.05", USD).getMinorUnits());
+        assertEquals(120, Money.parse("120", JPY).getMinorUnits());
+
+        assertEquals("999.99", Money.of(99999, USD).toPlainString());
+        assertEquals("-0.05", Money.of(-5, USD).toPlainString());
+        assertEquals("0.00", Money.zero(USD).toPlainString());
+        assertEquals("120", Money.of(120, JPY).toPlainString());
+        assertEquals("-92233720368547758.08", Money.of(Long.MIN_VALUE, USD).toPlainString());
+        assertEquals(Long.MIN_VALUE, Money.parse("-92233720368547758.08", USD).getMinorUnits());
+
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001", USD));
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08", USD));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1,00", USD));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-", USD));
+    }
+
+    @Test
+    void arithmeticIsExactAndChecked() {
+        // 0.1 + 0.2 in doubles is 0.30000000000000004
+        assertEquals(Money.parse("0.30", USD), Money.parse("0.10", USD).plus(Money.parse("0.20", USD)));
+        assertEquals(Money.parse("2999.97", USD), Money.parse("999.99", USD).times(3));
+        assertThrows(ArithmeticException.class, () -> Money.of(Long.MAX_VALUE, USD).plus(Money.of(1, USD)));
+        assertThrows(ArithmeticException.class, () -> Money.of(1, USD).plus(Money.of(1, JPY)));
+        assertEquals(Money.of(1, USD), Money.ofApproximate(0.01, USD));
+    }
+
+    @Test
+    void jsonIsAPlainNumber() throws Exception {
+        assertEquals("{\"price\":999.99}", objectMapper.writeValueAsString(Map.of("price", Money.parse("999.99", USD))));
+        assertEquals(Money.of(99999, USD), objectMapper.readValue("999.99", Money.class));
+        assertEquals(Money.of(1000, USD), objectMapper.readValue("10", Money.class));
+        assertEquals(Money.of(1000, USD), objectMapper.readValue("1e1", Money.class));
+        assertEquals(Money.of(1000, USD), objectMapper.readValue("\"10.00\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("9.999", Money.class));
+    }
+
+    @Test
+    void decimal128EncodingMatchesTheDriver() {
+        for (long minorUnits : new long[]{0, 1, -1, 99999, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            Money money = Money.of(minorUnits, USD);
+            Decimal128 encoded = MoneyConverters.toDecimal128(money);
+            assertEquals(new Decimal128(money.toBigDecimal()), encoded);
+            assertEquals(money, MoneyConverters.fromDecimal128(encoded, USD));
+        }
+        // Other exponents, as $inc or $sum may produce
+        assertEquals(Money.of(1050, USD), MoneyConverters.fromDecimal128(new Decimal128(new BigDecimal("10.500")), USD));
+        assertEquals(Money.of(1000, USD), MoneyConverters.fromDecimal128(new Decimal128(10), USD));
+    }
+}
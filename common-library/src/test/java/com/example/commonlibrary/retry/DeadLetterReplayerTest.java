@@ -0,0 +1,45 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.events.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeadLetterReplayerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void replaysIntoTheGroupsFirstTierDueAtOnceWithAFullSetOfRetries() {
+        ProducerRecord<Object, Object> sent = EventHeaders.producerRecord("order-events", "order-1", "payload", 10, 5);
+        RecordHeaders headers = new RecordHeaders(sent.headers().toArray());
+        headers.add(RetryHeaders.ORIGINAL_TOPIC, RetryHeaders.encode("order-events"));
+        headers.add(RetryHeaders.ORIGINAL_PARTITION, RetryHeaders.encode(3));
+        headers.add(RetryHeaders.ORIGINAL_OFFSET, RetryHeaders.encode(42));
+        headers.add(RetryHeaders.ATTEMPT, RetryHeaders.encode(3));
+        headers.add(RetryHeaders.FATAL, RetryHeaders.encode("false"));
+        headers.add(RetryHeaders.EXCEPTION_MESSAGE, RetryHeaders.encode("still down"));
+        ConsumerRecord<Object, Object> dead = new ConsumerRecord<>("order-events.payments-group.dlt", 3, 7, NOW,
+                TimestampType.CREATE_TIME, 0, 0, "order-1", "payload", headers, Optional.empty());
+
+        ProducerRecord<Object, Object> replayed =
+                DeadLetterReplayer.toTier(dead, "order-events.payments-group.retry-1", "order-events", NOW);
+
+        assertEquals("order-events.payments-group.retry-1", replayed.topic());
+        assertEquals(3, replayed.partition());
+        assertEquals(NOW, RetryHeaders.number(replayed.headers(), RetryHeaders.DUE_AT));
+        assertEquals(-1, RetryHeaders.number(replayed.headers(), RetryHeaders.ATTEMPT));
+        assertNull(replayed.headers().lastHeader(RetryHeaders.FATAL));
+        assertNull(replayed.headers().lastHeader(RetryHeaders.EXCEPTION_MESSAGE));
+        assertEquals("order-events", RetryHeaders.text(replayed.headers(), RetryHeaders.ORIGINAL_TOPIC));
+        assertEquals(42, RetryHeaders.number(replayed.headers(), RetryHeaders.ORIGINAL_OFFSET));
+        assertEquals(5, EventHeaders.timestamp(replayed.headers(), EventHeaders.ORIGIN_CREATED_AT));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.commonlibrary.retry;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.exception.ServiceException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FailedRecordRouterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final RetryTopics retryTopics =
+            new RetryTopics("payments-group", 3, Duration.ofSeconds(1), 4, Duration.ofSeconds(10));
+    // KafkaTemplate closes the producer after each send; keep one open to inspect its history
+    private final MockProducer<Object, Object> producer =
+            new MockProducer<>(true, (Serializer<Object>) (t, v) -> null, (Serializer<Object>) (t, v) -> null) {
+                @Override
+                public void close(Duration timeout) {
+                }
+            };
+    private final AbstractMessageListenerContainer<Object, Object> tier1Container =
+            container("order-events.payments-group.retry-1");
+    private final AbstractMessageListenerContainer<Object, Object> tier2Container =
+            container("order-events.payments-group.retry-2");
+    private final RetryTierContainerPostProcessor tierContainers = new RetryTierContainerPostProcessor();
+    private final FailedRecordRouter router = new FailedRecordRouter(
+            new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)), retryTopics, tierContainers,
+            new MetricsService(new SimpleMeterRegistry(), "test"));
+
+    @BeforeEach
+    void setUp() {
+        tierContainers.postProcess(tier1Container);
+        tierContainers.postProcess(tier2Container);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tierContainers.destroy();
+    }
+
+    @Test
+    void retryableFailuresMoveThroughTiersWithGrowingDelays() {
+        ConsumerRecord<Object, Object> record = record("order-events", 5, 42, new RecordHeaders());
+        long[] expectedDelays = {1_000, 4_000, 10_000};
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            ProducerRecord<Object, Object> next = router.destination(record, new ServiceException("mongo timeout"), NOW);
+            assertEquals("order-events.payments-group.retry-" + attempt, next.topic());
+            assertEquals(5, next.partition());
+            assertEquals(attempt, RetryHeaders.number(next.headers(), RetryHeaders.ATTEMPT));
+            assertEquals(NOW + expectedDelays[attempt - 1], RetryHeaders.number(next.headers(), RetryHeaders.DUE_AT));
+            assertEquals("order-events", RetryHeaders.text(next.headers(), RetryHeaders.ORIGINAL_TOPIC));
+            assertEquals(42, RetryHeaders.number(next.headers(), RetryHeaders.ORIGINAL_OFFSET));
+            record = record(next.topic(), 5, attempt * 100L, next.headers());
+        }
+
+        ProducerRecord<Object, Object> dead = router.destination(record, new ServiceException("still down"), NOW);
+        assertEquals("order-events.payments-group.dlt", dead.topic());
+        assertEquals("false", RetryHeaders.text(dead.headers(), RetryHeaders.FATAL));
+        assertEquals(3, RetryHeaders.number(dead.headers(), RetryHeaders.ATTEMPT));
+        assertEquals(42, RetryHeaders.number(dead.headers(), RetryHeaders.ORIGINAL_OFFSET));
+        assertTrue(RetryHeaders.text(dead.headers(), RetryHeaders.EXCEPTION_STACKTRACE).contains("still down"));
+        assertEquals(1, countHeaders(dead, RetryHeaders.ATTEMPT));
+    }
+
+    @Test
+    void fatalFailuresGoStraightToDeadLetterKeepingEventHeaders() {
+        ProducerRecord<Object, Object> sent = EventHeaders.producerRecord("payment-events", "k", "v", 10, 5);
+        ConsumerRecord<Object, Object> record = record("payment-events", 0, 7, sent.headers());
+
+        ProducerRecord<Object, Object> dead = router.destination(
+                record, new CompletionException(new BadRequestException("amount missing")), NOW);
+
+        assertEquals("payment-events.payments-group.dlt", dead.topic());
+        assertEquals("true", RetryHeaders.text(dead.headers(), RetryHeaders.FATAL));
+        assertEquals(BadRequestException.class.getName(), RetryHeaders.text(dead.headers(), RetryHeaders.EXCEPTION_CLASS));
+        assertEquals("amount missing", RetryHeaders.text(dead.headers(), RetryHeaders.EXCEPTION_MESSAGE));
+        assertEquals(5, EventHeaders.timestamp(dead.headers(), EventHeaders.ORIGIN_CREATED_AT));
+    }
+
+    @Test
+    void classifiesByExceptionHierarchy() {
+        assertTrue(FailureClassifier.isRetryable(new ServiceException("down")));
+        assertTrue(FailureClassifier.isRetryable(new RuntimeException(new TimeoutException())));
+        assertTrue(FailureClassifier.isRetryable(new ServiceException("wrapped", new IllegalArgumentException())));
+        assertFalse(FailureClassifier.isRetryable(new BadRequestException("bad")));
+        assertFalse(FailureClassifier.isRetryable(new CompletionException(new IllegalArgumentException())));
+    }
+
+    @Test
+    void routeSendsAndCounts() {
+        router.routeAll(List.of(record("order-events", 1, 1, new RecordHeaders()),
+                record("order-events", 2, 2, new RecordHeaders())), new ServiceException("down")).join();
+
+        assertEquals(2, producer.history().size());
+        assertEquals("order-events.payments-group.retry-1", producer.history().get(0).topic());
+    }
+
+    @Test
+    void holdsBackOnlyThePartitionsWhoseNextRecordIsNotDue() {
+        long now = System.currentTimeMillis();
+        String tier1 = "order-events.payments-group.retry-1";
+        String tier2 = "order-events.payments-group.retry-2";
+        List<ConsumerRecord<Object, Object>> batch = List.of(
+                tierRecord(tier1, 0, 10, now - 10), tierRecord(tier1, 0, 11, now + 60_000),
+                tierRecord(tier1, 0, 12, now - 5),
+                tierRecord(tier1, 1, 20, now - 1), tierRecord(tier1, 1, 21, now - 1),
+                tierRecord(tier2, 0, 30, now + 30_000));
+        MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        TopicPartition tier1First = new TopicPartition(tier1, 0);
+        TopicPartition tier1Second = new TopicPartition(tier1, 1);
+        TopicPartition tier2First = new TopicPartition(tier2, 0);
+        consumer.assign(List.of(tier1First, tier1Second, tier2First));
+        List<ConsumerRecord<Object, Object>> processed = new ArrayList<>();
+
+        router.processDue(batch, consumer, processed::addAll);
+
+        assertEquals(List.of(10L, 20L, 21L), processed.stream().map(ConsumerRecord::offset).toList());
+        assertEquals(11, consumer.committed(Set.of(tier1First)).get(tier1First).offset());
+        assertEquals(22, consumer.committed(Set.of(tier1Second)).get(tier1Second).offset());
+        assertNull(consumer.committed(Set.of(tier2First)).get(tier2First));
+        assertEquals(11, consumer.position(tier1First));
+        assertEquals(30, consumer.position(tier2First));
+        verify(tier1Container).pausePartition(tier1First);
+        verify(tier2Container).pausePartition(tier2First);
+        verify(tier1Container, never()).pausePartition(tier1Second);
+    }
+
+    @Test
+    void commitsTheWholeBatchWhenEverythingIsDue() {
+        TopicPartition partition = new TopicPartition("order-events.payments-group.retry-1", 0);
+        MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(partition));
+        List<ConsumerRecord<Object, Object>> processed = new ArrayList<>();
+
+        router.processDue(List.of(tierRecord(partition.topic(), 0, 0, 1), tierRecord(partition.topic(), 0, 1, 1)),
+                consumer, processed::addAll);
+
+        assertEquals(2, processed.size());
+        assertEquals(2, consumer.committed(Set.of(partition)).get(partition).offset());
+        verify(tier1Container, never()).pausePartition(any());
+    }
+
+    private ConsumerRecord<Object, Object> tierRecord(String topic, int partition, long offset, long dueAt) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(RetryHeaders.DUE_AT, RetryHeaders.encode(dueAt));
+        return record(topic, partition, offset, headers);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AbstractMessageListenerContainer<Object, Object> container(String... topics) {
+        AbstractMessageListenerContainer<Object, Object> container = mock(AbstractMessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(topics));
+        return container;
+    }
+
+    private static ConsumerRecord<Object, Object> record(String topic, int partition, long offset,
+                                                         Headers headers) {
+        return new ConsumerRecord<>(topic, partition, offset, NOW, TimestampType.CREATE_TIME, 0, 0,
+                "order-1", "payload", headers, Optional.empty());
+    }
+
+    private static int countHeaders(ProducerRecord<?, ?> record, String key) {
+        int count = 0;
+        for (var ignored : record.headers().headers(key)) {
+            count++;
+        }
+        return count;
+    }
+}
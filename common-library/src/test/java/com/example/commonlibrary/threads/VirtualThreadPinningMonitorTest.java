@@ -0,0 +1,69 @@
+package com.example.commonlibrary.threads;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor =
+            new VirtualThreadPinningMonitor(new MetricsService(registry, "orders"), Duration.ofMillis(20));
+    private final Object lock = new Object();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void countsAVirtualThreadThatSleepsInsideASynchronizedBlock() throws Exception {
+        monitor.start();
+        assertTrue(monitor.isRunning());
+
+        Thread.ofVirtual().start(this::sleepHoldingTheLock).join();
+
+        // JFR streams events in periodic flushes, about once a second
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (monitor.getPinnedEvents() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, monitor.getPinnedEvents());
+        assertEquals(1.0, registry.get("orders.virtual.threads.pinned.sites").gauge().value());
+        assertTrue(registry.get("orders.virtual.threads.pinned.ms").gauge().value() >= 20);
+
+        monitor.stop();
+        assertFalse(monitor.isRunning());
+    }
+
+    @Test
+    void ignoresPinningBelowTheThreshold() throws Exception {
+        monitor.start();
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                Thread.yield();
+            }
+        }).join();
+        Thread.sleep(1500);
+
+        assertEquals(0, monitor.getPinnedEvents());
+    }
+
+    private void sleepHoldingTheLock() {
+        synchronized (lock) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
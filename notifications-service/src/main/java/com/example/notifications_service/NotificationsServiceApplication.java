@@ -2,8 +2,12 @@ package com.example.notifications_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ComponentScan(basePackages = {"com.example.notifications_service", "com.example.commonlibrary"})
+@EnableScheduling
 public class NotificationsServiceApplication {
 
 	public static void main(String[] args) {
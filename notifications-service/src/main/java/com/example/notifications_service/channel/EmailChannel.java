@@ -0,0 +1,32 @@
+package com.example.notifications_service.channel;
+
+import com.example.notifications_service.dispatch.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Email channel. Stands in for the email provider's client: it only logs the message.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.channels.email.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailChannel implements NotificationChannel {
+    private static final Logger log = LoggerFactory.getLogger(EmailChannel.class);
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public boolean supports(String recipient) {
+        return recipient.indexOf('@') > 0;
+    }
+
+    @Override
+    public void send(Notification notification) {
+        log.info("Email to {}: {} ({} payment events)", notification.getRecipient(), notification.getSubject(),
+                notification.getEventCount());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.notifications_service.channel;
+
+import com.example.notifications_service.dispatch.Notification;
+
+/**
+ * A way of reaching a recipient, such as email or SMS.
+ * Every channel bean gets its own rate limit and work queue in
+ * {@link com.example.notifications_service.dispatch.NotificationDispatcher}, configured under
+ * {@code notifications.channels.<name>}. Implementations are called from several worker threads.
+ */
+public interface NotificationChannel {
+
+    /**
+     * Short name used in configuration and metrics, e.g. "email".
+     */
+    String name();
+
+    /**
+     * Whether this channel can deliver to {@code recipient}.
+     */
+    boolean supports(String recipient);
+
+    /**
+     * Delivers the notification; throws if the provider refused it.
+     */
+    void send(Notification notification);
+}
@@ -0,0 +1,32 @@
+package com.example.notifications_service.channel;
+
+import com.example.notifications_service.dispatch.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * SMS channel for recipients given as E.164 phone numbers. Stands in for the SMS
+ * gateway's client: it only logs the message.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.channels.sms.enabled", havingValue = "true", matchIfMissing = true)
+public class SmsChannel implements NotificationChannel {
+    private static final Logger log = LoggerFactory.getLogger(SmsChannel.class);
+
+    @Override
+    public String name() {
+        return "sms";
+    }
+
+    @Override
+    public boolean supports(String recipient) {
+        return recipient.startsWith("+");
+    }
+
+    @Override
+    public void send(Notification notification) {
+        log.info("SMS to {}: {}", notification.getRecipient(), notification.getSubject());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.notifications_service.config;
+
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.retry.RetryTopics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaAdmin;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    /**
+     * Retry tiers and dead-letter topic for order-payment events this service failed to take in,
+     * partitioned like order-payment-events itself.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public KafkaAdmin.NewTopics orderPaymentEventsRetryTopics(RetryTopics retryTopics,
+                                                         @Value("${notifications.kafka.order-payment-events.partitions:12}") int partitions) {
+        return retryTopics.newTopics(Topics.ORDER_PAYMENT_EVENTS, partitions);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.notifications_service.consumer;
+
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.commonlibrary.retry.RetryTierContainerPostProcessor;
+import com.example.notifications_service.dispatch.NotificationCoalescer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Batch listener for payment events joined with their order (order-payment-events, written by
+ * the payments-service streams topology), so a notification can name what was ordered without
+ * a lookup in orders-service or its database (notifications-group). Events only join their
+ * recipient's window here; sending happens on the channel workers, so a slow provider
+ * does not hold the consumer back until the coalescer's pending limit is reached.
+ */
+@Component
+public class PaymentEventsListener {
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventsListener.class);
+
+    private final NotificationCoalescer coalescer;
+    private final FailedRecordRouter failedRecordRouter;
+    private final LogSampler.Site skippedLog;
+
+    public PaymentEventsListener(NotificationCoalescer coalescer, FailedRecordRouter failedRecordRouter,
+                                 LogSampler logSampler) {
+        this.coalescer = coalescer;
+        this.failedRecordRouter = failedRecordRouter;
+        this.skippedLog = logSampler.site("payment-event-skipped");
+    }
+
+    @KafkaListener(id = "notifications-order-payment-events", topics = Topics.ORDER_PAYMENT_EVENTS,
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            autoStartup = "${notifications.consumer.auto-startup:true}")
+    public void onPaymentEvents(List<ConsumerRecord<String, OrderPaymentEvent>> records) throws InterruptedException {
+        accept(records);
+    }
+
+    /**
+     * Payment events that failed before, from every retry tier, once due.
+     */
+    @KafkaListener(id = "notifications-order-payment-events-retry",
+            topics = "#{@retryTopics.tierTopics('" + Topics.ORDER_PAYMENT_EVENTS + "')}",
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            containerPostProcessor = RetryTierContainerPostProcessor.BEAN_NAME,
+            autoStartup = "${notifications.consumer.auto-startup:true}")
+    public void onPaymentEventRetries(List<ConsumerRecord<String, OrderPaymentEvent>> records, Consumer<?, ?> consumer) {
+        failedRecordRouter.processDue(records, consumer, due -> {
+            try {
+                accept(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while adding retried payment events", e);
+            }
+        });
+    }
+
+    /**
+     * Adds each event to its recipient's window; one that fails is routed to a retry tier
+     * and the rest carry on.
+     */
+    private void accept(List<ConsumerRecord<String, OrderPaymentEvent>> records) throws InterruptedException {
+        List<CompletableFuture<Void>> routed = new ArrayList<>();
+        for (ConsumerRecord<String, OrderPaymentEvent> record : records) {
+            OrderPaymentEvent event = record.value();
+            if (event == null || event.getEventId() == null || event.getCustomerEmail() == null) {
+                if (skippedLog.tryAcquire()) {
+                    log.warn("Skipping payment event without an event id or recipient at offset {}-{} ({} more not logged)",
+                            record.partition(), record.offset(), skippedLog.takeSuppressed());
+                }
+                continue;
+            }
+            try {
+                coalescer.add(event);
+            } catch (RuntimeException e) {
+                routed.add(failedRecordRouter.route(record, e));
+            }
+        }
+        CompletableFuture.allOf(routed.toArray(new CompletableFuture<?>[0])).join();
+    }
+}
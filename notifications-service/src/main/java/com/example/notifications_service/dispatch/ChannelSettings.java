@@ -0,0 +1,46 @@
+package com.example.notifications_service.dispatch;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Rate limit and queue sizing for one channel, read from {@code notifications.channels.<name>.*}.
+ */
+class ChannelSettings {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final int queueCapacity;
+    private final int workers;
+
+    ChannelSettings(double ratePerSecond, int burst, int queueCapacity, int workers) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.queueCapacity = queueCapacity;
+        this.workers = workers;
+    }
+
+    static ChannelSettings forChannel(String name, Environment environment) {
+        String prefix = "notifications.channels." + name + ".";
+        return new ChannelSettings(
+                environment.getProperty(prefix + "rate-per-second", Double.class, 50.0),
+                environment.getProperty(prefix + "burst", Integer.class, 100),
+                environment.getProperty(prefix + "queue-capacity", Integer.class, 1000),
+                environment.getProperty(prefix + "workers", Integer.class, 4));
+    }
+
+    double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    int getWorkers() {
+        return workers;
+    }
+}
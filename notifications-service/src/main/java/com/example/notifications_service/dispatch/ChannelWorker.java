@@ -0,0 +1,79 @@
+package com.example.notifications_service.dispatch;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.notifications_service.channel.NotificationChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one channel's notifications from a bounded queue on a few worker threads,
+ * each send taking a token from the channel's {@link TokenBucket} first.
+ * When the queue is full the submitting thread sends the notification itself (CallerRuns),
+ * so it waits on the same rate limit instead of the queue growing.
+ */
+class ChannelWorker {
+    private static final Logger log = LoggerFactory.getLogger(ChannelWorker.class);
+
+    private final NotificationChannel channel;
+    private final TokenBucket rateLimit;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    ChannelWorker(NotificationChannel channel, ChannelSettings settings, MetricsService metricsService) {
+        this.channel = channel;
+        this.rateLimit = new TokenBucket(settings.getRatePerSecond(), settings.getBurst());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(settings.getWorkers());
+        executor.setMaxPoolSize(settings.getWorkers());
+        executor.setQueueCapacity(settings.getQueueCapacity());
+        executor.setThreadNamePrefix("notify-" + channel.name() + "-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        String prefix = "notifications." + channel.name();
+        metricsService.registerGauge(prefix + ".queue.depth", "Notifications waiting for a " + channel.name() + " worker",
+                () -> executor.getThreadPoolExecutor().getQueue().size());
+        metricsService.registerGauge(prefix + ".tokens", "Sends available before the " + channel.name() + " rate limit applies",
+                rateLimit::availableTokens);
+        metricsService.registerGauge(prefix + ".sent", "Notifications sent through " + channel.name(), sent::get);
+        metricsService.registerGauge(prefix + ".failed", "Notifications " + channel.name() + " failed to send", failed::get);
+    }
+
+    NotificationChannel channel() {
+        return channel;
+    }
+
+    void submit(Notification notification) {
+        executor.execute(() -> deliver(notification));
+    }
+
+    private void deliver(Notification notification) {
+        try {
+            rateLimit.acquire();
+            channel.send(notification);
+            sent.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Failed to send {} notification to {}: {}", channel.name(), notification.getRecipient(), e.getMessage());
+        }
+    }
+
+    /**
+     * Sends what is already queued, then stops the workers.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.notifications_service.dispatch;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One message to a recipient, covering every payment event coalesced for them in a window.
+ */
+public class Notification {
+
+    private final String recipient;
+    private final String subject;
+    private final List<String> lines;
+    private final Instant firstEventAt;
+
+    public Notification(String recipient, String subject, List<String> lines, Instant firstEventAt) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.lines = lines;
+        this.firstEventAt = firstEventAt;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * One line per coalesced payment event, in arrival order.
+     */
+    public List<String> getLines() {
+        return lines;
+    }
+
+    public int getEventCount() {
+        return lines.size();
+    }
+
+    /**
+     * When the first event in this notification arrived, i.e. when its window opened.
+     */
+    public Instant getFirstEventAt() {
+        return firstEventAt;
+    }
+}
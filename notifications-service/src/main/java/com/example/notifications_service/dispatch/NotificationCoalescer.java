@@ -0,0 +1,182 @@
+package com.example.notifications_service.dispatch;
+
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects payment events per recipient and sends one {@link Notification} per recipient
+ * per window instead of one per event. A recipient's window opens with their first event
+ * and closes after {@code notifications.coalesce.window}, or early once it holds
+ * {@code max-events}. Redelivered events (same eventId) are counted once: the last
+ * {@code recent-event-ids} eventIds are remembered across windows, so a redelivery after its
+ * window was sent does not notify again.
+ * At most {@code max-pending-events} events wait in open windows; beyond that
+ * {@link #add} blocks, which pauses the consumer rather than growing the heap.
+ * Open windows live in memory: a crash loses at most one window of notifications.
+ */
+@Component
+public class NotificationCoalescer implements DisposableBean {
+
+    private final NotificationDispatcher dispatcher;
+    private final long windowNanos;
+    private final int maxEvents;
+    private final Semaphore capacity;
+    private final ConcurrentHashMap<String, Digest> open = new ConcurrentHashMap<>();
+    private final Set<String> recentEventIds;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public NotificationCoalescer(NotificationDispatcher dispatcher,
+                                 MetricsService metricsService,
+                                 @Value("${notifications.coalesce.window:10s}") Duration window,
+                                 @Value("${notifications.coalesce.max-events:50}") int maxEvents,
+                                 @Value("${notifications.coalesce.max-pending-events:100000}") int maxPendingEvents,
+                                 @Value("${notifications.coalesce.recent-event-ids:100000}") int recentEventIds) {
+        this.dispatcher = dispatcher;
+        this.windowNanos = window.toNanos();
+        this.maxEvents = maxEvents;
+        this.capacity = new Semaphore(maxPendingEvents);
+        this.recentEventIds = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentEventIds;
+            }
+        }));
+
+        metricsService.registerGauge("notifications.coalesce.open", "Recipients with an open window", open::size);
+        metricsService.registerGauge("notifications.coalesce.pending", "Events waiting in open windows",
+                () -> maxPendingEvents - capacity.availablePermits());
+        metricsService.registerGauge("notifications.coalesce.received", "Payment events received", received::get);
+        metricsService.registerGauge("notifications.coalesce.notifications", "Notifications produced from them", notifications::get);
+        metricsService.registerGauge("notifications.coalesce.duplicates", "Redelivered payment events dropped", duplicates::get);
+    }
+
+    /**
+     * Adds the event to its recipient's window; blocks while too many events are pending.
+     */
+    public void add(OrderPaymentEvent event) throws InterruptedException {
+        String recipient = event.getCustomerEmail();
+        capacity.acquire();
+        received.incrementAndGet();
+        // Size as of this event, read while the window is still ours: another thread may close it
+        int[] size = new int[1];
+        Digest digest = open.compute(recipient, (key, current) -> {
+            // Redeliveries come for the same recipient, so checking under its key is atomic
+            if (!recentEventIds.add(event.getEventId())) {
+                return current;
+            }
+            Digest target = current != null ? current : new Digest(key);
+            target.add(event);
+            size[0] = target.size();
+            return target;
+        });
+        if (size[0] == 0) {
+            duplicates.incrementAndGet();
+            capacity.release();
+        } else if (size[0] >= maxEvents) {
+            close(recipient, digest);
+        }
+    }
+
+    /**
+     * Sends every window that has been open for the configured duration.
+     */
+    @Scheduled(fixedDelayString = "${notifications.coalesce.flush-interval-ms:500}")
+    public void flushExpired() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Digest> entry : open.entrySet()) {
+            if (now - entry.getValue().openedNanos >= windowNanos) {
+                close(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Sends every open window now.
+     */
+    public void flushAll() {
+        for (Map.Entry<String, Digest> entry : open.entrySet()) {
+            close(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushAll();
+    }
+
+    private void close(String recipient, Digest digest) {
+        // Only the caller that removes the window sends it; later events open a new one
+        if (!open.remove(recipient, digest)) {
+            return;
+        }
+        Notification notification = digest.toNotification();
+        notifications.incrementAndGet();
+        try {
+            dispatcher.dispatch(notification);
+        } finally {
+            capacity.release(notification.getEventCount());
+        }
+    }
+
+    /**
+     * One recipient's open window. Only mutated inside {@code open.compute}, and no longer
+     * mutated once removed from the map.
+     */
+    private static final class Digest {
+        private final String recipient;
+        private final long openedNanos = System.nanoTime();
+        private final Instant openedAt = Instant.now();
+        private final Map<String, String> lines = new LinkedHashMap<>();
+
+        Digest(String recipient) {
+            this.recipient = recipient;
+        }
+
+        void add(OrderPaymentEvent event) {
+            lines.put(event.getEventId(), line(event));
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        Notification toNotification() {
+            return new Notification(recipient, subject(), new ArrayList<>(lines.values()), openedAt);
+        }
+
+        private String subject() {
+            if (lines.size() == 1) {
+                return "Update on your payment";
+            }
+            return "Updates on " + lines.size() + " of your payments";
+        }
+
+        private static String line(OrderPaymentEvent event) {
+            if (!event.hasOrder()) {
+                return String.format("Order %s: payment %s, amount %s",
+                        event.getOrderId(), event.getPaymentStatus(), event.getAmount());
+            }
+            return String.format("Order %s (%d x %s): payment %s, amount %s",
+                    event.getOrderId(), event.getQuantity(), event.getProductName(),
+                    event.getPaymentStatus(), event.getAmount());
+        }
+    }
+}
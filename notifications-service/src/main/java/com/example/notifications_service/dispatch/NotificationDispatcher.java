@@ -0,0 +1,60 @@
+package com.example.notifications_service.dispatch;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.notifications_service.channel.NotificationChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands each notification to every channel that can reach its recipient.
+ * Each channel has its own {@link ChannelWorker}, so a slow or throttled provider
+ * only holds back its own channel.
+ */
+@Component
+public class NotificationDispatcher implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final List<ChannelWorker> workers;
+    private final AtomicLong unroutable = new AtomicLong();
+
+    public NotificationDispatcher(List<NotificationChannel> channels,
+                                  Environment environment,
+                                  MetricsService metricsService) {
+        this.workers = new ArrayList<>(channels.size());
+        for (NotificationChannel channel : channels) {
+            workers.add(new ChannelWorker(channel, ChannelSettings.forChannel(channel.name(), environment), metricsService));
+        }
+        metricsService.registerGauge("notifications.unroutable", "Notifications no channel could deliver", unroutable::get);
+    }
+
+    /**
+     * Queues the notification on its channels. Blocks only when a channel's queue is full.
+     */
+    public void dispatch(Notification notification) {
+        boolean routed = false;
+        for (ChannelWorker worker : workers) {
+            if (worker.channel().supports(notification.getRecipient())) {
+                worker.submit(notification);
+                routed = true;
+            }
+        }
+        if (!routed) {
+            unroutable.incrementAndGet();
+            log.warn("No channel can reach recipient {}", notification.getRecipient());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ChannelWorker worker : workers) {
+            worker.shutdown();
+        }
+    }
+}
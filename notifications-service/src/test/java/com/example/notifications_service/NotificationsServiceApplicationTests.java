@@ -3,7 +3,10 @@ package com.example.notifications_service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"notifications.consumer.auto-startup=false",
+		"spring.kafka.admin.auto-create=false"
+})
 class NotificationsServiceApplicationTests {
 
 	@Test
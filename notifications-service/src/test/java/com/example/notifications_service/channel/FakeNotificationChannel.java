@@ -0,0 +1,61 @@
+package com.example.notifications_service.channel;
+
+import com.example.notifications_service.dispatch.Notification;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory channel for tests: records every notification it is asked to send, and when.
+ */
+public class FakeNotificationChannel implements NotificationChannel {
+
+    private final String name;
+    private final String recipientPrefix;
+    private final List<Notification> sent = new CopyOnWriteArrayList<>();
+    private final List<Long> sentAtNanos = new CopyOnWriteArrayList<>();
+
+    /**
+     * A channel that accepts recipients starting with {@code recipientPrefix} ("" for all).
+     */
+    public FakeNotificationChannel(String name, String recipientPrefix) {
+        this.name = name;
+        this.recipientPrefix = recipientPrefix;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public boolean supports(String recipient) {
+        return recipient.startsWith(recipientPrefix);
+    }
+
+    @Override
+    public void send(Notification notification) {
+        sent.add(notification);
+        sentAtNanos.add(System.nanoTime());
+    }
+
+    public List<Notification> sent() {
+        return sent;
+    }
+
+    public List<Long> sentAtNanos() {
+        return sentAtNanos;
+    }
+
+    public boolean awaitSent(int expected, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (sent.size() < expected) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+}
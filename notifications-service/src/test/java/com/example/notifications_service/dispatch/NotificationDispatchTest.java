@@ -0,0 +1,170 @@
+package com.example.notifications_service.dispatch;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.notifications_service.channel.FakeNotificationChannel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationDispatchTest {
+
+    private final MetricsService metricsService = new MetricsService(new SimpleMeterRegistry(), "notifications-service");
+    private final FakeNotificationChannel email = new FakeNotificationChannel("email", "");
+    private final FakeNotificationChannel sms = new FakeNotificationChannel("sms", "+");
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    void coalescesEventsPerRecipientAndDropsRedeliveries() throws Exception {
+        NotificationCoalescer coalescer = coalescer(dispatcher(new MockEnvironment()), 50);
+
+        coalescer.add(event("e1", "o1", "a@example.com"));
+        coalescer.add(event("e2", "o2", "a@example.com", order("o2")));
+        coalescer.add(event("e1", "o1", "a@example.com"));
+        coalescer.add(event("e3", "o3", "b@example.com"));
+        coalescer.add(event("e4", "o4", "a@example.com"));
+        coalescer.flushAll();
+
+        assertTrue(email.awaitSent(2, 5, TimeUnit.SECONDS));
+        Map<String, Notification> byRecipient = email.sent().stream()
+                .collect(Collectors.toMap(Notification::getRecipient, n -> n));
+        assertEquals(3, byRecipient.get("a@example.com").getEventCount());
+        assertEquals(1, byRecipient.get("b@example.com").getEventCount());
+        assertEquals("Order o1: payment COMPLETED, amount 10.00 USD", byRecipient.get("a@example.com").getLines().get(0));
+        // Joined with its order upstream, so the line names what was ordered
+        assertEquals("Order o2 (2 x Keyboard): payment COMPLETED, amount 10.00 USD", byRecipient.get("a@example.com").getLines().get(1));
+    }
+
+    @Test
+    void aRedeliveryAfterItsWindowWasSentIsDropped() throws Exception {
+        NotificationCoalescer coalescer = new NotificationCoalescer(dispatcher(new MockEnvironment()), metricsService,
+                Duration.ofMinutes(1), 50, 1000, 2);
+
+        coalescer.add(event("e1", "o1", "a@example.com"));
+        coalescer.flushAll();
+        coalescer.add(event("e1", "o1", "a@example.com"));
+        coalescer.flushAll();
+        // Only the last two eventIds are remembered, so e1 is forgotten once e2 and e3 arrive
+        coalescer.add(event("e2", "o2", "a@example.com"));
+        coalescer.add(event("e3", "o3", "a@example.com"));
+        coalescer.add(event("e1", "o1", "a@example.com"));
+        coalescer.flushAll();
+
+        assertTrue(email.awaitSent(2, 5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 3), email.sent().stream().map(Notification::getEventCount).collect(Collectors.toList()));
+    }
+
+    @Test
+    void fullWindowIsSentWithoutWaitingForTheFlush() throws Exception {
+        NotificationCoalescer coalescer = coalescer(dispatcher(new MockEnvironment()), 3);
+
+        for (int i = 0; i < 7; i++) {
+            coalescer.add(event("e" + i, "o" + i, "a@example.com"));
+        }
+
+        assertTrue(email.awaitSent(2, 5, TimeUnit.SECONDS));
+        assertEquals(List.of(3, 3), email.sent().stream().map(Notification::getEventCount).collect(Collectors.toList()));
+    }
+
+    @Test
+    void routesByRecipientToEachChannel() throws Exception {
+        dispatcher = dispatcher(new MockEnvironment());
+
+        dispatcher.dispatch(notification("+15550100"));
+
+        assertTrue(sms.awaitSent(1, 5, TimeUnit.SECONDS));
+        assertTrue(email.awaitSent(1, 5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void channelRateLimitSpacesSendsAfterTheBurst() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notifications.channels.email.rate-per-second", "50")
+                .withProperty("notifications.channels.email.burst", "5")
+                .withProperty("notifications.channels.email.queue-capacity", "4")
+                .withProperty("notifications.channels.email.workers", "2");
+        dispatcher = dispatcher(environment);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 15; i++) {
+            dispatcher.dispatch(notification("user" + i + "@example.com"));
+        }
+        assertTrue(email.awaitSent(15, 5, TimeUnit.SECONDS));
+
+        // 5 immediately, then 10 more at 50/s: at least ~200ms in total
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(email.sentAtNanos().get(14) - start);
+        assertTrue(elapsedMs >= 150, "15 sends took only " + elapsedMs + "ms");
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRefills() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 3);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        Thread.sleep(30);
+        assertTrue(bucket.tryAcquire());
+    }
+
+    private NotificationDispatcher dispatcher(MockEnvironment environment) {
+        dispatcher = new NotificationDispatcher(List.of(email, sms), environment, metricsService);
+        return dispatcher;
+    }
+
+    private NotificationCoalescer coalescer(NotificationDispatcher dispatcher, int maxEvents) {
+        return new NotificationCoalescer(dispatcher, metricsService, Duration.ofMinutes(1), maxEvents, 1000, 1000);
+    }
+
+    private static OrderPaymentEvent event(String eventId, String orderId, String recipient) {
+        return event(eventId, orderId, recipient, null);
+    }
+
+    private static OrderPaymentEvent event(String eventId, String orderId, String recipient, OrderCreatedEvent order) {
+        return OrderPaymentEvent.of(PaymentProcessedEvent.builder()
+                .eventId(eventId)
+                .orderId(orderId)
+                .amount(Money.of(1000, Money.DEFAULT_CURRENCY))
+                .customerEmail(recipient)
+                .status("COMPLETED")
+                .occurredAt(Instant.now())
+                .build(), order);
+    }
+
+    private static OrderCreatedEvent order(String orderId) {
+        return OrderCreatedEvent.builder()
+                .orderId(orderId)
+                .productName("Keyboard")
+                .quantity(2)
+                .totalAmount(Money.of(2000, Money.DEFAULT_CURRENCY))
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    private static Notification notification(String recipient) {
+        return new Notification(recipient, "Update on your payment", List.of("Order o1: payment COMPLETED"), Instant.now());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.orders_services.config;
+
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.retry.RetryTopics;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class KafkaTopicConfig {
+
+    /**
+     * Order events are keyed by orderId, so partitions bound consumer parallelism
+     * while keeping per-order ordering.
+     */
+    @Bean
+    public NewTopic orderEventsTopic(@Value("${orders.kafka.order-events.partitions:12}") int partitions) {
+        return TopicBuilder.name(Topics.ORDER_EVENTS)
+                .partitions(partitions)
+                .replicas(1)
+                .config("compression.type", "producer")
+                .build();
+    }
+
+    /**
+     * Retry tiers and dead-letter topic for payment events this service failed to apply,
+     * partitioned like payment-events itself.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public KafkaAdmin.NewTopics paymentEventsRetryTopics(RetryTopics retryTopics,
+                                                         @Value("${orders.kafka.payment-events.partitions:12}") int partitions) {
+        return retryTopics.newTopics(Topics.PAYMENT_EVENTS, partitions);
+    }
+}
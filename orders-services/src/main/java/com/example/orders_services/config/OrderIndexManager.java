@@ -0,0 +1,92 @@
+package com.example.orders_services.config;
+
+import com.example.orders_services.model.IdempotencyRecord;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatsRecord;
+import com.example.orders_services.repository.OrderQueryPlanVerifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on {@link Order} and the TTL indexes that expire
+ * {@link IdempotencyRecord}s and per-minute {@link OrderStatsRecord}s at startup,
+ * then checks that no repository query falls back to a collection scan. A COLLSCAN
+ * fails startup unless orders.indexes.fail-on-collection-scan is false.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.indexes.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderIndexManager {
+    private static final Logger log = LoggerFactory.getLogger(OrderIndexManager.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderQueryPlanVerifier queryPlanVerifier;
+    private final boolean verifyQueryPlans;
+    private final boolean failOnCollectionScan;
+    private final Duration idempotencyTtl;
+    private final Duration statsMinuteRetention;
+
+    public OrderIndexManager(MongoTemplate mongoTemplate,
+                             OrderQueryPlanVerifier queryPlanVerifier,
+                             @Value("${orders.indexes.verify-query-plans:true}") boolean verifyQueryPlans,
+                             @Value("${orders.indexes.fail-on-collection-scan:true}") boolean failOnCollectionScan,
+                             @Value("${orders.idempotency.ttl:24h}") Duration idempotencyTtl,
+                             @Value("${orders.stats.minute-retention:7d}") Duration statsMinuteRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryPlanVerifier = queryPlanVerifier;
+        this.verifyQueryPlans = verifyQueryPlans;
+        this.failOnCollectionScan = failOnCollectionScan;
+        this.idempotencyTtl = idempotencyTtl;
+        this.statsMinuteRetention = statsMinuteRetention;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(Order.class);
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            resolver.resolveIndexFor(Order.class).forEach(indexOps::createIndex);
+            log.info("Order indexes ensured");
+
+            mongoTemplate.indexOps(IdempotencyRecord.class).createIndex(
+                    new Index().on("createdAt", Sort.Direction.ASC).named("createdAt_ttl").expire(idempotencyTtl));
+            log.info("Idempotency key TTL index ensured ({})", idempotencyTtl);
+
+            // The totals document has no minute field, so only minute buckets expire
+            mongoTemplate.indexOps(OrderStatsRecord.class).createIndex(
+                    new Index().on("minute", Sort.Direction.ASC).named("minute_ttl").expire(statsMinuteRetention));
+            log.info("Order stats minute TTL index ensured ({})", statsMinuteRetention);
+
+            if (verifyQueryPlans) {
+                verifyQueryPlans();
+            }
+        } catch (DataAccessResourceFailureException e) {
+            log.warn("MongoDB unavailable, skipping order index creation: {}", e.getMessage());
+        }
+    }
+
+    private void verifyQueryPlans() {
+        List<String> collectionScans = queryPlanVerifier.findCollectionScans();
+        if (collectionScans.isEmpty()) {
+            log.info("All order queries use an index");
+        } else if (failOnCollectionScan) {
+            throw new IllegalStateException("Order queries fall back to COLLSCAN: " + collectionScans);
+        } else {
+            log.warn("Order queries fall back to COLLSCAN: {}", collectionScans);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.orders_services.consumer;
+
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.commonlibrary.retry.RetryTierContainerPostProcessor;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.service.OrderStateMachine;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Batch listener for payment events (orders-group): moves each order to PAID or FAILED.
+ * Every event is one conditional findAndModify, so redelivered, duplicate or out-of-date
+ * events leave the order alone and need no coordination between listener threads or
+ * instances. Payment events are keyed by orderId, so one order's events stay in one
+ * partition; consumer concurrency scales with partitions across all instances.
+ * Offsets are committed once per batch, after the listener returns; an event that fails
+ * is retried through the retry-tier topics without holding up its partition.
+ */
+@Component
+public class PaymentEventsListener {
+    private static final Logger log = LoggerFactory.getLogger(PaymentEventsListener.class);
+
+    private final OrderStateMachine orderStateMachine;
+    private final FailedRecordRouter failedRecordRouter;
+    private final LogSampler.Site skippedLog;
+
+    public PaymentEventsListener(OrderStateMachine orderStateMachine, FailedRecordRouter failedRecordRouter,
+                                 LogSampler logSampler) {
+        this.orderStateMachine = orderStateMachine;
+        this.failedRecordRouter = failedRecordRouter;
+        this.skippedLog = logSampler.site("payment-event-skipped");
+    }
+
+    @KafkaListener(id = "orders-payment-events", topics = Topics.PAYMENT_EVENTS,
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            concurrency = "${orders.kafka.payment-events.concurrency:3}",
+            autoStartup = "${orders.consumer.auto-startup:true}")
+    public void onPaymentEvents(List<ConsumerRecord<String, PaymentProcessedEvent>> records) {
+        apply(records);
+    }
+
+    /**
+     * Payment events that failed before, from every retry tier, once due.
+     */
+    @KafkaListener(id = "orders-payment-events-retry",
+            topics = "#{@retryTopics.tierTopics('" + Topics.PAYMENT_EVENTS + "')}",
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            containerPostProcessor = RetryTierContainerPostProcessor.BEAN_NAME,
+            autoStartup = "${orders.consumer.auto-startup:true}")
+    public void onPaymentEventRetries(List<ConsumerRecord<String, PaymentProcessedEvent>> records,
+                                      Consumer<?, ?> consumer) {
+        failedRecordRouter.processDue(records, consumer, this::apply);
+    }
+
+    /**
+     * Applies each event; one that fails is routed to a retry tier and the rest carry on.
+     * Returns once every routed record has been acknowledged by the broker.
+     */
+    void apply(List<ConsumerRecord<String, PaymentProcessedEvent>> records) {
+        List<CompletableFuture<Void>> routed = new ArrayList<>();
+        for (ConsumerRecord<String, PaymentProcessedEvent> record : records) {
+            PaymentProcessedEvent event = record.value();
+            OrderStatus target = event == null ? null : targetStatus(event.getStatus());
+            if (target == null || event.getOrderId() == null) {
+                if (skippedLog.tryAcquire()) {
+                    log.warn("Skipping payment event without an order id or known status at offset {}-{} ({} more not logged)",
+                            record.partition(), record.offset(), skippedLog.takeSuppressed());
+                }
+                continue;
+            }
+            try {
+                orderStateMachine.transition(event.getOrderId(), target, null);
+            } catch (RuntimeException e) {
+                routed.add(failedRecordRouter.route(record, e));
+            }
+        }
+        CompletableFuture.allOf(routed.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * The order state a payment outcome leads to, or null for an unknown outcome.
+     */
+    static OrderStatus targetStatus(String paymentStatus) {
+        if ("COMPLETED".equals(paymentStatus)) {
+            return OrderStatus.PAID;
+        }
+        if ("FAILED".equals(paymentStatus)) {
+            return OrderStatus.FAILED;
+        }
+        return null;
+    }
+}
@@ -1,49 +1,99 @@
 package com.example.orders_services.controller;
 
-import com.example.commonlibrary.config.CommonAutoConfiguration;
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.dto.OrderPage;
 import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.dto.OrderStatusUpdate;
 import com.example.orders_services.model.Order;
+import com.example.orders_services.service.OrderBulkImportService;
 import com.example.orders_services.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Servlet (Spring MVC) orders API, the default deployment.
+ * {@link ReactiveOrderController} serves the same routes under the "reactive" profile.
+ */
 @RestController
 @RequestMapping("/api/orders")
-
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OrderController {
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    // Immutable, so one instance serves every miss
+    private static final ResponseEntity<Order> NOT_FOUND = ResponseEntity.notFound().build();
+
     private final OrderService orderService;
-    private static final Logger log = LoggerFactory.getLogger(CommonAutoConfiguration.class);
+    private final OrderBulkImportService orderBulkImportService;
+    private final MetricsService metricsService;
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderBulkImportService orderBulkImportService,
+                           MetricsService metricsService) {
         this.orderService = orderService;
+        this.orderBulkImportService = orderBulkImportService;
+        this.metricsService = metricsService;
     }
 
     /**
      * Create a new order
      * POST /api/orders
+     * Send an Idempotency-Key header to make retries safe: repeats return the original order.
      */
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest) {
-        log.info("Received request to create order: {}", orderRequest);
-        Order createdOrder = orderService.createOrder(orderRequest);
+    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.debug("Received request to create order: {}", orderRequest);
+        Order createdOrder = orderService.createOrder(orderRequest, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
     }
 
     /**
-     * Get all orders
-     * GET /api/orders
+     * Create orders in bulk from NDJSON or a JSON array
+     * POST /api/orders/bulk
+     * Streams back one NDJSON result line per item, in request order within each chunk.
+     */
+    @PostMapping(value = "/bulk", consumes = {APPLICATION_NDJSON, MediaType.APPLICATION_JSON_VALUE})
+    public void createOrdersBulk(InputStream body, HttpServletResponse response) throws IOException {
+        log.debug("Received bulk order import");
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        orderBulkImportService.importOrders(body, response.getOutputStream());
+    }
+
+    /**
+     * Get orders, one page at a time (newest first)
+     * GET /api/orders?limit=100&cursor=...
+     * The cursor for the next page is returned in the X-Next-Cursor header.
      */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        log.info("Received request to get all orders");
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get all orders");
+        return pageResponse(orderService.getAllOrders(cursor, limit));
+    }
+
+    /**
+     * Stream all orders as NDJSON
+     * GET /api/orders?stream=true
+     */
+    @GetMapping(params = "stream=true")
+    public void streamAllOrders(HttpServletResponse response) throws IOException {
+        log.debug("Received request to stream all orders");
+        streamResponse(response, null, null);
     }
 
     /**
@@ -51,13 +101,14 @@ public class OrderController {
      * GET /api/orders/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable UUID id) {
-        log.info("Received request to get order by ID: {}", id);
+    public ResponseEntity<Order> getOrderById(@PathVariable String id) {
+        log.debug("Received request to get order by ID: {}", id);
         try {
-            Order order = orderService.getOrderById(id);
-            return ResponseEntity.ok(order);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(orderService.getOrderById(id));
+        } catch (ResourceNotFoundException e) {
+            // A miss is counted like the ones GlobalExceptionHandler maps; any other error goes to it as a failure
+            metricsService.incrementExpectedErrors();
+            return NOT_FOUND;
         }
     }
 
@@ -66,10 +117,21 @@ public class OrderController {
      * GET /api/orders/status/{status}
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status) {
-        log.info("Received request to get orders by status: {}", status);
-        List<Order> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable String status,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get orders by status: {}", status);
+        return pageResponse(orderService.getOrdersByStatus(status, cursor, limit));
+    }
+
+    /**
+     * Stream orders by status as NDJSON
+     * GET /api/orders/status/{status}?stream=true
+     */
+    @GetMapping(value = "/status/{status}", params = "stream=true")
+    public void streamOrdersByStatus(@PathVariable String status, HttpServletResponse response) throws IOException {
+        log.debug("Received request to stream orders by status: {}", status);
+        streamResponse(response, status, null);
     }
 
     /**
@@ -77,10 +139,33 @@ public class OrderController {
      * GET /api/orders/customer/{email}
      */
     @GetMapping("/customer/{email}")
-    public ResponseEntity<List<Order>> getOrdersByEmail(@PathVariable String email) {
-        log.info("Received request to get orders for customer: {}", email);
-        List<Order> orders = orderService.getOrdersByEmail(email);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getOrdersByEmail(@PathVariable String email,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get orders for customer: {}", email);
+        return pageResponse(orderService.getOrdersByEmail(email, cursor, limit));
+    }
+
+    /**
+     * Stream orders by customer email as NDJSON
+     * GET /api/orders/customer/{email}?stream=true
+     */
+    @GetMapping(value = "/customer/{email}", params = "stream=true")
+    public void streamOrdersByEmail(@PathVariable String email, HttpServletResponse response) throws IOException {
+        log.debug("Received request to stream orders for customer: {}", email);
+        streamResponse(response, null, email);
+    }
+
+    /**
+     * Change an order's status
+     * PATCH /api/orders/{id}/status
+     * Include the order's version to apply the change only if nobody changed the order since.
+     * A transition the current state does not allow, or a stale version, returns 409.
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Order> updateOrderStatus(@PathVariable String id, @RequestBody OrderStatusUpdate update) {
+        log.debug("Received request to set order {} to status {}", id, update.getStatus());
+        return ResponseEntity.ok(orderService.updateStatus(id, update.getStatus(), update.getVersion()));
     }
 
     /**
@@ -88,12 +173,27 @@ public class OrderController {
      * DELETE /api/orders/{id}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOrder(@PathVariable UUID id) {
-        log.info("Received request to delete order: {}", id);
+    public ResponseEntity<Void> deleteOrder(@PathVariable String id) {
+        log.debug("Received request to delete order: {}", id);
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
 
+    private ResponseEntity<List<Order>> pageResponse(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
+    }
+
+    private void streamResponse(HttpServletResponse response, String status, String email) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(APPLICATION_NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        orderService.streamOrders(status, email, response.getOutputStream());
+    }
+
     /**
      * Health check endpoint
      * GET /api/orders/health
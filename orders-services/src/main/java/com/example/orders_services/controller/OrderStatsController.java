@@ -0,0 +1,62 @@
+package com.example.orders_services.controller;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.orders_services.dto.OrderStatsMinute;
+import com.example.orders_services.dto.OrderStatsSummary;
+import com.example.orders_services.dto.OrderStatusStats;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.service.OrderStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Order counts and revenue from the pre-aggregated {@link OrderStats}; no request reads orders.
+ * Served on both the servlet and the reactive stack.
+ */
+@RestController
+@RequestMapping("/api/orders/stats")
+public class OrderStatsController {
+
+    private final OrderStats orderStats;
+
+    public OrderStatsController(OrderStats orderStats) {
+        this.orderStats = orderStats;
+    }
+
+    /**
+     * Counts and amounts per status, with totals and revenue (PAID + COMPLETED)
+     * GET /api/orders/stats
+     */
+    @GetMapping
+    public OrderStatsSummary getSummary() {
+        return orderStats.summary();
+    }
+
+    /**
+     * Orders entering each status per minute, oldest first
+     * GET /api/orders/stats/timeline?minutes=60
+     */
+    @GetMapping("/timeline")
+    public List<OrderStatsMinute> getTimeline(@RequestParam(defaultValue = "60") int minutes) {
+        return orderStats.timeline(minutes);
+    }
+
+    /**
+     * Count and amount for one status
+     * GET /api/orders/stats/{status}
+     */
+    @GetMapping("/{status}")
+    public OrderStatusStats getStatusStats(@PathVariable String status) {
+        try {
+            return orderStats.summary(OrderStatus.valueOf(status.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown order status: " + status);
+        }
+    }
+}
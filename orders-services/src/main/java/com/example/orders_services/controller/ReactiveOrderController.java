@@ -0,0 +1,191 @@
+package com.example.orders_services.controller;
+
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.dto.BulkItemResult;
+import com.example.orders_services.dto.OrderPage;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.dto.OrderStatusUpdate;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.service.ReactiveOrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive (WebFlux) orders API, enabled with the "reactive" profile.
+ * Same routes, parameters and response shapes as {@link OrderController}.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    // Immutable, so one instance serves every miss
+    private static final Mono<ResponseEntity<Order>> NOT_FOUND = Mono.just(ResponseEntity.notFound().build());
+
+    private final ReactiveOrderService orderService;
+    private final MetricsService metricsService;
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderController.class);
+
+    public ReactiveOrderController(ReactiveOrderService orderService, MetricsService metricsService) {
+        this.orderService = orderService;
+        this.metricsService = metricsService;
+    }
+
+    /**
+     * Create a new order
+     * POST /api/orders
+     * Send an Idempotency-Key header to make retries safe: repeats return the original order.
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Order>> createOrder(@RequestBody OrderRequest orderRequest,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.debug("Received request to create order: {}", orderRequest);
+        return orderService.createOrder(orderRequest, idempotencyKey)
+                .map(order -> ResponseEntity.status(HttpStatus.CREATED).body(order));
+    }
+
+    /**
+     * Create orders in bulk from NDJSON or a JSON array
+     * POST /api/orders/bulk
+     * Streams back one NDJSON result line per item, in request order.
+     * Items are decoded as JSON trees, so one that does not bind to an order rejects only itself.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BulkItemResult> createOrdersBulk(@RequestBody Flux<JsonNode> orders) {
+        log.debug("Received bulk order import");
+        return orderService.createOrders(orders);
+    }
+
+    /**
+     * Get orders, one page at a time (newest first)
+     * GET /api/orders?limit=100&cursor=...
+     * The cursor for the next page is returned in the X-Next-Cursor header.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<Order>>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get all orders");
+        return orderService.getAllOrders(cursor, limit).map(this::pageResponse);
+    }
+
+    /**
+     * Stream all orders as NDJSON
+     * GET /api/orders?stream=true
+     */
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> streamAllOrders() {
+        log.debug("Received request to stream all orders");
+        return orderService.streamOrders(null, null);
+    }
+
+    /**
+     * Get order by ID
+     * GET /api/orders/{id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable String id) {
+        log.debug("Received request to get order by ID: {}", id);
+        return orderService.getOrderById(id)
+                .map(ResponseEntity::ok)
+                .onErrorResume(ResourceNotFoundException.class, e -> {
+                    // Counted like the misses ReactiveGlobalExceptionHandler maps
+                    metricsService.incrementExpectedErrors();
+                    return NOT_FOUND;
+                });
+    }
+
+    /**
+     * Get orders by status
+     * GET /api/orders/status/{status}
+     */
+    @GetMapping("/status/{status}")
+    public Mono<ResponseEntity<List<Order>>> getOrdersByStatus(@PathVariable String status,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get orders by status: {}", status);
+        return orderService.getOrdersByStatus(status, cursor, limit).map(this::pageResponse);
+    }
+
+    /**
+     * Stream orders by status as NDJSON
+     * GET /api/orders/status/{status}?stream=true
+     */
+    @GetMapping(value = "/status/{status}", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> streamOrdersByStatus(@PathVariable String status) {
+        log.debug("Received request to stream orders by status: {}", status);
+        return orderService.streamOrders(status, null);
+    }
+
+    /**
+     * Get orders by customer email
+     * GET /api/orders/customer/{email}
+     */
+    @GetMapping("/customer/{email}")
+    public Mono<ResponseEntity<List<Order>>> getOrdersByEmail(@PathVariable String email,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        log.debug("Received request to get orders for customer: {}", email);
+        return orderService.getOrdersByEmail(email, cursor, limit).map(this::pageResponse);
+    }
+
+    /**
+     * Stream orders by customer email as NDJSON
+     * GET /api/orders/customer/{email}?stream=true
+     */
+    @GetMapping(value = "/customer/{email}", params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> streamOrdersByEmail(@PathVariable String email) {
+        log.debug("Received request to stream orders for customer: {}", email);
+        return orderService.streamOrders(null, email);
+    }
+
+    /**
+     * Change an order's status
+     * PATCH /api/orders/{id}/status
+     */
+    @PatchMapping("/{id}/status")
+    public Mono<ResponseEntity<Order>> updateOrderStatus(@PathVariable String id, @RequestBody OrderStatusUpdate update) {
+        log.debug("Received request to set order {} to status {}", id, update.getStatus());
+        return orderService.updateStatus(id, update.getStatus(), update.getVersion()).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Delete order by ID
+     * DELETE /api/orders/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable String id) {
+        log.debug("Received request to delete order: {}", id);
+        return orderService.deleteOrder(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    private ResponseEntity<List<Order>> pageResponse(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
+    }
+
+    /**
+     * Health check endpoint
+     * GET /api/orders/health
+     */
+    @GetMapping("/health")
+    public Mono<ResponseEntity<String>> health() {
+        return Mono.just(ResponseEntity.ok("Orders Service is UP and running!"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.orders_services.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a bulk import response: the item's position in the request and its outcome.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    private final int index;
+    private final String status;
+    private final String orderId;
+    private final String error;
+
+    private BulkItemResult(int index, String status, String orderId, String error) {
+        this.index = index;
+        this.status = status;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static BulkItemResult created(int index, String orderId) {
+        return new BulkItemResult(index, "CREATED", orderId, null);
+    }
+
+    public static BulkItemResult rejected(int index, String error) {
+        return new BulkItemResult(index, "REJECTED", null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
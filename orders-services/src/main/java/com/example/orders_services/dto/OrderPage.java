@@ -0,0 +1,23 @@
+package com.example.orders_services.dto;
+
+import com.example.orders_services.model.Order;
+
+import java.util.List;
+
+public class OrderPage {
+    private final List<Order> orders;
+    private final String nextCursor; // null on the last page
+
+    public OrderPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
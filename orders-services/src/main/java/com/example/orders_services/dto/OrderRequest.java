@@ -1,9 +1,11 @@
 package com.example.orders_services.dto;
 
+import com.example.commonlibrary.money.Money;
+
 public class OrderRequest {
     private String productName;
     private Integer quantity;
-    private Double price;
+    private Money price;
     private String customerEmail;
 
     public String getProductName() {
@@ -22,11 +24,11 @@ public class OrderRequest {
         this.quantity = quantity;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -0,0 +1,28 @@
+package com.example.orders_services.dto;
+
+import com.example.orders_services.model.OrderStatus;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One minute of GET /api/orders/stats/timeline: orders that entered each status during it
+ * (entering PENDING means created).
+ */
+public class OrderStatsMinute {
+    private final Instant minute;
+    private final Map<OrderStatus, OrderStatusStats> entered;
+
+    public OrderStatsMinute(Instant minute, Map<OrderStatus, OrderStatusStats> entered) {
+        this.minute = minute;
+        this.entered = entered;
+    }
+
+    public Instant getMinute() {
+        return minute;
+    }
+
+    public Map<OrderStatus, OrderStatusStats> getEntered() {
+        return entered;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.orders_services.dto;
+
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.OrderStatus;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Response of GET /api/orders/stats: orders currently in each status.
+ * {@code revenue} is the amount of PAID and COMPLETED orders; {@code snapshotAt} is when
+ * the other instances' changes were last read from Mongo (null if never).
+ */
+public class OrderStatsSummary {
+    private final Instant asOf;
+    private final Instant snapshotAt;
+    private final long orders;
+    private final Money totalAmount;
+    private final Money revenue;
+    private final Map<OrderStatus, OrderStatusStats> byStatus;
+
+    public OrderStatsSummary(Instant asOf, Instant snapshotAt, long orders, Money totalAmount, Money revenue,
+                             Map<OrderStatus, OrderStatusStats> byStatus) {
+        this.asOf = asOf;
+        this.snapshotAt = snapshotAt;
+        this.orders = orders;
+        this.totalAmount = totalAmount;
+        this.revenue = revenue;
+        this.byStatus = byStatus;
+    }
+
+    public Instant getAsOf() {
+        return asOf;
+    }
+
+    public Instant getSnapshotAt() {
+        return snapshotAt;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public Map<OrderStatus, OrderStatusStats> getByStatus() {
+        return byStatus;
+    }
+}
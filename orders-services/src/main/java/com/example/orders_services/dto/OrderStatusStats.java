@@ -0,0 +1,31 @@
+package com.example.orders_services.dto;
+
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.OrderStatus;
+
+/**
+ * Number of orders and their summed totalAmount for one status.
+ */
+public class OrderStatusStats {
+    private final OrderStatus status;
+    private final long count;
+    private final Money totalAmount;
+
+    public OrderStatusStats(OrderStatus status, long count, Money totalAmount) {
+        this.status = status;
+        this.count = count;
+        this.totalAmount = totalAmount;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+}
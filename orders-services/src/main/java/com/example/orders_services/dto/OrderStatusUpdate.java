@@ -0,0 +1,28 @@
+package com.example.orders_services.dto;
+
+import com.example.orders_services.model.OrderStatus;
+
+/**
+ * Body of PATCH /api/orders/{id}/status. With a version, the change only applies
+ * if the order is still at that version.
+ */
+public class OrderStatusUpdate {
+    private OrderStatus status;
+    private Long version;
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.orders_services.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Claim on an Idempotency-Key: the key is the _id, so a second claim fails on the unique index.
+ * Records the order the key resolves to and a fingerprint of the request that created it.
+ * Expired by the TTL index on createdAt that OrderIndexManager creates.
+ */
+@Document(collection = "order_idempotency_keys")
+public class IdempotencyRecord {
+    @Id
+    private String key;
+
+    private String requestFingerprint;
+    private String orderId;
+    private Instant createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String requestFingerprint, String orderId, Instant createdAt) {
+        this.key = key;
+        this.requestFingerprint = requestFingerprint;
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getRequestFingerprint() {
+        return requestFingerprint;
+    }
+
+    public void setRequestFingerprint(String requestFingerprint) {
+        this.requestFingerprint = requestFingerprint;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
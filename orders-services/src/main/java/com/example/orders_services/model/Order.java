@@ -1,25 +1,48 @@
 package com.example.orders_services.model;
 
+import com.example.commonlibrary.money.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        // Listing order (newest first) for each finder; see OrderRepositoryImpl
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_createdAt_id", def = "{'status': 1, 'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "customerEmail_createdAt_id", def = "{'customerEmail': 1, 'createdAt': -1, '_id': -1}"),
+        // Only orders with unpublished events, polled by OrderOutboxRelay
+        @CompoundIndex(name = "outbox_pending", def = "{'outbox.createdAt': 1}",
+                partialFilter = "{'outbox.createdAt': {$exists: true}}")
+})
 public class Order {
     @Id
     private String id;
 
     private String productName;
     private Integer quantity;
-    private Double price;
-    private Double totalAmount;
+    private Money price;
+    private Money totalAmount;
     private String customerEmail;
-    private String status; // PENDING, PAID, COMPLETED, FAILED
+    private OrderStatus status;
+    // Bumped by every status transition; see OrderStateMachine
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Events not yet relayed to Kafka; emptied by OrderOutboxRelay
+    private List<OutboxEvent> outbox = new ArrayList<>();
+    // Relay passes in which some of these events failed while others went out; unset until the first
+    private Integer outboxFailures;
+    // Events the relay gave up on after too many such passes, kept for an operator to look at
+    private List<OutboxEvent> parkedOutbox;
 
     public String getId() {
         return id;
@@ -45,19 +68,19 @@ public class Order {
         this.quantity = quantity;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -69,14 +92,22 @@ public class Order {
         this.customerEmail = customerEmail;
     }
 
-    public String getStatus() {
+    public OrderStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(OrderStatus status) {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -93,7 +124,34 @@ public class Order {
         this.updatedAt = updatedAt;
     }
 
-    public Order(String productName, Integer quantity, Double price, Double totalAmount, String customerEmail, String status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    @JsonIgnore
+    public List<OutboxEvent> getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(List<OutboxEvent> outbox) {
+        this.outbox = outbox;
+    }
+
+    @JsonIgnore
+    public Integer getOutboxFailures() {
+        return outboxFailures;
+    }
+
+    public void setOutboxFailures(Integer outboxFailures) {
+        this.outboxFailures = outboxFailures;
+    }
+
+    @JsonIgnore
+    public List<OutboxEvent> getParkedOutbox() {
+        return parkedOutbox;
+    }
+
+    public void setParkedOutbox(List<OutboxEvent> parkedOutbox) {
+        this.parkedOutbox = parkedOutbox;
+    }
+
+    public Order(String productName, Integer quantity, Money price, Money totalAmount, String customerEmail, OrderStatus status, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.productName = productName;
         this.quantity = quantity;
         this.price = price;
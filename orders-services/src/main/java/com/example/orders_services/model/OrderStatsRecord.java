@@ -0,0 +1,88 @@
+package com.example.orders_services.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of order statistics written by OrderStatsSnapshotter, with counts and amounts
+ * (in minor units, see Money) keyed by status name. Instances only ever {@code $inc} these, so each adds its own changes,
+ * and {@code flushes} holds the last flush each worker id applied, so a retried flush is not added twice.
+ * <ul>
+ *   <li>{@code _id: "totals"}: orders currently in each status.</li>
+ *   <li>{@code _id: "minute:<epoch minute>"}: orders that entered each status in that minute;
+ *       expired by the TTL index on {@code minute} that OrderIndexManager creates.</li>
+ * </ul>
+ */
+@Document(collection = "order_stats")
+public class OrderStatsRecord {
+    public static final String TOTALS_ID = "totals";
+    public static final String MINUTE_ID_PREFIX = "minute:";
+
+    @Id
+    private String id;
+
+    // Start of the minute, for minute records only
+    private Instant minute;
+    private Map<String, Long> counts = new HashMap<>();
+    private Map<String, Long> amounts = new HashMap<>();
+    // Last flush sequence applied, by the writing instance's worker id
+    private Map<String, Long> flushes = new HashMap<>();
+    // When the totals were first computed from the orders collection
+    private Instant seededAt;
+
+    public static String minuteId(long epochMinute) {
+        return MINUTE_ID_PREFIX + epochMinute;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getMinute() {
+        return minute;
+    }
+
+    public void setMinute(Instant minute) {
+        this.minute = minute;
+    }
+
+    public Map<String, Long> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<String, Long> counts) {
+        this.counts = counts;
+    }
+
+    public Map<String, Long> getAmounts() {
+        return amounts;
+    }
+
+    public void setAmounts(Map<String, Long> amounts) {
+        this.amounts = amounts;
+    }
+
+    public Map<String, Long> getFlushes() {
+        return flushes;
+    }
+
+    public void setFlushes(Map<String, Long> flushes) {
+        this.flushes = flushes;
+    }
+
+    public Instant getSeededAt() {
+        return seededAt;
+    }
+
+    public void setSeededAt(Instant seededAt) {
+        this.seededAt = seededAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.orders_services.model;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Order lifecycle.
+ * <pre>
+ * PENDING --payment completed--> PAID --fulfilled--> COMPLETED
+ *    |                            |
+ *    +--payment failed--> FAILED <+--refunded/cancelled
+ * </pre>
+ * COMPLETED and FAILED are terminal. Transitions are applied by {@code OrderStateMachine}
+ * as a single conditional update, so this table is also the update's filter.
+ */
+public enum OrderStatus {
+    PENDING,
+    PAID,
+    COMPLETED,
+    FAILED;
+
+    /**
+     * States an order may move to {@code this} from.
+     */
+    public Set<OrderStatus> sources() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(OrderStatus.class);
+            case PAID -> EnumSet.of(PENDING);
+            case COMPLETED -> EnumSet.of(PAID);
+            case FAILED -> EnumSet.of(PENDING, PAID);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return target.sources().contains(this);
+    }
+}
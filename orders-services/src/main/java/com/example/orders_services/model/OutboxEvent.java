@@ -0,0 +1,68 @@
+package com.example.orders_services.model;
+
+import java.time.Instant;
+
+/**
+ * An event waiting to be relayed to Kafka.
+ * Stored inside the order document it belongs to, so the order and its events
+ * are written in the same single-document (atomic) Mongo write.
+ */
+public class OutboxEvent {
+
+    private String eventId;
+    private String topic;
+    private String key;
+    private Object payload;
+    private Instant createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String eventId, String topic, String key, Object payload, Instant createdAt) {
+        this.eventId = eventId;
+        this.topic = topic;
+        this.key = key;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    public void setPayload(Object payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
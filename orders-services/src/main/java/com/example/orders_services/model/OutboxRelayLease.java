@@ -0,0 +1,46 @@
+package com.example.orders_services.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease that makes one OrderOutboxRelay instance the only one relaying: its holder renews it
+ * before each batch, and another instance takes over once it has expired.
+ */
+@Document(collection = "outbox_relay_leases")
+public class OutboxRelayLease {
+    @Id
+    private String id;
+
+    private String owner;
+    private Instant leaseUntil;
+
+    public OutboxRelayLease() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Instant leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+}
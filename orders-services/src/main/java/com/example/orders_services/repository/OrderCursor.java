@@ -0,0 +1,67 @@
+package com.example.orders_services.repository;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.orders_services.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the (createdAt desc, _id desc) order used for order listings.
+ * Encoded as an opaque URL-safe token handed to clients as the next-page cursor; a token that
+ * does not decode to a timestamp and an order id is rejected with 400.
+ */
+public final class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+    private static final int UUID_LENGTH = 36;
+
+    private final LocalDateTime createdAt;
+    private final String id;
+
+    public OrderCursor(LocalDateTime createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            String id = raw.substring(separator + 1);
+            // Cursors only ever carry generated ids (UUIDs before IdGenerator), so anything else was edited
+            if (id.length() == UUID_LENGTH) {
+                UUID.fromString(id);
+            } else {
+                IdGenerator.parse(id);
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,437 @@
+package com.example.orders_services.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of opaque records, kept in memory-mapped segment files of a fixed size.
+ * <p>
+ * Each record is written as its length, a CRC32 of the payload and the payload. A writer appends
+ * with {@link #append} and then waits in {@link #awaitDurable} until a sync covers its record.
+ * Syncs run on one background thread: each one forces everything appended since the previous
+ * one, so writers that arrive while a sync is running share the next (group commit) and the
+ * number of syncs does not grow with the number of writers.
+ * <p>
+ * A record stays in the journal until {@link #release}d. A full segment is deleted once all its
+ * records are released; when {@code maxSegments} segments are live, appends wait for one to go.
+ * {@link #open} returns the records left unreleased by the previous process, stopping at the
+ * first torn or zeroed record of each segment, and starts a new segment for its own appends.
+ */
+public class OrderJournal implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("orders-(\\d{12})\\.journal");
+    private static final int HEADER_BYTES = 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Condition spaceFreed = lock.newCondition();
+
+    // Guarded by lock
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final List<Segment> unsynced = new ArrayList<>();
+    private Segment current;
+    private long nextSegmentIndex;
+    private long appendedSequence;
+    private long syncedSequence;
+    private boolean closed;
+
+    private Thread syncer;
+    private final AtomicLong syncs = new AtomicLong();
+
+    public OrderJournal(Path dir, int segmentBytes, int maxSegments, boolean fsync) {
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("The journal needs at least two segments");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Opens the journal and returns the records a previous process left unreleased, oldest first.
+     */
+    public List<Record> open() throws IOException {
+        Files.createDirectories(dir);
+        List<Record> recovered = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Path file : segmentFiles()) {
+                Segment segment = Segment.map(file, segmentIndex(file), (int) Files.size(file));
+                segment.sealed = true;
+                segment.recover(recovered);
+                nextSegmentIndex = segment.index + 1;
+                if (segment.live == 0) {
+                    segment.delete();
+                } else {
+                    segments.addLast(segment);
+                }
+            }
+            current = newSegment();
+        } finally {
+            lock.unlock();
+        }
+        if (fsync) {
+            syncer = new Thread(this::syncLoop, "order-journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} journaled records from {} segments in {}", recovered.size(), segments.size() - 1, dir);
+        }
+        return recovered;
+    }
+
+    /**
+     * Appends one record, waiting up to {@code maxWait} while the journal is full.
+     * Returns null if it stayed full; the record is not durable until {@link #awaitDurable} returns.
+     */
+    public Record append(byte[] payload, long maxWait, TimeUnit unit) throws InterruptedException {
+        int size = HEADER_BYTES + payload.length;
+        if (size > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes does not fit in a journal segment");
+        }
+        long deadline = System.nanoTime() + unit.toNanos(maxWait);
+        lock.lock();
+        try {
+            while (current == null || current.remaining() < size) {
+                checkOpen();
+                if (current != null) {
+                    seal(current);
+                    current = null;
+                }
+                if (segments.size() < maxSegments) {
+                    current = newSegment();
+                } else {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        return null;
+                    }
+                    spaceFreed.awaitNanos(left);
+                }
+            }
+            checkOpen();
+            Record record = current.write(payload, ++appendedSequence);
+            if (fsync && !current.dirty) {
+                current.dirty = true;
+                unsynced.add(current);
+            }
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the record is on disk. Without fsync it is already in the page cache,
+     * which survives a crash of this process but not of the machine.
+     */
+    public void awaitDurable(Record record) throws InterruptedException {
+        if (!fsync) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (syncedSequence < record.sequence) {
+                checkOpen();
+                syncRequested.signal();
+                synced.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the record as no longer needed, deleting its segment if that was the last one in it.
+     */
+    public void release(Record record) {
+        lock.lock();
+        try {
+            Segment segment = record.segment;
+            if (--segment.live == 0 && segment.sealed) {
+                segments.remove(segment);
+                segment.delete();
+                spaceFreed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Syncs since opening; with many concurrent writers, far fewer than appends.
+     */
+    public long syncCount() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            syncRequested.signalAll();
+            synced.signalAll();
+            spaceFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (syncer != null) {
+            try {
+                syncer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.force(segment.syncedPosition, segment.position);
+                segment.closeChannel();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        List<Segment> batch = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();
+        while (true) {
+            long target;
+            lock.lock();
+            try {
+                while (!closed && appendedSequence == syncedSequence) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                target = appendedSequence;
+                for (Segment segment : unsynced) {
+                    batch.add(segment);
+                    ranges.add(new int[]{segment.syncedPosition, segment.position});
+                    segment.syncedPosition = segment.position;
+                    segment.dirty = false;
+                }
+                unsynced.clear();
+            } finally {
+                lock.unlock();
+            }
+
+            // Outside the lock, so appends carry on into the next sync
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).force(ranges.get(i)[0], ranges.get(i)[1]);
+            }
+            batch.clear();
+            ranges.clear();
+            syncs.incrementAndGet();
+
+            lock.lock();
+            try {
+                syncedSequence = target;
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Segment newSegment() {
+        try {
+            Segment segment = Segment.create(dir.resolve(String.format("orders-%012d.journal", nextSegmentIndex)),
+                    nextSegmentIndex, segmentBytes);
+            nextSegmentIndex++;
+            segments.addLast(segment);
+            if (fsync) {
+                // Make the new file's directory entry durable too
+                try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+                    directory.force(true);
+                }
+            }
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment in " + dir, e);
+        }
+    }
+
+    private void seal(Segment segment) {
+        segment.sealed = true;
+        if (segment.live == 0) {
+            segments.remove(segment);
+            segment.delete();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Order journal is closed");
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentIndex(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        matcher.matches();
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * One journaled record: its payload, and where it is held until released.
+     */
+    public static final class Record {
+        private final Segment segment;
+        private final long sequence;
+        private final byte[] payload;
+
+        private Record(Segment segment, long sequence, byte[] payload) {
+            this.segment = segment;
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long index;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int syncedPosition;
+        private int live;
+        private boolean sealed;
+        private boolean dirty;
+
+        private Segment(Path file, long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(file, index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment map(Path file, long index, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(file, index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        Record write(byte[] payload, long sequence) {
+            buffer.putInt(position + 4, checksum(payload));
+            buffer.put(position + HEADER_BYTES, payload);
+            // Length last: a record whose length is written is complete in memory
+            buffer.putInt(position, payload.length);
+            position += HEADER_BYTES + payload.length;
+            live++;
+            return new Record(this, sequence, payload);
+        }
+
+        /**
+         * Reads back complete records; the first zero length, overrun or checksum mismatch ends the segment.
+         */
+        void recover(List<Record> into) {
+            while (remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > remaining() - HEADER_BYTES) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                if (checksum(payload) != buffer.getInt(position + 4)) {
+                    log.warn("Journal segment {} has a torn record at offset {}; ignoring the rest of it", file, position);
+                    break;
+                }
+                into.add(new Record(this, 0, payload));
+                position += HEADER_BYTES + length;
+                live++;
+            }
+            syncedPosition = position;
+        }
+
+        void force(int from, int to) {
+            if (to > from) {
+                buffer.force(from, to - from);
+            }
+        }
+
+        void delete() {
+            closeChannel();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Cannot delete journal segment {}: {}", file, e.getMessage());
+            }
+        }
+
+        void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing journal segment {} failed: {}", file, e.getMessage());
+            }
+        }
+
+        private static int checksum(byte[] payload) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs explain() on every query the order repository issues and reports the ones whose
+ * winning plan contains a COLLSCAN. Any new finder belongs in {@link #repositoryQueries()}.
+ */
+@Component
+public class OrderQueryPlanVerifier {
+    private static final Logger log = LoggerFactory.getLogger(OrderQueryPlanVerifier.class);
+
+    private static final String PROBE_STATUS = "PENDING";
+    private static final String PROBE_EMAIL = "probe@example.com";
+    private static final int PROBE_LIMIT = 101;
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrderQueryPlanVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Returns the names of the queries that fall back to a collection scan.
+     */
+    public List<String> findCollectionScans() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class));
+        List<String> collectionScans = new ArrayList<>();
+        for (Map.Entry<String, Query> entry : repositoryQueries().entrySet()) {
+            Query query = entry.getValue();
+            FindIterable<Document> find = collection.find(query.getQueryObject()).sort(query.getSortObject());
+            if (query.getLimit() > 0) {
+                find.limit(query.getLimit());
+            }
+            Document winningPlan = find.explain().get("queryPlanner", Document.class).get("winningPlan", Document.class);
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(entry.getKey());
+                log.error("Query {} uses a collection scan: {}", entry.getKey(), winningPlan.toJson());
+            } else {
+                log.debug("Query {} plan: {}", entry.getKey(), winningPlan.toJson());
+            }
+        }
+        return collectionScans;
+    }
+
+    static Map<String, Query> repositoryQueries() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.now(), "~");
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("findPage(all)", OrderRepositoryImpl.pageQuery(null, null, null, PROBE_LIMIT));
+        queries.put("findPage(all, cursor)", OrderRepositoryImpl.pageQuery(null, null, cursor, PROBE_LIMIT));
+        queries.put("findPage(status)", OrderRepositoryImpl.pageQuery(PROBE_STATUS, null, null, PROBE_LIMIT));
+        queries.put("findPage(status, cursor)", OrderRepositoryImpl.pageQuery(PROBE_STATUS, null, cursor, PROBE_LIMIT));
+        queries.put("findPage(customerEmail)", OrderRepositoryImpl.pageQuery(null, PROBE_EMAIL, null, PROBE_LIMIT));
+        queries.put("findPage(customerEmail, cursor)", OrderRepositoryImpl.pageQuery(null, PROBE_EMAIL, cursor, PROBE_LIMIT));
+        queries.put("streamOrders(all)", OrderRepositoryImpl.streamQuery(null, null));
+        queries.put("streamOrders(status)", OrderRepositoryImpl.streamQuery(PROBE_STATUS, null));
+        queries.put("streamOrders(customerEmail)", OrderRepositoryImpl.streamQuery(null, PROBE_EMAIL));
+        queries.put("outboxPending", OrderRepositoryImpl.outboxPendingQuery(PROBE_LIMIT));
+        return queries;
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated and streaming order queries, newest first.
+ * A null status or customerEmail means no filter on that field.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} orders positioned after {@code after} (or from the start when null).
+     */
+    List<Order> findPage(String status, String customerEmail, OrderCursor after, int limit);
+
+    /**
+     * Streams every matching order from a server-side cursor; the caller must close the stream.
+     */
+    Stream<Order> streamOrders(String status, String customerEmail);
+
+    /**
+     * Deletes the order and returns it as it was, or null when there was none.
+     */
+    Order findAndRemoveById(String id);
+}
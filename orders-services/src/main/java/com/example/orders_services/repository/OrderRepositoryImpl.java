@@ -0,0 +1,96 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "_id"));
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final String OUTBOX_PENDING_FIELD = "outbox.createdAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrderRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Order> findPage(String status, String customerEmail, OrderCursor after, int limit) {
+        return mongoTemplate.find(pageQuery(status, customerEmail, after, limit), Order.class);
+    }
+
+    @Override
+    public Stream<Order> streamOrders(String status, String customerEmail) {
+        return mongoTemplate.stream(streamQuery(status, customerEmail), Order.class);
+    }
+
+    @Override
+    public Order findAndRemoveById(String id) {
+        return mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Order.class);
+    }
+
+    static Query pageQuery(String status, String customerEmail, OrderCursor after, int limit) {
+        List<Criteria> criteria = filters(status, customerEmail);
+        if (after != null) {
+            // (createdAt, _id) < (cursor.createdAt, cursor.id)
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(after.getCreatedAt()),
+                    new Criteria().andOperator(
+                            Criteria.where("createdAt").is(after.getCreatedAt()),
+                            Criteria.where("_id").lt(after.getId()))));
+        }
+        return query(criteria).with(NEWEST_FIRST).limit(limit);
+    }
+
+    static Query streamQuery(String status, String customerEmail) {
+        return query(filters(status, customerEmail))
+                .with(NEWEST_FIRST)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+    }
+
+    /**
+     * Orders with unpublished outbox events, found through the partial "outbox_pending" index
+     * declared on {@link Order}.
+     */
+    public static Query outboxPendingFilter() {
+        return new Query(Criteria.where(OUTBOX_PENDING_FIELD).exists(true));
+    }
+
+    /**
+     * Oldest orders with unpublished events, projected to their outbox and its failure count.
+     */
+    public static Query outboxPendingQuery(int limit) {
+        Query query = outboxPendingFilter()
+                .with(Sort.by(Sort.Direction.ASC, OUTBOX_PENDING_FIELD))
+                .limit(limit);
+        query.fields().include("outbox").include("outboxFailures");
+        return query;
+    }
+
+    private static List<Criteria> filters(String status, String customerEmail) {
+        List<Criteria> criteria = new ArrayList<>(3);
+        if (status != null) {
+            criteria.add(Criteria.where("status").is(status));
+        }
+        if (customerEmail != null) {
+            criteria.add(Criteria.where("customerEmail").is(customerEmail));
+        }
+        return criteria;
+    }
+
+    private static Query query(List<Criteria> criteria) {
+        if (criteria.isEmpty()) {
+            return new Query();
+        }
+        return new Query(new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+    }
+}
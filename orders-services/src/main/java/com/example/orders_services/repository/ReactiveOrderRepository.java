@@ -0,0 +1,12 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of {@link OrderRepository}, used by the reactive deployment.
+ */
+@Repository
+public interface ReactiveOrderRepository extends ReactiveMongoRepository<Order, String>, ReactiveOrderRepositoryCustom {
+}
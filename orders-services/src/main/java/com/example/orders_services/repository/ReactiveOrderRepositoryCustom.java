@@ -0,0 +1,20 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive form of {@link OrderRepositoryCustom}; runs the same queries on the same indexes.
+ */
+public interface ReactiveOrderRepositoryCustom {
+
+    /**
+     * Emits up to {@code limit} orders positioned after {@code after} (or from the start when null).
+     */
+    Flux<Order> findPage(String status, String customerEmail, OrderCursor after, int limit);
+
+    /**
+     * Emits every matching order from a server-side cursor, fetching batches as demand allows.
+     */
+    Flux<Order> streamOrders(String status, String customerEmail);
+}
@@ -0,0 +1,24 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+public class ReactiveOrderRepositoryImpl implements ReactiveOrderRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public ReactiveOrderRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @Override
+    public Flux<Order> findPage(String status, String customerEmail, OrderCursor after, int limit) {
+        return reactiveMongoTemplate.find(OrderRepositoryImpl.pageQuery(status, customerEmail, after, limit), Order.class);
+    }
+
+    @Override
+    public Flux<Order> streamOrders(String status, String customerEmail) {
+        return reactiveMongoTemplate.find(OrderRepositoryImpl.streamQuery(status, customerEmail), Order.class);
+    }
+}
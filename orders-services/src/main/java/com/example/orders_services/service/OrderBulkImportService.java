@@ -0,0 +1,223 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.model.Order;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a bulk order import: the body (NDJSON or a JSON array) is parsed one order at a time,
+ * valid orders are inserted in unordered bulk chunks, and one NDJSON result line per item is
+ * written back as each chunk completes. Only one chunk is held in memory.
+ */
+@Service
+public class OrderBulkImportService {
+    private static final Logger log = LoggerFactory.getLogger(OrderBulkImportService.class);
+
+    private final OrderFactory orderFactory;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OperationMeters bulkCreateMetrics;
+    private final int chunkSize;
+
+    public OrderBulkImportService(OrderFactory orderFactory,
+                                  MongoTemplate mongoTemplate,
+                                  ObjectMapper objectMapper,
+                                  MetricsService metricsService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${orders.bulk.chunk-size:1000}") int chunkSize) {
+        this.orderFactory = orderFactory;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+        this.eventPublisher = eventPublisher;
+        this.bulkCreateMetrics = metricsService.operation("bulk-create-order");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every order in {@code body} and writes per-item results to {@code out}.
+     * A syntax error ends the import after the orders read so far; a bad item only rejects that item.
+     */
+    public BulkImportSummary importOrders(InputStream body, OutputStream out) throws IOException {
+        metricsService.incrementTotalApiCalls();
+        BulkImportSummary summary = new BulkImportSummary();
+
+        try (OperationSample sample = bulkCreateMetrics.start();
+             JsonParser parser = objectMapper.getFactory().createParser(body);
+             JsonGenerator results = objectMapper.getFactory().createGenerator(out)) {
+            results.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            Chunk chunk = new Chunk(chunkSize);
+            int index = 0;
+            try {
+                JsonToken token = parser.nextToken();
+                boolean wrapped = token == JsonToken.START_ARRAY;
+                if (wrapped) {
+                    token = parser.nextToken();
+                }
+                while (token != null && !(wrapped && token == JsonToken.END_ARRAY)) {
+                    // Read the item as a tree first, so a bad field rejects only this item
+                    JsonNode item = parser.readValueAsTree();
+                    try {
+                        OrderRequest request = objectMapper.treeToValue(item, OrderRequest.class);
+                        chunk.add(index, orderFactory.newOrder(request));
+                    } catch (JsonProcessingException e) {
+                        writeRejected(results, index, "Invalid order: " + e.getOriginalMessage());
+                        summary.rejected++;
+                    } catch (BadRequestException e) {
+                        writeRejected(results, index, e.getMessage());
+                        summary.rejected++;
+                    }
+                    index++;
+
+                    if (chunk.size() == chunkSize) {
+                        flushChunk(chunk, results, summary);
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonParseException e) {
+                writeRejected(results, index, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+                summary.rejected++;
+            }
+            flushChunk(chunk, results, summary);
+            results.flush();
+
+            log.info("Bulk import finished: {} created, {} rejected", summary.created, summary.rejected);
+            if (summary.rejected == 0) {
+                sample.success();
+            }
+        }
+        return summary;
+    }
+
+    private void flushChunk(Chunk chunk, JsonGenerator results, BulkImportSummary summary) throws IOException {
+        if (chunk.size() == 0) {
+            return;
+        }
+        Map<Integer, String> failures = insertChunk(chunk.orders);
+        for (int i = 0; i < chunk.size(); i++) {
+            String failure = failures.get(i);
+            if (failure == null) {
+                eventPublisher.publishEvent(OrderChangedEvent.created(chunk.orders.get(i)));
+                writeCreated(results, chunk.indexes.get(i), chunk.orders.get(i).getId());
+                summary.created++;
+            } else {
+                writeRejected(results, chunk.indexes.get(i), failure);
+                summary.rejected++;
+            }
+        }
+        results.flush();
+        chunk.clear();
+    }
+
+    /**
+     * Inserts the chunk with one unordered bulk write and returns the failed positions.
+     */
+    private Map<Integer, String> insertChunk(List<Order> orders) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                    .insert(orders)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            return failures;
+        } catch (RuntimeException e) {
+            log.error("Bulk insert of {} orders failed", orders.size(), e);
+            Map<Integer, String> failures = new HashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                failures.put(i, "Insert failed: " + e.getMessage());
+            }
+            return failures;
+        }
+    }
+
+    private static void writeCreated(JsonGenerator results, int index, String orderId) throws IOException {
+        results.writeStartObject();
+        results.writeNumberField("index", index);
+        results.writeStringField("status", "CREATED");
+        results.writeStringField("orderId", orderId);
+        results.writeEndObject();
+    }
+
+    private static void writeRejected(JsonGenerator results, int index, String error) throws IOException {
+        results.writeStartObject();
+        results.writeNumberField("index", index);
+        results.writeStringField("status", "REJECTED");
+        results.writeStringField("error", error);
+        results.writeEndObject();
+    }
+
+    /**
+     * Orders waiting for the next bulk insert, with their positions in the request.
+     */
+    private static final class Chunk {
+        private final List<Integer> indexes;
+        private final List<Order> orders;
+
+        Chunk(int capacity) {
+            this.indexes = new ArrayList<>(capacity);
+            this.orders = new ArrayList<>(capacity);
+        }
+
+        void add(int index, Order order) {
+            indexes.add(index);
+            orders.add(order);
+        }
+
+        int size() {
+            return orders.size();
+        }
+
+        void clear() {
+            indexes.clear();
+            orders.clear();
+        }
+    }
+
+    public static final class BulkImportSummary {
+        private int created;
+        private int rejected;
+
+        public int getCreated() {
+            return created;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+    }
+}
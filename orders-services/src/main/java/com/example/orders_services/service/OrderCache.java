@@ -0,0 +1,69 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.model.Order;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for orders by id.
+ * Caffeine's W-TinyLFU eviction keeps the frequently polled orders resident; entries are
+ * dropped on {@link OrderChangedEvent} and expire after the TTL, which bounds staleness
+ * for changes made by other instances.
+ */
+@Component
+public class OrderCache {
+
+    private final AsyncCache<String, Order> asyncCache;
+    private final Cache<String, Order> cache;
+
+    public OrderCache(MetricsService metricsService,
+                      @Value("${orders.cache.max-size:10000}") long maxSize,
+                      @Value("${orders.cache.ttl:30s}") Duration ttl) {
+        this.asyncCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Blocking view of the same entries for the servlet stack
+        this.cache = asyncCache.synchronous();
+
+        metricsService.registerGauge("order.cache.size", "Orders held in the cache", cache::estimatedSize);
+        metricsService.registerGauge("order.cache.hit.ratio", "Order cache hit ratio", () -> cache.stats().hitRate());
+        metricsService.registerGauge("order.cache.miss.ratio", "Order cache miss ratio", () -> cache.stats().missRate());
+        metricsService.registerGauge("order.cache.evictions", "Orders evicted from the cache", () -> cache.stats().evictionCount());
+    }
+
+    /**
+     * Returns the cached order, loading it on a miss. Concurrent misses for the same id
+     * share one load; a null result is not cached.
+     */
+    public Order get(String id, Function<String, Order> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Non-blocking {@link #get}: concurrent misses for the same id share one {@code loader}
+     * future; a future that completes with null or fails is not cached.
+     */
+    public CompletableFuture<Order> getAsync(String id, Function<String, CompletableFuture<Order>> loader) {
+        return asyncCache.get(id, (key, executor) -> loader.apply(key));
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        invalidate(event.getOrderId());
+    }
+}
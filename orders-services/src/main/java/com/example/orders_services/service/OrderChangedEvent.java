@@ -0,0 +1,62 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+
+/**
+ * Published in-process whenever a stored order is created, changes or is removed,
+ * so read-side copies (such as {@link OrderCache} and {@link OrderStats}) can follow it.
+ * The status fields say how the order moved: {@code previousStatus} is null for a created
+ * order, {@code status} is null for a removed one, and both are null when the change
+ * does not affect the status.
+ */
+public class OrderChangedEvent {
+
+    private final String orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final Money totalAmount;
+
+    public OrderChangedEvent(String orderId) {
+        this(orderId, null, null, null);
+    }
+
+    private OrderChangedEvent(String orderId, OrderStatus previousStatus, OrderStatus status, Money totalAmount) {
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.totalAmount = totalAmount;
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(order.getId(), null, order.getStatus(), order.getTotalAmount());
+    }
+
+    public static OrderChangedEvent transitioned(Order order, OrderStatus previousStatus) {
+        return new OrderChangedEvent(order.getId(), previousStatus, order.getStatus(), order.getTotalAmount());
+    }
+
+    public static OrderChangedEvent removed(Order order) {
+        return new OrderChangedEvent(order.getId(), order.getStatus(), null, order.getTotalAmount());
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * The order's total; null when not known, e.g. for an order stored without one.
+     */
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+}
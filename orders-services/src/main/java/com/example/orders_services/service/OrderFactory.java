@@ -0,0 +1,94 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.model.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Validates order requests and builds the documents to insert.
+ * Shared by the blocking, bulk and reactive creation paths.
+ */
+@Component
+public class OrderFactory {
+
+    private final IdGenerator idGenerator;
+
+    public OrderFactory(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Builds the order to insert, with its id assigned and its OrderCreated event queued in the outbox.
+     * Ids come from the {@link IdGenerator}, so new orders land at the end of the {@code _id} index
+     * and the id doubles as the order's Kafka key.
+     */
+    public Order newOrder(OrderRequest orderRequest) {
+        return newOrder(orderRequest, idGenerator.nextId());
+    }
+
+    /**
+     * Builds the order with a caller-chosen id, e.g. the id an Idempotency-Key already resolved to.
+     */
+    public Order newOrder(OrderRequest orderRequest, String id) {
+        // Validation
+        if (orderRequest.getQuantity() == null || orderRequest.getQuantity() <= 0) {
+            throw new BadRequestException("Quantity must be greater than 0");
+        }
+        if (orderRequest.getPrice() == null || !orderRequest.getPrice().isPositive()) {
+            throw new BadRequestException("Price must be greater than 0");
+        }
+
+        // Calculate total amount, exactly in minor units
+        Money totalAmount;
+        try {
+            totalAmount = orderRequest.getPrice().times(orderRequest.getQuantity());
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Order total is too large");
+        }
+
+        // Build order entity
+        Order order = new Order(
+                orderRequest.getProductName(),
+                orderRequest.getQuantity(),
+                orderRequest.getPrice(),
+                totalAmount,
+                orderRequest.getCustomerEmail(),
+                OrderStatus.PENDING,
+                LocalDateTime.now(),
+                LocalDateTime.now()
+        );
+
+        // Assign the id up front so the OrderCreated event can reference it
+        order.setId(id);
+        order.setVersion(0L);
+        order.getOutbox().add(orderCreatedEvent(order));
+        return order;
+    }
+
+    private OutboxEvent orderCreatedEvent(Order order) {
+        String eventId = idGenerator.nextId();
+        Instant now = Instant.now();
+        OrderCreatedEvent event = OrderCreatedEvent.builder()
+                .eventId(eventId)
+                .orderId(order.getId())
+                .productName(order.getProductName())
+                .quantity(order.getQuantity())
+                .price(order.getPrice())
+                .totalAmount(order.getTotalAmount())
+                .customerEmail(order.getCustomerEmail())
+                .status(order.getStatus().name())
+                .occurredAt(now)
+                .build();
+        return new OutboxEvent(eventId, Topics.ORDER_EVENTS, order.getId(), event, now);
+    }
+}
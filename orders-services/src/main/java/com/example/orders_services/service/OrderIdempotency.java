@@ -0,0 +1,198 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.model.IdempotencyRecord;
+import com.example.orders_services.model.Order;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates orders at most once per Idempotency-Key.
+ * <p>
+ * In-process, the first request for a key computes the order and concurrent duplicates wait
+ * on its future; completed keys stay in a bounded in-memory cache so retries are answered
+ * without touching Mongo. Across instances and restarts, the key is claimed by inserting an
+ * {@link IdempotencyRecord} (unique on _id, expired by a TTL index) that fixes the order id
+ * up front. Whoever finds the key already claimed reads that order back, or, if its creator
+ * has not written it yet, inserts it under the claimed id; the order's own _id then lets
+ * only one insert land.
+ */
+@Component
+public class OrderIdempotency {
+    private static final Logger log = LoggerFactory.getLogger(OrderIdempotency.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderFactory orderFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncCache<String, Resolved> recent;
+
+    private final AtomicLong replayed = new AtomicLong();
+
+    public OrderIdempotency(MongoTemplate mongoTemplate,
+                            OrderFactory orderFactory,
+                            ApplicationEventPublisher eventPublisher,
+                            MetricsService metricsService,
+                            @Value("${orders.idempotency.cache.max-size:100000}") long cacheMaxSize,
+                            @Value("${orders.idempotency.cache.ttl:10m}") Duration cacheTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.orderFactory = orderFactory;
+        this.eventPublisher = eventPublisher;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .buildAsync();
+
+        metricsService.registerGauge("idempotency.replayed", "Requests answered with an already created order", replayed::get);
+        metricsService.registerGauge("idempotency.cache.size", "Idempotency keys held in memory", () -> recent.synchronous().estimatedSize());
+    }
+
+    /**
+     * Returns the order created for {@code key}, creating it from {@code request} the first time.
+     * Reusing a key with a different request is rejected.
+     */
+    public Order createOrder(String key, OrderRequest request) {
+        validateKey(key);
+        String fingerprint = fingerprint(request);
+
+        CompletableFuture<Resolved> created = new CompletableFuture<>();
+        CompletableFuture<Resolved> inFlight = recent.asMap().putIfAbsent(key, created);
+        if (inFlight != null) {
+            // Same key seen by this instance: wait for (or reuse) that computation
+            Resolved resolved = await(inFlight);
+            replayed.incrementAndGet();
+            return resolved.orderFor(key, fingerprint);
+        }
+
+        try {
+            Resolved resolved = resolve(key, request, fingerprint);
+            // Failed futures are dropped by the cache, so only successes are remembered
+            created.complete(resolved);
+            return resolved.order;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Resolved resolve(String key, OrderRequest request, String fingerprint) {
+        Order order = orderFactory.newOrder(request);
+        for (int attempt = 1; attempt <= MAX_CLAIM_ATTEMPTS; attempt++) {
+            try {
+                mongoTemplate.insert(new IdempotencyRecord(key, fingerprint, order.getId(), Instant.now()));
+                return new Resolved(fingerprint, insertOrLoad(order));
+            } catch (DuplicateKeyException e) {
+                IdempotencyRecord claim = mongoTemplate.findById(key, IdempotencyRecord.class);
+                if (claim == null) {
+                    // Expired between the insert and the read; claim it again
+                    continue;
+                }
+                requireSameRequest(key, claim.getRequestFingerprint(), fingerprint);
+
+                Order original = mongoTemplate.findById(claim.getOrderId(), Order.class);
+                if (original != null) {
+                    replayed.incrementAndGet();
+                    return new Resolved(fingerprint, original);
+                }
+                // Claimed, but the order is not written yet: its creator is still running or failed
+                log.info("Completing order {} for idempotency key claimed elsewhere", claim.getOrderId());
+                return new Resolved(fingerprint, insertOrLoad(orderFactory.newOrder(request, claim.getOrderId())));
+            }
+        }
+        throw new IllegalStateException("Could not claim idempotency key " + key);
+    }
+
+    private Order insertOrLoad(Order order) {
+        try {
+            Order inserted = mongoTemplate.insert(order);
+            eventPublisher.publishEvent(OrderChangedEvent.created(inserted));
+            return inserted;
+        } catch (DuplicateKeyException e) {
+            Order existing = mongoTemplate.findById(order.getId(), Order.class);
+            if (existing == null) {
+                throw e;
+            }
+            return existing;
+        }
+    }
+
+    private static Resolved await(CompletableFuture<Resolved> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void validateKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private static void requireSameRequest(String key, String originalFingerprint, String fingerprint) {
+        if (!originalFingerprint.equals(fingerprint)) {
+            throw new BadRequestException("Idempotency-Key '" + key + "' was already used for a different order");
+        }
+    }
+
+    /**
+     * SHA-256 over the request fields, to detect a key reused for a different order.
+     */
+    static String fingerprint(OrderRequest request) {
+        String fields = String.join("\u0000",
+                Objects.toString(request.getProductName()),
+                Objects.toString(request.getQuantity()),
+                Objects.toString(request.getPrice()),
+                Objects.toString(request.getCustomerEmail()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The order a key resolved to, with the fingerprint of the request that created it.
+     */
+    private static final class Resolved {
+        private final String fingerprint;
+        private final Order order;
+
+        Resolved(String fingerprint, Order order) {
+            this.fingerprint = fingerprint;
+            this.order = order;
+        }
+
+        Order orderFor(String key, String requestFingerprint) {
+            requireSameRequest(key, fingerprint, requestFingerprint);
+            return order;
+        }
+    }
+}
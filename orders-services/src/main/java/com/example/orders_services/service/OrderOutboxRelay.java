@@ -0,0 +1,306 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OutboxEvent;
+import com.example.orders_services.model.OutboxRelayLease;
+import com.example.orders_services.repository.OrderRepositoryImpl;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains pending {@link OutboxEvent}s from order documents to Kafka.
+ * Each pass sends up to one batch of orders' events asynchronously, lets the producer
+ * coalesce them (linger/batch-size/compression are set in application.yml), then removes
+ * the acknowledged events from their documents with a single bulk write.
+ * Delivery is at-least-once; consumers de-duplicate on eventId.
+ * Pending events are found with {@link OrderRepositoryImpl#outboxPendingQuery}.
+ * <p>
+ * Only the instance holding the {@link OutboxRelayLease} relays, so two instances never send
+ * the same rows side by side; it renews the lease before each batch, and another instance
+ * takes over once it has gone unrenewed for orders.outbox.relay.lease. An order whose events
+ * fail in a pass where others go through (a record the broker refuses, say) counts a failure;
+ * after orders.outbox.relay.max-failures its events are parked in parkedOutbox, so it stops
+ * taking a slot at the head of every batch. Passes where every send fails (the broker is down)
+ * count nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderOutboxRelay implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+    private static final String LEASE_ID = "order-outbox";
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerPass;
+    private final long sendTimeoutMs;
+    private final Duration lease;
+    private final int maxFailures;
+    private final String owner = UUID.randomUUID().toString();
+    private volatile boolean leader;
+
+    private final OperationMeters relayMetrics;
+    // A broker outage fails every send in a batch; log a sample of them
+    private final LogSampler.Site sendFailedLog;
+
+    // Backpressure gauges
+    private final AtomicLong pendingOrders = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+    private final AtomicLong inFlightSends = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong failedSends = new AtomicLong();
+    private final AtomicLong parkedOrders = new AtomicLong();
+
+    public OrderOutboxRelay(MongoTemplate mongoTemplate,
+                            KafkaTemplate<String, Object> kafkaTemplate,
+                            MetricsService metricsService,
+                            LogSampler logSampler,
+                            @Value("${orders.outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${orders.outbox.relay.max-batches-per-pass:20}") int maxBatchesPerPass,
+                            @Value("${orders.outbox.relay.send-timeout-ms:30000}") long sendTimeoutMs,
+                            @Value("${orders.outbox.relay.lease:45s}") Duration lease,
+                            @Value("${orders.outbox.relay.max-failures:5}") int maxFailures) {
+        if (lease.toMillis() <= sendTimeoutMs) {
+            // A batch may wait send-timeout-ms for its sends; the lease must outlast it
+            throw new IllegalArgumentException("orders.outbox.relay.lease must be longer than send-timeout-ms");
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPass = maxBatchesPerPass;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.lease = lease;
+        this.maxFailures = maxFailures;
+        this.relayMetrics = metricsService.operation("outbox-relay");
+        this.sendFailedLog = logSampler.site("outbox-send-failure");
+
+        metricsService.registerGauge("outbox.pending", "Orders with events waiting in the outbox", pendingOrders::get);
+        metricsService.registerGauge("outbox.oldest.age.ms", "Age of the oldest unpublished event", oldestPendingAgeMs::get);
+        metricsService.registerGauge("outbox.in-flight", "Events sent to Kafka and not yet acknowledged", inFlightSends::get);
+        metricsService.registerGauge("outbox.last.batch.size", "Events in the last relayed batch", lastBatchSize::get);
+        metricsService.registerGauge("outbox.published", "Events relayed since startup", publishedEvents::get);
+        metricsService.registerGauge("outbox.send.failures", "Failed Kafka sends since startup", failedSends::get);
+        metricsService.registerGauge("outbox.parked", "Orders whose events were parked after repeated failures", parkedOrders::get);
+        metricsService.registerGauge("outbox.relay.leader", "1 while this instance holds the relay lease", () -> leader ? 1 : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.relay.interval-ms:100}")
+    public void relay() {
+        try {
+            int batches = 0;
+            while (batches++ < maxBatchesPerPass && holdLease() && relayBatch() == batchSize) {
+                // Keep draining while full batches come back
+            }
+            refreshBacklog();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Takes or renews the relay lease; false while another instance holds it.
+     */
+    boolean holdLease() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID).orOperator(
+                Criteria.where("owner").is(owner), Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update().set("owner", owner).set("leaseUntil", now.plus(lease));
+        boolean held;
+        try {
+            mongoTemplate.findAndModify(query, update, UPSERT_RETURN_NEW, OutboxRelayLease.class);
+            held = true;
+        } catch (DuplicateKeyException e) {
+            // The lease exists, unexpired and someone else's, so the upsert tried to insert a second one
+            held = false;
+        }
+        if (held != leader) {
+            log.info(held ? "Outbox relay lease taken, relaying from this instance" : "Outbox relay lease held elsewhere");
+            leader = held;
+        }
+        return held;
+    }
+
+    /**
+     * Lets another instance take over at once instead of after the lease expires.
+     */
+    @Override
+    public void destroy() {
+        if (!leader) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(owner)),
+                    new Update().set("leaseUntil", Instant.EPOCH), OutboxRelayLease.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the outbox relay lease: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relays one batch and returns the number of orders it covered.
+     */
+    int relayBatch() {
+        List<Order> orders = mongoTemplate.find(OrderRepositoryImpl.outboxPendingQuery(batchSize), Order.class);
+        if (orders.isEmpty()) {
+            lastBatchSize.set(0);
+            return 0;
+        }
+
+        try (OperationSample sample = relayMetrics.start()) {
+            List<List<CompletableFuture<SendResult<String, Object>>>> sends = new ArrayList<>(orders.size());
+            int events = 0;
+            for (Order order : orders) {
+                List<CompletableFuture<SendResult<String, Object>>> orderSends = new ArrayList<>(order.getOutbox().size());
+                for (OutboxEvent event : order.getOutbox()) {
+                    orderSends.add(send(event));
+                }
+                events += orderSends.size();
+                sends.add(orderSends);
+            }
+            inFlightSends.set(events);
+            lastBatchSize.set(events);
+            kafkaTemplate.flush();
+
+            List<boolean[]> acks = new ArrayList<>(orders.size());
+            int acked = 0;
+            for (List<CompletableFuture<SendResult<String, Object>>> orderSends : sends) {
+                boolean[] orderAcks = new boolean[orderSends.size()];
+                for (int j = 0; j < orderSends.size(); j++) {
+                    orderAcks[j] = awaitSend(orderSends.get(j));
+                    acked += orderAcks[j] ? 1 : 0;
+                }
+                acks.add(orderAcks);
+            }
+
+            BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            boolean updated = false;
+            for (int i = 0; i < orders.size(); i++) {
+                // Failures only count against an order when other sends in the batch went through
+                Update update = outboxUpdate(orders.get(i), acks.get(i), acked > 0);
+                if (update != null) {
+                    updates.updateOne(Query.query(Criteria.where("_id").is(orders.get(i).getId())), update);
+                    updated = true;
+                }
+            }
+            if (updated) {
+                updates.execute();
+            }
+            inFlightSends.set(0);
+            publishedEvents.addAndGet(acked);
+            if (acked == events) {
+                sample.success();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Relayed {}/{} outbox events", acked, events);
+            }
+        }
+        return orders.size();
+    }
+
+    /**
+     * Removes an order's acknowledged events and, if {@code countFailures}, records that the
+     * rest failed, parking them once the order reaches max-failures; null if nothing changes.
+     */
+    private Update outboxUpdate(Order order, boolean[] acks, boolean countFailures) {
+        List<String> ackedIds = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        for (int j = 0; j < acks.length; j++) {
+            OutboxEvent event = order.getOutbox().get(j);
+            if (acks[j]) {
+                ackedIds.add(event.getEventId());
+            } else {
+                failed.add(event);
+            }
+        }
+        if (failed.isEmpty() || !countFailures) {
+            return ackedIds.isEmpty() ? null : pull(ackedIds);
+        }
+
+        int failures = (order.getOutboxFailures() == null ? 0 : order.getOutboxFailures()) + 1;
+        if (failures < maxFailures) {
+            return (ackedIds.isEmpty() ? new Update() : pull(ackedIds)).inc("outboxFailures", 1);
+        }
+        List<String> removed = new ArrayList<>(ackedIds);
+        failed.forEach(event -> removed.add(event.getEventId()));
+        parkedOrders.incrementAndGet();
+        log.error("Parking {} outbox events of order {} after {} failed passes; move them back to outbox to relay them",
+                failed.size(), order.getId(), failures);
+        return pull(removed).inc("outboxFailures", 1).push("parkedOutbox").each(failed.toArray());
+    }
+
+    private static Update pull(List<String> eventIds) {
+        return new Update().pull("outbox", new Document("eventId", new Document("$in", eventIds)));
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        // The order starts the flow: its events' creation time is also the flow's origin
+        long createdAt = event.getCreatedAt().toEpochMilli();
+        try {
+            return kafkaTemplate.send(EventHeaders.producerRecord(
+                    event.getTopic(), event.getKey(), event.getPayload(), createdAt, createdAt));
+        } catch (RuntimeException e) {
+            // A record that cannot even be serialized fails alone rather than the whole batch
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitSend(CompletableFuture<SendResult<String, Object>> send) {
+        try {
+            send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (sendFailedLog.tryAcquire()) {
+                log.warn("Outbox event send failed, will retry: {} ({} more failures not logged)",
+                        e.getMessage(), sendFailedLog.takeSuppressed());
+            }
+        }
+        failedSends.incrementAndGet();
+        return false;
+    }
+
+    private void refreshBacklog() {
+        pendingOrders.set(mongoTemplate.count(OrderRepositoryImpl.outboxPendingFilter(), Order.class));
+
+        Order order = mongoTemplate.findOne(OrderRepositoryImpl.outboxPendingQuery(1), Order.class);
+        if (order == null || order.getOutbox().isEmpty()) {
+            oldestPendingAgeMs.set(0);
+        } else {
+            Instant createdAt = order.getOutbox().get(0).getCreatedAt();
+            oldestPendingAgeMs.set(Math.max(0, Instant.now().toEpochMilli() - createdAt.toEpochMilli()));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.orders_services.dto.OrderPage;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.repository.OrderCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Page size limits and cursor handling for keyset-paginated order listings.
+ * Queries fetch {@link #fetchSize(int)} rows; the extra row tells whether another page follows.
+ */
+@Component
+public class OrderPaging {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public OrderPaging(@Value("${orders.pagination.default-limit:100}") int defaultPageSize,
+                       @Value("${orders.pagination.max-limit:1000}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit <= 0) {
+            throw new BadRequestException("Limit must be greater than 0");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    public int fetchSize(int pageSize) {
+        return pageSize + 1;
+    }
+
+    public OrderCursor decode(String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : OrderCursor.decode(cursor);
+    }
+
+    public OrderPage toPage(List<Order> orders, int pageSize) {
+        if (orders.size() <= pageSize) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, pageSize);
+        return new OrderPage(page, OrderCursor.after(page.get(pageSize - 1)).encode());
+    }
+}
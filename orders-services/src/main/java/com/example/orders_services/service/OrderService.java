@@ -1,19 +1,31 @@
 package com.example.orders_services.service;
 
-import com.example.commonlibrary.config.CommonAutoConfiguration;
 import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.exception.ExpectedException;
 import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.commonlibrary.logging.LogSampler;
 import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.dto.OrderPage;
 import com.example.orders_services.dto.OrderRequest;
 import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
 import com.example.orders_services.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
@@ -22,153 +34,219 @@ public class OrderService {
 
     private final MetricsService metricsService;
 
-    public OrderService(OrderRepository orderRepository, MetricsService metricsService) {
+    // Meter handles, resolved once
+    private final OperationMeters createOrderMetrics;
+    private final OperationMeters getAllOrdersMetrics;
+    private final OperationMeters getOrderMetrics;
+    private final OperationMeters getOrdersByStatusMetrics;
+    private final OperationMeters getOrdersByEmailMetrics;
+    private final OperationMeters deleteOrderMetrics;
+    private final OperationMeters streamOrdersMetrics;
+
+    // Log sites on the request path, rate-limited per operation
+    private final LogSampler.Site createdLog;
+    private final LogSampler.Site createFailedLog;
+
+    private static final int STREAM_FLUSH_EVERY = 500;
+
+    private final OrderFactory orderFactory;
+    private final OrderIdempotency orderIdempotency;
+    private final OrderPaging orderPaging;
+    private final OrderCache orderCache;
+    private final OrderStateMachine orderStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    // Null unless orders.write-behind.enabled
+    private final OrderWriteBehind writeBehind;
+
+    public OrderService(OrderRepository orderRepository,
+                        MetricsService metricsService,
+                        OrderFactory orderFactory,
+                        OrderIdempotency orderIdempotency,
+                        OrderPaging orderPaging,
+                        OrderCache orderCache,
+                        OrderStateMachine orderStateMachine,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        LogSampler logSampler,
+                        ObjectProvider<OrderWriteBehind> writeBehind) {
         this.orderRepository = orderRepository;
         this.metricsService = metricsService;
+        this.orderFactory = orderFactory;
+        this.orderIdempotency = orderIdempotency;
+        this.orderPaging = orderPaging;
+        this.orderCache = orderCache;
+        this.orderStateMachine = orderStateMachine;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.writeBehind = writeBehind.getIfAvailable();
+        this.createOrderMetrics = metricsService.operation("create-order");
+        this.getAllOrdersMetrics = metricsService.operation("get-all-order");
+        this.getOrderMetrics = metricsService.operation("get-order");
+        this.getOrdersByStatusMetrics = metricsService.operation("get-order-by-status");
+        this.getOrdersByEmailMetrics = metricsService.operation("get-order-by-email");
+        this.deleteOrderMetrics = metricsService.operation("delete-order");
+        this.streamOrdersMetrics = metricsService.operation("stream-orders");
+        this.createdLog = logSampler.site("create-order");
+        this.createFailedLog = logSampler.site("create-order-failure");
     }
 
-    private static final Logger log = LoggerFactory.getLogger(CommonAutoConfiguration.class);
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
-    public Order createOrder(OrderRequest orderRequest) {
-        long startTime = System.currentTimeMillis();
+    /**
+     * Creates an order. With an {@code idempotencyKey}, a retried request returns the order
+     * the key first created instead of creating another; see {@link OrderIdempotency}.
+     */
+    public Order createOrder(OrderRequest orderRequest, String idempotencyKey) {
         metricsService.incrementTotalApiCalls();
 
-        try {
-            log.info("Creating new order for product: {}", orderRequest.getProductName());
-
-            // Validation
-            if (orderRequest.getQuantity() <= 0) {
-                throw new BadRequestException("Quantity must be greater than 0");
+        try (OperationSample sample = createOrderMetrics.start()) {
+            log.debug("Creating new order for product: {}", orderRequest.getProductName());
+
+            // Save the order and its event in one document write; OrderOutboxRelay publishes it
+            Order savedOrder;
+            try {
+                if (idempotencyKey == null && writeBehind != null) {
+                    // Journaled now, in Mongo shortly; the write-behind publishes its OrderChangedEvent
+                    savedOrder = writeBehind.insert(orderFactory.newOrder(orderRequest));
+                } else if (idempotencyKey == null) {
+                    savedOrder = orderRepository.insert(orderFactory.newOrder(orderRequest));
+                    eventPublisher.publishEvent(OrderChangedEvent.created(savedOrder));
+                } else {
+                    savedOrder = orderIdempotency.createOrder(idempotencyKey, orderRequest);
+                }
+            } catch (ExpectedException e) {
+                sample.expected();
+                throw e;
             }
-            if (orderRequest.getPrice() <= 0) {
-                throw new BadRequestException("Price must be greater than 0");
+            if (createdLog.tryAcquire()) {
+                log.info("Order created successfully with ID: {} ({} more not logged)", savedOrder.getId(), createdLog.takeSuppressed());
             }
 
-            // Calculate total amount
-            double totalAmount = orderRequest.getPrice() * orderRequest.getQuantity();
-
-            // Build order entity
-            Order order = new Order(
-                    orderRequest.getProductName(),
-                    orderRequest.getQuantity(),
-                    orderRequest.getPrice(),
-                    totalAmount,
-                    orderRequest.getCustomerEmail(),
-                    "PENDING",
-                    LocalDateTime.now(),
-                    LocalDateTime.now()
-            );
-
-            // Save to MongoDB
-            Order savedOrder = orderRepository.save(order);
-            log.info("Order created successfully with ID: {}", savedOrder.getId());
-
-            // Record success metrics
-            metricsService.recordOperationSuccess("create-order");
-            metricsService.recordOperationDuration("create-order", startTime);
-
+            sample.success();
             return savedOrder;
 
-        } catch (BadRequestException e) {
-            metricsService.recordOperationFailure("create-order");
-            metricsService.recordOperationDuration("create-order", startTime);
+        } catch (ExpectedException e) {
             throw e;
         } catch (Exception e) {
-            log.error("Failed to create order", e);
-            metricsService.recordOperationFailure("create-order");
-            metricsService.recordOperationDuration("create-order", startTime);
+            if (createFailedLog.tryAcquire()) {
+                log.error("Failed to create order ({} more failures not logged)", createFailedLog.takeSuppressed(), e);
+            }
             throw new RuntimeException("Failed to create order: " + e.getMessage(), e);
         }
     }
 
-    public List<Order> getAllOrders() {
-        long startTime = System.currentTimeMillis();
-        try{
-
-            log.info("Fetching all orders");
-            List<Order> orders = orderRepository.findAll();
-            metricsService.recordOperationSuccess("get-all-order");
-            metricsService.recordOperationDuration("get-all-order", startTime);
-            return orders;
-        }catch (ResourceNotFoundException e) {
-            metricsService.recordOperationFailure("get-all-order");
-            metricsService.recordOperationDuration("get-all-order", startTime);
-            throw e;
+    /**
+     * Returns one page of orders, newest first.
+     * Pass the previous page's next cursor to continue; {@code limit} is capped at the configured maximum.
+     */
+    public OrderPage getAllOrders(String cursor, Integer limit) {
+        try (OperationSample sample = getAllOrdersMetrics.start()) {
+            log.debug("Fetching orders page");
+            OrderPage page = findPage(null, null, cursor, limit);
+            sample.success();
+            return page;
         }
     }
 
-    public Order getOrderById(UUID id) {
-        long startTime = System.currentTimeMillis();
-        try {
-
-            log.info("Fetching order with ID: {}", id);
-            Order order = orderRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
-
-            metricsService.recordOperationSuccess("get-order");
-            metricsService.recordOperationDuration("get-order", startTime);
-
+    public Order getOrderById(String id) {
+        try (OperationSample sample = getOrderMetrics.start()) {
+            log.debug("Fetching order with ID: {}", id);
+            Order order = orderCache.get(id, this::loadOrder);
+            if (order == null) {
+                sample.expected();
+                throw new ResourceNotFoundException("Order", "id", id);
+            }
+            sample.success();
             return order;
-
-        } catch (ResourceNotFoundException e) {
-            metricsService.recordOperationFailure("get-order");
-            metricsService.recordOperationDuration("get-order", startTime);
-            throw e;
         }
     }
 
-    public List<Order> getOrdersByStatus(String status) {
-        long startTime = System.currentTimeMillis();
-        try {
-
-            log.info("Fetching order with status: {}", status);
-
-            List<Order> orders = orderRepository.findByStatus(status);
-
-            metricsService.recordOperationSuccess("get-order-by-status");
-            metricsService.recordOperationDuration("get-order-by-status", startTime);
-
-            return orders;
+    private Order loadOrder(String id) {
+        Order journaled = writeBehind != null ? writeBehind.pending(id) : null;
+        return journaled != null ? journaled : orderRepository.findById(id).orElse(null);
+    }
 
-        } catch (ResourceNotFoundException e) {
-            metricsService.recordOperationFailure("get-order-by-status");
-            metricsService.recordOperationDuration("get-order-by-status", startTime);
-            throw e;
+    public OrderPage getOrdersByStatus(String status, String cursor, Integer limit) {
+        try (OperationSample sample = getOrdersByStatusMetrics.start()) {
+            log.debug("Fetching order with status: {}", status);
+            OrderPage page = findPage(status, null, cursor, limit);
+            sample.success();
+            return page;
         }
     }
 
-    public List<Order> getOrdersByEmail(String email) {
-        long startTime = System.currentTimeMillis();
-        try {
-
-            log.info("Fetching order with Email: {}", email);
-            List<Order> orders = orderRepository.findByCustomerEmail(email);
-            metricsService.recordOperationSuccess("get-order-by-email");
-            metricsService.recordOperationDuration("get-order-by-email", startTime);
-            return orders;
-
-        } catch (ResourceNotFoundException e) {
-            metricsService.recordOperationFailure("get-order-by-email");
-            metricsService.recordOperationDuration("get-order-by-email", startTime);
-            throw e;
+    public OrderPage getOrdersByEmail(String email, String cursor, Integer limit) {
+        try (OperationSample sample = getOrdersByEmailMetrics.start()) {
+            log.debug("Fetching order with Email: {}", email);
+            OrderPage page = findPage(null, email, cursor, limit);
+            sample.success();
+            return page;
         }
     }
 
-    public void deleteOrder(UUID id) {
-        long startTime = System.currentTimeMillis();
-        try {
-            log.info("Deleting order with ID: {}", id);
+    /**
+     * Writes every matching order as NDJSON straight from a Mongo cursor, so memory use
+     * does not depend on the number of results. Null filters match everything.
+     */
+    public long streamOrders(String status, String email, OutputStream out) throws IOException {
+        try (OperationSample sample = streamOrdersMetrics.start();
+             Stream<Order> orders = orderRepository.streamOrders(status, email);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            long count = 0;
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                if (++count % STREAM_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeRaw('\n');
+            generator.flush();
+            sample.success();
+            return count;
+        }
+    }
 
-            orderRepository.deleteById(id);
+    private OrderPage findPage(String status, String email, String cursor, Integer limit) {
+        int pageSize = orderPaging.pageSize(limit);
+        List<Order> orders = orderRepository.findPage(status, email, orderPaging.decode(cursor), orderPaging.fetchSize(pageSize));
+        return orderPaging.toPage(orders, pageSize);
+    }
 
-            metricsService.recordOperationSuccess("delete-order");
-            metricsService.recordOperationDuration("delete-order", startTime);
-        } catch (ResourceNotFoundException e) {
-            metricsService.recordOperationFailure("delete-order");
-            metricsService.recordOperationDuration("delete-order", startTime);
-            throw e;
+    /**
+     * Moves the order to {@code status}; see {@link OrderStateMachine}. With {@code expectedVersion},
+     * only if the order is still at that version. Asking for the state it is already in succeeds.
+     */
+    public Order updateStatus(String id, OrderStatus status, Long expectedVersion) {
+        if (status == null) {
+            throw new BadRequestException("Status is required");
         }
+        log.debug("Updating order {} to status {}", id, status);
+        awaitStored(id);
+        return orderStateMachine.transition(id, status, expectedVersion).orderOrThrow();
     }
 
+    public void deleteOrder(String id) {
+        try (OperationSample sample = deleteOrderMetrics.start()) {
+            log.debug("Deleting order with ID: {}", id);
+            awaitStored(id);
+            // Removed with its last state, so OrderStats knows which status it leaves
+            Order removed = orderRepository.findAndRemoveById(id);
+            if (removed != null) {
+                eventPublisher.publishEvent(OrderChangedEvent.removed(removed));
+            }
+            sample.success();
+        }
+    }
 
+    /**
+     * Lets a just-created order reach Mongo before it is changed there.
+     */
+    private void awaitStored(String id) {
+        if (writeBehind != null) {
+            writeBehind.awaitStored(id);
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves orders through {@link OrderStatus} with one conditional findAndModify per transition.
+ * The filter requires a state the target may be reached from (and, when given, the expected
+ * version), and the update sets the status and bumps the version, so concurrent updates of
+ * the same order serialize in Mongo: exactly one wins, the others see no match. Nothing is
+ * read first and nothing is locked; the current document is only read to explain a miss.
+ * The findAndModify returns the document as it was, so the status an order left is known
+ * (for {@link OrderStats}); the update is then applied to that copy in memory.
+ */
+@Component
+public class OrderStateMachine {
+    private static final Logger log = LoggerFactory.getLogger(OrderStateMachine.class);
+
+    // A miss that turns out eligible on read-back raced another update; try again this many times
+    static final int MAX_ATTEMPTS = 3;
+
+    static final FindAndModifyOptions RETURN_PREVIOUS = FindAndModifyOptions.options().returnNew(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OperationMeters transitionMetrics;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public OrderStateMachine(MongoTemplate mongoTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             MetricsService metricsService) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transitionMetrics = metricsService.operation("transition-order");
+
+        metricsService.registerGauge("order.transitions.applied", "Order status transitions applied", applied::get);
+        metricsService.registerGauge("order.transitions.unchanged", "Transitions to the state an order was already in", unchanged::get);
+        metricsService.registerGauge("order.transitions.rejected", "Transitions refused by the order's state or version", rejected::get);
+    }
+
+    /**
+     * Moves the order to {@code target} if its current state allows it and, when
+     * {@code expectedVersion} is not null, its version still matches.
+     */
+    public OrderTransition transition(String orderId, OrderStatus target, Long expectedVersion) {
+        try (OperationSample sample = transitionMetrics.start()) {
+            OrderTransition transition = null;
+            for (int attempt = 1; transition == null; attempt++) {
+                LocalDateTime now = LocalDateTime.now();
+                Order previous = mongoTemplate.findAndModify(
+                        transitionQuery(orderId, target, expectedVersion), transitionUpdate(target, now), RETURN_PREVIOUS, Order.class);
+                if (previous != null) {
+                    transition = applied(previous, target, now);
+                } else {
+                    transition = explainMiss(mongoTemplate.findById(orderId, Order.class), orderId, target, expectedVersion,
+                            attempt == MAX_ATTEMPTS);
+                }
+            }
+            record(transition);
+            sample.success();
+            return transition;
+        }
+    }
+
+    /**
+     * Matches the order only while it is in a state {@code target} may be reached from.
+     */
+    static Query transitionQuery(String orderId, OrderStatus target, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(orderId).and("status").in(target.sources());
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    static Update transitionUpdate(OrderStatus target, LocalDateTime now) {
+        return new Update()
+                .set("status", target)
+                .set("updatedAt", now)
+                .inc("version", 1);
+    }
+
+    /**
+     * Applies {@link #transitionUpdate} to the document findAndModify returned from before it.
+     */
+    static OrderTransition applied(Order previous, OrderStatus target, LocalDateTime now) {
+        OrderStatus previousStatus = previous.getStatus();
+        previous.setStatus(target);
+        previous.setUpdatedAt(now);
+        previous.setVersion(previous.getVersion() != null ? previous.getVersion() + 1 : 1L);
+        return OrderTransition.applied(previous, previousStatus, target);
+    }
+
+    /**
+     * Explains why the conditional update matched nothing, given the order as it is now.
+     * Returns null when the order is eligible after all (it changed in between) and
+     * {@code lastAttempt} is false, meaning the update should be tried again.
+     */
+    static OrderTransition explainMiss(Order current, String orderId, OrderStatus target, Long expectedVersion,
+                                       boolean lastAttempt) {
+        if (current == null) {
+            return OrderTransition.notFound(orderId, target);
+        }
+        if (current.getStatus() == target) {
+            return OrderTransition.unchanged(current, target);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            return OrderTransition.rejected(current, target, String.format(
+                    "Order %s is at version %s, expected %d", orderId, current.getVersion(), expectedVersion));
+        }
+        if (current.getStatus() == null || !current.getStatus().canTransitionTo(target)) {
+            return OrderTransition.rejected(current, target, String.format(
+                    "Order %s cannot move from %s to %s", orderId, current.getStatus(), target));
+        }
+        if (lastAttempt) {
+            return OrderTransition.rejected(current, target, String.format(
+                    "Order %s kept changing, transition to %s not applied", orderId, target));
+        }
+        return null;
+    }
+
+    void record(OrderTransition transition) {
+        switch (transition.getOutcome()) {
+            case APPLIED:
+                applied.incrementAndGet();
+                eventPublisher.publishEvent(OrderChangedEvent.transitioned(transition.getOrder(), transition.getPreviousStatus()));
+                break;
+            case UNCHANGED:
+                unchanged.incrementAndGet();
+                break;
+            default:
+                rejected.incrementAndGet();
+                log.debug("Order transition to {} not applied: {}", transition.getTarget(),
+                        transition.getReason() != null ? transition.getReason() : transition.getOutcome());
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.dto.OrderStatsMinute;
+import com.example.orders_services.dto.OrderStatsSummary;
+import com.example.orders_services.dto.OrderStatusStats;
+import com.example.orders_services.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order counts and amounts per status, kept up to date from {@link OrderChangedEvent}s
+ * instead of by querying orders: a created order enters PENDING, a transition moves it from
+ * one status to another, a removed order leaves its status. Per-minute buckets count the
+ * orders entering each status, i.e. orders created and paid per minute.
+ * <p>
+ * Writers only touch {@link LongAdder} cells, which stripe under contention, so request
+ * threads never wait on each other here. Amounts are summed as {@link Money} minor units, so
+ * totals stay exact however many orders they cover. Reads combine the totals
+ * last read back from Mongo by {@link OrderStatsSnapshotter} (covering every instance) with
+ * this instance's changes not yet written there; with no snapshotter they cover this
+ * instance only. Either way a read is a fixed number of adder sums, independent of the
+ * number of orders.
+ */
+@Component
+public class OrderStats {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final int timelineMinutes;
+    private final Currency currency;
+
+    private final Cells totals = new Cells();
+    // Orders entering each status, by epoch minute; buckets leave once snapshotted, or when out of the timeline
+    private final ConcurrentHashMap<Long, Cells> minutes = new ConcurrentHashMap<>();
+
+    // Replaced as a whole by the snapshotter, so a read never mixes two snapshots
+    private volatile Baseline baseline = Baseline.EMPTY;
+
+    public OrderStats(MetricsService metricsService,
+                      @Value("${orders.stats.timeline-minutes:60}") int timelineMinutes,
+                      @Value("${common.money.currency:USD}") Currency currency) {
+        this.timelineMinutes = timelineMinutes;
+        this.currency = currency;
+
+        for (OrderStatus status : STATUSES) {
+            metricsService.registerGauge("order.stats." + status.name().toLowerCase() + ".count",
+                    "Orders currently " + status, () -> summary().getByStatus().get(status).getCount());
+        }
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderStatus from = event.getPreviousStatus();
+        OrderStatus to = event.getStatus();
+        if (from == to) {
+            return;
+        }
+        long amount = event.getTotalAmount() != null ? event.getTotalAmount().getMinorUnits() : 0;
+        if (from != null) {
+            totals.add(from, -1, -amount);
+        }
+        if (to != null) {
+            totals.add(to, 1, amount);
+            minuteCells(currentMinute()).add(to, 1, amount);
+        }
+    }
+
+    private Cells minuteCells(long minute) {
+        Cells cells = minutes.get(minute);
+        if (cells == null) {
+            cells = minutes.computeIfAbsent(minute, m -> new Cells());
+            // Once a minute: bound the buckets even when no snapshot takes them (totals are unaffected)
+            minutes.keySet().removeIf(m -> m <= minute - timelineMinutes);
+        }
+        return cells;
+    }
+
+    /**
+     * Current counts and amounts per status.
+     */
+    public OrderStatsSummary summary() {
+        Baseline base = baseline;
+        Values current = base.totals.plus(totals.sum().minus(base.flushedTotals));
+        Map<OrderStatus, OrderStatusStats> byStatus = new EnumMap<>(OrderStatus.class);
+        long orders = 0;
+        long totalAmount = 0;
+        for (OrderStatus status : STATUSES) {
+            int i = status.ordinal();
+            byStatus.put(status, new OrderStatusStats(status, current.counts[i], money(current.amounts[i])));
+            orders += current.counts[i];
+            totalAmount += current.amounts[i];
+        }
+        long revenue = current.amounts[OrderStatus.PAID.ordinal()] + current.amounts[OrderStatus.COMPLETED.ordinal()];
+        return new OrderStatsSummary(Instant.now(), base.snapshotAt, orders, money(totalAmount), money(revenue), byStatus);
+    }
+
+    public OrderStatusStats summary(OrderStatus status) {
+        return summary().getByStatus().get(status);
+    }
+
+    /**
+     * Orders entering each status per minute for the last {@code count} minutes (capped at
+     * the configured timeline), oldest first, including minutes without any.
+     */
+    public List<OrderStatsMinute> timeline(int count) {
+        Baseline base = baseline;
+        long now = currentMinute();
+        int span = Math.max(1, Math.min(count, timelineMinutes));
+        List<OrderStatsMinute> timeline = new ArrayList<>(span);
+        for (long minute = now - span + 1; minute <= now; minute++) {
+            Values value = base.minutes.getOrDefault(minute, Values.ZERO);
+            Cells local = minutes.get(minute);
+            if (local != null) {
+                value = value.plus(local.sum().minus(base.flushedMinutes.getOrDefault(minute, Values.ZERO)));
+            }
+            Map<OrderStatus, OrderStatusStats> entered = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus status : STATUSES) {
+                entered.put(status, new OrderStatusStats(status, value.counts[status.ordinal()], money(value.amounts[status.ordinal()])));
+            }
+            timeline.add(new OrderStatsMinute(Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(minute)), entered));
+        }
+        return timeline;
+    }
+
+    private Money money(long minorUnits) {
+        return Money.of(minorUnits, currency);
+    }
+
+    int getTimelineMinutes() {
+        return timelineMinutes;
+    }
+
+    /**
+     * This instance's changes not yet flushed to Mongo. Only the snapshotter calls this,
+     * {@link #flushed} and {@link #snapshotRead}, from one thread.
+     */
+    Pending pending() {
+        Baseline base = baseline;
+        Values totalSum = totals.sum();
+        Map<Long, Values> minuteSums = new HashMap<>();
+        Map<Long, Values> minuteDeltas = new HashMap<>();
+        for (Map.Entry<Long, Cells> entry : minutes.entrySet()) {
+            Values sum = entry.getValue().sum();
+            minuteSums.put(entry.getKey(), sum);
+            Values delta = sum.minus(base.flushedMinutes.getOrDefault(entry.getKey(), Values.ZERO));
+            if (!delta.isZero()) {
+                minuteDeltas.put(entry.getKey(), delta);
+            }
+        }
+        return new Pending(totalSum, totalSum.minus(base.flushedTotals), minuteSums, minuteDeltas);
+    }
+
+    /**
+     * Records that {@code pending} has been added to the shared totals in Mongo, so it is never
+     * sent again; until the next {@link #snapshotRead}, its deltas are added to the totals last read.
+     */
+    void flushed(Pending pending) {
+        Baseline base = baseline;
+        Map<Long, Values> minutesWithDeltas = new HashMap<>(base.minutes);
+        pending.minuteDeltas.forEach((minute, delta) -> minutesWithDeltas.merge(minute, delta, Values::plus));
+        baseline = new Baseline(base.totals.plus(pending.totalDelta), pending.totalSum,
+                minutesWithDeltas, pending.minuteSums, base.snapshotAt);
+
+        // Past minutes get no more writes: once fully flushed, the baseline's copy is enough
+        long now = currentMinute();
+        for (Map.Entry<Long, Values> entry : pending.minuteSums.entrySet()) {
+            Cells cells = minutes.get(entry.getKey());
+            if (entry.getKey() < now - 1 && cells != null && cells.sum().equals(entry.getValue())) {
+                minutes.remove(entry.getKey(), cells);
+            }
+        }
+    }
+
+    /**
+     * Takes the totals of all instances, {@code totals}, and the recent minutes, {@code recentMinutes},
+     * as just read from Mongo; they include everything {@link #flushed} so far.
+     */
+    void snapshotRead(Values totals, Map<Long, Values> recentMinutes) {
+        Baseline base = baseline;
+        long now = currentMinute();
+        Map<Long, Values> kept = new HashMap<>(recentMinutes);
+        kept.keySet().removeIf(minute -> minute <= now - timelineMinutes);
+        baseline = new Baseline(totals, base.flushedTotals, kept, base.flushedMinutes, Instant.now());
+    }
+
+    /**
+     * Starts counting from totals that already include this instance's changes so far, e.g.
+     * totals just computed from the orders collection itself. Minute buckets are not part of
+     * such totals and are written by the next snapshot as usual.
+     */
+    void seeded(Values totals) {
+        Baseline base = baseline;
+        baseline = new Baseline(totals, this.totals.sum(), base.minutes, base.flushedMinutes, Instant.now());
+    }
+
+    static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    /**
+     * Adder cells for one set of per-status counts and amounts.
+     */
+    private static final class Cells {
+        private final LongAdder[] counts = new LongAdder[STATUSES.length];
+        private final LongAdder[] amounts = new LongAdder[STATUSES.length];
+
+        Cells() {
+            for (int i = 0; i < STATUSES.length; i++) {
+                counts[i] = new LongAdder();
+                amounts[i] = new LongAdder();
+            }
+        }
+
+        void add(OrderStatus status, long count, long amount) {
+            counts[status.ordinal()].add(count);
+            amounts[status.ordinal()].add(amount);
+        }
+
+        Values sum() {
+            long[] countSums = new long[STATUSES.length];
+            long[] amountSums = new long[STATUSES.length];
+            for (int i = 0; i < STATUSES.length; i++) {
+                countSums[i] = counts[i].sum();
+                amountSums[i] = amounts[i].sum();
+            }
+            return new Values(countSums, amountSums);
+        }
+    }
+
+    /**
+     * Immutable per-status counts and amounts (minor units), indexed by {@link OrderStatus#ordinal()}.
+     */
+    static final class Values {
+        static final Values ZERO = new Values(new long[STATUSES.length], new long[STATUSES.length]);
+
+        final long[] counts;
+        final long[] amounts;
+
+        Values(long[] counts, long[] amounts) {
+            this.counts = counts;
+            this.amounts = amounts;
+        }
+
+        Values plus(Values other) {
+            long[] c = new long[STATUSES.length];
+            long[] a = new long[STATUSES.length];
+            for (int i = 0; i < STATUSES.length; i++) {
+                c[i] = counts[i] + other.counts[i];
+                a[i] = amounts[i] + other.amounts[i];
+            }
+            return new Values(c, a);
+        }
+
+        Values minus(Values other) {
+            long[] c = new long[STATUSES.length];
+            long[] a = new long[STATUSES.length];
+            for (int i = 0; i < STATUSES.length; i++) {
+                c[i] = counts[i] - other.counts[i];
+                a[i] = amounts[i] - other.amounts[i];
+            }
+            return new Values(c, a);
+        }
+
+        long count(OrderStatus status) {
+            return counts[status.ordinal()];
+        }
+
+        long amount(OrderStatus status) {
+            return amounts[status.ordinal()];
+        }
+
+        boolean isZero() {
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (counts[i] != 0 || amounts[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Values other
+                    && Arrays.equals(counts, other.counts)
+                    && Arrays.equals(amounts, other.amounts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(counts) * 31 + Arrays.hashCode(amounts);
+        }
+    }
+
+    /**
+     * What a snapshot has to write: the sums it was taken at and the deltas since the last flush.
+     */
+    static final class Pending {
+        final Values totalSum;
+        final Values totalDelta;
+        final Map<Long, Values> minuteSums;
+        final Map<Long, Values> minuteDeltas;
+
+        Pending(Values totalSum, Values totalDelta, Map<Long, Values> minuteSums, Map<Long, Values> minuteDeltas) {
+            this.totalSum = totalSum;
+            this.totalDelta = totalDelta;
+            this.minuteSums = minuteSums;
+            this.minuteDeltas = minuteDeltas;
+        }
+
+        boolean isEmpty() {
+            return totalDelta.isZero() && minuteDeltas.isEmpty();
+        }
+    }
+
+    /**
+     * Totals as of the last snapshot (all instances), and this instance's sums that snapshot included.
+     */
+    private static final class Baseline {
+        static final Baseline EMPTY = new Baseline(Values.ZERO, Values.ZERO, Map.of(), Map.of(), null);
+
+        final Values totals;
+        final Values flushedTotals;
+        final Map<Long, Values> minutes;
+        final Map<Long, Values> flushedMinutes;
+        final Instant snapshotAt;
+
+        Baseline(Values totals, Values flushedTotals, Map<Long, Values> minutes, Map<Long, Values> flushedMinutes,
+                 Instant snapshotAt) {
+            this.totals = totals;
+            this.flushedTotals = flushedTotals;
+            this.minutes = minutes;
+            this.flushedMinutes = flushedMinutes;
+            this.snapshotAt = snapshotAt;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatsRecord;
+import com.example.orders_services.model.OrderStatus;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically adds this instance's {@link OrderStats} changes to the shared
+ * {@link OrderStatsRecord}s with {@code $inc} (one unordered bulk write), then reads the
+ * totals and recent minutes back, so every instance serves numbers that include the others'.
+ * <p>
+ * Each flush has a sequence number, and a record takes a flush only if its {@code flushes} entry
+ * for this instance is not already at it. A flush that failed, maybe after some records took it,
+ * is retried as it was, same deltas and sequence, before anything newer is sent; once it
+ * succeeds it is recorded in {@link OrderStats} straight away, whether or not the read-back does.
+ * Entries are keyed by the instance's worker id, so there are at most 1024 of them, and a
+ * restarted instance carries on from the last sequence stored under its key.
+ * <p>
+ * The first run loads the totals; if there are none yet (first deployment), it computes
+ * them once from the orders collection with a $group on status. Orders written while that
+ * aggregation runs may be counted twice or not at all, so the seed is approximate by a few
+ * orders; afterwards only increments are applied. If Mongo is unavailable a run is skipped
+ * and its changes go out with the next one.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.stats.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderStatsSnapshotter {
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsSnapshotter.class);
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderStats orderStats;
+
+    // Tells this instance's flushes apart from those of other instances; unique per running instance
+    private final String workerKey;
+
+    // Only touched by the scheduler thread
+    private boolean loaded;
+    private long flushSequence;
+    // The flush being written, kept until a write of it succeeds
+    private OrderStats.Pending inFlight;
+
+    public OrderStatsSnapshotter(MongoTemplate mongoTemplate, OrderStats orderStats, IdGenerator idGenerator) {
+        this.mongoTemplate = mongoTemplate;
+        this.orderStats = orderStats;
+        this.workerKey = Integer.toString(idGenerator.getWorkerId());
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stats.snapshot.interval-ms:5000}")
+    public void snapshot() {
+        try {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+            write();
+        } catch (DataAccessException e) {
+            log.warn("Order stats snapshot skipped: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+        flushSequence = lastFlush();
+        OrderStatsRecord totals = mongoTemplate.findById(OrderStatsRecord.TOTALS_ID, OrderStatsRecord.class);
+        if (totals != null) {
+            orderStats.snapshotRead(toValues(totals), Map.of());
+            return;
+        }
+        OrderStats.Values seed = aggregateTotals();
+        OrderStatsRecord record = toRecord(OrderStatsRecord.TOTALS_ID, seed);
+        record.setSeededAt(Instant.now());
+        try {
+            mongoTemplate.insert(record);
+            log.info("Order stats seeded from the orders collection");
+        } catch (DuplicateKeyException e) {
+            // Another instance seeded first; its totals include the same orders
+            seed = toValues(mongoTemplate.findById(OrderStatsRecord.TOTALS_ID, OrderStatsRecord.class));
+        }
+        orderStats.seeded(seed);
+    }
+
+    /**
+     * The highest sequence any record holds for this worker id, from before a restart, or 0.
+     */
+    private long lastFlush() {
+        Query query = Query.query(Criteria.where(flushesField()).exists(true))
+                .with(Sort.by(Sort.Direction.DESC, flushesField()))
+                .limit(1);
+        query.fields().include(flushesField());
+        OrderStatsRecord last = mongoTemplate.findOne(query, OrderStatsRecord.class);
+        Long sequence = last != null ? last.getFlushes().get(workerKey) : null;
+        return sequence != null ? sequence : 0;
+    }
+
+    private void write() {
+        if (inFlight == null) {
+            OrderStats.Pending pending = orderStats.pending();
+            if (!pending.isEmpty()) {
+                inFlight = pending;
+                flushSequence++;
+            }
+        }
+        if (inFlight != null) {
+            flush(inFlight, flushSequence);
+            orderStats.flushed(inFlight);
+            inFlight = null;
+        }
+        read();
+    }
+
+    private void flush(OrderStats.Pending pending, long sequence) {
+        List<String> ids = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        if (!pending.totalDelta.isZero()) {
+            ids.add(OrderStatsRecord.TOTALS_ID);
+            updates.add(increment(pending.totalDelta, sequence));
+        }
+        for (Map.Entry<Long, OrderStats.Values> minute : pending.minuteDeltas.entrySet()) {
+            ids.add(OrderStatsRecord.minuteId(minute.getKey()));
+            updates.add(increment(minute.getValue(), sequence).setOnInsert("minute", minuteStart(minute.getKey())));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderStatsRecord.class);
+        for (int i = 0; i < ids.size(); i++) {
+            bulk.upsert(notYetFlushed(ids.get(i), sequence), updates.get(i));
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+            // The filter missed a record that exists: it has this flush already, or another instance
+            // created it meanwhile. Now that it exists, an update sorts out which
+            for (BulkWriteError error : e.getErrors()) {
+                mongoTemplate.updateFirst(notYetFlushed(ids.get(error.getIndex()), sequence),
+                        updates.get(error.getIndex()), OrderStatsRecord.class);
+            }
+        }
+    }
+
+    private Query notYetFlushed(String id, long sequence) {
+        return Query.query(Criteria.where("_id").is(id).and(flushesField()).ne(sequence));
+    }
+
+    private String flushesField() {
+        return "flushes." + workerKey;
+    }
+
+    private void read() {
+        long now = OrderStats.currentMinute();
+        List<String> ids = new ArrayList<>();
+        ids.add(OrderStatsRecord.TOTALS_ID);
+        for (long minute = now - orderStats.getTimelineMinutes() + 1; minute <= now; minute++) {
+            ids.add(OrderStatsRecord.minuteId(minute));
+        }
+        OrderStats.Values totals = OrderStats.Values.ZERO;
+        Map<Long, OrderStats.Values> minutes = new HashMap<>();
+        for (OrderStatsRecord record : mongoTemplate.find(Query.query(Criteria.where("_id").in(ids)), OrderStatsRecord.class)) {
+            if (OrderStatsRecord.TOTALS_ID.equals(record.getId())) {
+                totals = toValues(record);
+            } else {
+                minutes.put(Long.parseLong(record.getId().substring(OrderStatsRecord.MINUTE_ID_PREFIX.length())),
+                        toValues(record));
+            }
+        }
+        orderStats.snapshotRead(totals, minutes);
+    }
+
+    private OrderStats.Values aggregateTotals() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("status").count().as("count").sum("totalAmount").as("amount"));
+        long[] counts = new long[STATUSES.length];
+        long[] amounts = new long[STATUSES.length];
+        for (Document group : mongoTemplate.aggregate(aggregation, Order.class, Document.class)) {
+            OrderStatus status = parse(group.get("_id"));
+            if (status != null) {
+                counts[status.ordinal()] = ((Number) group.get("count")).longValue();
+                amounts[status.ordinal()] = minorUnits(group.get("amount"));
+            }
+        }
+        return new OrderStats.Values(counts, amounts);
+    }
+
+    /**
+     * Reads a $sum of totalAmount the way a totalAmount field is read, so it follows common.money.storage.
+     */
+    private long minorUnits(Object sum) {
+        if (sum instanceof Integer value) {
+            sum = value.longValue();
+        }
+        Money amount = sum != null ? mongoTemplate.getConverter().getConversionService().convert(sum, Money.class) : null;
+        return amount != null ? amount.getMinorUnits() : 0;
+    }
+
+    private Update increment(OrderStats.Values delta, long sequence) {
+        Update update = new Update().set(flushesField(), sequence);
+        for (OrderStatus status : STATUSES) {
+            if (delta.count(status) != 0 || delta.amount(status) != 0) {
+                update.inc("counts." + status.name(), delta.count(status));
+                update.inc("amounts." + status.name(), delta.amount(status));
+            }
+        }
+        return update;
+    }
+
+    static OrderStats.Values toValues(OrderStatsRecord record) {
+        long[] counts = new long[STATUSES.length];
+        long[] amounts = new long[STATUSES.length];
+        if (record != null) {
+            for (OrderStatus status : STATUSES) {
+                Number count = record.getCounts() != null ? record.getCounts().get(status.name()) : null;
+                Number amount = record.getAmounts() != null ? record.getAmounts().get(status.name()) : null;
+                counts[status.ordinal()] = count != null ? count.longValue() : 0;
+                amounts[status.ordinal()] = amount != null ? amount.longValue() : 0;
+            }
+        }
+        return new OrderStats.Values(counts, amounts);
+    }
+
+    private static OrderStatsRecord toRecord(String id, OrderStats.Values values) {
+        OrderStatsRecord record = new OrderStatsRecord();
+        record.setId(id);
+        for (OrderStatus status : STATUSES) {
+            record.getCounts().put(status.name(), values.count(status));
+            record.getAmounts().put(status.name(), values.amount(status));
+        }
+        return record;
+    }
+
+    private static OrderStatus parse(Object status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return OrderStatus.valueOf(status.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Instant minuteStart(long epochMinute) {
+        return Instant.ofEpochSecond(TimeUnit.MINUTES.toSeconds(epochMinute));
+    }
+}
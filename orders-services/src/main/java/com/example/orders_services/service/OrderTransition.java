@@ -0,0 +1,96 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.ConflictException;
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+
+/**
+ * Outcome of one {@link OrderStateMachine} transition, with the order as it stands afterwards.
+ */
+public final class OrderTransition {
+
+    public enum Outcome {
+        /** The status changed and the version was bumped. */
+        APPLIED,
+        /** The order was already in the target state, e.g. a redelivered event. */
+        UNCHANGED,
+        /** The current state or version does not allow the transition. */
+        REJECTED,
+        NOT_FOUND
+    }
+
+    private final Outcome outcome;
+    private final String orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus target;
+    private final Order order;
+    private final String reason;
+
+    private OrderTransition(Outcome outcome, String orderId, OrderStatus previousStatus, OrderStatus target,
+                            Order order, String reason) {
+        this.outcome = outcome;
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.target = target;
+        this.order = order;
+        this.reason = reason;
+    }
+
+    static OrderTransition applied(Order order, OrderStatus previousStatus, OrderStatus target) {
+        return new OrderTransition(Outcome.APPLIED, order.getId(), previousStatus, target, order, null);
+    }
+
+    static OrderTransition unchanged(Order order, OrderStatus target) {
+        return new OrderTransition(Outcome.UNCHANGED, order.getId(), order.getStatus(), target, order, null);
+    }
+
+    static OrderTransition rejected(Order order, OrderStatus target, String reason) {
+        return new OrderTransition(Outcome.REJECTED, order.getId(), order.getStatus(), target, order, reason);
+    }
+
+    static OrderTransition notFound(String orderId, OrderStatus target) {
+        return new OrderTransition(Outcome.NOT_FOUND, orderId, null, target, null, null);
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * The status the order was in before the attempt; null when it was not found.
+     */
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public OrderStatus getTarget() {
+        return target;
+    }
+
+    /**
+     * The order after the attempt; null when it was not found.
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the order, or throws the API error for a missing order or a refused transition.
+     * An order already in the target state is returned as is, so retried requests succeed.
+     */
+    public Order orderOrThrow() {
+        switch (outcome) {
+            case NOT_FOUND:
+                throw new ResourceNotFoundException("Order", "id", orderId);
+            case REJECTED:
+                throw new ConflictException(reason);
+            default:
+                return order;
+        }
+    }
+}
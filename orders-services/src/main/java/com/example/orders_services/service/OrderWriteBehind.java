@@ -0,0 +1,323 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.ServiceException;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.repository.OrderJournal;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind for new orders: {@link #insert} appends the order document to the local
+ * {@link OrderJournal} and returns once the journal is synced, and a flusher thread inserts the
+ * journaled orders into Mongo with unordered {@code insertMany} batches of up to {@code batch-size}.
+ * <p>
+ * While a batch is being inserted the next one builds up, so the batch size follows the load.
+ * A failed batch is retried with backoff until Mongo takes it; the orders stay in the journal
+ * meanwhile, and appends wait (then fail) once the journal is full. On startup the orders left in
+ * the journal are inserted again; the ones that had made it already are duplicates and count as
+ * stored, without a second created event. A duplicate id on a new order is a clash with another
+ * order (two instances sharing a worker id), not a retry: that order is dropped and logged as an
+ * error. The {@link OrderChangedEvent} of an order, and with it its OrderCreated event through
+ * the outbox relay, follow only once the order is in Mongo.
+ * <p>
+ * Until then the order is found by id through {@link #pending}, but not in listings, and changes
+ * to it wait for it to be stored ({@link #awaitStored}).
+ */
+@Component
+@ConditionalOnProperty(name = "orders.write-behind.enabled", havingValue = "true")
+public class OrderWriteBehind implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteBehind.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderJournal journal;
+    private final MongoCollection<RawBsonDocument> collection;
+    private final Codec<Document> documentCodec;
+    private final int batchSize;
+    private final long maxWaitMs;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final OperationMeters flushMetrics;
+    private final LogSampler.Site flushFailedLog;
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public OrderWriteBehind(MongoTemplate mongoTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            MetricsService metricsService,
+                            LogSampler logSampler,
+                            @Value("${orders.write-behind.journal.dir:./data/orders-journal}") Path dir,
+                            @Value("${orders.write-behind.journal.segment-size:64MB}") DataSize segmentSize,
+                            @Value("${orders.write-behind.journal.max-segments:8}") int maxSegments,
+                            @Value("${orders.write-behind.journal.fsync:true}") boolean fsync,
+                            @Value("${orders.write-behind.journal.max-wait:5s}") Duration maxWait,
+                            @Value("${orders.write-behind.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxWaitMs = maxWait.toMillis();
+        MongoCollection<Document> orders = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class));
+        this.collection = orders.withDocumentClass(RawBsonDocument.class);
+        this.documentCodec = orders.getCodecRegistry().get(Document.class);
+        this.flushMetrics = metricsService.operation("write-behind-flush");
+        this.flushFailedLog = logSampler.site("write-behind-flush-failure");
+
+        this.journal = new OrderJournal(dir, (int) segmentSize.toBytes(), maxSegments, fsync);
+        try {
+            for (OrderJournal.Record record : journal.open()) {
+                RawBsonDocument document = new RawBsonDocument(record.getPayload());
+                Order order = mongoTemplate.getConverter().read(Order.class, document.decode(documentCodec));
+                enqueue(new Pending(order, document, record, true));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the order journal in " + dir, e);
+        }
+
+        metricsService.registerGauge("order.write-behind.pending", "Orders acknowledged and not yet in Mongo", pending::size);
+        metricsService.registerGauge("order.write-behind.journal.segments", "Journal segment files in use", journal::segmentCount);
+        metricsService.registerGauge("order.write-behind.journal.syncs", "Journal syncs, each covering every append before it", journal::syncCount);
+        metricsService.registerGauge("order.write-behind.last.batch.size", "Orders in the last insertMany", lastBatchSize::get);
+        metricsService.registerGauge("order.write-behind.stored", "Journaled orders stored in Mongo", stored::get);
+        metricsService.registerGauge("order.write-behind.rejected", "Journaled orders Mongo refused, id clashes included, and were dropped", rejected::get);
+
+        flusher = new Thread(this::flushLoop, "order-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Journals the order and returns it once the journal is synced. Blocks for up to
+     * {@code journal.max-wait} while the journal is full, then fails.
+     */
+    public Order insert(Order order) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(order, document);
+        RawBsonDocument raw = new RawBsonDocument(document, documentCodec);
+        try {
+            OrderJournal.Record record = journal.append(bytes(raw), maxWaitMs, TimeUnit.MILLISECONDS);
+            if (record == null) {
+                throw new ServiceException("Order journal is full; Mongo is not keeping up");
+            }
+            journal.awaitDurable(record);
+            enqueue(new Pending(order, raw, record, false));
+            return order;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Interrupted while journaling order " + order.getId(), e);
+        }
+    }
+
+    /**
+     * The journaled order with this id while it is not yet in Mongo, else null.
+     */
+    public Order pending(String id) {
+        Pending entry = pending.get(id);
+        return entry != null ? entry.order : null;
+    }
+
+    /**
+     * Waits, up to {@code journal.max-wait}, for a journaled order with this id to reach Mongo.
+     */
+    public void awaitStored(String id) {
+        Pending entry = pending.get(id);
+        if (entry == null) {
+            return;
+        }
+        try {
+            entry.stored.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException | ExecutionException e) {
+            log.debug("Order {} is not stored yet: {}", id, e.getMessage());
+        }
+    }
+
+    private void enqueue(Pending entry) {
+        pending.put(entry.order.getId(), entry);
+        queue.add(entry);
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Shutting down: what is still journaled is inserted on the next start
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts the batch, retrying with backoff until Mongo has taken or refused each order.
+     */
+    private void flush(List<Pending> batch) throws InterruptedException {
+        long backoffMs = 100;
+        lastBatchSize.set(batch.size());
+        while (true) {
+            try (OperationSample sample = flushMetrics.start()) {
+                Map<Integer, BulkWriteError> refused = insertMany(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    Pending entry = batch.get(i);
+                    BulkWriteError error = refused.get(i);
+                    if (error == null) {
+                        done(entry, true, true);
+                    } else if (error.getCode() == DUPLICATE_KEY && entry.recovered) {
+                        // Replayed after a restart, and it had been stored before: its created event went out then
+                        done(entry, true, false);
+                    } else if (error.getCode() == DUPLICATE_KEY) {
+                        log.error("Journaled order {} has the id of an order already in Mongo, dropping it; "
+                                + "is common.ids.worker-id unique per instance?", entry.order.getId());
+                        done(entry, false, false);
+                    } else {
+                        log.error("Mongo refused journaled order {}, dropping it: {}", entry.order.getId(), error.getMessage());
+                        done(entry, false, false);
+                    }
+                }
+                sample.success();
+                return;
+            } catch (RuntimeException e) {
+                if (flushFailedLog.tryAcquire()) {
+                    log.warn("Inserting {} journaled orders failed, retrying in {}ms: {} ({} more failures not logged)",
+                            batch.size(), backoffMs, e.getMessage(), flushFailedLog.takeSuppressed());
+                }
+                if (!running) {
+                    throw new InterruptedException("Shutting down with orders still journaled");
+                }
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    /**
+     * Returns the orders Mongo refused, by position; throws when the whole batch should be retried.
+     */
+    private Map<Integer, BulkWriteError> insertMany(List<Pending> batch) {
+        List<RawBsonDocument> documents = new ArrayList<>(batch.size());
+        for (Pending entry : batch) {
+            documents.add(entry.document);
+        }
+        try {
+            collection.insertMany(documents, new InsertManyOptions().ordered(false));
+            return Map.of();
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                throw e;
+            }
+            Map<Integer, BulkWriteError> refused = new HashMap<>();
+            for (BulkWriteError error : e.getWriteErrors()) {
+                refused.put(error.getIndex(), error);
+            }
+            return refused;
+        }
+    }
+
+    private void done(Pending entry, boolean inStore, boolean created) {
+        if (created) {
+            eventPublisher.publishEvent(OrderChangedEvent.created(entry.order));
+        }
+        if (inStore) {
+            stored.incrementAndGet();
+        } else {
+            rejected.incrementAndGet();
+        }
+        pending.remove(entry.order.getId(), entry);
+        journal.release(entry.record);
+        entry.stored.complete(null);
+    }
+
+    private static byte[] bytes(RawBsonDocument document) {
+        ByteBuf buffer = document.getByteBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Stops after the current batch; orders still journaled are inserted on the next start.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (flusher.isAlive()) {
+            flusher.interrupt();
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        journal.close();
+        if (!pending.isEmpty()) {
+            log.info("{} orders left in the journal for the next start", pending.size());
+        }
+    }
+
+    private static final class Pending {
+        private final Order order;
+        private final RawBsonDocument document;
+        private final OrderJournal.Record record;
+        // Replayed from the journal on startup, so it may already be in Mongo
+        private final boolean recovered;
+        private final CompletableFuture<Void> stored = new CompletableFuture<>();
+
+        Pending(Order order, RawBsonDocument document, OrderJournal.Record record, boolean recovered) {
+            this.order = order;
+            this.document = document;
+            this.record = record;
+            this.recovered = recovered;
+        }
+    }
+}
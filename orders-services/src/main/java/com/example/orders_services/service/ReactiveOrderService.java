@@ -0,0 +1,348 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.exception.ExpectedException;
+import com.example.commonlibrary.exception.ResourceNotFoundException;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.orders_services.dto.BulkItemResult;
+import com.example.orders_services.dto.OrderPage;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.repository.ReactiveOrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking order operations for the reactive deployment.
+ * Shares validation, paging, caching and meter names with {@link OrderService} and
+ * {@link OrderBulkImportService}, so both stacks report on the same metrics.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderService.class);
+
+    private final ReactiveOrderRepository orderRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MetricsService metricsService;
+    private final OrderFactory orderFactory;
+    private final OrderIdempotency orderIdempotency;
+    private final OrderPaging orderPaging;
+    private final OrderCache orderCache;
+    private final OrderStateMachine orderStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    // Meter handles, resolved once
+    private final OperationMeters createOrderMetrics;
+    private final OperationMeters bulkCreateMetrics;
+    private final OperationMeters getAllOrdersMetrics;
+    private final OperationMeters getOrderMetrics;
+    private final OperationMeters getOrdersByStatusMetrics;
+    private final OperationMeters getOrdersByEmailMetrics;
+    private final OperationMeters deleteOrderMetrics;
+    private final OperationMeters streamOrdersMetrics;
+    private final OperationMeters transitionMetrics;
+
+    // Log sites on the request path, rate-limited per operation
+    private final LogSampler.Site createdLog;
+
+    public ReactiveOrderService(ReactiveOrderRepository orderRepository,
+                                ReactiveMongoTemplate reactiveMongoTemplate,
+                                MetricsService metricsService,
+                                OrderFactory orderFactory,
+                                OrderIdempotency orderIdempotency,
+                                OrderPaging orderPaging,
+                                OrderCache orderCache,
+                                OrderStateMachine orderStateMachine,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                LogSampler logSampler,
+                                @Value("${orders.bulk.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.metricsService = metricsService;
+        this.orderFactory = orderFactory;
+        this.orderIdempotency = orderIdempotency;
+        this.orderPaging = orderPaging;
+        this.orderCache = orderCache;
+        this.orderStateMachine = orderStateMachine;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.createOrderMetrics = metricsService.operation("create-order");
+        this.bulkCreateMetrics = metricsService.operation("bulk-create-order");
+        this.getAllOrdersMetrics = metricsService.operation("get-all-order");
+        this.getOrderMetrics = metricsService.operation("get-order");
+        this.getOrdersByStatusMetrics = metricsService.operation("get-order-by-status");
+        this.getOrdersByEmailMetrics = metricsService.operation("get-order-by-email");
+        this.deleteOrderMetrics = metricsService.operation("delete-order");
+        this.streamOrdersMetrics = metricsService.operation("stream-orders");
+        this.transitionMetrics = metricsService.operation("transition-order");
+        this.createdLog = logSampler.site("create-order");
+    }
+
+    /**
+     * Creates an order; with an {@code idempotencyKey}, see {@link OrderService#createOrder}.
+     * Keyed requests share {@link OrderIdempotency} with the servlet stack, whose blocking
+     * claim and wait run on the bounded elastic scheduler.
+     */
+    public Mono<Order> createOrder(OrderRequest orderRequest, String idempotencyKey) {
+        return timed(createOrderMetrics, Mono.defer(() -> {
+            metricsService.incrementTotalApiCalls();
+            log.debug("Creating new order for product: {}", orderRequest.getProductName());
+            if (idempotencyKey != null) {
+                return Mono.fromCallable(() -> orderIdempotency.createOrder(idempotencyKey, orderRequest))
+                        .subscribeOn(Schedulers.boundedElastic());
+            }
+            // Order and its outbox event go in one document write; OrderOutboxRelay publishes it
+            return orderRepository.insert(orderFactory.newOrder(orderRequest))
+                    .doOnNext(order -> eventPublisher.publishEvent(OrderChangedEvent.created(order)));
+        }).doOnNext(order -> {
+            if (createdLog.tryAcquire()) {
+                log.info("Order created successfully with ID: {} ({} more not logged)", order.getId(), createdLog.takeSuppressed());
+            }
+        }));
+    }
+
+    /**
+     * Imports a stream of orders, inserting valid ones in unordered bulk chunks and emitting one
+     * result per item. Chunks are inserted one at a time, so only one chunk is held in memory and
+     * a slow database slows down reading of the request body.
+     * Items arrive as JSON trees and are bound one by one, like {@link OrderBulkImportService}:
+     * a bad field rejects only that item, and a syntax error ends the import after the items read so far.
+     */
+    public Flux<BulkItemResult> createOrders(Flux<JsonNode> items) {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Flux<BulkItemResult> results = items
+                .map(item -> pending(read.getAndIncrement(), item))
+                .onErrorResume(DecodingException.class, e -> Mono.just(
+                        new Pending(read.get(), null, "Malformed JSON, import stopped: " + e.getMessage())))
+                .buffer(chunkSize)
+                .concatMap(this::insertChunk)
+                .doOnNext(result -> {
+                    if (result.getOrderId() == null) {
+                        rejected.incrementAndGet();
+                    }
+                });
+        return Flux.using(
+                () -> {
+                    metricsService.incrementTotalApiCalls();
+                    return bulkCreateMetrics.start();
+                },
+                sample -> results.doOnComplete(() -> {
+                    log.info("Bulk import finished, {} rejected", rejected.get());
+                    if (rejected.get() == 0) {
+                        sample.success();
+                    }
+                }),
+                OperationSample::close);
+    }
+
+    /**
+     * Returns one page of orders, newest first; see {@link OrderService#getAllOrders}.
+     */
+    public Mono<OrderPage> getAllOrders(String cursor, Integer limit) {
+        return timed(getAllOrdersMetrics, findPage(null, null, cursor, limit));
+    }
+
+    public Mono<Order> getOrderById(String id) {
+        return timed(getOrderMetrics, Mono.defer(() -> {
+            log.debug("Fetching order with ID: {}", id);
+            // The load is shared with concurrent callers, so one caller cancelling must not cancel it
+            return Mono.fromFuture(() -> orderCache.getAsync(id, key -> orderRepository.findById(key).toFuture()), true)
+                    .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Order", "id", id)));
+        }));
+    }
+
+    public Mono<OrderPage> getOrdersByStatus(String status, String cursor, Integer limit) {
+        return timed(getOrdersByStatusMetrics, findPage(status, null, cursor, limit));
+    }
+
+    public Mono<OrderPage> getOrdersByEmail(String email, String cursor, Integer limit) {
+        return timed(getOrdersByEmailMetrics, findPage(null, email, cursor, limit));
+    }
+
+    /**
+     * Emits every matching order from a Mongo cursor at the pace the client reads them.
+     */
+    public Flux<Order> streamOrders(String status, String email) {
+        return Flux.using(
+                streamOrdersMetrics::start,
+                sample -> orderRepository.streamOrders(status, email).doOnComplete(sample::success),
+                OperationSample::close);
+    }
+
+    /**
+     * Non-blocking {@link OrderService#updateStatus}: the same conditional findAndModify as
+     * {@link OrderStateMachine}, counted on the same gauges.
+     */
+    public Mono<Order> updateStatus(String id, OrderStatus status, Long expectedVersion) {
+        if (status == null) {
+            return Mono.error(new BadRequestException("Status is required"));
+        }
+        log.debug("Updating order {} to status {}", id, status);
+        return timed(transitionMetrics, transition(id, status, expectedVersion, 1))
+                .doOnNext(orderStateMachine::record)
+                .map(OrderTransition::orderOrThrow);
+    }
+
+    private Mono<OrderTransition> transition(String orderId, OrderStatus target, Long expectedVersion, int attempt) {
+        LocalDateTime now = LocalDateTime.now();
+        return reactiveMongoTemplate.findAndModify(
+                        OrderStateMachine.transitionQuery(orderId, target, expectedVersion),
+                        OrderStateMachine.transitionUpdate(target, now), OrderStateMachine.RETURN_PREVIOUS, Order.class)
+                .map(previous -> OrderStateMachine.applied(previous, target, now))
+                .switchIfEmpty(Mono.defer(() -> reactiveMongoTemplate.findById(orderId, Order.class)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(current -> {
+                            OrderTransition miss = OrderStateMachine.explainMiss(current.orElse(null), orderId, target,
+                                    expectedVersion, attempt == OrderStateMachine.MAX_ATTEMPTS);
+                            return miss != null ? Mono.just(miss) : transition(orderId, target, expectedVersion, attempt + 1);
+                        })));
+    }
+
+    public Mono<Void> deleteOrder(String id) {
+        return timed(deleteOrderMetrics, Mono.defer(() -> {
+            log.debug("Deleting order with ID: {}", id);
+            // Removed with its last state, so OrderStats knows which status it leaves
+            return reactiveMongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Order.class)
+                    .doOnNext(removed -> eventPublisher.publishEvent(OrderChangedEvent.removed(removed)))
+                    .then();
+        }));
+    }
+
+    private Mono<OrderPage> findPage(String status, String email, String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            int pageSize = orderPaging.pageSize(limit);
+            return orderRepository.findPage(status, email, orderPaging.decode(cursor), orderPaging.fetchSize(pageSize))
+                    .collectList()
+                    .map(orders -> orderPaging.toPage(orders, pageSize));
+        });
+    }
+
+    private Pending pending(int index, JsonNode item) {
+        try {
+            OrderRequest request = objectMapper.treeToValue(item, OrderRequest.class);
+            return new Pending(index, orderFactory.newOrder(request), null);
+        } catch (JsonProcessingException e) {
+            return new Pending(index, null, "Invalid order: " + e.getOriginalMessage());
+        } catch (BadRequestException e) {
+            return new Pending(index, null, e.getMessage());
+        }
+    }
+
+    private Flux<BulkItemResult> insertChunk(List<Pending> chunk) {
+        List<Order> orders = new ArrayList<>(chunk.size());
+        for (Pending item : chunk) {
+            if (item.order != null) {
+                orders.add(item.order);
+            }
+        }
+        Mono<Map<Integer, String>> failures = orders.isEmpty()
+                ? Mono.just(Map.of())
+                : reactiveMongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                        .insert(orders)
+                        .execute()
+                        .map(result -> Map.<Integer, String>of())
+                        .onErrorResume(e -> Mono.just(insertFailures(e, orders.size())));
+
+        return failures.flatMapIterable(failed -> {
+            List<BulkItemResult> results = new ArrayList<>(chunk.size());
+            int position = 0;
+            for (Pending item : chunk) {
+                if (item.order == null) {
+                    results.add(BulkItemResult.rejected(item.index, item.error));
+                    continue;
+                }
+                String failure = failed.get(position++);
+                if (failure == null) {
+                    eventPublisher.publishEvent(OrderChangedEvent.created(item.order));
+                }
+                results.add(failure == null
+                        ? BulkItemResult.created(item.index, item.order.getId())
+                        : BulkItemResult.rejected(item.index, failure));
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Maps a bulk insert error to the failed positions within the inserted orders.
+     */
+    private static Map<Integer, String> insertFailures(Throwable e, int size) {
+        Map<Integer, String> failures = new HashMap<>();
+        if (e instanceof BulkOperationException bulk) {
+            for (BulkWriteError error : bulk.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        } else if (e instanceof MongoBulkWriteException bulk) {
+            for (BulkWriteError error : bulk.getWriteErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        } else {
+            log.error("Bulk insert of {} orders failed", size, e);
+            for (int i = 0; i < size; i++) {
+                failures.put(i, "Insert failed: " + e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Times {@code mono} on {@code meters}: success when it completes, failure on error or cancel.
+     */
+    private static <T> Mono<T> timed(OperationMeters meters, Mono<T> mono) {
+        return Mono.using(meters::start, sample -> mono
+                .doOnSuccess(value -> sample.success())
+                .doOnError(ExpectedException.class, e -> sample.expected()), OperationSample::close);
+    }
+
+    /**
+     * A request item with its position, holding either the order to insert or the rejection reason.
+     */
+    private static final class Pending {
+        private final int index;
+        private final Order order;
+        private final String error;
+
+        Pending(int index, Order order, String error) {
+            this.index = index;
+            this.order = order;
+            this.error = error;
+        }
+    }
+}
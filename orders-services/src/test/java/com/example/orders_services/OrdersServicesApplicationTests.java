@@ -3,7 +3,14 @@ package com.example.orders_services;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"spring.kafka.admin.auto-create=false",
+		"orders.outbox.relay.enabled=false",
+		"orders.consumer.auto-startup=false",
+		"orders.indexes.enabled=false",
+		"orders.stats.snapshot.enabled=false",
+		"common.ids.worker-id=1"
+})
 class OrdersServicesApplicationTests {
 
 	@Test
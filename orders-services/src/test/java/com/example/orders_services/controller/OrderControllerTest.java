@@ -0,0 +1,134 @@
+package com.example.orders_services.controller;
+
+import com.example.commonlibrary.exception.GlobalExceptionHandler;
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.money.MoneyModule;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.repository.OrderCursor;
+import com.example.orders_services.repository.OrderRepository;
+import com.example.orders_services.service.OrderBulkImportService;
+import com.example.orders_services.service.OrderCache;
+import com.example.orders_services.service.OrderFactory;
+import com.example.orders_services.service.OrderIdempotency;
+import com.example.orders_services.service.OrderPaging;
+import com.example.orders_services.service.OrderService;
+import com.example.orders_services.service.OrderStateMachine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderControllerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0, 0, 123_000_000);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final MockMvc mockMvc;
+
+    @SuppressWarnings("unchecked")
+    OrderControllerTest() {
+        MetricsService metricsService = new MetricsService(new SimpleMeterRegistry(), "order-service");
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new MoneyModule(Money.DEFAULT_CURRENCY));
+        OrderService orderService = new OrderService(orderRepository, metricsService,
+                new OrderFactory(new IdGenerator(1)), mock(OrderIdempotency.class), new OrderPaging(100, 1000),
+                mock(OrderCache.class), mock(OrderStateMachine.class), mock(ApplicationEventPublisher.class),
+                objectMapper, new LogSampler(10, Duration.ofSeconds(1)), mock(ObjectProvider.class));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new OrderController(orderService, mock(OrderBulkImportService.class), metricsService))
+                .setControllerAdvice(new GlobalExceptionHandler(metricsService))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+    }
+
+    @Test
+    void theNextCursorResumesAfterTheLastOrderOfThePage() throws Exception {
+        List<Order> orders = List.of(order("0FJ7Q2M1K80A7", NOW), order("0FJ7Q2M1K80A6", NOW.minusSeconds(1)),
+                order("0FJ7Q2M1K80A5", NOW.minusSeconds(2)));
+        when(orderRepository.findPage(isNull(), isNull(), isNull(), eq(3))).thenReturn(orders);
+
+        String cursor = mockMvc.perform(get("/api/orders").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        when(orderRepository.findPage(isNull(), isNull(), any(OrderCursor.class), eq(3))).thenReturn(orders.subList(2, 3));
+        mockMvc.perform(get("/api/orders").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("0FJ7Q2M1K80A5"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        ArgumentCaptor<OrderCursor> after = ArgumentCaptor.forClass(OrderCursor.class);
+        verify(orderRepository, times(2)).findPage(isNull(), isNull(), after.capture(), eq(3));
+        assertNull(after.getAllValues().get(0));
+        assertEquals(NOW.minusSeconds(1), after.getValue().getCreatedAt());
+        assertEquals("0FJ7Q2M1K80A6", after.getValue().getId());
+    }
+
+    @Test
+    void aTamperedOrInvalidCursorIsA400() throws Exception {
+        String valid = new OrderCursor(NOW, "0FJ7Q2M1K80A5").encode();
+        List<String> cursors = List.of(
+                "not base64!",
+                // Cut short, and with the id edited to one that was never generated
+                valid.substring(0, valid.length() - 3),
+                encode(NOW + "|0FJ7Q2M1K80A5' || '1'=='1"),
+                encode("yesterday|0FJ7Q2M1K80A5"),
+                encode(NOW + "|"),
+                encode("0FJ7Q2M1K80A5"));
+        for (String cursor : cursors) {
+            mockMvc.perform(get("/api/orders").param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        }
+        verify(orderRepository, never()).findPage(any(), any(), any(), anyInt());
+
+        // Orders from before IdGenerator keep their UUIDs, and so do their cursors
+        when(orderRepository.findPage(isNull(), isNull(), any(OrderCursor.class), anyInt())).thenReturn(List.of());
+        mockMvc.perform(get("/api/orders").param("cursor",
+                        new OrderCursor(NOW, "3f1c2b9e-8d4a-4f6b-9c1e-2a7d5e8b0c41").encode()))
+                .andExpect(status().isOk());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Order order(String id, LocalDateTime createdAt) {
+        Order order = new Order("Laptop", 1, null, null, "customer@example.com", OrderStatus.PENDING, createdAt, createdAt);
+        order.setId(id);
+        return order;
+    }
+}
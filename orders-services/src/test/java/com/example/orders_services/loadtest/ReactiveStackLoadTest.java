@@ -0,0 +1,47 @@
+package com.example.orders_services.loadtest;
+
+import com.example.orders_services.repository.ReactiveOrderRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test against the reactive profile: the simulated query completes on a timer and no
+ * thread waits for it.
+ */
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.admin.auto-create=false",
+        "orders.outbox.relay.enabled=false",
+        "orders.consumer.auto-startup=false",
+        "orders.indexes.enabled=false",
+        "orders.stats.snapshot.enabled=false",
+        "common.ids.worker-id=1",
+        "logging.level.com.example=WARN"
+})
+class ReactiveStackLoadTest extends StackLoadTest {
+
+    @MockitoBean
+    private ReactiveOrderRepository orderRepository;
+
+    @Override
+    String stack() {
+        return "reactive";
+    }
+
+    @Override
+    void stubRepository() {
+        when(orderRepository.findPage(eq("PENDING"), isNull(), any(), anyInt()))
+                .thenAnswer(invocation -> Flux.defer(() -> Flux.fromIterable(page()))
+                        .delaySubscription(Duration.ofMillis(DB_LATENCY_MS)));
+    }
+}
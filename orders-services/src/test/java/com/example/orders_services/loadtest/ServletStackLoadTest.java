@@ -0,0 +1,43 @@
+package com.example.orders_services.loadtest;
+
+import com.example.orders_services.repository.OrderRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test against the default servlet stack: each request holds a Tomcat thread while
+ * the simulated query blocks.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.admin.auto-create=false",
+        "orders.outbox.relay.enabled=false",
+        "orders.consumer.auto-startup=false",
+        "orders.indexes.enabled=false",
+        "orders.stats.snapshot.enabled=false",
+        "common.ids.worker-id=1",
+        "logging.level.com.example=WARN"
+})
+class ServletStackLoadTest extends StackLoadTest {
+
+    @MockitoBean
+    private OrderRepository orderRepository;
+
+    @Override
+    String stack() {
+        return "servlet";
+    }
+
+    @Override
+    void stubRepository() {
+        when(orderRepository.findPage(eq("PENDING"), isNull(), any(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(DB_LATENCY_MS);
+            return page();
+        });
+    }
+}
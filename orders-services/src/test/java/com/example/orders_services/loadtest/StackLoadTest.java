@@ -0,0 +1,135 @@
+package com.example.orders_services.loadtest;
+
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives GET /api/orders/status/{status} with many concurrent clients against one web stack
+ * and reports throughput and latency percentiles. The repository is mocked with a fixed
+ * delay standing in for Mongo, so the numbers show how each stack copes with slow I/O
+ * under high concurrency rather than the database itself.
+ * Results go to the console and to target/load-test/&lt;stack&gt;.json for comparison.
+ * Tune with -Dorders.loadtest.requests, -Dorders.loadtest.concurrency and -Dorders.loadtest.db-latency-ms.
+ */
+abstract class StackLoadTest {
+
+    static final String TEST_PROPERTIES_PREFIX = "orders.loadtest.";
+    static final int REQUESTS = Integer.getInteger(TEST_PROPERTIES_PREFIX + "requests", 2_000);
+    static final int CONCURRENCY = Integer.getInteger(TEST_PROPERTIES_PREFIX + "concurrency", 200);
+    static final long DB_LATENCY_MS = Long.getLong(TEST_PROPERTIES_PREFIX + "db-latency-ms", 20);
+    static final int PAGE_SIZE = 20;
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * Name used in the report and the results file.
+     */
+    abstract String stack();
+
+    /**
+     * Makes the mocked repository return {@link #page()} after {@link #DB_LATENCY_MS}.
+     */
+    abstract void stubRepository();
+
+    static List<Order> page() {
+        List<Order> orders = new ArrayList<>(PAGE_SIZE);
+        Money price = Money.parse("999.99", Money.DEFAULT_CURRENCY);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Order order = new Order("Laptop", 1, price, price, "customer@example.com", OrderStatus.PENDING,
+                    LocalDateTime.now(), LocalDateTime.now());
+            order.setId(UUID.randomUUID().toString());
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    @Test
+    void reportsThroughputAndLatency() throws Exception {
+        stubRepository();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/orders/status/PENDING?limit=" + PAGE_SIZE)).GET().build();
+
+        // Warm up connections, JIT and the mock
+        run(client, request, Math.min(REQUESTS, 200));
+
+        long[] latencies = new long[REQUESTS];
+        long start = System.nanoTime();
+        int failures = run(client, request, latencies);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        double throughput = REQUESTS / (elapsedNanos / 1_000_000_000.0);
+        String report = String.format(Locale.ROOT,
+                "{\"stack\":\"%s\",\"requests\":%d,\"concurrency\":%d,\"dbLatencyMs\":%d,"
+                        + "\"throughputPerSec\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f,\"failures\":%d}",
+                stack(), REQUESTS, CONCURRENCY, DB_LATENCY_MS, throughput,
+                percentileMs(latencies, 0.50), percentileMs(latencies, 0.99), latencies[REQUESTS - 1] / 1e6, failures);
+        System.out.println("orders load test: " + report);
+        write(report);
+
+        assertEquals(0, failures, "requests failed");
+    }
+
+    private int run(HttpClient client, HttpRequest request, int requests) throws InterruptedException {
+        return run(client, request, new long[requests]);
+    }
+
+    /**
+     * Sends {@code latencies.length} requests keeping {@link #CONCURRENCY} in flight, and returns the failures.
+     */
+    private int run(HttpClient client, HttpRequest request, long[] latencies) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> calls = new ArrayList<>(latencies.length);
+        for (int i = 0; i < latencies.length; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[slot] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        return failures.get();
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private void write(String report) throws IOException {
+        Path dir = Path.of("target", "load-test");
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve(stack() + ".json"), report + System.lineSeparator());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.orders_services.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unreleasedRecordsAreReplayedAfterARestartUpToATornTail() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 4, true);
+        assertTrue(journal.open().isEmpty());
+        OrderJournal.Record first = append(journal, "order-1");
+        append(journal, "order-2");
+        append(journal, "order-3");
+        journal.release(first);
+        journal.close();
+
+        // A crash in the middle of a record: its length is there, its payload is not
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            int end = 3 * (8 + "order-1".length());
+            channel.write(ByteBuffer.allocate(4).putInt(0, 7), end);
+        }
+
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 4, true);
+        List<OrderJournal.Record> recovered = reopened.open();
+        // Released records are replayed too; the write-behind treats them as duplicates
+        assertEquals(List.of("order-1", "order-2", "order-3"), payloads(recovered));
+        for (OrderJournal.Record record : recovered) {
+            reopened.release(record);
+        }
+        // The old segment went with its last record; only the new, empty one is left
+        assertEquals(1, reopened.segmentCount());
+        assertEquals(1, segments().size());
+        reopened.close();
+    }
+
+    @Test
+    void appendsWaitWhileTheJournalIsFullAndResumeOnceASegmentIsReleased() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 2, false);
+        journal.open();
+        byte[] payload = new byte[500];
+        // Two records fill a segment
+        OrderJournal.Record first = journal.append(payload, 0, TimeUnit.MILLISECONDS);
+        OrderJournal.Record second = journal.append(payload, 0, TimeUnit.MILLISECONDS);
+        journal.append(payload, 0, TimeUnit.MILLISECONDS);
+        journal.append(payload, 0, TimeUnit.MILLISECONDS);
+
+        assertNull(journal.append(payload, 50, TimeUnit.MILLISECONDS));
+
+        journal.release(first);
+        assertNull(journal.append(payload, 0, TimeUnit.MILLISECONDS));
+        journal.release(second);
+        // The first segment went with its last record, making room for a third
+        assertNotNull(journal.append(payload, 0, TimeUnit.MILLISECONDS));
+        assertEquals(2, journal.segmentCount());
+        journal.close();
+    }
+
+    @Test
+    void concurrentWritersShareSyncs() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, 1 << 20, 4, true);
+        journal.open();
+        int writers = 16;
+        int appendsPerWriter = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            done.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < appendsPerWriter; i++) {
+                    journal.awaitDurable(journal.append(new byte[100], 1, TimeUnit.SECONDS));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Every append was acknowledged only after a sync, yet writers shared most of them
+        long appends = (long) writers * appendsPerWriter;
+        assertTrue(journal.syncCount() < appends / 2, journal.syncCount() + " syncs for " + appends + " appends");
+        journal.close();
+    }
+
+    private static OrderJournal.Record append(OrderJournal journal, String payload) throws InterruptedException {
+        OrderJournal.Record record = journal.append(payload.getBytes(StandardCharsets.UTF_8), 0, TimeUnit.MILLISECONDS);
+        journal.awaitDurable(record);
+        return record;
+    }
+
+    private static List<String> payloads(List<OrderJournal.Record> records) {
+        return records.stream().map(record -> new String(record.getPayload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+}
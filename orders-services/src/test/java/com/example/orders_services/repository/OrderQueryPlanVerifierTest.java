@@ -0,0 +1,46 @@
+package com.example.orders_services.repository;
+
+import com.example.orders_services.model.Order;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderQueryPlanVerifierTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsOnlyTheQueriesWhoseWinningPlanScansTheCollection() {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(collection.find(any(Bson.class))).thenAnswer(invocation -> {
+            Document filter = invocation.getArgument(0);
+            // Only the first customerEmail page and stream miss their index: COLLSCAN nested under a FETCH/LIMIT
+            Document winningPlan = filter.equals(new Document("$and", List.of(new Document("customerEmail", "probe@example.com"))))
+                    ? new Document("stage", "LIMIT").append("inputStage", new Document("stage", "COLLSCAN"))
+                    : new Document("stage", "FETCH").append("inputStage",
+                            new Document("stage", "IXSCAN").append("indexName", "status_1_createdAt_-1"));
+            FindIterable<Document> find = mock(FindIterable.class);
+            when(find.sort(any())).thenReturn(find);
+            when(find.limit(anyInt())).thenReturn(find);
+            when(find.explain()).thenReturn(new Document("queryPlanner", new Document("winningPlan", winningPlan)));
+            return find;
+        });
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoTemplate.getCollection("orders")).thenReturn(collection);
+
+        List<String> collectionScans = new OrderQueryPlanVerifier(mongoTemplate).findCollectionScans();
+
+        assertEquals(List.of("findPage(customerEmail)", "streamOrders(customerEmail)"), collectionScans);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.money.MoneyModule;
+import com.example.orders_services.model.Order;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderBulkImportServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new MoneyModule(Money.DEFAULT_CURRENCY));
+    private final OrderBulkImportService importService = new OrderBulkImportService(new OrderFactory(new IdGenerator(1)),
+            mongoTemplate, objectMapper, new MetricsService(new SimpleMeterRegistry(), "order-service"), eventPublisher, 2);
+
+    @Test
+    void reportsEachItemOfAPartlyFailedChunk() throws Exception {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        // The first chunk holds items 0 and 2 (item 1 is rejected while parsing); its second insert fails
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        when(bulk.execute())
+                .thenThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                        BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                        new ServerAddress(), Set.of())))
+                .thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+
+        String body = order("Laptop", "1") + "\n"
+                + order("Phone", "\"many\"") + "\n"
+                + order("Keyboard", "2") + "\n"
+                + order("Mouse", "3") + "\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderBulkImportService.BulkImportSummary summary =
+                importService.importOrders(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+        Map<Integer, JsonNode> results = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode result = objectMapper.readTree(line);
+            results.put(result.get("index").asInt(), result);
+        }
+        assertEquals(4, results.size());
+        assertEquals("CREATED", results.get(0).get("status").asText());
+        assertEquals(IdGenerator.LENGTH, results.get(0).get("orderId").asText().length());
+        assertEquals("REJECTED", results.get(1).get("status").asText());
+        assertTrue(results.get(1).get("error").asText().startsWith("Invalid order"));
+        assertEquals("REJECTED", results.get(2).get("status").asText());
+        assertEquals("E11000 duplicate key error", results.get(2).get("error").asText());
+        assertEquals("CREATED", results.get(3).get("status").asText());
+
+        assertEquals(2, summary.getCreated());
+        assertEquals(2, summary.getRejected());
+        verify(bulk, times(2)).execute();
+        // Only the inserted orders are announced
+        verify(eventPublisher, times(2)).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    private static String order(String productName, String quantity) {
+        return "{\"productName\":\"" + productName + "\",\"quantity\":" + quantity
+                + ",\"price\":10.00,\"customerEmail\":\"customer@example.com\"}";
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OrderCacheTest {
+
+    private final OrderCache cache = new OrderCache(new MetricsService(new SimpleMeterRegistry(), "order-service"),
+            100, Duration.ofMinutes(10));
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void aChangedOrderIsLoadedAgainAndOthersStayCached() {
+        context.registerBean(OrderCache.class, () -> cache);
+        context.refresh();
+        Order paid = order("0FJ7Q2M1K80A5", OrderStatus.PAID);
+        Order other = order("0FJ7Q2M1K80A6", OrderStatus.PENDING);
+        cache.get(paid.getId(), id -> load(paid));
+        cache.get(other.getId(), id -> load(other));
+
+        // Published the way OrderService and the state machine publish it
+        context.publishEvent(OrderChangedEvent.transitioned(paid, OrderStatus.PENDING));
+
+        assertSame(paid, cache.get(paid.getId(), id -> load(paid)));
+        assertSame(other, cache.get(other.getId(), id -> load(other)));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void theAsyncViewSharesTheInvalidation() {
+        Order order = order("0FJ7Q2M1K80A5", OrderStatus.PENDING);
+        cache.getAsync(order.getId(), id -> CompletableFuture.completedFuture(load(order))).join();
+        cache.getAsync(order.getId(), id -> CompletableFuture.completedFuture(load(order))).join();
+        assertEquals(1, loads.get());
+
+        cache.onOrderChanged(OrderChangedEvent.removed(order));
+
+        cache.getAsync(order.getId(), id -> CompletableFuture.completedFuture(load(order))).join();
+        cache.get(order.getId(), id -> load(order));
+        assertEquals(2, loads.get());
+    }
+
+    private Order load(Order order) {
+        loads.incrementAndGet();
+        return order;
+    }
+
+    private static Order order(String id, OrderStatus status) {
+        Order order = new Order("Laptop", 1, null, null, "customer@example.com", status,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId(id);
+        return order;
+    }
+}
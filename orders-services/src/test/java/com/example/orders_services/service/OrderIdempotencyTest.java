@@ -0,0 +1,133 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.BadRequestException;
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.dto.OrderRequest;
+import com.example.orders_services.model.IdempotencyRecord;
+import com.example.orders_services.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIdempotencyTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final OrderIdempotency idempotency = new OrderIdempotency(mongoTemplate, new OrderFactory(new IdGenerator(1)),
+            mock(ApplicationEventPublisher.class), new MetricsService(new SimpleMeterRegistry(), "order-service"),
+            100, Duration.ofMinutes(10));
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsWithTheSameKeyInsertOneOrder() throws Exception {
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            claimed.countDown();
+            // Hold the first request inside its claim until the others have arrived
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Future<Order>> results = new ArrayList<>();
+        results.add(executor.submit(() -> idempotency.createOrder("key-1", request("Laptop"))));
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> idempotency.createOrder("key-1", request("Laptop"))));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        Order first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Order> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+        verify(mongoTemplate, times(1)).insert(any(Order.class));
+    }
+
+    @Test
+    void aKeyReusedForADifferentOrderIsRejected() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotency.createOrder("key-1", request("Laptop"));
+
+        // Answered from memory on this instance
+        assertThrows(BadRequestException.class, () -> idempotency.createOrder("key-1", request("Phone")));
+
+        // And from the claim in Mongo on another instance
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(mongoTemplate.findById("key-2", IdempotencyRecord.class)).thenReturn(new IdempotencyRecord(
+                "key-2", OrderIdempotency.fingerprint(request("Laptop")), "0FJ7Q2M1K80A5", Instant.now()));
+        assertThrows(BadRequestException.class, () -> idempotency.createOrder("key-2", request("Phone")));
+        verify(mongoTemplate, times(1)).insert(any(Order.class));
+    }
+
+    @Test
+    void aClaimWhoseOrderIsMissingIsCompletedUnderTheClaimedId() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(mongoTemplate.findById("key-1", IdempotencyRecord.class)).thenReturn(new IdempotencyRecord(
+                "key-1", OrderIdempotency.fingerprint(request("Laptop")), "0FJ7Q2M1K80A5", Instant.now()));
+        when(mongoTemplate.findById("0FJ7Q2M1K80A5", Order.class)).thenReturn(null);
+        when(mongoTemplate.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order order = idempotency.createOrder("key-1", request("Laptop"));
+
+        assertEquals("0FJ7Q2M1K80A5", order.getId());
+        assertEquals("Laptop", order.getProductName());
+    }
+
+    @Test
+    void aFailedAttemptIsNotRemembered() {
+        when(mongoTemplate.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("mongo down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(mongoTemplate.insert(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> idempotency.createOrder("key-1", request("Laptop")));
+        Order order = idempotency.createOrder("key-1", request("Laptop"));
+
+        assertEquals("Laptop", order.getProductName());
+        verify(mongoTemplate, times(2)).insert(any(IdempotencyRecord.class));
+    }
+
+    private static OrderRequest request(String productName) {
+        OrderRequest request = new OrderRequest();
+        request.setProductName(productName);
+        request.setQuantity(1);
+        request.setPrice(Money.parse("10.00", Money.DEFAULT_CURRENCY));
+        request.setCustomerEmail("customer@example.com");
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import com.example.orders_services.model.OutboxEvent;
+import com.example.orders_services.model.OutboxRelayLease;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderOutboxRelayTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final SendResult<String, Object> sent = mock(SendResult.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final OrderOutboxRelay relay = new OrderOutboxRelay(mongoTemplate, kafkaTemplate,
+            new MetricsService(new SimpleMeterRegistry(), "order-service"), new LogSampler(10, Duration.ofSeconds(1)),
+            500, 20, 1000, Duration.ofSeconds(5), 3);
+
+    @Test
+    void onlyTheLeaseHolderRelays() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(OutboxRelayLease.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        relay.relay();
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Order.class));
+        verify(kafkaTemplate, never()).send(anyRecord());
+    }
+
+    @Test
+    void theLeaseIsTakenOnlyWhenFreeOrAlreadyOurs() {
+        assertTrue(relay.holdLease());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class),
+                argThat(FindAndModifyOptions::isUpsert), eq(OutboxRelayLease.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("order-outbox", filter.get("_id"));
+        assertEquals(2, filter.getList("$or", Document.class).size());
+    }
+
+    @Test
+    void anOrderThatKeepsFailingWhileOthersGoThroughIsParked() {
+        Order poison = order("0FJ7Q2M1K80A5", 2, "evt-poison");
+        Order healthy = order("0FJ7Q2M1K80A6", null, "evt-ok");
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(poison, healthy));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(kafkaTemplate.send(anyRecord())).thenAnswer(invocation -> {
+            ProducerRecord<?, ?> record = invocation.getArgument(0);
+            if ("evt-poison".equals(record.value())) {
+                throw new RecordTooLargeException("too large");
+            }
+            return CompletableFuture.completedFuture(sent);
+        });
+
+        assertEquals(2, relay.relayBatch());
+
+        Document parked = update(poison.getId());
+        assertTrue(parked.get("$push", Document.class).containsKey("parkedOutbox"));
+        assertEquals(1, parked.get("$inc", Document.class).get("outboxFailures"));
+        assertTrue(parked.containsKey("$pull"));
+        Document delivered = update(healthy.getId());
+        assertFalse(delivered.containsKey("$inc"));
+        assertNull(delivered.get("$push"));
+    }
+
+    @Test
+    void failuresDoNotCountWhenEverySendFails() {
+        Order order = order("0FJ7Q2M1K80A5", 2, "evt-1");
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(order));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(bulk);
+        when(kafkaTemplate.send(anyRecord()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relayBatch();
+
+        verify(bulk, never()).updateOne(any(Query.class), any(Update.class));
+        verify(bulk, never()).execute();
+    }
+
+    private Document update(String orderId) {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(queries.capture(), updates.capture());
+        for (int i = 0; i < queries.getAllValues().size(); i++) {
+            if (orderId.equals(queries.getAllValues().get(i).getQueryObject().get("_id"))) {
+                return updates.getAllValues().get(i).getUpdateObject();
+            }
+        }
+        throw new AssertionError("No update for " + orderId);
+    }
+
+    private static ProducerRecord<String, Object> anyRecord() {
+        return any();
+    }
+
+    private static Order order(String id, Integer failures, String payload) {
+        Order order = new Order("Laptop", 1, null, null, "customer@example.com", OrderStatus.PENDING,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId(id);
+        order.setOutboxFailures(failures);
+        order.setOutbox(List.of(new OutboxEvent(payload, "order-events", id, payload, Instant.now())));
+        return order;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.exception.ConflictException;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderStateMachineTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final OrderStateMachine stateMachine = new OrderStateMachine(
+            mongoTemplate, eventPublisher, new MetricsService(new SimpleMeterRegistry(), "order-service"));
+
+    @Test
+    void transitionTableAllowsOnlyForwardMoves() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.PAID));
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.FAILED));
+        assertTrue(OrderStatus.PAID.canTransitionTo(OrderStatus.COMPLETED));
+        assertFalse(OrderStatus.PAID.canTransitionTo(OrderStatus.PENDING));
+        assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.COMPLETED));
+        assertFalse(OrderStatus.FAILED.canTransitionTo(OrderStatus.PAID));
+        assertTrue(OrderStatus.COMPLETED.sources().contains(OrderStatus.PAID));
+    }
+
+    @Test
+    void updateIsConditionalOnSourceStatesAndVersion() {
+        Document filter = OrderStateMachine.transitionQuery("o-1", OrderStatus.FAILED, 4L).getQueryObject();
+        assertEquals("o-1", filter.get("_id"));
+        Collection<?> sources = (Collection<?>) filter.get("status", Document.class).get("$in");
+        assertEquals(List.of(OrderStatus.PENDING, OrderStatus.PAID), List.copyOf(sources));
+        assertEquals(4L, filter.get("version"));
+        assertNull(OrderStateMachine.transitionQuery("o-1", OrderStatus.PAID, null).getQueryObject().get("version"));
+
+        Document update = OrderStateMachine.transitionUpdate(OrderStatus.PAID, LocalDateTime.now()).getUpdateObject();
+        assertEquals(1, update.get("$inc", Document.class).get("version"));
+        assertEquals(OrderStatus.PAID, update.get("$set", Document.class).get("status"));
+    }
+
+    @Test
+    void appliedTransitionInvalidatesTheCachedOrder() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class)))
+                .thenReturn(order(OrderStatus.PENDING, 0L));
+
+        OrderTransition transition = stateMachine.transition("o-1", OrderStatus.PAID, null);
+
+        assertEquals(OrderTransition.Outcome.APPLIED, transition.getOutcome());
+        // findAndModify returned the order as it was; the result reflects the update
+        assertEquals(OrderStatus.PENDING, transition.getPreviousStatus());
+        assertEquals(OrderStatus.PAID, transition.getOrder().getStatus());
+        assertEquals(1L, transition.getOrder().getVersion());
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
+        verify(mongoTemplate, never()).findById(any(), eq(Order.class));
+    }
+
+    @Test
+    void redeliveredEventLeavesOrderUnchanged() {
+        when(mongoTemplate.findById("o-1", Order.class)).thenReturn(order(OrderStatus.PAID, 1L));
+
+        OrderTransition transition = stateMachine.transition("o-1", OrderStatus.PAID, null);
+
+        assertEquals(OrderTransition.Outcome.UNCHANGED, transition.getOutcome());
+        assertEquals(OrderStatus.PAID, transition.orderOrThrow().getStatus());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void staleVersionAndIllegalMoveAreRejected() {
+        when(mongoTemplate.findById("o-1", Order.class)).thenReturn(order(OrderStatus.PENDING, 3L));
+        OrderTransition stale = stateMachine.transition("o-1", OrderStatus.PAID, 2L);
+        assertEquals(OrderTransition.Outcome.REJECTED, stale.getOutcome());
+        assertThrows(ConflictException.class, stale::orderOrThrow);
+
+        OrderTransition illegal = stateMachine.transition("o-1", OrderStatus.COMPLETED, null);
+        assertEquals(OrderTransition.Outcome.REJECTED, illegal.getOutcome());
+    }
+
+    @Test
+    void missThatRacedAnotherUpdateIsRetried() {
+        // Eligible on every read-back, so the update raced each time: retried, then given up
+        when(mongoTemplate.findById("o-1", Order.class)).thenReturn(order(OrderStatus.PENDING, 0L));
+
+        OrderTransition transition = stateMachine.transition("o-1", OrderStatus.PAID, null);
+
+        assertEquals(OrderTransition.Outcome.REJECTED, transition.getOutcome());
+        verify(mongoTemplate, times(OrderStateMachine.MAX_ATTEMPTS))
+                .findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class));
+    }
+
+    private static Order order(OrderStatus status, Long version) {
+        Order order = new Order("Laptop", 1, Money.of(1000, Money.DEFAULT_CURRENCY), Money.of(1000, Money.DEFAULT_CURRENCY), "customer@example.com", status,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId("o-1");
+        order.setVersion(version);
+        return order;
+    }
+}
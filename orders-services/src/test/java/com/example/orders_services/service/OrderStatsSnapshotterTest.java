@@ -0,0 +1,154 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.ids.IdGenerator;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatsRecord;
+import com.example.orders_services.model.OrderStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderStatsSnapshotterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final OrderStats stats = new OrderStats(
+            new MetricsService(new SimpleMeterRegistry(), "order-service"), 60, Money.DEFAULT_CURRENCY);
+    private final OrderStatsSnapshotter snapshotter = new OrderStatsSnapshotter(mongoTemplate, stats, new IdGenerator(7));
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.findById(OrderStatsRecord.TOTALS_ID, OrderStatsRecord.class)).thenReturn(new OrderStatsRecord());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderStatsRecord.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void aFailedReadBackDoesNotSendTheFlushedChangesAgain() {
+        created("o-1");
+        when(mongoTemplate.find(any(Query.class), eq(OrderStatsRecord.class)))
+                .thenThrow(new DataAccessResourceFailureException("read timed out"))
+                .thenReturn(List.of(totals(1)));
+
+        snapshotter.snapshot();
+        snapshotter.snapshot();
+
+        // Totals and the current minute, once
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.UNORDERED, OrderStatsRecord.class);
+        verify(bulk, times(2)).upsert(any(Query.class), any(Update.class));
+        assertEquals(1, stats.summary(OrderStatus.PENDING).getCount());
+    }
+
+    @Test
+    void aFailedFlushIsRetriedAsItWasBeforeNewerChanges() {
+        created("o-1");
+        doThrow(new DataAccessResourceFailureException("write timed out")).when(bulk).execute();
+        snapshotter.snapshot();
+        List<Update> failed = upserts();
+
+        // Changes made meanwhile wait for the next flush
+        created("o-2");
+        reset(bulk);
+        snapshotter.snapshot();
+        List<Update> retried = upserts();
+        assertEquals(documents(failed), documents(retried));
+
+        reset(bulk);
+        snapshotter.snapshot();
+        List<Update> next = upserts();
+        Document total = next.get(0).getUpdateObject();
+        assertEquals(1L, total.get("$inc", Document.class).get("counts.PENDING"));
+        assertEquals(2L, total.get("$set", Document.class).values().iterator().next());
+    }
+
+    @Test
+    void aRecordThatExistedDespiteTheFilterIsUpdatedOnItsOwn() {
+        created("o-1");
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        doThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                new ServerAddress(), Set.of()))).when(bulk).execute();
+        when(mongoTemplate.find(any(Query.class), eq(OrderStatsRecord.class))).thenReturn(List.of(totals(1)));
+
+        snapshotter.snapshot();
+
+        List<Update> sent = upserts();
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(OrderStatsRecord.class));
+        assertEquals(sent.get(1).getUpdateObject(), update.getValue().getUpdateObject());
+        assertEquals(1, stats.summary(OrderStatus.PENDING).getCount());
+    }
+
+    @Test
+    void aRestartedInstanceReusesItsEntryAndCarriesOnFromItsLastFlush() {
+        // Left by this worker's previous run
+        OrderStatsRecord previous = totals(1);
+        previous.getFlushes().put("7", 41L);
+        when(mongoTemplate.findOne(any(Query.class), eq(OrderStatsRecord.class))).thenReturn(previous);
+        when(mongoTemplate.find(any(Query.class), eq(OrderStatsRecord.class))).thenReturn(List.of(totals(2)));
+        created("o-1");
+
+        snapshotter.snapshot();
+
+        ArgumentCaptor<Query> filters = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(filters.capture(), updates.capture());
+        assertEquals(new Document("$ne", 42L), filters.getValue().getQueryObject().get("flushes.7"));
+        Document set = updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("flushes.7"), set.keySet());
+        assertEquals(42L, set.get("flushes.7"));
+    }
+
+    private List<Update> upserts() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), updates.capture());
+        return updates.getAllValues();
+    }
+
+    private static List<Document> documents(List<Update> updates) {
+        return updates.stream().map(Update::getUpdateObject).toList();
+    }
+
+    private void created(String id) {
+        Money price = Money.of(1000, Money.DEFAULT_CURRENCY);
+        Order order = new Order("Laptop", 1, price, price, "customer@example.com", OrderStatus.PENDING,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId(id);
+        stats.onOrderChanged(OrderChangedEvent.created(order));
+    }
+
+    private static OrderStatsRecord totals(long pending) {
+        OrderStatsRecord record = new OrderStatsRecord();
+        record.setId(OrderStatsRecord.TOTALS_ID);
+        record.getCounts().put(OrderStatus.PENDING.name(), pending);
+        return record;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.orders_services.dto.OrderStatsMinute;
+import com.example.orders_services.dto.OrderStatsSummary;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatsTest {
+
+    private final OrderStats stats = new OrderStats(
+            new MetricsService(new SimpleMeterRegistry(), "order-service"), 60, Money.DEFAULT_CURRENCY);
+
+    @Test
+    void followsOrdersThroughTheirStatuses() {
+        Order first = order("o-1", OrderStatus.PENDING, 1000);
+        Order second = order("o-2", OrderStatus.PENDING, 2500);
+        stats.onOrderChanged(OrderChangedEvent.created(first));
+        stats.onOrderChanged(OrderChangedEvent.created(second));
+        first.setStatus(OrderStatus.PAID);
+        stats.onOrderChanged(OrderChangedEvent.transitioned(first, OrderStatus.PENDING));
+        stats.onOrderChanged(OrderChangedEvent.removed(second));
+        // Cache invalidations carry no status and change nothing
+        stats.onOrderChanged(new OrderChangedEvent("o-1"));
+
+        OrderStatsSummary summary = stats.summary();
+        assertEquals(1, summary.getOrders());
+        assertEquals(usd(1000), summary.getRevenue());
+        assertEquals(0, summary.getByStatus().get(OrderStatus.PENDING).getCount());
+        assertEquals(1, summary.getByStatus().get(OrderStatus.PAID).getCount());
+        assertEquals(usd(1000), stats.summary(OrderStatus.PAID).getTotalAmount());
+        assertNull(summary.getSnapshotAt());
+    }
+
+    @Test
+    void timelineCountsOrdersEnteringEachStatus() {
+        Order order = order("o-1", OrderStatus.PENDING, 1000);
+        stats.onOrderChanged(OrderChangedEvent.created(order));
+        order.setStatus(OrderStatus.PAID);
+        stats.onOrderChanged(OrderChangedEvent.transitioned(order, OrderStatus.PENDING));
+
+        List<OrderStatsMinute> timeline = stats.timeline(5);
+        assertEquals(5, timeline.size());
+        // Summed, in case the two events fell either side of a minute boundary
+        assertEquals(1, timeline.stream().mapToLong(m -> m.getEntered().get(OrderStatus.PENDING).getCount()).sum());
+        assertEquals(1, timeline.stream().mapToLong(m -> m.getEntered().get(OrderStatus.PAID).getCount()).sum());
+        assertEquals(0, timeline.get(0).getEntered().get(OrderStatus.PAID).getCount());
+        assertEquals(60, stats.timeline(1000).size());
+    }
+
+    @Test
+    void snapshotsAddOnlyTheChangesSinceTheLastOne() {
+        stats.onOrderChanged(OrderChangedEvent.created(order("o-1", OrderStatus.PENDING, 1000)));
+
+        OrderStats.Pending first = stats.pending();
+        assertEquals(1, first.totalDelta.count(OrderStatus.PENDING));
+        assertEquals(1, first.minuteDeltas.size());
+
+        // Flushed: not sent again, and still counted before the totals are read back
+        stats.flushed(first);
+        assertTrue(stats.pending().isEmpty());
+        assertEquals(1, stats.summary(OrderStatus.PENDING).getCount());
+
+        // Mongo now holds this instance's order plus 5 from another instance
+        OrderStats.Values shared = first.totalDelta.plus(values(OrderStatus.PENDING, 5, 5000));
+        stats.snapshotRead(shared, Map.of());
+        assertEquals(6, stats.summary(OrderStatus.PENDING).getCount());
+        assertTrue(stats.pending().isEmpty());
+
+        // A change after the snapshot is served right away and written once by the next one
+        stats.onOrderChanged(OrderChangedEvent.created(order("o-2", OrderStatus.PENDING, 500)));
+        assertEquals(7, stats.summary(OrderStatus.PENDING).getCount());
+        OrderStats.Pending second = stats.pending();
+        assertEquals(1, second.totalDelta.count(OrderStatus.PENDING));
+        assertEquals(500, second.totalDelta.amount(OrderStatus.PENDING));
+    }
+
+    @Test
+    void seededTotalsAlreadyIncludeEarlierChanges() {
+        stats.onOrderChanged(OrderChangedEvent.created(order("o-1", OrderStatus.PENDING, 1000)));
+
+        stats.seeded(values(OrderStatus.PENDING, 3, 3000));
+
+        assertEquals(3, stats.summary(OrderStatus.PENDING).getCount());
+        assertTrue(stats.pending().totalDelta.isZero());
+    }
+
+    private static OrderStats.Values values(OrderStatus status, long count, long amount) {
+        long[] counts = new long[OrderStatus.values().length];
+        long[] amounts = new long[OrderStatus.values().length];
+        counts[status.ordinal()] = count;
+        amounts[status.ordinal()] = amount;
+        return new OrderStats.Values(counts, amounts);
+    }
+
+    private static Money usd(long cents) {
+        return Money.of(cents, Money.DEFAULT_CURRENCY);
+    }
+
+    private static Order order(String id, OrderStatus status, long cents) {
+        Order order = new Order("Laptop", 1, usd(cents), usd(cents), "customer@example.com", status,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.orders_services.service;
+
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.money.MoneyConverters;
+import com.example.commonlibrary.money.MoneyStorage;
+import com.example.orders_services.model.Order;
+import com.example.orders_services.model.OrderStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry registry;
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<RawBsonDocument> collection = mock(MongoCollection.class);
+    private final MongoTemplate mongoTemplate = mongoTemplate(collection);
+    private OrderWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.destroy();
+        }
+    }
+
+    @Test
+    void aNewOrderWhoseIdIsTakenIsRejectedWithoutACreatedEvent() {
+        doThrow(duplicateKey()).when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+        writeBehind = writeBehind();
+
+        writeBehind.insert(order("0FJ7Q2M1K80A5"));
+        writeBehind.awaitStored("0FJ7Q2M1K80A5");
+
+        assertNull(writeBehind.pending("0FJ7Q2M1K80A5"));
+        assertEquals(1, gauge("rejected"));
+        assertEquals(0, gauge("stored"));
+        verify(eventPublisher, never()).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    @Test
+    void aReplayedOrderAlreadyInMongoCountsAsStoredWithoutASecondCreatedEvent() throws InterruptedException {
+        // The first run journals the order but cannot reach Mongo before it stops
+        doThrow(new MongoException("not reachable")).when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+        writeBehind = writeBehind();
+        writeBehind.insert(order("0FJ7Q2M1K80A6"));
+        writeBehind.destroy();
+
+        // It had in fact been inserted; the restart finds it there
+        doThrow(duplicateKey()).when(collection).insertMany(anyList(), any(InsertManyOptions.class));
+        writeBehind = writeBehind();
+        writeBehind.awaitStored("0FJ7Q2M1K80A6");
+
+        assertNull(writeBehind.pending("0FJ7Q2M1K80A6"));
+        assertEquals(1, gauge("stored"));
+        assertEquals(0, gauge("rejected"));
+        verify(eventPublisher, never()).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    private OrderWriteBehind writeBehind() {
+        // A registry per instance: gauges stay bound to the instance that registered them first
+        registry = new SimpleMeterRegistry();
+        return new OrderWriteBehind(mongoTemplate, eventPublisher, new MetricsService(registry, "order-service"),
+                new LogSampler(10, Duration.ofSeconds(1)), dir, DataSize.ofKilobytes(64), 4, false,
+                Duration.ofSeconds(5), 100);
+    }
+
+    private double gauge(String name) {
+        return registry.get("order-service.order.write-behind." + name).gauge().value();
+    }
+
+    private static MongoBulkWriteException duplicateKey() {
+        return new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoTemplate mongoTemplate(MongoCollection<RawBsonDocument> raw) {
+        MongoCustomConversions conversions = new MongoCustomConversions(
+                MoneyConverters.converters(Money.DEFAULT_CURRENCY, MoneyStorage.DECIMAL128));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        MongoCollection<Document> orders = mock(MongoCollection.class);
+        when(orders.withDocumentClass(RawBsonDocument.class)).thenReturn(raw);
+        when(orders.getCodecRegistry()).thenReturn(MongoClientSettings.getDefaultCodecRegistry());
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoTemplate.getCollection("orders")).thenReturn(orders);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        return mongoTemplate;
+    }
+
+    private static Order order(String id) {
+        Money price = Money.parse("10.00", Money.DEFAULT_CURRENCY);
+        Order order = new Order("Laptop", 1, price, price, "customer@example.com", OrderStatus.PENDING,
+                LocalDateTime.now(), LocalDateTime.now());
+        order.setId(id);
+        order.setVersion(0L);
+        return order;
+    }
+}
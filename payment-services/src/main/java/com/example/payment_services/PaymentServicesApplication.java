@@ -2,8 +2,10 @@ package com.example.payment_services;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ComponentScan;
 
 @SpringBootApplication
+@ComponentScan(basePackages = {"com.example.payment_services", "com.example.commonlibrary"})
 public class PaymentServicesApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,39 @@
+package com.example.payment_services.config;
+
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.retry.RetryTopics;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    /**
+     * Payment events are keyed by orderId, like order events, so an order's
+     * payment outcome is consumed in order with the rest of its events.
+     */
+    @Bean
+    public NewTopic paymentEventsTopic(@Value("${payments.kafka.payment-events.partitions:12}") int partitions) {
+        return TopicBuilder.name(Topics.PAYMENT_EVENTS)
+                .partitions(partitions)
+                .replicas(1)
+                .config("compression.type", "producer")
+                .build();
+    }
+
+    /**
+     * Retry tiers and dead-letter topic for order events this service failed to process,
+     * partitioned like order-events itself.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "common.kafka.retry.enabled", havingValue = "true", matchIfMissing = true)
+    public KafkaAdmin.NewTopics orderEventsRetryTopics(RetryTopics retryTopics,
+                                                       @Value("${payments.kafka.order-events.partitions:12}") int partitions) {
+        return retryTopics.newTopics(Topics.ORDER_EVENTS, partitions);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.payment_services.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PaymentConsumerConfig {
+
+    private static final String THREAD_NAME_PREFIX = "payment-partition-";
+
+    /**
+     * Runs the partitions of a polled batch in parallel.
+     * Callers wait for their own work, so the queue only fills when every listener
+     * thread is busy; CallerRuns then processes the partition on the listener thread.
+     * In virtual-thread mode each partition gets its own virtual thread instead, and the
+     * concurrency limit blocks the listener once {@code threads} bulk writes are in flight.
+     */
+    @Bean
+    public AsyncTaskExecutor paymentPartitionExecutor(
+            @Value("${payments.processing.threads:8}") int threads,
+            Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
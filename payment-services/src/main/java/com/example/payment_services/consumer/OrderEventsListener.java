@@ -0,0 +1,51 @@
+package com.example.payment_services.consumer;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.commonlibrary.retry.RetryTierContainerPostProcessor;
+import com.example.payment_services.service.PaymentBatchProcessor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Batch listener for order events (payments-group).
+ * Offsets are committed once per batch, after the listener returns (ack-mode: batch).
+ * Failures do not hold the partition: they are retried through the retry-tier topics.
+ */
+@Component
+public class OrderEventsListener {
+
+    private final PaymentBatchProcessor paymentBatchProcessor;
+    private final FailedRecordRouter failedRecordRouter;
+
+    public OrderEventsListener(PaymentBatchProcessor paymentBatchProcessor, FailedRecordRouter failedRecordRouter) {
+        this.paymentBatchProcessor = paymentBatchProcessor;
+        this.failedRecordRouter = failedRecordRouter;
+    }
+
+    @KafkaListener(id = "payments-order-events", topics = Topics.ORDER_EVENTS,
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            autoStartup = "${payments.consumer.auto-startup:true}")
+    public void onOrderEvents(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        paymentBatchProcessor.process(records);
+    }
+
+    /**
+     * Order events that failed before, from every retry tier. Records wait in their tier
+     * until due (their partition is paused meanwhile) and then take the same path as
+     * fresh events, so failing again moves them one tier further.
+     */
+    @KafkaListener(id = "payments-order-events-retry",
+            topics = "#{@retryTopics.tierTopics('" + Topics.ORDER_EVENTS + "')}",
+            groupId = "${spring.kafka.consumer.group-id}", batch = "true",
+            containerPostProcessor = RetryTierContainerPostProcessor.BEAN_NAME,
+            autoStartup = "${payments.consumer.auto-startup:true}")
+    public void onOrderEventRetries(List<ConsumerRecord<String, OrderCreatedEvent>> records, Consumer<?, ?> consumer) {
+        failedRecordRouter.processDue(records, consumer, paymentBatchProcessor::process);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.payment_services.model;
+
+import com.example.commonlibrary.money.Money;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+
+@Document(collection = "payments")
+public class Payment {
+    // One payment per order: the order id doubles as _id, so redelivered events are no-ops
+    @Id
+    private String id;
+
+    private String orderId;
+    private String eventId;
+    private Money amount;
+    private String customerEmail;
+    private String status; // COMPLETED, FAILED
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Payment(String orderId, String eventId, Money amount, String customerEmail, String status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = orderId;
+        this.orderId = orderId;
+        this.eventId = eventId;
+        this.amount = amount;
+        this.customerEmail = customerEmail;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.payment_services.service;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.metrics.service.OperationMeters;
+import com.example.commonlibrary.metrics.service.OperationSample;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.payment_services.model.Payment;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Turns a polled batch of order events into payments.
+ * A partition whose write fails is handed to {@link FailedRecordRouter} and retried on the side.
+ * Records are split by partition; partitions are processed concurrently, records within a
+ * partition in offset order. Order events are keyed by orderId, so this keeps per-order
+ * ordering while using every core. The call returns only when every partition's bulk write
+ * has completed and its payment events have been acknowledged, so the container can commit
+ * the batch's offsets in one go.
+ */
+@Service
+public class PaymentBatchProcessor {
+    private static final Logger log = LoggerFactory.getLogger(PaymentBatchProcessor.class);
+
+    private final PaymentBulkWriter paymentBulkWriter;
+    private final PaymentEventPublisher paymentEventPublisher;
+    private final Executor partitionExecutor;
+    private final FailedRecordRouter failedRecordRouter;
+    private final OperationMeters batchMetrics;
+    private final LogSampler.Site skippedLog;
+
+    public PaymentBatchProcessor(PaymentBulkWriter paymentBulkWriter,
+                                 PaymentEventPublisher paymentEventPublisher,
+                                 @Qualifier("paymentPartitionExecutor") Executor partitionExecutor,
+                                 FailedRecordRouter failedRecordRouter,
+                                 MetricsService metricsService,
+                                 LogSampler logSampler) {
+        this.paymentBulkWriter = paymentBulkWriter;
+        this.paymentEventPublisher = paymentEventPublisher;
+        this.partitionExecutor = partitionExecutor;
+        this.failedRecordRouter = failedRecordRouter;
+        this.batchMetrics = metricsService.operation("process-payment-batch");
+        this.skippedLog = logSampler.site("order-event-skipped");
+    }
+
+    /**
+     * Processes one polled batch and returns the number of payments newly recorded.
+     */
+    public int process(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        try (OperationSample sample = batchMetrics.start()) {
+            Map<Integer, List<ConsumerRecord<String, OrderCreatedEvent>>> byPartition = new LinkedHashMap<>();
+            for (ConsumerRecord<String, OrderCreatedEvent> record : records) {
+                byPartition.computeIfAbsent(record.partition(), p -> new ArrayList<>()).add(record);
+            }
+
+            int recorded;
+            if (byPartition.size() == 1) {
+                recorded = processPartition(records);
+            } else {
+                List<CompletableFuture<Integer>> partitions = new ArrayList<>(byPartition.size());
+                for (List<ConsumerRecord<String, OrderCreatedEvent>> partitionRecords : byPartition.values()) {
+                    partitions.add(CompletableFuture.supplyAsync(() -> processPartition(partitionRecords), partitionExecutor));
+                }
+                recorded = 0;
+                for (CompletableFuture<Integer> partition : partitions) {
+                    recorded += partition.join();
+                }
+            }
+            sample.success();
+            if (log.isDebugEnabled()) {
+                log.debug("Processed batch of {} order events across {} partitions, {} new payments",
+                        records.size(), byPartition.size(), recorded);
+            }
+            return recorded;
+        }
+    }
+
+    /**
+     * Writes one partition's payments and publishes their events. If that fails, the records go
+     * to a retry tier (or the dead-letter topic) instead, so the partition moves on; the upsert
+     * and the events are idempotent, so a retry after a partial write is safe.
+     */
+    private int processPartition(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        try {
+            return writeAndPublish(records);
+        } catch (RuntimeException e) {
+            log.warn("Payment batch of {} records on partition {} failed, routing to retry: {}",
+                    records.size(), records.get(0).partition(), e.toString());
+            failedRecordRouter.routeAll(records, e).join();
+            return 0;
+        }
+    }
+
+    private int writeAndPublish(List<ConsumerRecord<String, OrderCreatedEvent>> records) {
+        List<Payment> payments = new ArrayList<>(records.size());
+        List<Long> origins = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, OrderCreatedEvent> record : records) {
+            OrderCreatedEvent event = record.value();
+            if (event == null || event.getOrderId() == null) {
+                if (skippedLog.tryAcquire()) {
+                    log.warn("Skipping order event without an order id at offset {}-{} ({} more not logged)",
+                            record.partition(), record.offset(), skippedLog.takeSuppressed());
+                }
+                continue;
+            }
+            payments.add(toPayment(event));
+            origins.add(EventHeaders.originCreatedAt(record));
+        }
+        int recorded = paymentBulkWriter.upsertAll(payments);
+        // Published for redelivered payments too: their events may not have gone out before
+        paymentEventPublisher.publish(payments, origins).join();
+        return recorded;
+    }
+
+    private Payment toPayment(OrderCreatedEvent event) {
+        Money amount = event.getTotalAmount();
+        String status = amount != null && amount.isPositive() ? "COMPLETED" : "FAILED";
+        LocalDateTime now = LocalDateTime.now();
+        return new Payment(event.getOrderId(), event.getEventId(), amount, event.getCustomerEmail(), status, now, now);
+    }
+}
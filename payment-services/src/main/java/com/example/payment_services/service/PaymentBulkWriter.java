@@ -0,0 +1,48 @@
+package com.example.payment_services.service;
+
+import com.example.payment_services.model.Payment;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes payments to paymentsdb with one bulk request per call.
+ * Payments are upserted on their order id with $setOnInsert, so a redelivered
+ * event never overwrites the payment that was already recorded.
+ */
+@Component
+public class PaymentBulkWriter {
+
+    private final MongoTemplate mongoTemplate;
+
+    public PaymentBulkWriter(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Upserts the payments in list order and returns how many were new.
+     */
+    public int upsertAll(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Payment.class);
+        for (Payment payment : payments) {
+            Update update = new Update()
+                    .setOnInsert("orderId", payment.getOrderId())
+                    .setOnInsert("eventId", payment.getEventId())
+                    .setOnInsert("amount", payment.getAmount())
+                    .setOnInsert("customerEmail", payment.getCustomerEmail())
+                    .setOnInsert("status", payment.getStatus())
+                    .setOnInsert("createdAt", payment.getCreatedAt())
+                    .setOnInsert("updatedAt", payment.getUpdatedAt());
+            bulk.upsert(Query.query(Criteria.where("_id").is(payment.getId())), update);
+        }
+        return bulk.execute().getUpserts().size();
+    }
+}
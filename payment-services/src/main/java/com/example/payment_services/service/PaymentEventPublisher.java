@@ -0,0 +1,56 @@
+package com.example.payment_services.service;
+
+import com.example.commonlibrary.events.EventHeaders;
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.payment_services.model.Payment;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes a {@link PaymentProcessedEvent} per recorded payment, keyed by orderId.
+ * The eventId is derived from the order, so re-publishing after a redelivered order
+ * event produces the same id and consumers drop the duplicate.
+ */
+@Component
+public class PaymentEventPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public PaymentEventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    /**
+     * Sends one event per payment; the future completes when the broker has acknowledged all of them.
+     * {@code originCreatedAt} holds, per payment, the flow's origin time from the order event it came
+     * from (see {@link EventHeaders}), so downstream services can measure end-to-end latency.
+     */
+    public CompletableFuture<Void> publish(List<Payment> payments, List<Long> originCreatedAt) {
+        long now = System.currentTimeMillis();
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[payments.size()];
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            sends[i] = kafkaTemplate.send(EventHeaders.producerRecord(
+                    Topics.PAYMENT_EVENTS, payment.getOrderId(), toEvent(payment), now, originCreatedAt.get(i)));
+        }
+        return CompletableFuture.allOf(sends);
+    }
+
+    static PaymentProcessedEvent toEvent(Payment payment) {
+        return PaymentProcessedEvent.builder()
+                .eventId(UUID.nameUUIDFromBytes(("payment:" + payment.getOrderId()).getBytes(StandardCharsets.UTF_8)).toString())
+                .orderId(payment.getOrderId())
+                .amount(payment.getAmount())
+                .customerEmail(payment.getCustomerEmail())
+                .status(payment.getStatus())
+                .occurredAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.payment_services.streams;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.events.binary.BinaryEventSerde;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Joined;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.kafka.config.TopicBuilder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kafka Streams topology that joins each payment event with its order, so consumers get
+ * {@link OrderPaymentEvent}s on order-payment-events instead of looking orders up in Mongo
+ * or calling orders-service.
+ * <p>
+ * Orders are materialized from order-events into a local RocksDB key-value store
+ * ({@value #ORDERS_STORE}), and every payment event is joined against it by orderId. Both topics
+ * are keyed by orderId and must have the same number of partitions, so each stream task holds
+ * the orders of exactly the payments it sees. The store survives restarts on disk, under
+ * {@code spring.kafka.streams.state-dir}; with {@code topology.optimization=all} it is restored
+ * from order-events itself rather than from a changelog topic of its own. Standby replicas
+ * ({@code num.standby.replicas}) keep warm copies on other instances, so a failed-over task
+ * resumes without replaying the topic.
+ * <p>
+ * A payment whose order is not in the store is still passed on, without the order fields.
+ * The output keeps the payment event's headers, so downstream latency is measured from when
+ * the payment was published, join included.
+ */
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "payments.streams.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderPaymentJoin {
+    private static final Logger log = LoggerFactory.getLogger(OrderPaymentJoin.class);
+
+    public static final String ORDERS_STORE = "orders-store";
+
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong orderMissing = new AtomicLong();
+
+    public OrderPaymentJoin(MetricsService metricsService) {
+        metricsService.registerGauge("streams.order-payment.joined", "Payment events joined with their order", joined::get);
+        metricsService.registerGauge("streams.order-payment.order-missing",
+                "Payment events passed on without their order, which was not in the store", orderMissing::get);
+    }
+
+    @Bean
+    public KStream<String, OrderPaymentEvent> orderPaymentEvents(StreamsBuilder builder) {
+        return build(builder, joined, orderMissing);
+    }
+
+    /**
+     * Adds the join to {@code builder}, counting payments joined with and without their order.
+     */
+    static KStream<String, OrderPaymentEvent> build(StreamsBuilder builder, AtomicLong joined, AtomicLong orderMissing) {
+        KTable<String, OrderCreatedEvent> orders = builder.table(Topics.ORDER_EVENTS,
+                Consumed.with(Serdes.String(), BinaryEventSerde.of(OrderCreatedEvent.class)),
+                Materialized.<String, OrderCreatedEvent, KeyValueStore<Bytes, byte[]>>as(ORDERS_STORE)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(BinaryEventSerde.of(OrderCreatedEvent.class)));
+
+        KStream<String, OrderPaymentEvent> enriched = builder
+                .stream(Topics.PAYMENT_EVENTS, Consumed.with(Serdes.String(), BinaryEventSerde.of(PaymentProcessedEvent.class)))
+                .leftJoin(orders, (payment, order) -> {
+                    (order != null ? joined : orderMissing).incrementAndGet();
+                    return OrderPaymentEvent.of(payment, order);
+                }, Joined.with(Serdes.String(), BinaryEventSerde.of(PaymentProcessedEvent.class),
+                        BinaryEventSerde.of(OrderCreatedEvent.class)));
+        enriched.to(Topics.ORDER_PAYMENT_EVENTS, Produced.with(Serdes.String(), BinaryEventSerde.of(OrderPaymentEvent.class)));
+        return enriched;
+    }
+
+    /**
+     * Keyed by orderId like its inputs, and partitioned like payment-events.
+     */
+    @Bean
+    public NewTopic orderPaymentEventsTopic(@Value("${payments.kafka.order-payment-events.partitions:12}") int partitions) {
+        return TopicBuilder.name(Topics.ORDER_PAYMENT_EVENTS)
+                .partitions(partitions)
+                .replicas(1)
+                .config("compression.type", "producer")
+                .build();
+    }
+
+    /**
+     * Replaces a stream thread that dies instead of stopping the whole client; this also covers
+     * starting before order-events exists, which fails the first rebalance.
+     */
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer orderPaymentJoinConfigurer() {
+        return factoryBean -> {
+            factoryBean.setStreamsUncaughtExceptionHandler(e -> {
+                log.warn("Order-payment join stream thread failed, replacing it: {}", e.getMessage());
+                return StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse.REPLACE_THREAD;
+            });
+            factoryBean.setStateListener((newState, oldState) ->
+                    log.info("Order-payment join {} -> {}", oldState, newState));
+        };
+    }
+}
@@ -3,7 +3,11 @@ package com.example.payment_services;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+		"payments.consumer.auto-startup=false",
+		"spring.kafka.admin.auto-create=false",
+		"spring.kafka.streams.auto-startup=false"
+})
 class PaymentServicesApplicationTests {
 
 	@Test
@@ -0,0 +1,203 @@
+package com.example.payment_services.consumer;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.events.binary.BinaryEventDeserializer;
+import com.example.commonlibrary.events.binary.BinaryEventSerializer;
+import com.example.commonlibrary.logging.LogSampler;
+import com.example.commonlibrary.metrics.service.MetricsService;
+import com.example.commonlibrary.money.Money;
+import com.example.commonlibrary.retry.FailedRecordRouter;
+import com.example.commonlibrary.retry.RetryTopics;
+import com.example.payment_services.model.Payment;
+import com.example.payment_services.service.PaymentBatchProcessor;
+import com.example.payment_services.service.PaymentBulkWriter;
+import com.example.payment_services.service.PaymentEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the payments batch pipeline against an embedded broker and reports events/sec
+ * for a few max.poll.records / concurrency combinations. Mongo is replaced by an
+ * in-memory writer so the numbers reflect the consumer side only.
+ * Set -Dpayments.throughput.events=N for a longer run.
+ */
+@EmbeddedKafka(partitions = 12, topics = Topics.ORDER_EVENTS)
+class OrderEventsThroughputTest {
+
+    private static final int EVENTS = Integer.getInteger("payments.throughput.events", 20_000);
+    private static final int ORDERS = EVENTS / 4;
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void produceEvents(EmbeddedKafkaBroker embeddedKafka) {
+        broker = embeddedKafka;
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryEventSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        DefaultKafkaProducerFactory<String, OrderCreatedEvent> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        KafkaTemplate<String, OrderCreatedEvent> template = new KafkaTemplate<>(producerFactory);
+
+        Money price = Money.parse("10.00", Money.DEFAULT_CURRENCY);
+        // Several events per order, so per-order ordering can be checked
+        for (int i = 0; i < EVENTS; i++) {
+            String orderId = "order-" + (i % ORDERS);
+            OrderCreatedEvent event = OrderCreatedEvent.builder()
+                    .eventId(String.valueOf(i))
+                    .orderId(orderId)
+                    .productName("Laptop")
+                    .quantity(1)
+                    .price(price)
+                    .totalAmount(price)
+                    .customerEmail("customer@example.com")
+                    .status("PENDING")
+                    .occurredAt(Instant.now())
+                    .build();
+            template.send(Topics.ORDER_EVENTS, orderId, event);
+        }
+        template.flush();
+        producerFactory.destroy();
+    }
+
+    @Test
+    void reportsThroughputForBatchSizesAndConcurrency() throws Exception {
+        int[] batchSizes = {100, 500, 2000};
+        int[] concurrencies = {1, 3, 6};
+        for (int batchSize : batchSizes) {
+            for (int concurrency : concurrencies) {
+                double eventsPerSecond = run(batchSize, concurrency);
+                System.out.printf("payments throughput: max.poll.records=%-5d concurrency=%d -> %,.0f events/sec%n",
+                        batchSize, concurrency, eventsPerSecond);
+            }
+        }
+    }
+
+    private double run(int batchSize, int concurrency) throws Exception {
+        CountingWriter writer = new CountingWriter();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.initialize();
+        MetricsService metricsService = new MetricsService(new SimpleMeterRegistry(), "payment-service");
+        // Nothing fails here, so the router never sends
+        FailedRecordRouter router = new FailedRecordRouter(null,
+                new RetryTopics("throughput", 3, Duration.ofSeconds(1), 4, Duration.ofMinutes(1)), null, metricsService);
+        PaymentBatchProcessor processor = new PaymentBatchProcessor(writer, new NoopPublisher(), executor, router, metricsService,
+                new LogSampler(10, Duration.ofSeconds(1)));
+
+        Map<String, Object> props = KafkaTestUtils.consumerProps("throughput-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
+
+        ContainerProperties containerProperties = new ContainerProperties(Topics.ORDER_EVENTS);
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+        AtomicLong firstBatchNanos = new AtomicLong();
+        containerProperties.setMessageListener((BatchMessageListener<String, OrderCreatedEvent>) records -> {
+            firstBatchNanos.compareAndSet(0, System.nanoTime());
+            processor.process(records);
+        });
+
+        ConcurrentMessageListenerContainer<String, OrderCreatedEvent> container =
+                new ConcurrentMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProperties);
+        container.setConcurrency(concurrency);
+        container.start();
+        try {
+            assertTrue(writer.awaitEvents(EVENTS, 60), "timed out waiting for " + EVENTS + " events");
+            long elapsedNanos = System.nanoTime() - firstBatchNanos.get();
+            assertEquals(ORDERS, writer.orders.size());
+            assertFalse(writer.outOfOrder.get(), "events for an order were processed out of order");
+            return EVENTS / (elapsedNanos / 1_000_000_000.0);
+        } finally {
+            container.stop();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Stands in for Mongo: counts payments and checks each order's events arrive in send order.
+     */
+    private static class CountingWriter extends PaymentBulkWriter {
+        private final AtomicInteger events = new AtomicInteger();
+        private final Map<String, Integer> orders = new ConcurrentHashMap<>();
+        private final AtomicBoolean outOfOrder = new AtomicBoolean();
+
+        CountingWriter() {
+            super(null);
+        }
+
+        @Override
+        public int upsertAll(List<Payment> payments) {
+            for (Payment payment : payments) {
+                int sequence = Integer.parseInt(payment.getEventId());
+                Integer previous = orders.put(payment.getOrderId(), sequence);
+                if (previous != null && previous > sequence) {
+                    outOfOrder.set(true);
+                }
+            }
+            events.addAndGet(payments.size());
+            return payments.size();
+        }
+
+        boolean awaitEvents(int expected, int timeoutSeconds) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (events.get() < expected) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(5);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Payment events are not part of this measurement.
+     */
+    private static class NoopPublisher extends PaymentEventPublisher {
+
+        NoopPublisher() {
+            super(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> publish(List<Payment> payments, List<Long> originCreatedAt) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
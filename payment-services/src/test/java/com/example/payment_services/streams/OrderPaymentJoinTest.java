@@ -0,0 +1,127 @@
+package com.example.payment_services.streams;
+
+import com.example.commonlibrary.events.OrderCreatedEvent;
+import com.example.commonlibrary.events.OrderPaymentEvent;
+import com.example.commonlibrary.events.PaymentProcessedEvent;
+import com.example.commonlibrary.events.Topics;
+import com.example.commonlibrary.events.binary.BinaryEventSerde;
+import com.example.commonlibrary.money.Money;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderPaymentJoinTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @TempDir
+    Path stateDir;
+
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong orderMissing = new AtomicLong();
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, OrderCreatedEvent> orders;
+    private TestInputTopic<String, PaymentProcessedEvent> payments;
+    private TestOutputTopic<String, OrderPaymentEvent> enriched;
+
+    @BeforeEach
+    void startDriver() {
+        StreamsBuilder builder = new StreamsBuilder();
+        OrderPaymentJoin.build(builder, joined, orderMissing);
+        Properties config = new Properties();
+        config.put(StreamsConfig.APPLICATION_ID_CONFIG, "order-payment-join-test");
+        config.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), config);
+
+        orders = driver.createInputTopic(Topics.ORDER_EVENTS, Serdes.String().serializer(),
+                BinaryEventSerde.of(OrderCreatedEvent.class).serializer());
+        payments = driver.createInputTopic(Topics.PAYMENT_EVENTS, Serdes.String().serializer(),
+                BinaryEventSerde.of(PaymentProcessedEvent.class).serializer());
+        enriched = driver.createOutputTopic(Topics.ORDER_PAYMENT_EVENTS, Serdes.String().deserializer(),
+                BinaryEventSerde.of(OrderPaymentEvent.class).deserializer());
+    }
+
+    @AfterEach
+    void closeDriver() {
+        driver.close();
+    }
+
+    @Test
+    void joinsPaymentsWithTheirOrderFromTheLocalStore() {
+        orders.pipeInput("order-1", order("order-1"));
+        payments.pipeInput("order-1", payment("order-1"));
+
+        OrderPaymentEvent event = enriched.readValue();
+        assertEquals("payment-order-1", event.getEventId());
+        assertEquals("COMPLETED", event.getPaymentStatus());
+        assertEquals(Money.of(2_500, USD), event.getAmount());
+        assertTrue(event.hasOrder());
+        assertEquals("Keyboard", event.getProductName());
+        assertEquals(2, event.getQuantity());
+        assertEquals(Money.of(5_000, USD), event.getTotalAmount());
+        assertEquals(1, joined.get());
+
+        // The table is held in a persistent (RocksDB) store, so it outlives the process
+        KeyValueStore<String, OrderCreatedEvent> store = driver.getKeyValueStore(OrderPaymentJoin.ORDERS_STORE);
+        assertTrue(store.persistent());
+        assertEquals("Keyboard", store.get("order-1").getProductName());
+    }
+
+    @Test
+    void passesOnPaymentsWhoseOrderIsUnknown() {
+        payments.pipeInput("order-2", payment("order-2"));
+
+        OrderPaymentEvent event = enriched.readValue();
+        assertEquals("order-2", event.getOrderId());
+        assertFalse(event.hasOrder());
+        assertNull(event.getProductName());
+        assertEquals(1, orderMissing.get());
+        assertEquals(0, joined.get());
+        assertTrue(enriched.isEmpty());
+    }
+
+    private static OrderCreatedEvent order(String orderId) {
+        return OrderCreatedEvent.builder()
+                .eventId("order-created-" + orderId)
+                .orderId(orderId)
+                .productName("Keyboard")
+                .quantity(2)
+                .price(Money.of(2_500, USD))
+                .totalAmount(Money.of(5_000, USD))
+                .customerEmail("customer@example.com")
+                .status("CREATED")
+                .occurredAt(Instant.parse("2026-01-01T10:00:00Z"))
+                .build();
+    }
+
+    private static PaymentProcessedEvent payment(String orderId) {
+        return PaymentProcessedEvent.builder()
+                .eventId("payment-" + orderId)
+                .orderId(orderId)
+                .amount(Money.of(2_500, USD))
+                .customerEmail("customer@example.com")
+                .status("COMPLETED")
+                .occurredAt(Instant.parse("2026-01-01T10:00:01Z"))
+                .build();
+    }
+}